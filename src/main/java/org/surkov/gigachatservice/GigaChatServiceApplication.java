@@ -8,11 +8,13 @@ import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.boot.context.event.ApplicationStartedEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.retry.annotation.EnableRetry;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import java.time.LocalDateTime;
 
 @Slf4j
 @EnableRetry
+@EnableScheduling
 @SpringBootApplication
 public class GigaChatServiceApplication {
 
@@ -1,6 +1,7 @@
 package org.surkov.gigachatservice.config;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
@@ -9,6 +10,9 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.validation.annotation.Validated;
 import org.surkov.gigachatservice.utils.SecurityUtils;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Конфигурация для GigaChat API.
  * Содержит параметры подключения к API, учетные данные и настройки ретраев.
@@ -77,6 +81,140 @@ public class GigaChatConfig {
      */
     private int retryDelayMultiplier = 2;
 
+    /**
+     * Максимальное число попыток запроса к модели (включая первую) при временных ошибках:
+     * 429, 5xx, ошибках соединения и тайм-аутах. Задержка между попытками выбирается
+     * с декоррелированным джиттером от {@code retryInitialDelayMs} с множителем
+     * {@code retryDelayMultiplier}, но не меньше значения заголовка {@code Retry-After}.
+     * Значение по умолчанию: 3.
+     */
+    private int completionRetryMaxAttempts = 3;
+
+    /**
+     * Максимальная задержка (в миллисекундах) между попытками запроса к модели.
+     * Значение по умолчанию: 10_000 мс (10 секунд).
+     */
+    private long completionRetryMaxDelayMs = 10_000;
+
+    /**
+     * Бюджет времени (в миллисекундах) на повторы одного запроса к модели,
+     * отсчитываемый от первой попытки; повтор, не укладывающийся в бюджет, не выполняется.
+     * Значение по умолчанию: 30_000 мс (30 секунд).
+     */
+    private long completionRetryTimeBudgetMs = 30_000;
+
+    /**
+     * Доля повторов относительно числа запросов, допустимая в целом по сервису.
+     * Ограничивает усиление нагрузки повторами во время сбоя внешнего API.
+     * Значение по умолчанию: 0.1 (10%).
+     */
+    private double retryBudgetRatio = 0.1;
+
+    /**
+     * Запас повторов, доступный без учета доли (для редких запросов и начала работы).
+     * Значение по умолчанию: 10.
+     */
+    private int retryBudgetMaxTokens = 10;
+
+    /**
+     * Учетные записи GigaChat API, между которыми распределяются запросы.
+     * Если список пуст, используется единственная учетная запись из {@code clientId}/{@code clientSecret}.
+     */
+    @Valid
+    private List<Credential> credentials = new ArrayList<>();
+
+    /**
+     * Время (в миллисекундах), на которое учетная запись исключается из ротации
+     * после ответа 429, если API не указал заголовок {@code Retry-After}.
+     * Значение по умолчанию: 60_000 мс (60 секунд).
+     */
+    private long credentialCooldownMs = 60_000;
+
+    /**
+     * Максимальное число запросов, ожидающих освобождения учетной записи, когда все
+     * учетные записи в ротации исчерпали лимит одновременных запросов.
+     * Значение по умолчанию: 1_000.
+     */
+    private int credentialMaxQueueSize = 1_000;
+
+    /**
+     * Максимальное время (в миллисекундах) ожидания свободной учетной записи;
+     * по его истечении запрос отклоняется с кодом 429.
+     * Значение по умолчанию: 10_000 мс (10 секунд).
+     */
+    private long credentialQueueWaitMs = 10_000;
+
+    /**
+     * Лимиты исходящих запросов по моделям на одну учетную запись: суммарный лимит модели
+     * равен лимиту, умноженному на число учетных записей в ротации.
+     * Модели без лимита не ограничиваются.
+     */
+    @Valid
+    private List<RateLimit> rateLimits = new ArrayList<>();
+
+    /**
+     * Максимальное время (в миллисекундах), которое запрос может ожидать в очереди
+     * лимита; при большем ожидании запрос сразу отклоняется с кодом 429.
+     * Значение по умолчанию: 5_000 мс (5 секунд).
+     */
+    private long rateLimitMaxWaitMs = 5_000;
+
+    /**
+     * Настройки адаптивного ограничения числа одновременных запросов к каждой модели.
+     */
+    private Concurrency concurrency = new Concurrency();
+
+    /**
+     * Настройки автоматического выключателя (circuit breaker) вызовов каждой модели.
+     */
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    /**
+     * Настройки изолированного пула HTTP-соединений каждой модели.
+     */
+    private Bulkhead bulkhead = new Bulkhead();
+
+    /**
+     * Настройки общего HTTP-клиента: диспетчер, пул соединений, HTTP/2, TLS и прогрев соединений.
+     */
+    private Connections connections = new Connections();
+
+    /**
+     * Настройки хеджирования (дублирования) медленных запросов к модели.
+     */
+    private Hedging hedging = new Hedging();
+
+    /**
+     * Настройки выбора модели для эндпоинтов с учетом задержки и доли ошибок моделей.
+     */
+    @Valid
+    private Routing routing = new Routing();
+
+    /**
+     * Настройки комплексного анализа резюме (/chat/analyze).
+     */
+    private ComplexAnalysis complexAnalysis = new ComplexAnalysis();
+
+    /**
+     * Настройки обработки ответов модели (разбор JSON и запись истории).
+     */
+    private ResponseProcessing responseProcessing = new ResponseProcessing();
+
+    /**
+     * Настройки пакетного анализа резюме.
+     */
+    private Batch batch = new Batch();
+
+    /**
+     * Настройки персистентной очереди задач асинхронного анализа.
+     */
+    private Jobs jobs = new Jobs();
+
+    /**
+     * Настройки кэша ответов модели.
+     */
+    private Cache cache = new Cache();
+
     /**
      * Логирует конфигурацию после инициализации.
      * Выполняется после создания бина для отображения
@@ -96,4 +234,702 @@ public class GigaChatConfig {
                 certPath
         );
     }
+
+    /**
+     * Учетная запись GigaChat API со своим токеном доступа и лимитом одновременных запросов.
+     */
+    @Data
+    public static class Credential {
+
+        /**
+         * Идентификатор клиента.
+         * Не может быть пустым или {@code null}.
+         */
+        @NotBlank
+        private String clientId;
+
+        /**
+         * Секретный ключ клиента.
+         * Не может быть пустым или {@code null}.
+         */
+        @NotBlank
+        private String clientSecret;
+
+        /**
+         * Максимальное число одновременных запросов по учетной записи.
+         * Для единственной учетной записи из {@code clientId}/{@code clientSecret} не ограничивается.
+         * Значение по умолчанию: 10.
+         */
+        private int maxConcurrentRequests = 10;
+    }
+
+    /**
+     * Лимит исходящих запросов к одной модели по одной учетной записи:
+     * число запросов в секунду и токенов в минуту.
+     */
+    @Data
+    public static class RateLimit {
+
+        /**
+         * Модель GigaChat, к которой применяется лимит.
+         * Не может быть пустой или {@code null}.
+         */
+        @NotBlank
+        private String model;
+
+        /**
+         * Допустимое число запросов в секунду; 0 — без ограничения.
+         * Значение по умолчанию: 0.
+         */
+        private double requestsPerSecond;
+
+        /**
+         * Допустимый всплеск запросов сверх равномерного темпа.
+         * Значение по умолчанию: 1.
+         */
+        private int burst = 1;
+
+        /**
+         * Допустимое число токенов (запрос и ответ) в минуту; 0 — без ограничения.
+         * Значение по умолчанию: 0.
+         */
+        private long tokensPerMinute;
+
+        /**
+         * Ожидаемое число токенов ответа, учитываемое вместе с токенами запроса.
+         * Значение по умолчанию: 1_000.
+         */
+        private int expectedCompletionTokens = 1_000;
+    }
+
+    /**
+     * Настройки адаптивного (AIMD) ограничения числа одновременных запросов к модели.
+     * Лимит растет на единицу за «окно» успешных ответов и уменьшается
+     * мультипликативно при ошибках перегрузки или росте средней задержки выше базовой.
+     */
+    @Data
+    public static class Concurrency {
+
+        /**
+         * Начальный лимит одновременных запросов к модели.
+         * Значение по умолчанию: 10.
+         */
+        private int initialLimit = 10;
+
+        /**
+         * Минимальный лимит.
+         * Значение по умолчанию: 1.
+         */
+        private int minLimit = 1;
+
+        /**
+         * Максимальный лимит.
+         * Значение по умолчанию: 100.
+         */
+        private int maxLimit = 100;
+
+        /**
+         * Максимальное число запросов, ожидающих освобождения лимита; сверх него запросы отклоняются.
+         * Значение по умолчанию: 50.
+         */
+        private int maxQueueSize = 50;
+
+        /**
+         * Максимальное время ожидания в очереди (в миллисекундах).
+         * Значение по умолчанию: 10_000 мс (10 секунд).
+         */
+        private long maxQueueWaitMs = 10_000;
+
+        /**
+         * Во сколько раз текущая средняя задержка ответа может превышать базовую,
+         * прежде чем лимит будет уменьшен.
+         * Значение по умолчанию: 2.0.
+         */
+        private double latencyTolerance = 2.0;
+
+        /**
+         * Множитель уменьшения лимита при перегрузке.
+         * Значение по умолчанию: 0.9.
+         */
+        private double backoffRatio = 0.9;
+    }
+
+    /**
+     * Настройки автоматического выключателя вызовов модели.
+     * Выключатель размыкается, когда доля ошибок или медленных вызовов среди последних
+     * {@code slidingWindowSize} вызовов превышает порог, и пропускает пробные вызовы
+     * по истечении {@code openStateMs}.
+     */
+    @Data
+    public static class CircuitBreaker {
+
+        /**
+         * Признак включения выключателя.
+         * Значение по умолчанию: {@code true}.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Число последних вызовов, по которым вычисляются доли ошибок и медленных вызовов.
+         * Значение по умолчанию: 20.
+         */
+        private int slidingWindowSize = 20;
+
+        /**
+         * Минимальное число вызовов в окне, после которого выключатель может разомкнуться.
+         * Значение по умолчанию: 10.
+         */
+        private int minimumCalls = 10;
+
+        /**
+         * Доля ошибок (5xx, ошибки соединения и тайм-ауты), при которой выключатель размыкается.
+         * Значение по умолчанию: 0.5.
+         */
+        private double failureRateThreshold = 0.5;
+
+        /**
+         * Доля медленных вызовов, при которой выключатель размыкается.
+         * Значение по умолчанию: 0.8.
+         */
+        private double slowCallRateThreshold = 0.8;
+
+        /**
+         * Время (в миллисекундах) до получения заголовков ответа, после которого вызов считается медленным.
+         * Значение по умолчанию: 20_000 мс (20 секунд).
+         */
+        private long slowCallThresholdMs = 20_000;
+
+        /**
+         * Время (в миллисекундах), в течение которого разомкнутый выключатель отклоняет вызовы.
+         * Значение по умолчанию: 30_000 мс (30 секунд).
+         */
+        private long openStateMs = 30_000;
+
+        /**
+         * Число пробных вызовов в полуоткрытом состоянии.
+         * Значение по умолчанию: 3.
+         */
+        private int halfOpenCalls = 3;
+    }
+
+    /**
+     * Настройки изолированного пула HTTP-соединений модели: у каждой модели собственные
+     * очередь вызовов и пул соединений HTTP-транспорта, поэтому деградация одной модели не занимает ресурсы других.
+     */
+    @Data
+    public static class Bulkhead {
+
+        /**
+         * Максимальное число одновременных HTTP-вызовов модели; остальные ждут в очереди диспетчера.
+         * Значение по умолчанию: 64.
+         */
+        private int maxRequests = 64;
+
+        /**
+         * Максимальное число простаивающих соединений в пуле модели.
+         * Значение по умолчанию: 5.
+         */
+        private int maxIdleConnections = 5;
+
+        /**
+         * Время жизни простаивающего соединения (в миллисекундах).
+         * Значение по умолчанию: 300_000 мс (5 минут).
+         */
+        private long keepAliveMs = 300_000;
+    }
+
+    /**
+     * Настройки общего HTTP-клиента, через который выполняются запросы токенов и синхронные запросы;
+     * изолированные клиенты моделей наследуют от него TLS, протоколы и тайм-ауты.
+     * Соединения с {@code apiUrl} и {@code authUrl} открываются заранее при старте и затем
+     * периодически обновляются, чтобы первые запросы после развертывания или простоя
+     * не ждали установки TCP- и TLS-соединения.
+     */
+    @Data
+    public static class Connections {
+
+        /**
+         * HTTP-библиотека исходящих вызовов.
+         * Значение по умолчанию: {@link Transport#OKHTTP}.
+         */
+        private Transport transport = Transport.OKHTTP;
+
+        /**
+         * Максимальное число одновременных асинхронных вызовов общего клиента.
+         * Значение по умолчанию: 64.
+         */
+        private int maxRequests = 64;
+
+        /**
+         * Максимальное число одновременных асинхронных вызовов общего клиента к одному хосту
+         * (по умолчанию в OkHttp — 5).
+         * Значение по умолчанию: 64.
+         */
+        private int maxRequestsPerHost = 64;
+
+        /**
+         * Максимальное число простаивающих соединений в пуле общего клиента.
+         * Значение по умолчанию: 5.
+         */
+        private int maxIdleConnections = 5;
+
+        /**
+         * Время жизни простаивающего соединения общего клиента (в миллисекундах).
+         * Значение по умолчанию: 300_000 мс (5 минут).
+         */
+        private long keepAliveMs = 300_000;
+
+        /**
+         * Признак использования HTTP/2 (согласуется через ALPN, если сервер его поддерживает);
+         * при {@code false} используется только HTTP/1.1.
+         * Значение по умолчанию: {@code true}.
+         */
+        private boolean http2Enabled = true;
+
+        /**
+         * Размер кэша TLS-сессий клиента, используемых для возобновления сессии без полного рукопожатия.
+         * Значение по умолчанию: 1_000.
+         */
+        private int tlsSessionCacheSize = 1_000;
+
+        /**
+         * Время жизни TLS-сессии в кэше (в секундах).
+         * Значение по умолчанию: 86_400 с (24 часа).
+         */
+        private int tlsSessionTimeoutSeconds = 86_400;
+
+        /**
+         * Признак прогрева соединений с {@code apiUrl} и {@code authUrl}.
+         * Значение по умолчанию: {@code true}.
+         */
+        private boolean warmupEnabled = true;
+
+        /**
+         * Интервал повторного прогрева (в миллисекундах); должен быть меньше времени жизни
+         * простаивающего соединения, чтобы соединение не закрывалось между запросами.
+         * Значение по умолчанию: 240_000 мс (4 минуты).
+         */
+        private long warmupIntervalMs = 240_000;
+
+        /**
+         * HTTP-библиотека исходящих вызовов.
+         */
+        public enum Transport {
+            /**
+             * OkHttp.
+             */
+            OKHTTP,
+            /**
+             * {@code java.net.http.HttpClient} из JDK.
+             */
+            JDK
+        }
+    }
+
+    /**
+     * Настройки хеджирования запросов: если ответ модели не получен за время,
+     * соответствующее процентилю {@code percentile} ее недавних задержек,
+     * отправляется второй такой же запрос, и используется ответ, пришедший первым.
+     */
+    @Data
+    public static class Hedging {
+
+        /**
+         * Признак включения хеджирования.
+         * Значение по умолчанию: {@code false}.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Процентиль задержки модели, после которого отправляется дублирующий запрос.
+         * Значение по умолчанию: 0.95.
+         */
+        private double percentile = 0.95;
+
+        /**
+         * Доля дублирующих запросов относительно числа запросов (дополнительная нагрузка на API).
+         * Значение по умолчанию: 0.05 (5%).
+         */
+        private double budgetRatio = 0.05;
+
+        /**
+         * Запас дублирующих запросов, доступный без учета доли.
+         * Значение по умолчанию: 5.
+         */
+        private int budgetMaxTokens = 5;
+
+        /**
+         * Число последних задержек модели, по которым вычисляется процентиль.
+         * Значение по умолчанию: 200.
+         */
+        private int windowSize = 200;
+
+        /**
+         * Минимальное число измерений задержки, после которого включается хеджирование модели.
+         * Значение по умолчанию: 20.
+         */
+        private int minSamples = 20;
+
+        /**
+         * Минимальная задержка (в миллисекундах) перед отправкой дублирующего запроса.
+         * Значение по умолчанию: 500 мс.
+         */
+        private long minDelayMs = 500;
+    }
+
+    /**
+     * Настройки маршрутизации запросов по моделям. Для каждой модели отслеживаются скользящие
+     * средние задержки ответа и доли ошибок; эндпоинт с политикой использует первую модель
+     * из своей цепочки, укладывающуюся в SLO по задержке и порог доли ошибок.
+     */
+    @Data
+    public static class Routing {
+
+        /**
+         * Признак включения маршрутизации; при отключении используются модели эндпоинтов по умолчанию.
+         * Значение по умолчанию: {@code true}.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Коэффициент сглаживания скользящих средних задержки и доли ошибок.
+         * Значение по умолчанию: 0.2.
+         */
+        private double smoothing = 0.2;
+
+        /**
+         * Доля ошибок, при превышении которой модель считается неработоспособной.
+         * Значение по умолчанию: 0.5.
+         */
+        private double errorRateThreshold = 0.5;
+
+        /**
+         * Интервал (в миллисекундах), с которым в модель, не укладывающуюся в SLO,
+         * направляется пробный запрос для проверки ее восстановления.
+         * Значение по умолчанию: 30_000 мс (30 секунд).
+         */
+        private long probeIntervalMs = 30_000;
+
+        /**
+         * Политики эндпоинтов. Эндпоинты без политики используют модель по умолчанию.
+         */
+        @Valid
+        private List<RoutingPolicy> policies = new ArrayList<>();
+    }
+
+    /**
+     * Политика выбора модели для эндпоинта.
+     */
+    @Data
+    public static class RoutingPolicy {
+
+        /**
+         * Эндпоинт, к которому применяется политика (например, "/chat/highlights").
+         * Не может быть пустым или {@code null}.
+         */
+        @NotBlank
+        private String endpoint;
+
+        /**
+         * Модели в порядке предпочтения: при нарушении SLO запрос переходит к следующей модели
+         * (например, GigaChat-Max → GigaChat-Pro → GigaChat), а при восстановлении возвращается.
+         */
+        private List<String> models = new ArrayList<>();
+
+        /**
+         * SLO (бюджет) по средней задержке ответа модели (в миллисекундах).
+         * Значение по умолчанию: 20_000 мс (20 секунд).
+         */
+        private long latencySloMs = 20_000;
+
+        /**
+         * Пороги выбора модели по размеру входа в порядке возрастания {@code maxInputTokens}.
+         * Запрос начинает с модели первого порога, вмещающего оценку числа его токенов,
+         * а при отсутствии такого порога — с первой модели цепочки.
+         */
+        @Valid
+        private List<RoutingTier> tiers = new ArrayList<>();
+    }
+
+    /**
+     * Настройки комплексного анализа резюме.
+     */
+    @Data
+    public static class ComplexAnalysis {
+
+        /**
+         * Способ выполнения комплексного анализа.
+         * Значение по умолчанию: {@link Engine#SINGLE}.
+         */
+        private Engine engine = Engine.SINGLE;
+
+        /**
+         * Максимальное время (в миллисекундах) ожидания одной ветви при параллельном выполнении;
+         * ветвь, не уложившаяся в него, исключается из результата.
+         * Значение по умолчанию: 30_000 мс (30 секунд).
+         */
+        private long branchTimeoutMs = 30_000;
+
+        /**
+         * Способ выполнения комплексного анализа.
+         */
+        public enum Engine {
+            /**
+             * Один запрос с общим промптом комплексного анализа.
+             */
+            SINGLE,
+            /**
+             * Параллельные запросы специализированных анализов (структура, ясность, стабильность,
+             * соответствие вакансии, достижения) с объединением результатов.
+             */
+            FAN_OUT
+        }
+    }
+
+    /**
+     * Настройки пула потоков, в котором ответ модели разбирается и записывается в историю.
+     * Эта работа выполняется вне потоков HTTP-транспорта, чтобы медленная база данных
+     * не задерживала обработку ответов и освобождение лимитов одновременных запросов.
+     */
+    @Data
+    public static class ResponseProcessing {
+
+        /**
+         * Число потоков обработки ответов.
+         * Значение по умолчанию: 4.
+         */
+        private int threads = 4;
+
+        /**
+         * Максимальное число ответов, ожидающих обработки; при переполнении очереди
+         * ответ обрабатывается в потоке, получившем его (обратное давление на транспорт).
+         * Значение по умолчанию: 1_000.
+         */
+        private int maxQueueSize = 1_000;
+    }
+
+    /**
+     * Настройки пакетного анализа резюме: ограничение параллельности внутри пакета,
+     * числа одновременно обрабатываемых пакетов и размер порции записи истории.
+     */
+    @Data
+    public static class Batch {
+
+        /**
+         * Максимальное число одновременно выполняемых запросов к модели в одном пакете.
+         * Значение по умолчанию: 8.
+         */
+        private int maxParallelism = 8;
+
+        /**
+         * Максимальное число одновременно обрабатываемых пакетов; сверх него пакет отклоняется с кодом 503.
+         * Значение по умолчанию: 4.
+         */
+        private int maxConcurrentBatches = 4;
+
+        /**
+         * Число записей истории, сохраняемых в базу одной операцией.
+         * Значение по умолчанию: 100.
+         */
+        private int historyFlushSize = 100;
+
+        /**
+         * Максимальное время обработки пакета (в миллисекундах); по его истечении
+         * необработанные элементы отменяются и соединение закрывается.
+         * Значение по умолчанию: 3_600_000 мс (1 час).
+         */
+        private long timeoutMs = 3_600_000;
+    }
+
+    /**
+     * Настройки очереди задач асинхронного анализа и ее обработчика.
+     * Обработчик выбирает задачи из таблицы с арендой на {@code leaseMs} и продлевает ее,
+     * пока задача выполняется; задача с истекшей арендой (например, после падения узла)
+     * возвращается в очередь.
+     */
+    @Data
+    public static class Jobs {
+
+        /**
+         * Признак выполнения задач на этом узле.
+         * Значение по умолчанию: {@code true}.
+         */
+        private boolean workerEnabled = true;
+
+        /**
+         * Максимальное число одновременно выполняемых задач на узле.
+         * Значение по умолчанию: 4.
+         */
+        private int workerConcurrency = 4;
+
+        /**
+         * Интервал опроса очереди (в миллисекундах).
+         * Значение по умолчанию: 1_000 мс (1 секунда).
+         */
+        private long pollIntervalMs = 1_000;
+
+        /**
+         * Срок аренды задачи (в миллисекундах).
+         * Значение по умолчанию: 60_000 мс (60 секунд).
+         */
+        private long leaseMs = 60_000;
+
+        /**
+         * Максимальное число попыток выполнения; задача, не выполненная за них,
+         * переводится в состояние {@code DEAD}.
+         * Значение по умолчанию: 3.
+         */
+        private int maxAttempts = 3;
+
+        /**
+         * Задержка перед первым повтором (в миллисекундах); удваивается с каждой попыткой.
+         * Значение по умолчанию: 5_000 мс (5 секунд).
+         */
+        private long retryDelayMs = 5_000;
+
+        /**
+         * Роль узла: прием HTTP-запросов, выполнение задач или и то и другое.
+         * Значение по умолчанию: {@link Role#ALL}.
+         */
+        private Role role = Role.ALL;
+
+        /**
+         * Интервал (в миллисекундах), с которым узел в роли {@link Role#API} проверяет
+         * завершение задач, ожидаемых синхронными запросами.
+         * Значение по умолчанию: 500 мс.
+         */
+        private long awaitPollIntervalMs = 500;
+
+        /**
+         * Максимальное время (в миллисекундах) ожидания задачи синхронным запросом на узле
+         * в роли {@link Role#API}; по его истечении задача отменяется.
+         * Значение по умолчанию: 115_000 мс (меньше таймаута асинхронного запроса Spring MVC).
+         */
+        private long awaitTimeoutMs = 115_000;
+
+        /**
+         * Роль узла.
+         */
+        public enum Role {
+            /**
+             * Узел принимает запросы и сам обращается к модели (один узел).
+             */
+            ALL,
+            /**
+             * Узел только принимает запросы и ставит их в общую очередь задач;
+             * к модели не обращается.
+             */
+            API,
+            /**
+             * Узел выполняет задачи из общей очереди.
+             */
+            WORKER
+        }
+    }
+
+    /**
+     * Порог выбора модели по размеру входа.
+     */
+    @Data
+    public static class RoutingTier {
+
+        /**
+         * Максимальная оценка числа токенов входа, при которой применяется порог.
+         */
+        private int maxInputTokens;
+
+        /**
+         * Модель для входа не больше {@code maxInputTokens}.
+         * Не может быть пустой или {@code null}.
+         */
+        @NotBlank
+        private String model;
+    }
+
+    /**
+     * Настройки кэша ответов модели, расположенного перед обращением к GigaChat API.
+     */
+    @Data
+    public static class Cache {
+
+        /**
+         * Признак включения кэша ответов.
+         * Значение по умолчанию: {@code true}.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Максимальный суммарный размер кэшированных ответов (в байтах).
+         * Значение по умолчанию: 64 МБ.
+         */
+        private long maxWeightBytes = 64L * 1024 * 1024;
+
+        /**
+         * Время жизни записи кэша с момента ее добавления (в миллисекундах).
+         * Значение по умолчанию: 21_600_000 мс (6 часов).
+         */
+        private long ttlMs = 21_600_000;
+
+        /**
+         * Настройки персистентного уровня кэша, сохраняющегося между перезапусками.
+         */
+        private Persistent persistent = new Persistent();
+
+        /**
+         * Настройки персистентного уровня кэша ответов: отображаемый в память
+         * сегментный файл с индексом вне кучи.
+         */
+        @Data
+        public static class Persistent {
+
+            /**
+             * Признак включения персистентного уровня кэша.
+             * Значение по умолчанию: {@code true}.
+             */
+            private boolean enabled = true;
+
+            /**
+             * Путь к сегментному файлу кэша.
+             * Значение по умолчанию: {@code data/response-cache.seg}.
+             */
+            private String path = "data/response-cache.seg";
+
+            /**
+             * Размер сегментного файла (в байтах), не более 2 ГБ.
+             * Значение по умолчанию: 256 МБ.
+             */
+            private int segmentSizeBytes = 256 * 1024 * 1024;
+
+            /**
+             * Начальное число ячеек хэш-индекса (округляется до степени двойки).
+             * Значение по умолчанию: 65_536.
+             */
+            private int initialIndexSlots = 65_536;
+
+            /**
+             * Размер фильтра Блума (в битах).
+             * Значение по умолчанию: 8_388_608 (1 МБ).
+             */
+            private int bloomFilterBits = 8 * 1024 * 1024;
+
+            /**
+             * Время жизни записи (в миллисекундах).
+             * Значение по умолчанию: 604_800_000 мс (7 дней).
+             */
+            private long ttlMs = 604_800_000;
+
+            /**
+             * Интервал проверки необходимости уплотнения файла (в миллисекундах).
+             * Значение по умолчанию: 600_000 мс (10 минут).
+             */
+            private long compactionIntervalMs = 600_000;
+
+            /**
+             * Доля неактуальных (перезаписанных или устаревших) данных в файле,
+             * при превышении которой выполняется уплотнение.
+             * Значение по умолчанию: 0.5.
+             */
+            private double compactionGarbageRatio = 0.5;
+        }
+    }
 }
@@ -0,0 +1,147 @@
+package org.surkov.gigachatservice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.surkov.gigachatservice.utils.transport.HttpTransport;
+import org.surkov.gigachatservice.utils.transport.JdkHttpTransport;
+import org.surkov.gigachatservice.utils.transport.OkHttpTransport;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509TrustManager;
+import java.io.File;
+import java.io.FileInputStream;
+import java.security.KeyStore;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Конфигурация HTTP-транспорта исходящих вызовов с поддержкой SSL/TLS.
+ * Реализация транспорта (OkHttp или {@code java.net.http.HttpClient}) выбирается
+ * настройкой {@code giga-chat.connections.transport}; параметры диспетчера, пула соединений,
+ * HTTP/2 и кэша TLS-сессий задаются в {@link GigaChatConfig.Connections}.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class HttpTransportConfig {
+
+    /**
+     * Тайм-аут установки соединения.
+     */
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(30);
+
+    /**
+     * Тайм-аут чтения ответа.
+     */
+    private static final Duration READ_TIMEOUT = Duration.ofSeconds(30);
+
+    private final GigaChatConfig gigaChatConfig;
+
+    /**
+     * Создает HTTP-транспорт выбранной реализации.
+     * TLS-сессии кэшируются в {@link SSLContext}, общем для всех клиентов транспорта,
+     * поэтому новые соединения возобновляют сессию без полного рукопожатия.
+     *
+     * @param meterRegistry Реестр метрик.
+     * @return настроенный HTTP-транспорт
+     */
+    @Bean
+    public HttpTransport httpTransport(MeterRegistry meterRegistry) {
+        try {
+            validateCertFile();
+            CertificateFactory cf = CertificateFactory.getInstance("X.509");
+            try (FileInputStream certInput = new FileInputStream(gigaChatConfig.getCertPath())) {
+                X509Certificate caCert = (X509Certificate) cf.generateCertificate(certInput);
+
+                KeyStore keyStore = KeyStore.getInstance(KeyStore.getDefaultType());
+                keyStore.load(null, null);
+                keyStore.setCertificateEntry("caCert", caCert);
+
+                TrustManagerFactory tmf = TrustManagerFactory.getInstance(
+                        TrustManagerFactory.getDefaultAlgorithm()
+                );
+                tmf.init(keyStore);
+
+                GigaChatConfig.Connections connections = gigaChatConfig.getConnections();
+                SSLContext sslContext = SSLContext.getInstance("TLSv1.3");
+                sslContext.init(null, tmf.getTrustManagers(), null);
+                sslContext.getClientSessionContext().setSessionCacheSize(connections.getTlsSessionCacheSize());
+                sslContext.getClientSessionContext().setSessionTimeout(connections.getTlsSessionTimeoutSeconds());
+
+                return switch (connections.getTransport()) {
+                    case OKHTTP -> new OkHttpTransport(
+                            okHttpClient(sslContext, (X509TrustManager) tmf.getTrustManagers()[0], connections),
+                            gigaChatConfig.getBulkhead(),
+                            meterRegistry
+                    );
+                    case JDK -> new JdkHttpTransport(
+                            sslContext,
+                            connections,
+                            gigaChatConfig.getBulkhead(),
+                            CONNECT_TIMEOUT,
+                            READ_TIMEOUT,
+                            meterRegistry
+                    );
+                };
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to configure HTTP transport", e);
+        }
+    }
+
+    /**
+     * Создает и настраивает общий OkHttpClient с SSL/TLS.
+     *
+     * @param sslContext   Контекст TLS с кэшем сессий.
+     * @param trustManager Менеджер доверенных сертификатов.
+     * @param connections  Настройки общего клиента.
+     * @return настроенный OkHttpClient
+     */
+    private static OkHttpClient okHttpClient(
+            SSLContext sslContext,
+            X509TrustManager trustManager,
+            GigaChatConfig.Connections connections
+    ) {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(connections.getMaxRequests());
+        dispatcher.setMaxRequestsPerHost(connections.getMaxRequestsPerHost());
+
+        return new OkHttpClient.Builder()
+                .sslSocketFactory(sslContext.getSocketFactory(), trustManager)
+                .protocols(connections.isHttp2Enabled()
+                        ? List.of(Protocol.HTTP_2, Protocol.HTTP_1_1)
+                        : List.of(Protocol.HTTP_1_1))
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(
+                        connections.getMaxIdleConnections(),
+                        connections.getKeepAliveMs(),
+                        TimeUnit.MILLISECONDS
+                ))
+                .connectTimeout(CONNECT_TIMEOUT)
+                .readTimeout(READ_TIMEOUT)
+                .build();
+    }
+
+    /**
+     * Проверяет наличие сертификата и его читаемость.
+     * Если файл не найден или отсутствует, выбрасывается исключение {@code IllegalStateException}
+     */
+    private void validateCertFile() {
+        File certFile = new File(gigaChatConfig.getCertPath());
+        if (!certFile.exists() || !certFile.canRead()) {
+            throw new IllegalStateException(
+                    "Certificate file not found or unreadable: "
+                            + gigaChatConfig.getCertPath()
+            );
+        }
+    }
+}
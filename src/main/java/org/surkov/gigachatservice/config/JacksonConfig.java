@@ -0,0 +1,25 @@
+package org.surkov.gigachatservice.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Конфигурация Jackson.
+ * Модули, объявленные бинами, Spring Boot регистрирует в ObjectMapper приложения.
+ */
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Создает модуль Blackbird: геттеры, сеттеры и конструкторы DTO вызываются через
+     * сгенерированные при старте лямбды ({@code LambdaMetafactory}), а не через рефлексию.
+     *
+     * @return модуль Blackbird
+     */
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
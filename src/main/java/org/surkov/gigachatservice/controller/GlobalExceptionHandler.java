@@ -1,6 +1,9 @@
 package org.surkov.gigachatservice.controller;
 
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -8,6 +11,12 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.surkov.gigachatservice.dto.hr_analyzer.response.ErrorResponse;
 import org.surkov.gigachatservice.exception.ApiRequestException;
 import org.surkov.gigachatservice.exception.AuthenticationException;
+import org.surkov.gigachatservice.exception.JobNotFoundException;
+import org.surkov.gigachatservice.exception.RateLimitExceededException;
+import org.surkov.gigachatservice.exception.ServiceUnavailableException;
+
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
 
 /**
  * Глобальный обработчик исключений для централизованной обработки ошибок.
@@ -25,11 +34,67 @@ public class GlobalExceptionHandler {
      * Код ошибки для проблем аутентификации при обращении к внешнему API.
      */
     private static final String AUTH_ERROR_CODE = "AUTH_ERROR";
+    /**
+     * Код ошибки для превышения лимита запросов к внешнему API.
+     */
+    private static final String RATE_LIMIT_ERROR_CODE = "RATE_LIMITED";
+    /**
+     * Код ошибки для временной недоступности внешнего API.
+     */
+    private static final String UNAVAILABLE_ERROR_CODE = "SERVICE_UNAVAILABLE";
+    /**
+     * Код ошибки для некорректных входных данных.
+     */
+    private static final String INVALID_REQUEST_ERROR_CODE = "INVALID_REQUEST";
+    /**
+     * Код ошибки для отсутствующего ресурса.
+     */
+    private static final String NOT_FOUND_ERROR_CODE = "NOT_FOUND";
     /**
      * Код ошибки для внутренних непредвиденных исключений.
      */
     private static final String INTERNAL_ERROR_CODE = "INTERNAL_ERROR";
 
+    /**
+     * Формирует ответ об ошибке для исключения, возникшего вне обычной обработки запроса
+     * (например, при асинхронной отправке событий SSE).
+     * Использует те же коды и сообщения, что и обработчики исключений этого класса.
+     *
+     * @param e Исключение, для которого формируется ответ. Обертки {@link CompletionException} раскрываются.
+     * @return Ответ с HTTP-статусом и телом ошибки.
+     */
+    public ResponseEntity<ErrorResponse> resolve(Throwable e) {
+        Throwable cause = e;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof ApiRequestException apiRequestException) {
+            return handleApiRequestException(apiRequestException);
+        }
+        if (cause instanceof AuthenticationException authenticationException) {
+            return handleAuthenticationException(authenticationException);
+        }
+        if (cause instanceof RateLimitExceededException rateLimitExceededException) {
+            return handleRateLimitExceededException(rateLimitExceededException);
+        }
+        if (cause instanceof ServiceUnavailableException serviceUnavailableException) {
+            return handleServiceUnavailableException(serviceUnavailableException);
+        }
+        if (cause instanceof JobNotFoundException jobNotFoundException) {
+            return handleJobNotFoundException(jobNotFoundException);
+        }
+        if (cause instanceof ConstraintViolationException constraintViolationException) {
+            return handleConstraintViolationException(constraintViolationException);
+        }
+        if (cause instanceof RuntimeJsonMappingException runtimeJsonMappingException) {
+            return handleRuntimeJsonMappingException(runtimeJsonMappingException);
+        }
+        if (cause instanceof Exception exception) {
+            return handleGenericException(exception);
+        }
+        return handleGenericException(new IllegalStateException(cause));
+    }
+
     /**
      * Обрабатывает исключения запросов к внешнему API GigaChat.
      * Возвращает ошибку 502 Bad Gateway с соответствующим сообщением.
@@ -60,6 +125,82 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
     }
 
+    /**
+     * Обрабатывает превышение лимита запросов к GigaChat API.
+     * Возвращает ошибку 429 Too Many Requests с заголовком Retry-After.
+     */
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ErrorResponse> handleRateLimitExceededException(RateLimitExceededException e) {
+        log.warn("Превышен лимит запросов к GigaChat API: {}", e.getMessage());
+        ErrorResponse error = new ErrorResponse(
+                new ErrorResponse.ErrorDetail(
+                        RATE_LIMIT_ERROR_CODE, "Превышен лимит запросов к GigaChat API. Повторите запрос позже."
+                )
+        );
+        long retryAfterSeconds = Math.max(1, (e.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(error);
+    }
+
+    /**
+     * Обрабатывает отказ от запроса к перегруженному или деградировавшему GigaChat API.
+     * Возвращает ошибку 503 Service Unavailable.
+     */
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleServiceUnavailableException(ServiceUnavailableException e) {
+        log.warn("GigaChat API временно недоступен: {}", e.getMessage());
+        ErrorResponse error = new ErrorResponse(
+                new ErrorResponse.ErrorDetail(
+                        UNAVAILABLE_ERROR_CODE, "Сервис GigaChat временно перегружен. Повторите запрос позже."
+                )
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+    }
+
+    /**
+     * Обрабатывает обращение к несуществующей задаче анализа.
+     * Возвращает ошибку 404 Not Found с кодом NOT_FOUND.
+     */
+    @ExceptionHandler(JobNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleJobNotFoundException(JobNotFoundException e) {
+        log.debug("{}", e.getMessage());
+        ErrorResponse error = new ErrorResponse(
+                new ErrorResponse.ErrorDetail(NOT_FOUND_ERROR_CODE, e.getMessage())
+        );
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+    }
+
+    /**
+     * Обрабатывает нарушения ограничений Bean Validation (например, в элементе пакетного анализа).
+     * Возвращает ошибку 400 Bad Request с перечнем нарушенных ограничений.
+     */
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<ErrorResponse> handleConstraintViolationException(ConstraintViolationException e) {
+        log.warn("Некорректные входные данные: {}", e.getMessage());
+        String message = e.getConstraintViolations().stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+        ErrorResponse error = new ErrorResponse(
+                new ErrorResponse.ErrorDetail(INVALID_REQUEST_ERROR_CODE, message)
+        );
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    /**
+     * Обрабатывает ошибки чтения JSON из потока входных данных (например, в NDJSON-пакете).
+     * Возвращает ошибку 400 Bad Request с кодом INVALID_REQUEST.
+     */
+    @ExceptionHandler(RuntimeJsonMappingException.class)
+    public ResponseEntity<ErrorResponse> handleRuntimeJsonMappingException(RuntimeJsonMappingException e) {
+        log.warn("Некорректный JSON во входных данных: {}", e.getMessage());
+        ErrorResponse error = new ErrorResponse(
+                new ErrorResponse.ErrorDetail(INVALID_REQUEST_ERROR_CODE, "Некорректный JSON во входных данных")
+        );
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
     /**
      * Обрабатывает прочие непредвиденные исключения.
      * Возвращает ошибку 500 Internal Server Error с кодом INTERNAL_ERROR.
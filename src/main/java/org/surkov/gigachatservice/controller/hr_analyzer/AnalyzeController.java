@@ -2,10 +2,13 @@ package org.surkov.gigachatservice.controller.hr_analyzer;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.surkov.gigachatservice.controller.hr_analyzer.api.AnalyzeApi;
 import org.surkov.gigachatservice.dto.hr_analyzer.request.AnalyzeRequest;
 import org.surkov.gigachatservice.dto.hr_analyzer.response.AnalyzeResponse;
@@ -21,6 +24,9 @@ import org.surkov.gigachatservice.dto.hr_analyzer.request.StructureRequest;
 import org.surkov.gigachatservice.dto.hr_analyzer.response.StructureResponse;
 import org.surkov.gigachatservice.service.hr_analyzer.AnalyzeService;
 
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Основной контроллер для обработки REST-запросов анализа резюме.
  * Реализует все конечные точки, описанные в документации GigaChatService.
@@ -40,17 +46,27 @@ public class AnalyzeController implements AnalyzeApi {
      */
     private final AnalyzeService analyzeService;
 
+    /**
+     * Компонент, транслирующий потоковые ответы модели клиенту через SSE.
+     */
+    private final SseResponseStreamer sseResponseStreamer;
+
+    /**
+     * Компонент, транслирующий результаты пакетного анализа клиенту в формате NDJSON.
+     */
+    private final NdjsonBatchStreamer ndjsonBatchStreamer;
+
     /**
      * Комплексный анализ резюме.
      * Принимает резюме и опционально вакансию, возвращает агрегированные метрики качества резюме.
      *
      * @param request Объект {@link AnalyzeRequest}, содержащий данные для анализа.
-     * @return Ответ {@link AnalyzeResponse}, содержащий результаты комплексного анализа.
+     * @return Future с ответом {@link AnalyzeResponse}, содержащим результаты комплексного анализа.
      */
     @Override
-    public ResponseEntity<AnalyzeResponse> analyze(final AnalyzeRequest request) {
-        AnalyzeResponse result = analyzeService.analyzeComplex(request);
-        return ResponseEntity.ok(result);
+    public CompletableFuture<ResponseEntity<AnalyzeResponse>> analyze(final AnalyzeRequest request) {
+        return analyzeService.analyzeComplex(request)
+                .thenApply(ModelResponses::ok);
     }
 
     /**
@@ -58,12 +74,12 @@ public class AnalyzeController implements AnalyzeApi {
      * Проверяет наличие всех ключевых разделов в тексте резюме.
      *
      * @param request Объект {@link StructureRequest}, содержащий данные для анализа структуры.
-     * @return Ответ {@link StructureResponse}, содержащий результаты анализа структуры резюме.
+     * @return Future с ответом {@link StructureResponse}, содержащим результаты анализа структуры резюме.
      */
     @Override
-    public ResponseEntity<StructureResponse> structure(final StructureRequest request) {
-        StructureResponse result = analyzeService.analyzeStructure(request);
-        return ResponseEntity.ok(result);
+    public CompletableFuture<ResponseEntity<StructureResponse>> structure(final StructureRequest request) {
+        return analyzeService.analyzeStructure(request)
+                .thenApply(ModelResponses::ok);
     }
 
     /**
@@ -71,12 +87,12 @@ public class AnalyzeController implements AnalyzeApi {
      * Находит нечеткие, клишированные фразы и дает рекомендации по их улучшению.
      *
      * @param request Объект {@link ClarityRequest}, содержащий данные для анализа ясности изложения.
-     * @return Ответ {@link ClarityResponse}, содержащий результаты анализа ясности изложения.
+     * @return Future с ответом {@link ClarityResponse}, содержащим результаты анализа ясности изложения.
      */
     @Override
-    public ResponseEntity<ClarityResponse> clarity(final ClarityRequest request) {
-        ClarityResponse result = analyzeService.analyzeClarity(request);
-        return ResponseEntity.ok(result);
+    public CompletableFuture<ResponseEntity<ClarityResponse>> clarity(final ClarityRequest request) {
+        return analyzeService.analyzeClarity(request)
+                .thenApply(ModelResponses::ok);
     }
 
     /**
@@ -84,12 +100,12 @@ public class AnalyzeController implements AnalyzeApi {
      * Оценивает хронологию карьеры и выявляет потенциальные риски в стабильности.
      *
      * @param request Объект {@link StabilityRequest}, содержащий данные для анализа стабильности карьерного пути.
-     * @return Ответ {@link StabilityResponse}, содержащий результаты анализа стабильности карьерного пути.
+     * @return Future с ответом {@link StabilityResponse}, содержащим результаты анализа стабильности карьерного пути.
      */
     @Override
-    public ResponseEntity<StabilityResponse> stability(final StabilityRequest request) {
-        StabilityResponse result = analyzeService.analyzeStability(request);
-        return ResponseEntity.ok(result);
+    public CompletableFuture<ResponseEntity<StabilityResponse>> stability(final StabilityRequest request) {
+        return analyzeService.analyzeStability(request)
+                .thenApply(ModelResponses::ok);
     }
 
     /**
@@ -97,12 +113,12 @@ public class AnalyzeController implements AnalyzeApi {
      * Сравнивает резюме с описанием вакансии или желаемой должностью.
      *
      * @param request Объект {@link MatchRequest}, содержащий данные для проверки соответствия вакансии.
-     * @return Ответ {@link MatchResponse}, содержащий результаты проверки соответствия вакансии.
+     * @return Future с ответом {@link MatchResponse}, содержащим результаты проверки соответствия вакансии.
      */
     @Override
-    public ResponseEntity<MatchResponse> match(final MatchRequest request) {
-        MatchResponse result = analyzeService.checkMatch(request);
-        return ResponseEntity.ok(result);
+    public CompletableFuture<ResponseEntity<MatchResponse>> match(final MatchRequest request) {
+        return analyzeService.checkMatch(request)
+                .thenApply(ModelResponses::ok);
     }
 
     /**
@@ -110,11 +126,101 @@ public class AnalyzeController implements AnalyzeApi {
      * Извлекает из резюме 2-5 главных достижений кандидата.
      *
      * @param request Объект {@link HighlightsRequest}, содержащий данные для выявления ключевых достижений.
-     * @return Ответ {@link HighlightsResponse}, содержащий ключевые достижения кандидата.
+     * @return Future с ответом {@link HighlightsResponse}, содержащим ключевые достижения кандидата.
+     */
+    @Override
+    public CompletableFuture<ResponseEntity<HighlightsResponse>> highlights(final HighlightsRequest request) {
+        return analyzeService.extractHighlights(request)
+                .thenApply(ModelResponses::ok);
+    }
+
+    /**
+     * Комплексный анализ резюме в потоковом режиме.
+     *
+     * @param request Объект {@link AnalyzeRequest}, содержащий данные для анализа.
+     * @return SSE-эмиттер с фрагментами ответа и итоговым объектом {@link AnalyzeResponse}.
+     */
+    @Override
+    public SseEmitter analyzeStream(final AnalyzeRequest request) {
+        return sseResponseStreamer.stream(listener -> analyzeService.analyzeComplex(request, listener));
+    }
+
+    /**
+     * Комплексный анализ резюме в прогрессивном режиме.
+     *
+     * @param request Объект {@link AnalyzeRequest}, содержащий данные для анализа.
+     * @return SSE-эмиттер с черновым и уточненным объектами {@link AnalyzeResponse}.
+     */
+    @Override
+    public SseEmitter analyzeProgressive(final AnalyzeRequest request) {
+        return sseResponseStreamer.streamProgressive(analyzeService.analyzeComplexProgressive(request));
+    }
+
+    /**
+     * Пакетный комплексный анализ резюме.
+     *
+     * @param body Тело запроса с элементами пакета (NDJSON или JSON-массив).
+     * @return Эмиттер NDJSON-строк с результатами элементов в порядке завершения.
+     */
+    @Override
+    public ResponseEntity<ResponseBodyEmitter> analyzeBatch(final InputStream body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(ndjsonBatchStreamer.stream(body));
+    }
+
+    /**
+     * Анализ структуры резюме в потоковом режиме.
+     *
+     * @param request Объект {@link StructureRequest}, содержащий данные для анализа структуры.
+     * @return SSE-эмиттер с фрагментами ответа и итоговым объектом {@link StructureResponse}.
+     */
+    @Override
+    public SseEmitter structureStream(final StructureRequest request) {
+        return sseResponseStreamer.stream(listener -> analyzeService.analyzeStructure(request, listener));
+    }
+
+    /**
+     * Анализ ясности изложения в потоковом режиме.
+     *
+     * @param request Объект {@link ClarityRequest}, содержащий данные для анализа ясности изложения.
+     * @return SSE-эмиттер с фрагментами ответа и итоговым объектом {@link ClarityResponse}.
+     */
+    @Override
+    public SseEmitter clarityStream(final ClarityRequest request) {
+        return sseResponseStreamer.stream(listener -> analyzeService.analyzeClarity(request, listener));
+    }
+
+    /**
+     * Анализ стабильности карьерного пути в потоковом режиме.
+     *
+     * @param request Объект {@link StabilityRequest}, содержащий данные для анализа стабильности карьерного пути.
+     * @return SSE-эмиттер с фрагментами ответа и итоговым объектом {@link StabilityResponse}.
+     */
+    @Override
+    public SseEmitter stabilityStream(final StabilityRequest request) {
+        return sseResponseStreamer.stream(listener -> analyzeService.analyzeStability(request, listener));
+    }
+
+    /**
+     * Проверка соответствия вакансии в потоковом режиме.
+     *
+     * @param request Объект {@link MatchRequest}, содержащий данные для проверки соответствия вакансии.
+     * @return SSE-эмиттер с фрагментами ответа и итоговым объектом {@link MatchResponse}.
+     */
+    @Override
+    public SseEmitter matchStream(final MatchRequest request) {
+        return sseResponseStreamer.stream(listener -> analyzeService.checkMatch(request, listener));
+    }
+
+    /**
+     * Выявление ключевых достижений в потоковом режиме.
+     *
+     * @param request Объект {@link HighlightsRequest}, содержащий данные для выявления ключевых достижений.
+     * @return SSE-эмиттер с фрагментами ответа и итоговым объектом {@link HighlightsResponse}.
      */
     @Override
-    public ResponseEntity<HighlightsResponse> highlights(final HighlightsRequest request) {
-        HighlightsResponse result = analyzeService.extractHighlights(request);
-        return ResponseEntity.ok(result);
+    public SseEmitter highlightsStream(final HighlightsRequest request) {
+        return sseResponseStreamer.stream(listener -> analyzeService.extractHighlights(request, listener));
     }
 }
@@ -6,11 +6,14 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.surkov.gigachatservice.controller.hr_analyzer.api.ComparisonApi;
 import org.surkov.gigachatservice.dto.hr_analyzer.response.CompareRequest;
 import org.surkov.gigachatservice.dto.hr_analyzer.response.CompareResponse;
 import org.surkov.gigachatservice.service.hr_analyzer.ComparisonService;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Контроллер для обработки запросов сравнения резюме кандидатов.
  * Предоставляет API для выполнения сравнений между двумя кандидатами.
@@ -31,16 +34,32 @@ public class ComparisonController implements ComparisonApi {
      */
     private final ComparisonService comparisonService;
 
+    /**
+     * Компонент, транслирующий потоковые ответы модели клиенту через SSE.
+     */
+    private final SseResponseStreamer sseResponseStreamer;
+
     /**
      * Сравнение двух резюме.
      * Сравнивает профили двух кандидатов и определяет, кто более предпочтителен.
      *
      * @param request Объект {@link CompareRequest}, содержащий идентификаторы двух резюме для сравнения.
-     * @return Ответ {@link CompareResponse}, содержащий результат сравнения двух резюме.
+     * @return Future с ответом {@link CompareResponse}, содержащим результат сравнения двух резюме.
+     */
+    @Override
+    public CompletableFuture<ResponseEntity<CompareResponse>> compare(final CompareRequest request) {
+        return comparisonService.compareCandidates(request)
+                .thenApply(ModelResponses::ok);
+    }
+
+    /**
+     * Сравнение двух резюме в потоковом режиме.
+     *
+     * @param request Объект {@link CompareRequest}, содержащий данные для сравнения двух резюме.
+     * @return SSE-эмиттер с фрагментами ответа и итоговым объектом {@link CompareResponse}.
      */
     @Override
-    public ResponseEntity<CompareResponse> compare(final CompareRequest request) {
-        CompareResponse result = comparisonService.compareCandidates(request);
-        return ResponseEntity.ok(result);
+    public SseEmitter compareStream(final CompareRequest request) {
+        return sseResponseStreamer.stream(listener -> comparisonService.compareCandidates(request, listener));
     }
 }
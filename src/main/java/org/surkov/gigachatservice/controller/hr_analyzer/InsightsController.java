@@ -6,11 +6,14 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.surkov.gigachatservice.controller.hr_analyzer.api.InsightsApi;
 import org.surkov.gigachatservice.dto.hr_analyzer.request.InsightsRequest;
 import org.surkov.gigachatservice.dto.hr_analyzer.response.InsightsResponse;
 import org.surkov.gigachatservice.service.hr_analyzer.InsightsService;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Контроллер для обработки запросов получения аналитических рекомендаций.
  * Предоставляет API для формирования инсайтов на основе анализа резюме.
@@ -31,16 +34,43 @@ public class InsightsController implements InsightsApi {
      */
     private final InsightsService insightsService;
 
+    /**
+     * Компонент, транслирующий потоковые ответы модели клиенту через SSE.
+     */
+    private final SseResponseStreamer sseResponseStreamer;
+
     /**
      * Метод для получения аналитических рекомендаций.
      * Формирует и возвращает аналитические выводы на основе переданного запроса.
      *
      * @param request Объект {@link InsightsRequest}, содержащий необходимые данные для генерации инсайтов.
-     * @return Ответ {@link ResponseEntity}, содержащий объект {@link InsightsResponse} с результатами анализа.
+     * @return Future с ответом {@link ResponseEntity}, содержащим объект {@link InsightsResponse} с результатами анализа.
+     */
+    @Override
+    public CompletableFuture<ResponseEntity<InsightsResponse>> getInsights(InsightsRequest request) {
+        return insightsService.generateInsights(request)
+                .thenApply(ModelResponses::ok);
+    }
+
+    /**
+     * Получение аналитических рекомендаций в потоковом режиме.
+     *
+     * @param request Объект {@link InsightsRequest}, содержащий параметры для генерации рекомендаций.
+     * @return SSE-эмиттер с фрагментами ответа и итоговым объектом {@link InsightsResponse}.
+     */
+    @Override
+    public SseEmitter getInsightsStream(final InsightsRequest request) {
+        return sseResponseStreamer.stream(listener -> insightsService.generateInsights(request, listener));
+    }
+
+    /**
+     * Получение аналитических рекомендаций в прогрессивном режиме.
+     *
+     * @param request Объект {@link InsightsRequest}, содержащий параметры для генерации рекомендаций.
+     * @return SSE-эмиттер с черновым и уточненным объектами {@link InsightsResponse}.
      */
     @Override
-    public ResponseEntity<InsightsResponse> getInsights(InsightsRequest request) {
-        InsightsResponse response = insightsService.generateInsights(request);
-        return ResponseEntity.ok(response);
+    public SseEmitter getInsightsProgressive(final InsightsRequest request) {
+        return sseResponseStreamer.streamProgressive(insightsService.generateInsightsProgressive(request));
     }
 }
@@ -0,0 +1,72 @@
+package org.surkov.gigachatservice.controller.hr_analyzer;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.surkov.gigachatservice.controller.hr_analyzer.api.JobApi;
+import org.surkov.gigachatservice.dto.hr_analyzer.request.JobSubmitRequest;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.JobResponse;
+import org.surkov.gigachatservice.service.jobs.JobService;
+
+/**
+ * Контроллер асинхронного выполнения анализов через очередь задач.
+ * Позволяет клиентам, соединение которых не выдерживает длительного ответа модели,
+ * поставить анализ в очередь и запросить результат позже.
+ *
+ * @author surkov
+ */
+@Slf4j
+@Validated
+@RestController
+@RequestMapping("/api/hr-analyzer/jobs")
+@RequiredArgsConstructor
+public class JobController implements JobApi {
+
+    /**
+     * Сервис очереди задач анализа.
+     */
+    private final JobService jobService;
+
+    /**
+     * Создание задачи анализа.
+     *
+     * @param request Объект {@link JobSubmitRequest} с типом анализа и запросом.
+     * @return Ответ 202 с состоянием созданной задачи и ее адресом в заголовке Location.
+     */
+    @Override
+    public ResponseEntity<JobResponse> submit(final JobSubmitRequest request) {
+        JobResponse job = jobService.submit(request);
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequest()
+                        .path("/{id}")
+                        .buildAndExpand(job.id())
+                        .toUri())
+                .body(job);
+    }
+
+    /**
+     * Получение состояния задачи.
+     *
+     * @param id Идентификатор задачи.
+     * @return Состояние задачи и результат, если она выполнена.
+     */
+    @Override
+    public ResponseEntity<JobResponse> get(final String id) {
+        return ResponseEntity.ok(jobService.get(id));
+    }
+
+    /**
+     * Отмена задачи.
+     *
+     * @param id Идентификатор задачи.
+     * @return Состояние задачи после отмены.
+     */
+    @Override
+    public ResponseEntity<JobResponse> cancel(final String id) {
+        return ResponseEntity.ok(jobService.cancel(id));
+    }
+}
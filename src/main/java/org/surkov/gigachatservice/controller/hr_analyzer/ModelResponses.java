@@ -0,0 +1,32 @@
+package org.surkov.gigachatservice.controller.hr_analyzer;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.http.ResponseEntity;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.AnalysisResult;
+
+/**
+ * Формирование HTTP-ответов с результатами анализа.
+ *
+ * @author surkov
+ */
+@UtilityClass
+public class ModelResponses {
+
+    /**
+     * Заголовок ответа с моделью GigaChat, фактически сформировавшей ответ.
+     */
+    public static final String MODEL_HEADER = "X-GigaChat-Model";
+
+    /**
+     * Формирует ответ 200 с результатом анализа и заголовком {@value #MODEL_HEADER}.
+     *
+     * @param result Результат анализа.
+     * @param <T>    Тип ответа анализа.
+     * @return HTTP-ответ.
+     */
+    public static <T> ResponseEntity<T> ok(AnalysisResult<T> result) {
+        return ResponseEntity.ok()
+                .header(MODEL_HEADER, result.model())
+                .body(result.response());
+    }
+}
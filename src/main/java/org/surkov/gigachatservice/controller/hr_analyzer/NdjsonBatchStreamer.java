@@ -0,0 +1,169 @@
+package org.surkov.gigachatservice.controller.hr_analyzer;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.surkov.gigachatservice.config.GigaChatConfig;
+import org.surkov.gigachatservice.controller.GlobalExceptionHandler;
+import org.surkov.gigachatservice.dto.hr_analyzer.request.BatchAnalyzeItem;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.AnalysisResult;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.AnalyzeResponse;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.BatchAnalyzeResult;
+import org.surkov.gigachatservice.service.hr_analyzer.BatchAnalyzeService;
+import org.surkov.gigachatservice.service.hr_analyzer.BatchListener;
+import org.surkov.gigachatservice.utils.JsonCodecRegistry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Транслирует результаты пакетного анализа резюме клиенту в формате NDJSON.
+ * Элементы пакета читаются из тела запроса потоково (NDJSON или JSON-массив), каждый
+ * результат отправляется отдельной строкой {@link BatchAnalyzeResult} сразу после завершения
+ * элемента. Ошибка чтения входного потока отправляется последней строкой без идентификатора.
+ *
+ * @author surkov
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NdjsonBatchStreamer {
+
+    /**
+     * Конфигурация GigaChat API с настройками пакетного анализа.
+     */
+    private final GigaChatConfig config;
+
+    /**
+     * Сервис пакетного анализа резюме.
+     */
+    private final BatchAnalyzeService batchAnalyzeService;
+
+    /**
+     * Реестр ObjectReader и ObjectWriter для чтения элементов пакета и записи строк ответа.
+     */
+    private final JsonCodecRegistry jsonCodecs;
+
+    /**
+     * Глобальный обработчик исключений, формирующий описания ошибок элементов.
+     */
+    private final GlobalExceptionHandler exceptionHandler;
+
+    /**
+     * Запускает обработку пакета и возвращает эмиттер, связанный с ней.
+     * При разрыве соединения клиентом или истечении времени обработки пакета
+     * невыполненные запросы к модели отменяются.
+     *
+     * @param body Тело запроса с элементами пакета.
+     * @return Эмиттер NDJSON-строк для возврата из контроллера.
+     */
+    public ResponseBodyEmitter stream(InputStream body) {
+        MappingIterator<BatchAnalyzeItem> items;
+        try {
+            items = jsonCodecs.reader(BatchAnalyzeItem.class).readValues(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(config.getBatch().getTimeoutMs());
+        AtomicBoolean closed = new AtomicBoolean();
+        AtomicReference<CompletableFuture<Void>> batch = new AtomicReference<>();
+        Runnable cancel = () -> {
+            closed.set(true);
+            CompletableFuture<Void> started = batch.get();
+            if (started != null) {
+                started.cancel(true);
+            }
+        };
+        CompletableFuture<Void> done;
+        try {
+            done = batchAnalyzeService.process(items, listener(emitter, cancel, closed));
+        } catch (RuntimeException e) {
+            closeQuietly(items);
+            throw e;
+        }
+        batch.set(done);
+        if (closed.get()) {
+            done.cancel(true);
+        }
+        done.whenComplete((ignored, error) -> {
+            closeQuietly(items);
+            if (closed.compareAndSet(false, true)) {
+                emitter.complete();
+            }
+        });
+        emitter.onTimeout(cancel);
+        emitter.onError(error -> cancel.run());
+        return emitter;
+    }
+
+    /**
+     * Создает получателя результатов, отправляющего их клиенту строками NDJSON.
+     *
+     * @param emitter Эмиттер.
+     * @param cancel  Отмена обработки пакета.
+     * @param closed  Признак закрытого соединения.
+     * @return Получатель результатов.
+     */
+    private BatchListener listener(ResponseBodyEmitter emitter, Runnable cancel, AtomicBoolean closed) {
+        return new BatchListener() {
+            @Override
+            public void onResult(String id, AnalysisResult<AnalyzeResponse> result) {
+                send(emitter, cancel, closed, new BatchAnalyzeResult(id, result.model(), result.response(), null));
+            }
+
+            @Override
+            public void onError(String id, Throwable error) {
+                if (!closed.get()) {
+                    send(emitter, cancel, closed, new BatchAnalyzeResult(
+                            id, null, null, exceptionHandler.resolve(error).getBody().error()
+                    ));
+                }
+            }
+        };
+    }
+
+    /**
+     * Отправляет строку результата клиенту. Ошибка отправки (например, закрытое клиентом
+     * соединение) прекращает обработку пакета.
+     *
+     * @param emitter Эмиттер.
+     * @param cancel  Отмена обработки пакета.
+     * @param closed  Признак закрытого соединения.
+     * @param line    Результат элемента.
+     */
+    private void send(ResponseBodyEmitter emitter, Runnable cancel, AtomicBoolean closed, BatchAnalyzeResult line) {
+        if (closed.get()) {
+            return;
+        }
+        try {
+            emitter.send(
+                    (jsonCodecs.write(line) + "\n").getBytes(StandardCharsets.UTF_8),
+                    MediaType.APPLICATION_NDJSON
+            );
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Не удалось отправить результат элемента пакета: {}", e.getMessage());
+            cancel.run();
+        }
+    }
+
+    /**
+     * Закрывает итератор элементов вместе с входным потоком.
+     *
+     * @param items Итератор элементов.
+     */
+    private static void closeQuietly(MappingIterator<BatchAnalyzeItem> items) {
+        try {
+            items.close();
+        } catch (IOException e) {
+            log.debug("Не удалось закрыть входной поток пакета: {}", e.getMessage());
+        }
+    }
+}
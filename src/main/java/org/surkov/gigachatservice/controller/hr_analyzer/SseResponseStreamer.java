@@ -0,0 +1,196 @@
+package org.surkov.gigachatservice.controller.hr_analyzer;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.surkov.gigachatservice.controller.GlobalExceptionHandler;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.AnalysisResult;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.StreamDelta;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.StreamField;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.StreamModel;
+import org.surkov.gigachatservice.service.CompletionListener;
+import org.surkov.gigachatservice.service.hr_analyzer.ProgressiveAnalysis;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Транслирует потоковую генерацию ответа модели клиенту через Server-Sent Events.
+ * Фрагменты текста отправляются событиями {@code delta}, полностью сгенерированные поля
+ * JSON-ответа — событиями {@code field}, модель, сформировавшая ответ, — событием {@code model},
+ * итоговый типизированный DTO — последним событием {@code result}, ошибка — событием {@code error}.
+ * В прогрессивном режиме перед итоговым результатом отправляется черновой — событием {@code draft}.
+ *
+ * @author surkov
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SseResponseStreamer {
+
+    /**
+     * Максимальное время жизни SSE-соединения (в миллисекундах).
+     */
+    private static final long STREAM_TIMEOUT_MS = 180_000;
+
+    /**
+     * Имя события с фрагментом текста ответа.
+     */
+    private static final String DELTA_EVENT = "delta";
+
+    /**
+     * Имя события с полностью сгенерированным полем JSON-ответа.
+     */
+    private static final String FIELD_EVENT = "field";
+
+    /**
+     * Имя события с моделью, сформировавшей ответ.
+     */
+    private static final String MODEL_EVENT = "model";
+
+    /**
+     * Имя события с черновым результатом анализа в прогрессивном режиме.
+     */
+    private static final String DRAFT_EVENT = "draft";
+
+    /**
+     * Имя события с итоговым результатом анализа.
+     */
+    private static final String RESULT_EVENT = "result";
+
+    /**
+     * Имя события с описанием ошибки.
+     */
+    private static final String ERROR_EVENT = "error";
+
+    /**
+     * Глобальный обработчик исключений, формирующий тела ответов об ошибках.
+     */
+    private final GlobalExceptionHandler exceptionHandler;
+
+    /**
+     * Запускает потоковую обработку запроса и возвращает SSE-эмиттер, связанный с ней.
+     * При разрыве соединения клиентом или истечении времени ожидания запрос к модели отменяется.
+     *
+     * @param call Функция, запускающая обработку запроса с переданным слушателем фрагментов.
+     * @param <T>  Тип итогового результата анализа.
+     * @return SSE-эмиттер для возврата из контроллера.
+     */
+    public <T> SseEmitter stream(Function<CompletionListener, CompletableFuture<AnalysisResult<T>>> call) {
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
+        CompletableFuture<AnalysisResult<T>> result = call.apply(new CompletionListener() {
+            @Override
+            public void onDelta(String delta) {
+                send(emitter, SseEmitter.event()
+                        .name(DELTA_EVENT)
+                        .data(new StreamDelta(delta), MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void onField(String path, Object value) {
+                send(emitter, SseEmitter.event()
+                        .name(FIELD_EVENT)
+                        .data(new StreamField(path, value), MediaType.APPLICATION_JSON));
+            }
+        });
+        emitter.onTimeout(() -> result.cancel(true));
+        emitter.onError(error -> result.cancel(true));
+        result.whenComplete((value, error) -> {
+            if (!result.isCancelled()) {
+                finish(emitter, value, error);
+            }
+        });
+        return emitter;
+    }
+
+    /**
+     * Транслирует анализ в прогрессивном режиме: черновой ответ отправляется событием
+     * {@code draft}, как только он готов (если уточненный ответ еще не получен), уточненный —
+     * завершающим событием {@code result}. Если уточненный ответ получить не удалось,
+     * итоговым результатом становится черновой.
+     * Каждому ответу предшествует событие {@code model}. При разрыве соединения клиентом
+     * или истечении времени ожидания итоговый future отменяется вместе с запросами к моделям.
+     *
+     * @param analysis Черновой и уточненный ответы.
+     * @param <T>      Тип итогового результата анализа.
+     * @return SSE-эмиттер для возврата из контроллера.
+     */
+    public <T> SseEmitter streamProgressive(ProgressiveAnalysis<T> analysis) {
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
+        CompletableFuture<AnalysisResult<T>> draft = analysis.draft();
+        CompletableFuture<AnalysisResult<T>> result = analysis.result();
+        emitter.onTimeout(() -> result.cancel(true));
+        emitter.onError(error -> result.cancel(true));
+        if (draft != null) {
+            draft.thenAccept(value -> {
+                synchronized (emitter) {
+                    if (!result.isDone()) {
+                        sendResult(emitter, DRAFT_EVENT, value);
+                    }
+                }
+            });
+        }
+        result.whenComplete((value, error) -> {
+            if (!result.isCancelled()) {
+                synchronized (emitter) {
+                    finish(emitter, value, error);
+                }
+            }
+        });
+        return emitter;
+    }
+
+    /**
+     * Отправляет итоговое событие ({@code result} или {@code error}) и закрывает поток.
+     *
+     * @param emitter SSE-эмиттер.
+     * @param value   Результат анализа.
+     * @param error   Ошибка или {@code null}.
+     * @param <T>     Тип результата анализа.
+     */
+    private <T> void finish(SseEmitter emitter, AnalysisResult<T> value, Throwable error) {
+        if (error != null) {
+            send(emitter, SseEmitter.event()
+                    .name(ERROR_EVENT)
+                    .data(exceptionHandler.resolve(error).getBody(), MediaType.APPLICATION_JSON));
+        } else {
+            sendResult(emitter, RESULT_EVENT, value);
+        }
+        emitter.complete();
+    }
+
+    /**
+     * Отправляет событие {@code model} и событие с ответом анализа.
+     *
+     * @param emitter   SSE-эмиттер.
+     * @param eventName Имя события с ответом.
+     * @param value     Результат анализа.
+     * @param <T>       Тип результата анализа.
+     */
+    private <T> void sendResult(SseEmitter emitter, String eventName, AnalysisResult<T> value) {
+        send(emitter, SseEmitter.event()
+                .name(MODEL_EVENT)
+                .data(new StreamModel(value.model()), MediaType.APPLICATION_JSON));
+        send(emitter, SseEmitter.event()
+                .name(eventName)
+                .data(value.response(), MediaType.APPLICATION_JSON));
+    }
+
+    /**
+     * Отправляет событие клиенту. Ошибки отправки (например, закрытое клиентом соединение)
+     * логируются и не прерывают обработку запроса.
+     *
+     * @param emitter SSE-эмиттер.
+     * @param event   Отправляемое событие.
+     */
+    private void send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Не удалось отправить SSE-событие: {}", e.getMessage());
+        }
+    }
+}
@@ -10,19 +10,26 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.surkov.gigachatservice.dto.hr_analyzer.request.AnalyzeRequest;
+import org.surkov.gigachatservice.dto.hr_analyzer.request.BatchAnalyzeItem;
 import org.surkov.gigachatservice.dto.hr_analyzer.request.ClarityRequest;
 import org.surkov.gigachatservice.dto.hr_analyzer.request.HighlightsRequest;
 import org.surkov.gigachatservice.dto.hr_analyzer.request.MatchRequest;
 import org.surkov.gigachatservice.dto.hr_analyzer.request.StabilityRequest;
 import org.surkov.gigachatservice.dto.hr_analyzer.request.StructureRequest;
 import org.surkov.gigachatservice.dto.hr_analyzer.response.AnalyzeResponse;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.BatchAnalyzeResult;
 import org.surkov.gigachatservice.dto.hr_analyzer.response.ClarityResponse;
 import org.surkov.gigachatservice.dto.hr_analyzer.response.HighlightsResponse;
 import org.surkov.gigachatservice.dto.hr_analyzer.response.MatchResponse;
 import org.surkov.gigachatservice.dto.hr_analyzer.response.StabilityResponse;
 import org.surkov.gigachatservice.dto.hr_analyzer.response.StructureResponse;
 
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Swagger API интерфейс, определяющий конечные точки анализа резюме.
  * Содержит аннотации для генерации документации по каждому эндпоинту.
@@ -49,7 +56,7 @@ public interface AnalyzeApi {
      * Принимает резюме и опционально вакансию, возвращает агрегированные метрики качества резюме.
      *
      * @param request Объект {@link AnalyzeRequest}, содержащий данные для анализа.
-     * @return Ответ {@link ResponseEntity}, содержащий объект {@link AnalyzeResponse} с результатами анализа.
+     * @return Future с ответом {@link ResponseEntity}, содержащим объект {@link AnalyzeResponse} с результатами анализа.
      */
     @Operation(
             summary = "Комплексный анализ резюме",
@@ -80,7 +87,7 @@ public interface AnalyzeApi {
             consumes = MediaType.APPLICATION_JSON_VALUE,
             produces = MediaType.APPLICATION_JSON_VALUE
     )
-    ResponseEntity<AnalyzeResponse> analyze(
+    CompletableFuture<ResponseEntity<AnalyzeResponse>> analyze(
             @RequestBody
             @Parameter(description = "Параметры для общего анализа резюме")
             AnalyzeRequest request
@@ -91,7 +98,7 @@ public interface AnalyzeApi {
      * Проверяет наличие всех ключевых разделов в тексте резюме.
      *
      * @param request Объект {@link StructureRequest}, содержащий данные для анализа структуры.
-     * @return Ответ {@link ResponseEntity}, содержащий объект {@link StructureResponse} с результатами анализа структуры.
+     * @return Future с ответом {@link ResponseEntity}, содержащим объект {@link StructureResponse} с результатами анализа структуры.
      */
     @Operation(
             summary = "Анализ структуры резюме",
@@ -122,7 +129,7 @@ public interface AnalyzeApi {
             consumes = MediaType.APPLICATION_JSON_VALUE,
             produces = MediaType.APPLICATION_JSON_VALUE
     )
-    ResponseEntity<StructureResponse> structure(
+    CompletableFuture<ResponseEntity<StructureResponse>> structure(
             @RequestBody
             @Parameter(description = "Текст резюме для анализа структуры")
             StructureRequest request
@@ -133,7 +140,7 @@ public interface AnalyzeApi {
      * Находит нечеткие, клишированные фразы и дает рекомендации по их улучшению.
      *
      * @param request Объект {@link ClarityRequest}, содержащий данные для анализа ясности изложения.
-     * @return Ответ {@link ResponseEntity}, содержащий объект {@link ClarityResponse} с результатами анализа ясности.
+     * @return Future с ответом {@link ResponseEntity}, содержащим объект {@link ClarityResponse} с результатами анализа ясности.
      */
     @Operation(
             summary = "Анализ ясности изложения",
@@ -164,7 +171,7 @@ public interface AnalyzeApi {
             consumes = MediaType.APPLICATION_JSON_VALUE,
             produces = MediaType.APPLICATION_JSON_VALUE
     )
-    ResponseEntity<ClarityResponse> clarity(
+    CompletableFuture<ResponseEntity<ClarityResponse>> clarity(
             @RequestBody
             @Parameter(description = "Текст резюме для анализа ясности")
             ClarityRequest request
@@ -175,7 +182,7 @@ public interface AnalyzeApi {
      * Оценивает хронологию карьеры и выявляет потенциальные риски в стабильности.
      *
      * @param request Объект {@link StabilityRequest}, содержащий данные для анализа стабильности карьерного пути.
-     * @return Ответ {@link ResponseEntity}, содержащий объект {@link StabilityResponse} с результатами анализа стабильности.
+     * @return Future с ответом {@link ResponseEntity}, содержащим объект {@link StabilityResponse} с результатами анализа стабильности.
      */
     @Operation(
             summary = "Анализ стабильности карьеры",
@@ -206,7 +213,7 @@ public interface AnalyzeApi {
             consumes = MediaType.APPLICATION_JSON_VALUE,
             produces = MediaType.APPLICATION_JSON_VALUE
     )
-    ResponseEntity<StabilityResponse> stability(
+    CompletableFuture<ResponseEntity<StabilityResponse>> stability(
             @RequestBody
             @Parameter(description = "Текст резюме для анализа стабильности карьеры")
             StabilityRequest request
@@ -217,7 +224,7 @@ public interface AnalyzeApi {
      * Сравнивает резюме с описанием вакансии или желаемой должностью.
      *
      * @param request Объект {@link MatchRequest}, содержащий данные для проверки соответствия вакансии.
-     * @return Ответ {@link ResponseEntity}, содержащий объект {@link MatchResponse} с результатами проверки соответствия.
+     * @return Future с ответом {@link ResponseEntity}, содержащим объект {@link MatchResponse} с результатами проверки соответствия.
      */
     @Operation(
             summary = "Проверка соответствия вакансии",
@@ -248,7 +255,7 @@ public interface AnalyzeApi {
             consumes = MediaType.APPLICATION_JSON_VALUE,
             produces = MediaType.APPLICATION_JSON_VALUE
     )
-    ResponseEntity<MatchResponse> match(
+    CompletableFuture<ResponseEntity<MatchResponse>> match(
             @RequestBody
             @Parameter(description = "Резюме и вакансия для проверки соответствия")
             MatchRequest request
@@ -259,7 +266,7 @@ public interface AnalyzeApi {
      * Извлекает из резюме 2-5 главных достижений кандидата.
      *
      * @param request Объект {@link HighlightsRequest}, содержащий данные для выявления ключевых достижений.
-     * @return Ответ {@link ResponseEntity}, содержащий объект {@link HighlightsResponse} с ключевыми достижениями.
+     * @return Future с ответом {@link ResponseEntity}, содержащим объект {@link HighlightsResponse} с ключевыми достижениями.
      */
     @Operation(
             summary = "Выделение ключевых достижений",
@@ -290,9 +297,343 @@ public interface AnalyzeApi {
             consumes = MediaType.APPLICATION_JSON_VALUE,
             produces = MediaType.APPLICATION_JSON_VALUE
     )
-    ResponseEntity<HighlightsResponse> highlights(
+    CompletableFuture<ResponseEntity<HighlightsResponse>> highlights(
             @RequestBody
             @Parameter(description = "Текст резюме для выделения достижений")
             HighlightsRequest request
     );
+
+    /**
+     * Комплексный анализ резюме в потоковом режиме.
+     * Фрагменты ответа модели передаются клиенту событиями SSE по мере генерации.
+     *
+     * @param request Объект {@link AnalyzeRequest}, содержащий данные для анализа.
+     * @return SSE-эмиттер: события {@code delta} с фрагментами ответа, {@code field} с готовыми полями
+     * и завершающее событие {@code result} с объектом {@link AnalyzeResponse}.
+     */
+    @Operation(
+            summary = "Комплексный анализ резюме (SSE)",
+            description = "Потоковый вариант эндпоинта /complex: фрагменты ответа приходят событиями delta, "
+                    + "готовые поля ответа — событиями field, "
+                    + "итоговый результат — событием result."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = SUCCESS_MESSAGE,
+                    content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = BAD_REQUEST_MESSAGE,
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = INTERNAL_ERROR_MESSAGE,
+                    content = @Content
+            )
+    })
+    @PostMapping(
+            value = "/complex/stream",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE
+    )
+    SseEmitter analyzeStream(
+            @RequestBody
+            @Parameter(description = "Параметры для общего анализа резюме")
+            AnalyzeRequest request
+    );
+
+    /**
+     * Комплексный анализ резюме в прогрессивном режиме.
+     * Одновременно запрашиваются черновой ответ Lite-модели и уточненный ответ модели эндпоинта;
+     * черновой ответ передается клиенту сразу, уточненный — по готовности.
+     *
+     * @param request Объект {@link AnalyzeRequest}, содержащий данные для анализа.
+     * @return SSE-эмиттер: событие {@code draft} с черновым объектом {@link AnalyzeResponse}
+     * и завершающее событие {@code result} с уточненным; каждому предшествует событие {@code model}.
+     */
+    @Operation(
+            summary = "Комплексный анализ резюме (прогрессивный режим, SSE)",
+            description = "Быстрый черновой ответ Lite-модели приходит событием draft, "
+                    + "уточненный ответ модели эндпоинта — событием result. "
+                    + "Перед каждым ответом событие model содержит модель, сформировавшую его."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = SUCCESS_MESSAGE,
+                    content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = BAD_REQUEST_MESSAGE,
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = INTERNAL_ERROR_MESSAGE,
+                    content = @Content
+            )
+    })
+    @PostMapping(
+            value = "/complex/progressive",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE
+    )
+    SseEmitter analyzeProgressive(
+            @RequestBody
+            @Parameter(description = "Параметры для общего анализа резюме")
+            AnalyzeRequest request
+    );
+
+    /**
+     * Пакетный комплексный анализ резюме.
+     * Элементы пакета читаются из тела запроса потоково и обрабатываются параллельно
+     * с ограничением числа одновременных запросов к модели.
+     *
+     * @param body Тело запроса: элементы {@link BatchAnalyzeItem} построчно (NDJSON) или JSON-массивом.
+     * @return Эмиттер NDJSON-строк {@link BatchAnalyzeResult} в порядке завершения элементов.
+     */
+    @Operation(
+            summary = "Пакетный комплексный анализ резюме (NDJSON)",
+            description = "Принимает элементы {id, request} построчно (application/x-ndjson) или JSON-массивом. "
+                    + "Результаты возвращаются строками NDJSON в порядке завершения: "
+                    + "{id, model, response} или {id, error}."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = SUCCESS_MESSAGE,
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                            schema = @Schema(implementation = BatchAnalyzeResult.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Превышено число одновременно обрабатываемых пакетов",
+                    content = @Content
+            )
+    })
+    @PostMapping(
+            value = "/batch",
+            consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE
+    )
+    ResponseEntity<ResponseBodyEmitter> analyzeBatch(
+            @Parameter(description = "Элементы пакета: NDJSON или JSON-массив объектов {id, request}")
+            InputStream body
+    );
+
+    /**
+     * Анализ структуры резюме в потоковом режиме.
+     * Фрагменты ответа модели передаются клиенту событиями SSE по мере генерации.
+     *
+     * @param request Объект {@link StructureRequest}, содержащий данные для анализа структуры.
+     * @return SSE-эмиттер: события {@code delta} с фрагментами ответа, {@code field} с готовыми полями
+     * и завершающее событие {@code result} с объектом {@link StructureResponse}.
+     */
+    @Operation(
+            summary = "Анализ структуры резюме (SSE)",
+            description = "Потоковый вариант эндпоинта /structure: фрагменты ответа приходят событиями delta, "
+                    + "готовые поля ответа — событиями field, "
+                    + "итоговый результат — событием result."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = SUCCESS_MESSAGE,
+                    content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = BAD_REQUEST_MESSAGE,
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = INTERNAL_ERROR_MESSAGE,
+                    content = @Content
+            )
+    })
+    @PostMapping(
+            value = "/structure/stream",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE
+    )
+    SseEmitter structureStream(
+            @RequestBody
+            @Parameter(description = "Текст резюме для анализа структуры")
+            StructureRequest request
+    );
+
+    /**
+     * Анализ ясности изложения в потоковом режиме.
+     * Фрагменты ответа модели передаются клиенту событиями SSE по мере генерации.
+     *
+     * @param request Объект {@link ClarityRequest}, содержащий данные для анализа ясности изложения.
+     * @return SSE-эмиттер: события {@code delta} с фрагментами ответа, {@code field} с готовыми полями
+     * и завершающее событие {@code result} с объектом {@link ClarityResponse}.
+     */
+    @Operation(
+            summary = "Анализ ясности изложения (SSE)",
+            description = "Потоковый вариант эндпоинта /clarity: фрагменты ответа приходят событиями delta, "
+                    + "готовые поля ответа — событиями field, "
+                    + "итоговый результат — событием result."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = SUCCESS_MESSAGE,
+                    content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = BAD_REQUEST_MESSAGE,
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = INTERNAL_ERROR_MESSAGE,
+                    content = @Content
+            )
+    })
+    @PostMapping(
+            value = "/clarity/stream",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE
+    )
+    SseEmitter clarityStream(
+            @RequestBody
+            @Parameter(description = "Текст резюме для анализа ясности изложения")
+            ClarityRequest request
+    );
+
+    /**
+     * Анализ стабильности карьерного пути в потоковом режиме.
+     * Фрагменты ответа модели передаются клиенту событиями SSE по мере генерации.
+     *
+     * @param request Объект {@link StabilityRequest}, содержащий данные для анализа стабильности карьерного пути.
+     * @return SSE-эмиттер: события {@code delta} с фрагментами ответа, {@code field} с готовыми полями
+     * и завершающее событие {@code result} с объектом {@link StabilityResponse}.
+     */
+    @Operation(
+            summary = "Анализ стабильности карьерного пути (SSE)",
+            description = "Потоковый вариант эндпоинта /stability: фрагменты ответа приходят событиями delta, "
+                    + "готовые поля ответа — событиями field, "
+                    + "итоговый результат — событием result."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = SUCCESS_MESSAGE,
+                    content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = BAD_REQUEST_MESSAGE,
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = INTERNAL_ERROR_MESSAGE,
+                    content = @Content
+            )
+    })
+    @PostMapping(
+            value = "/stability/stream",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE
+    )
+    SseEmitter stabilityStream(
+            @RequestBody
+            @Parameter(description = "Текст резюме для анализа стабильности карьерного пути")
+            StabilityRequest request
+    );
+
+    /**
+     * Проверка соответствия вакансии в потоковом режиме.
+     * Фрагменты ответа модели передаются клиенту событиями SSE по мере генерации.
+     *
+     * @param request Объект {@link MatchRequest}, содержащий данные для проверки соответствия вакансии.
+     * @return SSE-эмиттер: события {@code delta} с фрагментами ответа, {@code field} с готовыми полями
+     * и завершающее событие {@code result} с объектом {@link MatchResponse}.
+     */
+    @Operation(
+            summary = "Проверка соответствия вакансии (SSE)",
+            description = "Потоковый вариант эндпоинта /match: фрагменты ответа приходят событиями delta, "
+                    + "готовые поля ответа — событиями field, "
+                    + "итоговый результат — событием result."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = SUCCESS_MESSAGE,
+                    content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = BAD_REQUEST_MESSAGE,
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = INTERNAL_ERROR_MESSAGE,
+                    content = @Content
+            )
+    })
+    @PostMapping(
+            value = "/match/stream",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE
+    )
+    SseEmitter matchStream(
+            @RequestBody
+            @Parameter(description = "Резюме и вакансия для проверки соответствия")
+            MatchRequest request
+    );
+
+    /**
+     * Выявление ключевых достижений в потоковом режиме.
+     * Фрагменты ответа модели передаются клиенту событиями SSE по мере генерации.
+     *
+     * @param request Объект {@link HighlightsRequest}, содержащий данные для выявления ключевых достижений.
+     * @return SSE-эмиттер: события {@code delta} с фрагментами ответа, {@code field} с готовыми полями
+     * и завершающее событие {@code result} с объектом {@link HighlightsResponse}.
+     */
+    @Operation(
+            summary = "Выявление ключевых достижений (SSE)",
+            description = "Потоковый вариант эндпоинта /highlights: фрагменты ответа приходят событиями delta, "
+                    + "готовые поля ответа — событиями field, "
+                    + "итоговый результат — событием result."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = SUCCESS_MESSAGE,
+                    content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = BAD_REQUEST_MESSAGE,
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = INTERNAL_ERROR_MESSAGE,
+                    content = @Content
+            )
+    })
+    @PostMapping(
+            value = "/highlights/stream",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE
+    )
+    SseEmitter highlightsStream(
+            @RequestBody
+            @Parameter(description = "Текст резюме для выявления ключевых достижений")
+            HighlightsRequest request
+    );
 }
@@ -10,9 +10,12 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.surkov.gigachatservice.dto.hr_analyzer.response.CompareRequest;
 import org.surkov.gigachatservice.dto.hr_analyzer.response.CompareResponse;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Интерфейс для предоставления API для сравнения двух резюме кандидатов.
  * Позволяет пользователям отправлять два резюме для анализа и получать результаты сравнения.
@@ -40,7 +43,7 @@ public interface ComparisonApi {
      * Сравнивает профили двух кандидатов и определяет, кто более предпочтителен.
      *
      * @param request Объект {@link CompareRequest}, содержащий данные для сравнения двух резюме.
-     * @return Ответ {@link ResponseEntity}, содержащий объект {@link CompareResponse} с результатом сравнения.
+     * @return Future с ответом {@link ResponseEntity}, содержащим объект {@link CompareResponse} с результатом сравнения.
      */
     @Operation(
             summary = "Сравнение двух резюме",
@@ -71,7 +74,49 @@ public interface ComparisonApi {
             consumes = MediaType.APPLICATION_JSON_VALUE,
             produces = MediaType.APPLICATION_JSON_VALUE
     )
-    ResponseEntity<CompareResponse> compare(
+    CompletableFuture<ResponseEntity<CompareResponse>> compare(
+            @RequestBody
+            @Parameter(description = "Данные двух резюме (и опционально вакансии) для сравнения")
+            CompareRequest request
+    );
+
+    /**
+     * Сравнение двух резюме в потоковом режиме.
+     * Фрагменты ответа модели передаются клиенту событиями SSE по мере генерации.
+     *
+     * @param request Объект {@link CompareRequest}, содержащий данные для сравнения двух резюме.
+     * @return SSE-эмиттер: события {@code delta} с фрагментами ответа, {@code field} с готовыми полями
+     * и завершающее событие {@code result} с объектом {@link CompareResponse}.
+     */
+    @Operation(
+            summary = "Сравнение двух резюме (SSE)",
+            description = "Потоковый вариант эндпоинта /compare: фрагменты ответа приходят событиями delta, "
+                    + "готовые поля ответа — событиями field, "
+                    + "итоговый результат — событием result."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = SUCCESS_MESSAGE,
+                    content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = BAD_REQUEST_MESSAGE,
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = INTERNAL_ERROR_MESSAGE,
+                    content = @Content
+            )
+    })
+    @PostMapping(
+            value = "/compare/stream",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE
+    )
+    SseEmitter compareStream(
             @RequestBody
             @Parameter(description = "Данные двух резюме (и опционально вакансии) для сравнения")
             CompareRequest request
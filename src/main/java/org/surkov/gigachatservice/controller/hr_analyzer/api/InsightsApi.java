@@ -10,10 +10,13 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.surkov.gigachatservice.dto.hr_analyzer.request.InsightsRequest;
 import org.surkov.gigachatservice.dto.hr_analyzer.response.AnalyzeResponse;
 import org.surkov.gigachatservice.dto.hr_analyzer.response.InsightsResponse;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Интерфейс для предоставления API для получения аналитических рекомендаций по резюме.
  * Аналитика строится на основе различных аспектов резюме, таких как структура, ясность изложения, стабильность карьерного пути и соответствие вакансии.
@@ -41,7 +44,7 @@ public interface InsightsApi {
      * Формирует и возвращает аналитические выводы на основе переданных данных.
      *
      * @param request Объект {@link InsightsRequest}, содержащий параметры для генерации рекомендаций.
-     * @return Ответ {@link ResponseEntity}, содержащий объект {@link InsightsResponse} с результатами анализа.
+     * @return Future с ответом {@link ResponseEntity}, содержащим объект {@link InsightsResponse} с результатами анализа.
      */
     @Operation(
             summary = "Получение аналитических рекомендаций",
@@ -72,7 +75,92 @@ public interface InsightsApi {
             consumes = MediaType.APPLICATION_JSON_VALUE,
             produces = MediaType.APPLICATION_JSON_VALUE
     )
-    ResponseEntity<InsightsResponse> getInsights(
+    CompletableFuture<ResponseEntity<InsightsResponse>> getInsights(
+            @RequestBody
+            @Parameter(description = "Параметры для получения рекомендаций")
+            InsightsRequest request
+    );
+
+    /**
+     * Получение аналитических рекомендаций в потоковом режиме.
+     * Фрагменты ответа модели передаются клиенту событиями SSE по мере генерации.
+     *
+     * @param request Объект {@link InsightsRequest}, содержащий параметры для генерации рекомендаций.
+     * @return SSE-эмиттер: события {@code delta} с фрагментами ответа, {@code field} с готовыми полями
+     * и завершающее событие {@code result} с объектом {@link InsightsResponse}.
+     */
+    @Operation(
+            summary = "Получение аналитических рекомендаций (SSE)",
+            description = "Потоковый вариант эндпоинта /insights: фрагменты ответа приходят событиями delta, "
+                    + "готовые поля ответа — событиями field, "
+                    + "итоговый результат — событием result."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = SUCCESS_MESSAGE,
+                    content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = BAD_REQUEST_MESSAGE,
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = INTERNAL_ERROR_MESSAGE,
+                    content = @Content
+            )
+    })
+    @GetMapping(
+            value = "/insights/stream",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE
+    )
+    SseEmitter getInsightsStream(
+            @RequestBody
+            @Parameter(description = "Параметры для получения рекомендаций")
+            InsightsRequest request
+    );
+
+    /**
+     * Получение аналитических рекомендаций в прогрессивном режиме.
+     * Одновременно запрашиваются черновой ответ Lite-модели и уточненный ответ модели эндпоинта;
+     * черновой ответ передается клиенту сразу, уточненный — по готовности.
+     *
+     * @param request Объект {@link InsightsRequest}, содержащий параметры для генерации рекомендаций.
+     * @return SSE-эмиттер: событие {@code draft} с черновым объектом {@link InsightsResponse}
+     * и завершающее событие {@code result} с уточненным; каждому предшествует событие {@code model}.
+     */
+    @Operation(
+            summary = "Получение аналитических рекомендаций (прогрессивный режим, SSE)",
+            description = "Быстрый черновой ответ Lite-модели приходит событием draft, "
+                    + "уточненный ответ модели эндпоинта — событием result. "
+                    + "Перед каждым ответом событие model содержит модель, сформировавшую его."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = SUCCESS_MESSAGE,
+                    content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = BAD_REQUEST_MESSAGE,
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = INTERNAL_ERROR_MESSAGE,
+                    content = @Content
+            )
+    })
+    @GetMapping(
+            value = "/insights/progressive",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE
+    )
+    SseEmitter getInsightsProgressive(
             @RequestBody
             @Parameter(description = "Параметры для получения рекомендаций")
             InsightsRequest request
@@ -0,0 +1,148 @@
+package org.surkov.gigachatservice.controller.hr_analyzer.api;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.surkov.gigachatservice.dto.hr_analyzer.request.JobSubmitRequest;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.JobResponse;
+
+/**
+ * Swagger API интерфейс, определяющий конечные точки асинхронного выполнения анализов.
+ * Задача создается запросом любого из эндпоинтов анализа, выполняется обработчиком очереди,
+ * а ее состояние и результат запрашиваются по идентификатору.
+ *
+ * @author surkov
+ */
+public interface JobApi {
+
+    /**
+     * Сообщение об успешном выполнении запроса.
+     */
+    String SUCCESS_MESSAGE = "Запрос выполнен успешно";
+    /**
+     * Описание ошибки при неверных входных данных.
+     */
+    String BAD_REQUEST_MESSAGE = "Некорректные входные данные";
+    /**
+     * Описание ошибки при отсутствии задачи.
+     */
+    String NOT_FOUND_MESSAGE = "Задача не найдена";
+
+    /**
+     * Создание задачи анализа.
+     *
+     * @param request Объект {@link JobSubmitRequest} с типом анализа и запросом.
+     * @return Ответ 202 с объектом {@link JobResponse} созданной задачи.
+     */
+    @Operation(
+            summary = "Создание задачи анализа",
+            description = "Ставит в очередь анализ любого типа (ANALYZE, STRUCTURE, CLARITY, STABILITY, MATCH, "
+                    + "HIGHLIGHTS, COMPARE, INSIGHTS) с запросом в формате соответствующего эндпоинта "
+                    + "и возвращает идентификатор задачи."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "Задача поставлена в очередь",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = JobResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = BAD_REQUEST_MESSAGE,
+                    content = @Content
+            )
+    })
+    @PostMapping(
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    ResponseEntity<JobResponse> submit(
+            @RequestBody
+            @Parameter(description = "Тип анализа и запрос")
+            JobSubmitRequest request
+    );
+
+    /**
+     * Получение состояния задачи.
+     *
+     * @param id Идентификатор задачи.
+     * @return Объект {@link JobResponse} с состоянием задачи и результатом, если она выполнена.
+     */
+    @Operation(
+            summary = "Состояние задачи анализа",
+            description = "Возвращает состояние задачи (QUEUED, RUNNING, SUCCEEDED, CANCELLED, DEAD), "
+                    + "число попыток и, для выполненной задачи, результат в формате ответа эндпоинта."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = SUCCESS_MESSAGE,
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = JobResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = NOT_FOUND_MESSAGE,
+                    content = @Content
+            )
+    })
+    @GetMapping(
+            value = "/{id}",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    ResponseEntity<JobResponse> get(
+            @PathVariable("id")
+            @Parameter(description = "Идентификатор задачи")
+            String id
+    );
+
+    /**
+     * Отмена задачи.
+     *
+     * @param id Идентификатор задачи.
+     * @return Объект {@link JobResponse} с состоянием задачи после отмены.
+     */
+    @Operation(
+            summary = "Отмена задачи анализа",
+            description = "Отменяет задачу в состоянии QUEUED или RUNNING; выполняемый запрос к модели прерывается. "
+                    + "Состояние завершенной задачи не изменяется."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = SUCCESS_MESSAGE,
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = JobResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = NOT_FOUND_MESSAGE,
+                    content = @Content
+            )
+    })
+    @PostMapping(
+            value = "/{id}/cancel",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    ResponseEntity<JobResponse> cancel(
+            @PathVariable("id")
+            @Parameter(description = "Идентификатор задачи")
+            String id
+    );
+}
@@ -0,0 +1,20 @@
+package org.surkov.gigachatservice.dto;
+
+/**
+ * Извлеченные из ответа GigaChat API текст ответа модели и расход токенов.
+ *
+ * @param content Текст ответа модели ({@code choices[0].message.content}).
+ * @param usage   Расход токенов или {@code null}, если API его не вернул.
+ */
+public record ChatCompletion(String content, Usage usage) {
+
+    /**
+     * Расход токенов запроса ({@code usage}).
+     *
+     * @param promptTokens     Число токенов запроса.
+     * @param completionTokens Число токенов ответа.
+     * @param totalTokens      Общее число токенов.
+     */
+    public record Usage(int promptTokens, int completionTokens, int totalTokens) {
+    }
+}
@@ -24,6 +24,8 @@ public record HistoryEntryDto(
     public record RequestInfo(
             @Schema(description = "Эндпоинт, который вызывался (например, '/chat/match')")
             String endpoint,
+            @Schema(description = "Модель GigaChat, обработавшая запрос (например, 'GigaChat-Pro')")
+            String model,
             @Schema(description = "Превью текста резюме (первые ~50 символов)")
             String textPreview,
             @Schema(description = "Превью текста вакансии (первые ~50 символов, если было)")
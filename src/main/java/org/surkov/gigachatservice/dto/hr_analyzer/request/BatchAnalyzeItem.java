@@ -0,0 +1,22 @@
+package org.surkov.gigachatservice.dto.hr_analyzer.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * DTO элемента пакетного комплексного анализа резюме (/analyze/batch).
+ * Элементы передаются построчно (NDJSON) или JSON-массивом.
+ */
+public record BatchAnalyzeItem(
+        @NotBlank
+        @Schema(description = "Идентификатор элемента на стороне клиента, возвращается в результате", required = true)
+        String id,
+
+        @NotNull
+        @Valid
+        @Schema(description = "Параметры комплексного анализа резюме", required = true)
+        AnalyzeRequest request
+) {
+}
@@ -0,0 +1,21 @@
+package org.surkov.gigachatservice.dto.hr_analyzer.request;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import org.surkov.gigachatservice.entity.hr_analyzer.JobType;
+
+/**
+ * DTO запроса на создание задачи асинхронного анализа (/jobs).
+ */
+public record JobSubmitRequest(
+        @NotNull
+        @Schema(description = "Тип анализа", required = true)
+        JobType type,
+
+        @NotNull
+        @Schema(description = "Запрос анализа в формате соответствующего эндпоинта "
+                + "(AnalyzeRequest, CompareRequest, InsightsRequest и т.д.)", required = true)
+        JsonNode request
+) {
+}
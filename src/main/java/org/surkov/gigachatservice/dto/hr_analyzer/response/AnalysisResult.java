@@ -0,0 +1,14 @@
+package org.surkov.gigachatservice.dto.hr_analyzer.response;
+
+/**
+ * Результат анализа вместе с моделью GigaChat, которая его сформировала.
+ *
+ * @param response Типизированный ответ анализа.
+ * @param model    Модель, фактически обработавшая запрос.
+ * @param <T>      Тип ответа анализа.
+ */
+public record AnalysisResult<T>(
+        T response,
+        String model
+) {
+}
@@ -0,0 +1,24 @@
+package org.surkov.gigachatservice.dto.hr_analyzer.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * DTO результата одного элемента пакетного анализа (строка NDJSON-ответа /analyze/batch).
+ * Содержит либо ответ анализа и модель, либо описание ошибки.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchAnalyzeResult(
+        @Schema(description = "Идентификатор элемента, переданный клиентом")
+        String id,
+
+        @Schema(description = "Модель GigaChat, сформировавшая ответ")
+        String model,
+
+        @Schema(description = "Результат комплексного анализа резюме")
+        AnalyzeResponse response,
+
+        @Schema(description = "Код и описание ошибки, если элемент не обработан")
+        ErrorResponse.ErrorDetail error
+) {
+}
@@ -0,0 +1,42 @@
+package org.surkov.gigachatservice.dto.hr_analyzer.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.surkov.gigachatservice.entity.hr_analyzer.JobStatus;
+import org.surkov.gigachatservice.entity.hr_analyzer.JobType;
+
+import java.time.Instant;
+
+/**
+ * DTO состояния задачи асинхронного анализа.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record JobResponse(
+        @Schema(description = "Идентификатор задачи")
+        String id,
+
+        @Schema(description = "Тип анализа")
+        JobType type,
+
+        @Schema(description = "Состояние задачи")
+        JobStatus status,
+
+        @Schema(description = "Число начатых попыток выполнения")
+        int attempts,
+
+        @Schema(description = "Модель GigaChat, сформировавшая ответ")
+        String model,
+
+        @Schema(description = "Результат анализа в формате ответа соответствующего эндпоинта")
+        Object result,
+
+        @Schema(description = "Описание последней ошибки выполнения")
+        String error,
+
+        @Schema(description = "Время создания задачи (UTC)")
+        Instant createdAt,
+
+        @Schema(description = "Время последнего изменения состояния задачи (UTC)")
+        Instant updatedAt
+) {
+}
@@ -0,0 +1,13 @@
+package org.surkov.gigachatservice.dto.hr_analyzer.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * DTO события потокового ответа (SSE-событие {@code delta}).
+ * Содержит очередной фрагмент текста, сгенерированный моделью.
+ */
+public record StreamDelta(
+        @Schema(description = "Очередной фрагмент текста ответа модели")
+        String content
+) {
+}
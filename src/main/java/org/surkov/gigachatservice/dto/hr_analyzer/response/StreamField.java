@@ -0,0 +1,17 @@
+package org.surkov.gigachatservice.dto.hr_analyzer.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * DTO события потокового ответа (SSE-событие {@code field}).
+ * Содержит значение поля JSON-ответа, полностью сгенерированное моделью
+ * до завершения генерации всего ответа.
+ */
+public record StreamField(
+        @Schema(description = "Путь к полю ответа, например 'structure_score' или 'key_achievements[0]'")
+        String path,
+
+        @Schema(description = "Значение поля: число, строка, логическое значение или null")
+        Object value
+) {
+}
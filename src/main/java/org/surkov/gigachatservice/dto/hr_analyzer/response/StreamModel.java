@@ -0,0 +1,13 @@
+package org.surkov.gigachatservice.dto.hr_analyzer.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * DTO события потокового ответа (SSE-событие {@code model}).
+ * Содержит модель, фактически сформировавшую ответ.
+ */
+public record StreamModel(
+        @Schema(description = "Модель GigaChat, сформировавшая ответ")
+        String model
+) {
+}
@@ -0,0 +1,108 @@
+package org.surkov.gigachatservice.entity.hr_analyzer;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.Instant;
+
+/**
+ * Сущность задачи анализа в персистентной очереди.
+ * Хранит запрос и результат в виде JSON, состояние задачи, число попыток
+ * и аренду (владельца и срок), под которой задача выполняется обработчиком.
+ */
+@Getter
+@Setter
+@ToString
+@Entity
+@Table(
+        name = "analysis_job",
+        indexes = @Index(name = "idx_analysis_job_status", columnList = "status, available_at")
+)
+public class AnalysisJob {
+
+    /**
+     * Уникальный идентификатор задачи (UUID).
+     */
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    /**
+     * Тип задачи.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16, nullable = false)
+    private JobType type;
+
+    /**
+     * Состояние задачи.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16, nullable = false)
+    private JobStatus status;
+
+    /**
+     * JSON запроса анализа.
+     */
+    @Lob
+    @ToString.Exclude
+    @Column(name = "request_json")
+    private String requestJson;
+
+    /**
+     * JSON ответа анализа (после успешного выполнения).
+     */
+    @Lob
+    @ToString.Exclude
+    @Column(name = "result_json")
+    private String resultJson;
+
+    /**
+     * Модель GigaChat, сформировавшая ответ.
+     */
+    @Column(length = 64)
+    private String model;
+
+    /**
+     * Описание последней ошибки выполнения.
+     */
+    @Column(length = 1000)
+    private String error;
+
+    /**
+     * Число начатых попыток выполнения.
+     */
+    private int attempts;
+
+    /**
+     * Идентификатор обработчика, удерживающего аренду задачи.
+     */
+    @Column(name = "lease_owner", length = 128)
+    private String leaseOwner;
+
+    /**
+     * Срок аренды; задача с истекшей арендой возвращается в очередь.
+     */
+    @Column(name = "lease_until")
+    private Instant leaseUntil;
+
+    /**
+     * Время, раньше которого задача не выбирается из очереди (задержка повтора).
+     */
+    @Column(name = "available_at")
+    private Instant availableAt;
+
+    /**
+     * Время создания задачи (в UTC).
+     */
+    @Column(name = "created_at")
+    private Instant createdAt;
+
+    /**
+     * Время последнего изменения состояния задачи (в UTC).
+     */
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+}
@@ -20,9 +20,12 @@ public class History {
 
     /**
      * Уникальный идентификатор записи истории (генерируется автоматически).
+     * Берется из последовательности блоками по 50 значений: в отличие от IDENTITY это позволяет
+     * Hibernate объединять вставки записей в пакеты JDBC ({@code hibernate.jdbc.batch_size}).
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "analysis_history_seq")
+    @SequenceGenerator(name = "analysis_history_seq", sequenceName = "analysis_history_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -30,6 +33,12 @@ public class History {
      */
     private String endpoint;
 
+    /**
+     * Модель GigaChat, фактически обработавшая запрос (например, "GigaChat-Pro").
+     */
+    @Column(length = 64)
+    private String model;
+
     /**
      * Превью текста резюме (первые несколько символов, для удобства).
      */
@@ -0,0 +1,29 @@
+package org.surkov.gigachatservice.entity.hr_analyzer;
+
+/**
+ * Состояние задачи анализа в очереди.
+ *
+ * @author surkov
+ */
+public enum JobStatus {
+    /**
+     * Задача ожидает выполнения (в том числе повторного после ошибки).
+     */
+    QUEUED,
+    /**
+     * Задача выполняется обработчиком, удерживающим ее аренду.
+     */
+    RUNNING,
+    /**
+     * Задача выполнена, результат сохранен.
+     */
+    SUCCEEDED,
+    /**
+     * Задача отменена клиентом.
+     */
+    CANCELLED,
+    /**
+     * Задача не выполнена за допустимое число попыток и больше не повторяется.
+     */
+    DEAD
+}
@@ -0,0 +1,41 @@
+package org.surkov.gigachatservice.entity.hr_analyzer;
+
+/**
+ * Тип задачи анализа: определяет формат запроса и ответа и выполняющий ее эндпоинт.
+ *
+ * @author surkov
+ */
+public enum JobType {
+    /**
+     * Комплексный анализ резюме (/chat/analyze).
+     */
+    ANALYZE,
+    /**
+     * Анализ структуры резюме (/chat/structure).
+     */
+    STRUCTURE,
+    /**
+     * Анализ ясности изложения (/chat/clarity).
+     */
+    CLARITY,
+    /**
+     * Анализ стабильности карьерного пути (/chat/stability).
+     */
+    STABILITY,
+    /**
+     * Проверка соответствия вакансии (/chat/match).
+     */
+    MATCH,
+    /**
+     * Выявление ключевых достижений (/chat/highlights).
+     */
+    HIGHLIGHTS,
+    /**
+     * Сравнение двух резюме (/chat/compare).
+     */
+    COMPARE,
+    /**
+     * Инсайты и рекомендации по резюме (/chat/insights).
+     */
+    INSIGHTS
+}
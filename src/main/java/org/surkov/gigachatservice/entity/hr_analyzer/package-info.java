@@ -1,6 +1,7 @@
 /**
  * Пакет содержит сущности (Entities), которые представляют собой модели данных для хранения информации в базе данных.
- * Основные сущности включают записи истории анализа резюме, содержащие параметры запроса, тип эндпоинта, время и результат анализа.
+ * Основные сущности включают записи истории анализа резюме, содержащие параметры запроса, тип эндпоинта, время и результат анализа,
+ * а также задачи персистентной очереди асинхронного анализа.
  *
  * @author surkov
  */
@@ -0,0 +1,17 @@
+package org.surkov.gigachatservice.exception;
+
+/**
+ * Исключение, выбрасываемое, когда задача анализа с указанным идентификатором не найдена.
+ * Клиенту возвращается HTTP 404.
+ */
+public class JobNotFoundException extends RuntimeException {
+
+    /**
+     * Конструктор с идентификатором задачи.
+     *
+     * @param id Идентификатор задачи.
+     */
+    public JobNotFoundException(final String id) {
+        super("Задача не найдена: " + id);
+    }
+}
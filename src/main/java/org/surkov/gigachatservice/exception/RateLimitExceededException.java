@@ -0,0 +1,41 @@
+package org.surkov.gigachatservice.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Исключение, выбрасываемое, когда запрос не может быть выполнен из-за исчерпания
+ * лимитов запросов к GigaChat API. Клиенту возвращается HTTP 429 с заголовком {@code Retry-After}.
+ */
+@Getter
+public class RateLimitExceededException extends RuntimeException {
+
+    /**
+     * Рекомендуемая задержка перед повторным запросом.
+     */
+    private final Duration retryAfter;
+
+    /**
+     * Конструктор с сообщением об ошибке и рекомендуемой задержкой.
+     *
+     * @param message    Сообщение об ошибке.
+     * @param retryAfter Рекомендуемая задержка перед повторным запросом.
+     */
+    public RateLimitExceededException(final String message, final Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Конструктор с сообщением об ошибке, рекомендуемой задержкой и причиной.
+     *
+     * @param message    Сообщение об ошибке.
+     * @param retryAfter Рекомендуемая задержка перед повторным запросом.
+     * @param cause      Причина ошибки (например, ответ 429 от GigaChat API).
+     */
+    public RateLimitExceededException(final String message, final Duration retryAfter, final Throwable cause) {
+        super(message, cause);
+        this.retryAfter = retryAfter;
+    }
+}
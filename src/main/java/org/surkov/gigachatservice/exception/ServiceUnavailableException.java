@@ -0,0 +1,17 @@
+package org.surkov.gigachatservice.exception;
+
+/**
+ * Исключение, выбрасываемое, когда запрос к GigaChat API не выполняется,
+ * чтобы не перегружать деградировавший внешний сервис. Клиенту возвращается HTTP 503.
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    /**
+     * Конструктор с сообщением об ошибке.
+     *
+     * @param message Сообщение об ошибке.
+     */
+    public ServiceUnavailableException(final String message) {
+        super(message);
+    }
+}
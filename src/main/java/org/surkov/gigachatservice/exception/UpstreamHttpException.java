@@ -0,0 +1,45 @@
+package org.surkov.gigachatservice.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Исключение, выбрасываемое, когда GigaChat API ответил неуспешным HTTP-статусом.
+ * Содержит код ответа и, если API его указал, рекомендуемую задержку перед повтором.
+ */
+@Getter
+public class UpstreamHttpException extends ApiRequestException {
+
+    /**
+     * HTTP-код ответа GigaChat API.
+     */
+    private final int statusCode;
+
+    /**
+     * Задержка перед повтором из заголовка {@code Retry-After} или {@code null}, если заголовка нет.
+     */
+    private final Duration retryAfter;
+
+    /**
+     * Конструктор с сообщением об ошибке, кодом ответа и задержкой перед повтором.
+     *
+     * @param message    Сообщение об ошибке.
+     * @param statusCode HTTP-код ответа.
+     * @param retryAfter Задержка перед повтором или {@code null}.
+     */
+    public UpstreamHttpException(final String message, final int statusCode, final Duration retryAfter) {
+        super(message);
+        this.statusCode = statusCode;
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Проверяет, означает ли ответ превышение лимита запросов (HTTP 429).
+     *
+     * @return {@code true}, если код ответа 429.
+     */
+    public boolean isRateLimited() {
+        return statusCode == 429;
+    }
+}
@@ -0,0 +1,172 @@
+package org.surkov.gigachatservice.repository.hr_analyzer;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.surkov.gigachatservice.entity.hr_analyzer.AnalysisJob;
+import org.surkov.gigachatservice.entity.hr_analyzer.JobStatus;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Репозиторий задач персистентной очереди анализа.
+ * Выборка задач для выполнения блокирует строки с пропуском уже заблокированных
+ * ({@code FOR UPDATE SKIP LOCKED}), поэтому несколько обработчиков не получают одну задачу.
+ * Изменения состояния выполняются условными запросами, учитывающими текущее состояние
+ * и владельца аренды, чтобы запоздавший обработчик не перезаписал отмену или повторную выдачу задачи.
+ */
+@Repository
+public interface AnalysisJobRepository extends JpaRepository<AnalysisJob, String> {
+
+    /**
+     * Находит задачи из переданных, находящиеся в одном из указанных состояний.
+     */
+    List<AnalysisJob> findByIdInAndStatusIn(Collection<String> ids, Collection<JobStatus> statuses);
+
+    /**
+     * Блокирует до {@code limit} готовых к выполнению задач (старые первыми),
+     * пропуская задачи, заблокированные другими транзакциями.
+     */
+    @Query(
+            value = "SELECT id FROM analysis_job WHERE status = 'QUEUED' AND available_at <= :now "
+                    + "ORDER BY created_at LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true
+    )
+    List<String> lockQueued(@Param("now") Instant now, @Param("limit") int limit);
+
+    /**
+     * Блокирует до {@code limit} выполняемых задач с истекшей арендой,
+     * пропуская задачи, заблокированные другими транзакциями.
+     */
+    @Query(
+            value = "SELECT id FROM analysis_job WHERE status = 'RUNNING' AND lease_until < :now "
+                    + "LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true
+    )
+    List<String> lockExpired(@Param("now") Instant now, @Param("limit") int limit);
+
+    /**
+     * Выдает задачи обработчику: переводит их в состояние RUNNING с арендой до {@code leaseUntil}
+     * и увеличивает число попыток.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE AnalysisJob j SET j.status = :running, j.leaseOwner = :owner, j.leaseUntil = :leaseUntil, "
+            + "j.attempts = j.attempts + 1, j.updatedAt = :now WHERE j.id IN :ids")
+    int markRunning(
+            @Param("ids") Collection<String> ids,
+            @Param("owner") String owner,
+            @Param("leaseUntil") Instant leaseUntil,
+            @Param("now") Instant now,
+            @Param("running") JobStatus running
+    );
+
+    /**
+     * Продлевает аренду задач, которые обработчик продолжает выполнять.
+     */
+    @Modifying
+    @Query("UPDATE AnalysisJob j SET j.leaseUntil = :leaseUntil "
+            + "WHERE j.id IN :ids AND j.leaseOwner = :owner AND j.status = :running")
+    int renewLeases(
+            @Param("ids") Collection<String> ids,
+            @Param("owner") String owner,
+            @Param("leaseUntil") Instant leaseUntil,
+            @Param("running") JobStatus running
+    );
+
+    /**
+     * Возвращает задачи из переданных, которые обработчик больше не удерживает
+     * (отменены, завершены или выданы другому обработчику после истечения аренды).
+     */
+    @Query("SELECT j.id FROM AnalysisJob j WHERE j.id IN :ids "
+            + "AND (j.status <> :running OR j.leaseOwner IS NULL OR j.leaseOwner <> :owner)")
+    List<String> findLost(
+            @Param("ids") Collection<String> ids,
+            @Param("owner") String owner,
+            @Param("running") JobStatus running
+    );
+
+    /**
+     * Сохраняет результат задачи, если обработчик все еще удерживает ее аренду.
+     */
+    @Modifying
+    @Query("UPDATE AnalysisJob j SET j.status = :succeeded, j.resultJson = :resultJson, j.model = :model, "
+            + "j.error = null, j.leaseOwner = null, j.leaseUntil = null, j.updatedAt = :now "
+            + "WHERE j.id = :id AND j.leaseOwner = :owner AND j.status = :running")
+    int complete(
+            @Param("id") String id,
+            @Param("owner") String owner,
+            @Param("model") String model,
+            @Param("resultJson") String resultJson,
+            @Param("now") Instant now,
+            @Param("running") JobStatus running,
+            @Param("succeeded") JobStatus succeeded
+    );
+
+    /**
+     * Снимает аренду задачи и переводит ее в состояние {@code status} (повтор или dead letter),
+     * если обработчик все еще удерживает аренду. Задержка повтора задается {@code availableAt}.
+     */
+    @Modifying
+    @Query("UPDATE AnalysisJob j SET j.status = :status, j.error = :error, j.availableAt = :availableAt, "
+            + "j.leaseOwner = null, j.leaseUntil = null, j.updatedAt = :now "
+            + "WHERE j.id = :id AND j.leaseOwner = :owner AND j.status = :running")
+    int release(
+            @Param("id") String id,
+            @Param("owner") String owner,
+            @Param("status") JobStatus status,
+            @Param("error") String error,
+            @Param("availableAt") Instant availableAt,
+            @Param("now") Instant now,
+            @Param("running") JobStatus running
+    );
+
+    /**
+     * Возвращает в очередь задачи с истекшей арендой, у которых остались попытки,
+     * и переводит в {@code dead} задачи, исчерпавшие попытки.
+     */
+    @Modifying
+    @Query("UPDATE AnalysisJob j SET j.status = CASE WHEN j.attempts >= :maxAttempts THEN :dead ELSE :queued END, "
+            + "j.error = :error, j.availableAt = :now, j.leaseOwner = null, j.leaseUntil = null, j.updatedAt = :now "
+            + "WHERE j.id IN :ids")
+    int recover(
+            @Param("ids") Collection<String> ids,
+            @Param("maxAttempts") int maxAttempts,
+            @Param("error") String error,
+            @Param("now") Instant now,
+            @Param("queued") JobStatus queued,
+            @Param("dead") JobStatus dead
+    );
+
+    /**
+     * Возвращает в очередь задачи, выполнение которых прервано остановкой обработчика,
+     * не засчитывая прерванную попытку.
+     */
+    @Modifying
+    @Query("UPDATE AnalysisJob j SET j.status = :queued, j.attempts = j.attempts - 1, j.availableAt = :now, "
+            + "j.leaseOwner = null, j.leaseUntil = null, j.updatedAt = :now "
+            + "WHERE j.id IN :ids AND j.leaseOwner = :owner AND j.status = :running")
+    int requeue(
+            @Param("ids") Collection<String> ids,
+            @Param("owner") String owner,
+            @Param("now") Instant now,
+            @Param("running") JobStatus running,
+            @Param("queued") JobStatus queued
+    );
+
+    /**
+     * Отменяет задачу, если она еще не завершена.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE AnalysisJob j SET j.status = :cancelled, j.leaseOwner = null, j.leaseUntil = null, "
+            + "j.updatedAt = :now WHERE j.id = :id AND j.status IN :active")
+    int cancel(
+            @Param("id") String id,
+            @Param("now") Instant now,
+            @Param("active") Collection<JobStatus> active,
+            @Param("cancelled") JobStatus cancelled
+    );
+}
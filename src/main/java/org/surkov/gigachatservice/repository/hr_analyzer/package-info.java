@@ -1,6 +1,7 @@
 /**
  * Пакет содержит репозитории для доступа к данным, связанным с анализом резюме.
- * Репозитории построены на основе Spring Data JPA и предоставляют методы для выполнения CRUD операций и специализированных запросов.
+ * Репозитории построены на основе Spring Data JPA и предоставляют методы для выполнения CRUD операций и специализированных запросов,
+ * в том числе выборки задач очереди анализа с блокировкой строк.
  *
  * @author surkov
  */
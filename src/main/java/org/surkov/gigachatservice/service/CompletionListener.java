@@ -0,0 +1,27 @@
+package org.surkov.gigachatservice.service;
+
+/**
+ * Слушатель потоковой генерации ответа модели GigaChat.
+ * Получает фрагменты текста ответа по мере их генерации моделью,
+ * а также отдельные поля JSON-ответа, как только их значения полностью сгенерированы.
+ * Методы вызываются в потоке HTTP-клиента, поэтому не должны выполнять длительных операций.
+ */
+@FunctionalInterface
+public interface CompletionListener {
+
+    /**
+     * Вызывается при получении очередного фрагмента текста ответа.
+     *
+     * @param delta Новый фрагмент текста ответа модели.
+     */
+    void onDelta(String delta);
+
+    /**
+     * Вызывается, когда значение очередного поля JSON-ответа полностью сгенерировано.
+     *
+     * @param path  Путь к полю, например {@code structure_score} или {@code key_achievements[0]}.
+     * @param value Типизированное значение поля: число, строка, логическое значение или {@code null}.
+     */
+    default void onField(String path, Object value) {
+    }
+}
@@ -1,16 +1,20 @@
 package org.surkov.gigachatservice.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
-import org.surkov.gigachatservice.utils.TokenManager;
 import org.surkov.gigachatservice.config.GigaChatConfig;
+import org.surkov.gigachatservice.dto.ChatCompletion;
+import org.surkov.gigachatservice.utils.ChatCompletionDecoder;
+import org.surkov.gigachatservice.utils.CredentialPool;
 import org.surkov.gigachatservice.utils.GigaChatApiClient;
+import org.surkov.gigachatservice.utils.RequestKey;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Фасад для взаимодействия с GigaChat API.
@@ -28,20 +32,35 @@ public class GigaChatDialog {
     private final GigaChatConfig config;
 
     /**
-     * Менеджер токенов, предоставляющий токен доступа для аутентификации в API.
+     * Пул учетных записей, получающий токены доступа для аутентификации в API.
      */
-    private final TokenManager tokenManager;
+    private final CredentialPool credentialPool;
 
     /**
      * Клиент для выполнения запросов к GigaChat API.
      */
     private final GigaChatApiClient apiClient;
 
-    private final ObjectMapper objectMapper;
+    /**
+     * Извлечение фрагментов текста из чанков потокового ответа.
+     */
+    private final ChatCompletionDecoder completionDecoder;
+
+    /**
+     * Реестр метрик.
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Компонент, объединяющий одновременные идентичные запросы в один вызов API.
+     */
+    private final RequestCoalescer requestCoalescer;
 
     /**
      * Инициализирует компонент.
-     * Проверяет конфигурацию и получает начальный токен доступа.
+     * Проверяет конфигурацию и получает начальные токены доступа, после чего запускается
+     * их фоновое обновление. Узел в роли {@link GigaChatConfig.Jobs.Role#API} не обращается
+     * к модели (запросы выполняют обработчики очереди задач), поэтому токены не запрашивает.
      *
      * @throws IllegalStateException конфигурация некорректна
      *                               или не удалось получить токен доступа
@@ -49,8 +68,12 @@ public class GigaChatDialog {
     @PostConstruct
     public void init() {
         validateConfig();
+        if (config.getJobs().getRole() == GigaChatConfig.Jobs.Role.API) {
+            log.info("Узел работает в роли API: токены доступа GigaChat не запрашиваются");
+            return;
+        }
         try {
-            tokenManager.fetchAccessToken();
+            credentialPool.fetchAccessTokens();
         } catch (Exception e) {
             log.error("Не удалось инициализировать GigaChatDialog", e);
             throw new IllegalStateException("Не удалось инициализировать GigaChatDialog", e);
@@ -77,22 +100,118 @@ public class GigaChatDialog {
      * @return Ответ от API в виде строки.
      */
     public String getResponse(String systemPrompt, String text, String model) {
-        String response = apiClient.getResponse(systemPrompt, text, model);
-        log.info("Raw response: {}", response);
-
-        if (response.startsWith("{")) { // Проверяем, начинается ли ответ с '{'
-            // Вероятно, это JSON. Пытаемся парсить.
-            try {
-                JsonNode rootNode = objectMapper.readTree(response); // objectMapper снова нужен
-                return rootNode.path("choices").get(0).path("message").path("content").asText();
-            } catch (IOException e) {
-                log.error("Error parsing JSON response: {}", e.getMessage(), e);
-                // Обработка ошибки парсинга JSON. Можно вернуть весь response,
-                //  можно выбросить исключение - зависит от требований.
-                return response; // Or throw an exception
+        return extractContent(model, apiClient.getResponse(systemPrompt, text, model));
+    }
+
+    /**
+     * Асинхронно выполняет запрос к GigaChat API.
+     * Извлечение содержимого ответа выполняется по завершении HTTP-вызова,
+     * без блокировки потока вызывающего. Одновременные идентичные запросы
+     * (та же модель, промпт и текст) объединяются в один вызов API.
+     *
+     * @param systemPrompt Системный промпт, задающий контекст для анализа.
+     * @param text         Текст резюме для анализа.
+     * @param model        Модель для анализа резюме.
+     * @return Future с содержимым ответа модели. Отмена future отменяет HTTP-вызов.
+     */
+    public CompletableFuture<String> getResponseAsync(String systemPrompt, String text, String model) {
+        return requestCoalescer.execute(
+                RequestKey.hash(model, systemPrompt, text),
+                () -> {
+                    CompletableFuture<ChatCompletion> call = apiClient.getResponseAsync(systemPrompt, text, model);
+                    CompletableFuture<String> result = call.thenApply(completion -> extractContent(model, completion));
+                    result.whenComplete((value, error) -> {
+                        if (result.isCancelled()) {
+                            call.cancel(true);
+                        }
+                    });
+                    return result;
+                }
+        );
+    }
+
+    /**
+     * Асинхронно выполняет запрос к GigaChat API в потоковом режиме.
+     * Каждый фрагмент ответа передается слушателю сразу после получения,
+     * а итоговый текст ответа собирается из всех фрагментов.
+     *
+     * @param systemPrompt Системный промпт, задающий контекст для анализа.
+     * @param text         Текст резюме для анализа.
+     * @param model        Модель для анализа резюме.
+     * @param listener     Слушатель фрагментов ответа.
+     * @return Future с полным содержимым ответа модели. Отмена future прекращает чтение потока.
+     */
+    public CompletableFuture<String> getResponseStreamAsync(
+            String systemPrompt,
+            String text,
+            String model,
+            CompletionListener listener
+    ) {
+        StringBuilder content = new StringBuilder();
+        CompletableFuture<Void> call = apiClient.getResponseStreamAsync(systemPrompt, text, model, chunk -> {
+            String delta = extractDelta(chunk);
+            if (!delta.isEmpty()) {
+                content.append(delta);
+                listener.onDelta(delta);
             }
-        } else {
-            return response;
+        });
+        CompletableFuture<String> result = call.thenApply(ignored -> {
+            log.debug("Streamed response: {}", content);
+            return content.toString();
+        });
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                call.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Извлекает фрагмент текста ({@code choices[0].delta.content}) из очередного чанка потокового ответа.
+     *
+     * @param chunk JSON-фрагмент потокового ответа API.
+     * @return Фрагмент текста ответа или пустая строка, если чанк не содержит текста.
+     */
+    private String extractDelta(String chunk) {
+        try {
+            return completionDecoder.decodeDelta(chunk);
+        } catch (IOException e) {
+            log.error("Error parsing stream chunk: {}", e.getMessage(), e);
+            return "";
         }
     }
+
+    /**
+     * Возвращает текст ответа модели и учитывает расход токенов в метрике {@code gigachat.tokens}.
+     *
+     * @param model      Модель, сформировавшая ответ.
+     * @param completion Текст ответа и расход токенов.
+     * @return Содержимое ответа модели.
+     */
+    private String extractContent(String model, ChatCompletion completion) {
+        log.debug("Raw response: {}", completion.content());
+        ChatCompletion.Usage usage = completion.usage();
+        if (usage != null) {
+            countTokens(model, "prompt", usage.promptTokens());
+            countTokens(model, "completion", usage.completionTokens());
+        }
+        return completion.content();
+    }
+
+    /**
+     * Увеличивает счетчик израсходованных токенов модели.
+     *
+     * @param model  Модель GigaChat.
+     * @param type   Тип токенов ({@code prompt} или {@code completion}).
+     * @param tokens Число токенов.
+     */
+    private void countTokens(String model, String type, int tokens) {
+        Counter.builder("gigachat.tokens")
+                .description("Токены, израсходованные запросами к модели (по данным usage ответа API)")
+                .tag("model", model)
+                .tag("type", type)
+                .register(meterRegistry)
+                .increment(tokens);
+    }
 }
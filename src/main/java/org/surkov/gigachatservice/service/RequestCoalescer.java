@@ -0,0 +1,167 @@
+package org.surkov.gigachatservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Объединение одновременных одинаковых запросов к GigaChat API (single-flight).
+ * Пока запрос с некоторым ключом выполняется, все последующие запросы с тем же ключом
+ * не обращаются к API, а присоединяются к уже выполняющемуся вызову и получают его результат.
+ * После завершения вызова ключ освобождается, и следующий запрос снова обращается к API.
+ * Вызов API отменяется, когда его результат отменили все присоединенные к нему запросы.
+ * <p>
+ * Метрики: {@code gigachat.singleflight.deduplicated} — число запросов, присоединенных
+ * к уже выполняющемуся вызову, {@code gigachat.singleflight.inflight} — число выполняющихся вызовов.
+ *
+ * @author surkov
+ */
+@Slf4j
+@Component
+public class RequestCoalescer {
+
+    /**
+     * Выполняющиеся вызовы по ключу запроса.
+     */
+    private final ConcurrentMap<String, Flight> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Счетчик запросов, присоединенных к уже выполняющемуся вызову.
+     */
+    private final Counter deduplicated;
+
+    /**
+     * Создает компонент и регистрирует его метрики.
+     *
+     * @param meterRegistry Реестр метрик.
+     */
+    public RequestCoalescer(MeterRegistry meterRegistry) {
+        this.deduplicated = Counter.builder("gigachat.singleflight.deduplicated")
+                .description("Запросы, присоединенные к уже выполняющемуся идентичному вызову GigaChat API")
+                .register(meterRegistry);
+        Gauge.builder("gigachat.singleflight.inflight", inFlight, ConcurrentMap::size)
+                .description("Число выполняющихся уникальных вызовов GigaChat API")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Выполняет вызов или присоединяется к уже выполняющемуся вызову с тем же ключом.
+     * Каждый вызывающий получает собственную копию future: отмена одним из вызывающих
+     * не затрагивает остальных, а отмена последним из них отменяет вызов API и освобождает ключ.
+     *
+     * @param key  Ключ запроса (хэш модели, промпта и текста).
+     * @param call Функция, запускающая вызов API.
+     * @return Future с результатом вызова.
+     */
+    public CompletableFuture<String> execute(String key, Supplier<CompletableFuture<String>> call) {
+        Flight[] started = new Flight[1];
+        Flight flight = inFlight.compute(key, (k, existing) -> {
+            if (existing != null && existing.join()) {
+                return existing;
+            }
+            started[0] = new Flight();
+            return started[0];
+        });
+        if (started[0] == null) {
+            deduplicated.increment();
+            log.debug("Запрос {} присоединен к выполняющемуся вызову", key);
+        } else {
+            start(key, flight, call);
+        }
+        CompletableFuture<String> result = flight.promise.copy();
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled() && flight.leave()) {
+                log.debug("Вызов {} отменен всеми ожидавшими его запросами", key);
+                inFlight.remove(key, flight);
+                flight.promise.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Запускает вызов API и связывает его с общим результатом.
+     *
+     * @param key    Ключ запроса.
+     * @param flight Выполняющийся вызов.
+     * @param call   Функция, запускающая вызов API.
+     */
+    private void start(String key, Flight flight, Supplier<CompletableFuture<String>> call) {
+        CompletableFuture<String> upstream;
+        try {
+            upstream = call.get();
+        } catch (RuntimeException e) {
+            inFlight.remove(key, flight);
+            flight.promise.completeExceptionally(e);
+            return;
+        }
+        flight.promise.whenComplete((value, error) -> {
+            if (flight.promise.isCancelled()) {
+                upstream.cancel(true);
+            }
+        });
+        upstream.whenComplete((result, error) -> {
+            inFlight.remove(key, flight);
+            if (error != null) {
+                flight.promise.completeExceptionally(error);
+            } else {
+                flight.promise.complete(result);
+            }
+        });
+    }
+
+    /**
+     * Выполняющийся вызов API и число ожидающих его результата запросов.
+     */
+    private static final class Flight {
+
+        /**
+         * Общий результат вызова.
+         */
+        private final CompletableFuture<String> promise = new CompletableFuture<>();
+
+        /**
+         * Число запросов, ожидающих результата.
+         */
+        private int waiters = 1;
+
+        /**
+         * Признак отмены вызова: к нему больше нельзя присоединиться.
+         */
+        private boolean cancelled;
+
+        /**
+         * Присоединяет запрос к вызову.
+         *
+         * @return {@code false}, если вызов уже отменен.
+         */
+        synchronized boolean join() {
+            if (cancelled) {
+                return false;
+            }
+            waiters++;
+            return true;
+        }
+
+        /**
+         * Отсоединяет отмененный запрос от вызова.
+         *
+         * @return {@code true}, если это был последний ожидавший запрос и вызов нужно отменить.
+         */
+        synchronized boolean leave() {
+            waiters--;
+            if (waiters == 0 && !promise.isDone()) {
+                cancelled = true;
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,782 @@
+package org.surkov.gigachatservice.service.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.surkov.gigachatservice.config.GigaChatConfig;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * Персистентный уровень кэша ответов модели, переживающий перезапуск сервиса.
+ * <p>
+ * Записи дописываются в конец сегментного файла, отображенного в память
+ * ({@link MappedByteBuffer}). Формат записи: магическое число, длина ответа,
+ * время записи, ключ (SHA-256, 32 байта), CRC32 ответа и сам ответ в UTF-8.
+ * Магическое число пишется последним, поэтому недописанная при сбое запись
+ * отбрасывается при следующем открытии файла.
+ * <p>
+ * Хэш-индекс с открытой адресацией хранится вне кучи (direct {@link ByteBuffer})
+ * и восстанавливается сканированием файла при старте. Перед обращением к индексу
+ * ключ проверяется фильтром Блума, что делает отрицательные проверки дешевыми.
+ * Перезаписанные и устаревшие записи удаляются фоновым уплотнением файла. Уплотнение
+ * сохраняет порядок записей, поэтому чем ближе запись к началу файла, тем раньше она записана.
+ * Если место в файле закончилось, уплотнение вытесняет самые старые записи так, чтобы
+ * освободить не меньше {@link #EVICTION_RATIO} файла: следующие записи помещаются без уплотнения.
+ * <p>
+ * Файл принадлежит одному процессу: при открытии захватывается блокировка файла {@code <path>.lock},
+ * и если ее удерживает другой процесс (например, второй обработчик на том же хосте с общим
+ * каталогом {@code ./data}), персистентный уровень отключается. Контрольная сумма ответа
+ * проверяется при каждом чтении, поврежденная запись считается промахом.
+ *
+ * @author surkov
+ */
+@Slf4j
+@Component
+public class PersistentResponseStore {
+
+    /**
+     * Магическое число заголовка файла ("GCRS").
+     */
+    private static final int FILE_MAGIC = 0x47435253;
+
+    /**
+     * Версия формата файла.
+     */
+    private static final int FILE_VERSION = 1;
+
+    /**
+     * Размер заголовка файла, в байтах.
+     */
+    private static final int FILE_HEADER_BYTES = 64;
+
+    /**
+     * Магическое число записи ("REC1").
+     */
+    private static final int RECORD_MAGIC = 0x52454331;
+
+    /**
+     * Размер ключа (SHA-256), в байтах.
+     */
+    private static final int KEY_BYTES = 32;
+
+    /**
+     * Смещение длины ответа относительно начала записи.
+     */
+    private static final int LENGTH_OFFSET = 4;
+
+    /**
+     * Смещение времени записи относительно начала записи.
+     */
+    private static final int TIMESTAMP_OFFSET = 8;
+
+    /**
+     * Смещение ключа относительно начала записи.
+     */
+    private static final int KEY_OFFSET = 16;
+
+    /**
+     * Смещение контрольной суммы относительно начала записи.
+     */
+    private static final int CRC_OFFSET = KEY_OFFSET + KEY_BYTES;
+
+    /**
+     * Размер заголовка записи, в байтах.
+     */
+    private static final int RECORD_HEADER_BYTES = CRC_OFFSET + 4;
+
+    /**
+     * Размер ячейки индекса: префикс ключа и смещение записи.
+     */
+    private static final int INDEX_SLOT_BYTES = 16;
+
+    /**
+     * Максимальное число ячеек индекса, при котором смещения ячеек помещаются в int.
+     */
+    private static final int MAX_INDEX_SLOTS = 1 << 26;
+
+    /**
+     * Максимальная заполненность индекса, после которой он увеличивается вдвое.
+     */
+    private static final double MAX_INDEX_LOAD = 0.7;
+
+    /**
+     * Число хэш-функций фильтра Блума.
+     */
+    private static final int BLOOM_HASHES = 4;
+
+    /**
+     * Доля заполнения файла, при которой уплотнение выполняется независимо от доли мусора.
+     */
+    private static final double FULL_SEGMENT_RATIO = 0.9;
+
+    /**
+     * Доля файла, которая освобождается при уплотнении (при необходимости — вытеснением самых старых записей).
+     */
+    private static final double EVICTION_RATIO = 0.25;
+
+    /**
+     * Настройки персистентного уровня кэша.
+     */
+    private final GigaChatConfig.Cache.Persistent settings;
+
+    /**
+     * Блокировка: чтения выполняются параллельно, запись и уплотнение — монопольно.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Число попаданий.
+     */
+    private final Counter hits;
+
+    /**
+     * Число промахов, дошедших до индекса.
+     */
+    private final Counter misses;
+
+    /**
+     * Число промахов, отсеянных фильтром Блума.
+     */
+    private final Counter filtered;
+
+    /**
+     * Число выполненных уплотнений.
+     */
+    private final Counter compactions;
+
+    /**
+     * Число записей, вытесненных при уплотнении.
+     */
+    private final Counter evictions;
+
+    /**
+     * Путь к сегментному файлу.
+     */
+    private Path path;
+
+    /**
+     * Канал файла блокировки, открытый на все время работы хранилища.
+     */
+    private FileChannel lockChannel;
+
+    /**
+     * Блокировка файла, закрепляющая сегментный файл за этим процессом.
+     */
+    private FileLock fileLock;
+
+    /**
+     * Отображенный в память сегментный файл.
+     */
+    private MappedByteBuffer segment;
+
+    /**
+     * Позиция, с которой дописывается следующая запись.
+     */
+    private int writePosition;
+
+    /**
+     * Суммарный размер записей, на которые ссылается индекс.
+     */
+    private long liveBytes;
+
+    /**
+     * Хэш-индекс вне кучи.
+     */
+    private ByteBuffer index;
+
+    /**
+     * Число ячеек индекса (степень двойки).
+     */
+    private int indexSlots;
+
+    /**
+     * Число занятых ячеек индекса.
+     */
+    private int indexSize;
+
+    /**
+     * Биты фильтра Блума.
+     */
+    private long[] bloom;
+
+    /**
+     * Признак того, что хранилище открыто и готово к работе.
+     */
+    private volatile boolean open;
+
+    /**
+     * Создает хранилище и регистрирует его метрики.
+     *
+     * @param config        Конфигурация GigaChat API.
+     * @param meterRegistry Реестр метрик.
+     */
+    public PersistentResponseStore(GigaChatConfig config, MeterRegistry meterRegistry) {
+        this.settings = config.getCache().getPersistent();
+        this.hits = lookupCounter(meterRegistry, "hit");
+        this.misses = lookupCounter(meterRegistry, "miss");
+        this.filtered = lookupCounter(meterRegistry, "filtered");
+        this.compactions = Counter.builder("gigachat.responses.persistent.compactions")
+                .description("Число уплотнений сегментного файла кэша")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("gigachat.responses.persistent.evictions")
+                .description("Число записей, вытесненных из сегментного файла кэша для освобождения места")
+                .register(meterRegistry);
+        Gauge.builder("gigachat.responses.persistent.used.bytes", this, store -> store.writePosition)
+                .description("Занятый объем сегментного файла кэша")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("gigachat.responses.persistent.live.bytes", this, store -> store.liveBytes)
+                .description("Объем актуальных записей в сегментном файле кэша")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Открывает сегментный файл и восстанавливает индекс.
+     * При ошибке открытия или если файл занят другим процессом персистентный уровень
+     * отключается, сервис продолжает работу.
+     */
+    @PostConstruct
+    public void init() {
+        if (!settings.isEnabled()) {
+            log.info("Персистентный кэш ответов отключен");
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            path = Path.of(settings.getPath()).toAbsolutePath();
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            if (!lockFile()) {
+                log.warn(
+                        "Персистентный кэш ответов {} используется другим процессом, уровень отключен; "
+                                + "задайте каждому экземпляру свой giga-chat.cache.persistent.path",
+                        path
+                );
+                return;
+            }
+            openSegment();
+            open = true;
+            log.info(
+                    "Персистентный кэш ответов: path={}, записей={}, занято={} из {} байт",
+                    path,
+                    indexSize,
+                    writePosition,
+                    segment.capacity()
+            );
+        } catch (IOException e) {
+            log.error("Не удалось открыть персистентный кэш ответов {}, уровень отключен", path, e);
+            unlockFile();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Сбрасывает изменения на диск при остановке сервиса.
+     */
+    @PreDestroy
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            if (open) {
+                segment.force();
+                open = false;
+            }
+            unlockFile();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает сохраненный ответ модели.
+     *
+     * @param key Ключ запроса (SHA-256 в шестнадцатеричном виде).
+     * @return Текст ответа модели или {@code null}, если ответа нет или он устарел.
+     */
+    public String get(String key) {
+        if (!open) {
+            return null;
+        }
+        byte[] keyBytes = HexFormat.of().parseHex(key);
+        lock.readLock().lock();
+        try {
+            if (!mightContain(keyBytes)) {
+                filtered.increment();
+                return null;
+            }
+            int slot = findSlot(keyBytes);
+            if (slot < 0) {
+                misses.increment();
+                return null;
+            }
+            int offset = (int) index.getLong(slot * INDEX_SLOT_BYTES + 8);
+            if (isExpired(segment, offset, System.currentTimeMillis())) {
+                misses.increment();
+                return null;
+            }
+            int length = segment.getInt(offset + LENGTH_OFFSET);
+            if (length < 0 || length > segment.capacity() - offset - RECORD_HEADER_BYTES
+                    || !checksumMatches(offset, length)) {
+                log.warn("Запись персистентного кэша ответов по смещению {} повреждена", offset);
+                misses.increment();
+                return null;
+            }
+            byte[] value = new byte[length];
+            segment.get(offset + RECORD_HEADER_BYTES, value);
+            hits.increment();
+            return new String(value, StandardCharsets.UTF_8);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Сохраняет ответ модели. Если место в файле закончилось, выполняется уплотнение
+     * с вытеснением самых старых записей; ответ не сохраняется, только если он больше файла.
+     *
+     * @param key      Ключ запроса (SHA-256 в шестнадцатеричном виде).
+     * @param response Текст ответа модели.
+     */
+    public void put(String key, String response) {
+        if (!open) {
+            return;
+        }
+        byte[] keyBytes = HexFormat.of().parseHex(key);
+        byte[] value = response.getBytes(StandardCharsets.UTF_8);
+        int recordSize = RECORD_HEADER_BYTES + value.length;
+        lock.writeLock().lock();
+        try {
+            if (FILE_HEADER_BYTES + recordSize > segment.capacity()) {
+                log.warn("Ответ размером {} байт не помещается в персистентный кэш ответов", value.length);
+                return;
+            }
+            if ((long) writePosition + recordSize > segment.capacity()) {
+                compact(Math.max(recordSize, reserveBytes()));
+            }
+            int offset = writePosition;
+            CRC32 crc = new CRC32();
+            crc.update(value);
+            segment.putInt(offset + LENGTH_OFFSET, value.length);
+            segment.putLong(offset + TIMESTAMP_OFFSET, System.currentTimeMillis());
+            segment.put(offset + KEY_OFFSET, keyBytes);
+            segment.putInt(offset + CRC_OFFSET, (int) crc.getValue());
+            segment.put(offset + RECORD_HEADER_BYTES, value);
+            segment.putInt(offset, RECORD_MAGIC);
+            writePosition = offset + recordSize;
+            indexRecord(keyBytes, offset, recordSize);
+        } catch (IOException | IllegalStateException e) {
+            log.error("Ошибка записи в персистентный кэш ответов", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Периодически уплотняет сегментный файл, если доля неактуальных данных
+     * превысила порог или файл почти заполнен. Почти заполненный файл освобождается
+     * вытеснением самых старых записей.
+     */
+    @Scheduled(
+            initialDelayString = "${giga-chat.cache.persistent.compaction-interval-ms:600000}",
+            fixedDelayString = "${giga-chat.cache.persistent.compaction-interval-ms:600000}"
+    )
+    public void compactIfNeeded() {
+        if (!open) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            long usedBytes = writePosition - FILE_HEADER_BYTES;
+            if (usedBytes <= 0) {
+                return;
+            }
+            double garbageRatio = (double) (usedBytes - liveBytes) / usedBytes;
+            double fillRatio = (double) writePosition / segment.capacity();
+            if (garbageRatio >= settings.getCompactionGarbageRatio() || fillRatio >= FULL_SEGMENT_RATIO) {
+                compact(reserveBytes());
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.error("Ошибка уплотнения персистентного кэша ответов", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Переписывает актуальные записи в новый файл в порядке их записи и атомарно заменяет им текущий.
+     * Если после удаления неактуальных записей свободно меньше {@code minFreeBytes},
+     * самые старые записи вытесняются. Вызывается под монопольной блокировкой.
+     *
+     * @param minFreeBytes Объем, который должен остаться свободным после уплотнения.
+     * @throws IOException При ошибке работы с файлом.
+     */
+    private void compact(long minFreeBytes) throws IOException {
+        long startedAt = System.currentTimeMillis();
+        int before = writePosition;
+        int[] offsets = new int[indexSize];
+        int count = 0;
+        long keptBytes = 0;
+        for (int slot = 0; slot < indexSlots; slot++) {
+            if (index.getLong(slot * INDEX_SLOT_BYTES) == 0) {
+                continue;
+            }
+            int offset = (int) index.getLong(slot * INDEX_SLOT_BYTES + 8);
+            if (!isExpired(segment, offset, startedAt)) {
+                offsets[count++] = offset;
+                keptBytes += RECORD_HEADER_BYTES + segment.getInt(offset + LENGTH_OFFSET);
+            }
+        }
+        Arrays.sort(offsets, 0, count);
+        int first = 0;
+        while (first < count && FILE_HEADER_BYTES + keptBytes + minFreeBytes > segment.capacity()) {
+            keptBytes -= RECORD_HEADER_BYTES + segment.getInt(offsets[first] + LENGTH_OFFSET);
+            first++;
+        }
+
+        Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+        try (FileChannel channel = FileChannel.open(
+                compacted,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE
+        )) {
+            MappedByteBuffer target = channel.map(FileChannel.MapMode.READ_WRITE, 0, segment.capacity());
+            writeFileHeader(target);
+            int position = FILE_HEADER_BYTES;
+            for (int i = first; i < count; i++) {
+                int recordSize = RECORD_HEADER_BYTES + segment.getInt(offsets[i] + LENGTH_OFFSET);
+                target.put(position, segment, offsets[i], recordSize);
+                position += recordSize;
+            }
+            target.force();
+        }
+        Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        openSegment();
+        compactions.increment();
+        evictions.increment(first);
+        log.info(
+                "Персистентный кэш ответов уплотнен: {} -> {} байт, записей {}, вытеснено {}, {} мс",
+                before,
+                writePosition,
+                indexSize,
+                first,
+                System.currentTimeMillis() - startedAt
+        );
+    }
+
+    /**
+     * Захватывает блокировку файла {@code <path>.lock}. Блокируется отдельный файл, а не сегментный:
+     * сегментный файл заменяется при уплотнении, и блокировка на нем была бы потеряна.
+     *
+     * @return {@code false}, если блокировку удерживает другой процесс.
+     * @throws IOException При ошибке работы с файлом.
+     */
+    private boolean lockFile() throws IOException {
+        lockChannel = FileChannel.open(
+                path.resolveSibling(path.getFileName() + ".lock"),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE
+        );
+        try {
+            fileLock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            fileLock = null;
+        }
+        if (fileLock == null) {
+            unlockFile();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Освобождает блокировку файла и закрывает его канал.
+     */
+    private void unlockFile() {
+        try {
+            if (lockChannel != null) {
+                // Закрытие канала освобождает и блокировку
+                lockChannel.close();
+            }
+        } catch (IOException e) {
+            log.warn("Не удалось освободить блокировку персистентного кэша ответов {}", path, e);
+        }
+        lockChannel = null;
+        fileLock = null;
+    }
+
+    /**
+     * Возвращает объем, который уплотнение оставляет свободным.
+     *
+     * @return Объем в байтах.
+     */
+    private long reserveBytes() {
+        return (long) (segment.capacity() * EVICTION_RATIO);
+    }
+
+    /**
+     * Отображает сегментный файл в память и восстанавливает индекс и фильтр Блума
+     * сканированием записей. Сканирование останавливается на первой некорректной записи.
+     *
+     * @throws IOException При ошибке работы с файлом.
+     */
+    private void openSegment() throws IOException {
+        int capacity = settings.getSegmentSizeBytes();
+        try (FileChannel channel = FileChannel.open(
+                path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE
+        )) {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        }
+        if (segment.getInt(0) != FILE_MAGIC || segment.getInt(4) != FILE_VERSION) {
+            if (segment.getInt(0) != 0) {
+                log.warn("Формат файла персистентного кэша {} не распознан, файл будет перезаписан", path);
+            }
+            segment.put(0, new byte[FILE_HEADER_BYTES + RECORD_HEADER_BYTES]);
+            writeFileHeader(segment);
+        }
+
+        indexSlots = Integer.highestOneBit(Math.max(16, settings.getInitialIndexSlots()) - 1) << 1;
+        index = ByteBuffer.allocateDirect(indexSlots * INDEX_SLOT_BYTES);
+        indexSize = 0;
+        liveBytes = 0;
+        bloom = new long[Math.max(1, settings.getBloomFilterBits() >>> 6)];
+
+        long now = System.currentTimeMillis();
+        byte[] keyBytes = new byte[KEY_BYTES];
+        int offset = FILE_HEADER_BYTES;
+        while (offset + RECORD_HEADER_BYTES <= capacity && segment.getInt(offset) == RECORD_MAGIC) {
+            int length = segment.getInt(offset + LENGTH_OFFSET);
+            if (length < 0 || length > capacity - offset - RECORD_HEADER_BYTES
+                    || !checksumMatches(offset, length)) {
+                break;
+            }
+            if (!isExpired(segment, offset, now)) {
+                segment.get(offset + KEY_OFFSET, keyBytes);
+                indexRecord(keyBytes, offset, RECORD_HEADER_BYTES + length);
+            }
+            offset += RECORD_HEADER_BYTES + length;
+        }
+        writePosition = offset;
+        if (offset + RECORD_HEADER_BYTES <= capacity) {
+            // Обнуляем возможный хвост недописанной записи, чтобы она не ожила после новых записей
+            segment.putInt(offset, 0);
+        }
+    }
+
+    /**
+     * Добавляет запись в индекс и фильтр Блума, заменяя предыдущую запись с тем же ключом.
+     *
+     * @param keyBytes   Ключ записи.
+     * @param offset     Смещение записи в файле.
+     * @param recordSize Размер записи.
+     */
+    private void indexRecord(byte[] keyBytes, int offset, int recordSize) {
+        int slot = findSlot(keyBytes);
+        if (slot >= 0) {
+            int previous = (int) index.getLong(slot * INDEX_SLOT_BYTES + 8);
+            liveBytes -= RECORD_HEADER_BYTES + segment.getInt(previous + LENGTH_OFFSET);
+            index.putLong(slot * INDEX_SLOT_BYTES + 8, offset);
+        } else {
+            if (indexSize + 1 > indexSlots * MAX_INDEX_LOAD) {
+                growIndex();
+            }
+            insertSlot(prefix(keyBytes), offset);
+            indexSize++;
+            addToBloom(keyBytes);
+        }
+        liveBytes += recordSize;
+    }
+
+    /**
+     * Ищет ячейку индекса с указанным ключом.
+     *
+     * @param keyBytes Ключ записи.
+     * @return Номер ячейки или {@code -1}, если ключа в индексе нет.
+     */
+    private int findSlot(byte[] keyBytes) {
+        long prefix = prefix(keyBytes);
+        int mask = indexSlots - 1;
+        int slot = (int) (prefix ^ (prefix >>> 32)) & mask;
+        while (true) {
+            long stored = index.getLong(slot * INDEX_SLOT_BYTES);
+            if (stored == 0) {
+                return -1;
+            }
+            if (stored == prefix
+                    && keyEquals((int) index.getLong(slot * INDEX_SLOT_BYTES + 8), keyBytes)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Помещает запись в первую свободную ячейку по цепочке линейного пробирования.
+     *
+     * @param prefix Префикс ключа.
+     * @param offset Смещение записи в файле.
+     */
+    private void insertSlot(long prefix, long offset) {
+        int mask = indexSlots - 1;
+        int slot = (int) (prefix ^ (prefix >>> 32)) & mask;
+        while (index.getLong(slot * INDEX_SLOT_BYTES) != 0) {
+            slot = (slot + 1) & mask;
+        }
+        index.putLong(slot * INDEX_SLOT_BYTES, prefix);
+        index.putLong(slot * INDEX_SLOT_BYTES + 8, offset);
+    }
+
+    /**
+     * Увеличивает индекс вдвое и перераспределяет записи.
+     */
+    private void growIndex() {
+        if (indexSlots >= MAX_INDEX_SLOTS) {
+            throw new IllegalStateException("Превышен максимальный размер индекса персистентного кэша");
+        }
+        ByteBuffer previous = index;
+        int previousSlots = indexSlots;
+        indexSlots = previousSlots << 1;
+        index = ByteBuffer.allocateDirect(indexSlots * INDEX_SLOT_BYTES);
+        for (int slot = 0; slot < previousSlots; slot++) {
+            long prefix = previous.getLong(slot * INDEX_SLOT_BYTES);
+            if (prefix != 0) {
+                insertSlot(prefix, previous.getLong(slot * INDEX_SLOT_BYTES + 8));
+            }
+        }
+    }
+
+    /**
+     * Сравнивает ключ записи в файле с искомым.
+     *
+     * @param offset   Смещение записи в файле.
+     * @param keyBytes Искомый ключ.
+     * @return {@code true}, если ключи совпадают.
+     */
+    private boolean keyEquals(int offset, byte[] keyBytes) {
+        return segment.slice(offset + KEY_OFFSET, KEY_BYTES).equals(ByteBuffer.wrap(keyBytes));
+    }
+
+    /**
+     * Проверяет контрольную сумму ответа в записи.
+     *
+     * @param offset Смещение записи в файле.
+     * @param length Длина ответа.
+     * @return {@code true}, если контрольная сумма совпадает.
+     */
+    private boolean checksumMatches(int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(segment.slice(offset + RECORD_HEADER_BYTES, length));
+        return (int) crc.getValue() == segment.getInt(offset + CRC_OFFSET);
+    }
+
+    /**
+     * Проверяет, устарела ли запись.
+     *
+     * @param buffer Буфер с записью.
+     * @param offset Смещение записи.
+     * @param now    Текущее время.
+     * @return {@code true}, если время жизни записи истекло.
+     */
+    private boolean isExpired(ByteBuffer buffer, int offset, long now) {
+        return buffer.getLong(offset + TIMESTAMP_OFFSET) + settings.getTtlMs() < now;
+    }
+
+    /**
+     * Возвращает ненулевой префикс ключа для индекса (0 обозначает пустую ячейку).
+     *
+     * @param keyBytes Ключ записи.
+     * @return Префикс ключа.
+     */
+    private static long prefix(byte[] keyBytes) {
+        long prefix = ByteBuffer.wrap(keyBytes, 0, Long.BYTES).getLong();
+        return prefix == 0 ? 1 : prefix;
+    }
+
+    /**
+     * Добавляет ключ в фильтр Блума.
+     *
+     * @param keyBytes Ключ записи.
+     */
+    private void addToBloom(byte[] keyBytes) {
+        long bits = (long) bloom.length << 6;
+        ByteBuffer key = ByteBuffer.wrap(keyBytes);
+        long h1 = key.getLong(8);
+        long h2 = key.getLong(16);
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            bloom[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * Проверяет ключ по фильтру Блума.
+     *
+     * @param keyBytes Ключ записи.
+     * @return {@code false}, если ключа в хранилище точно нет.
+     */
+    private boolean mightContain(byte[] keyBytes) {
+        long bits = (long) bloom.length << 6;
+        ByteBuffer key = ByteBuffer.wrap(keyBytes);
+        long h1 = key.getLong(8);
+        long h2 = key.getLong(16);
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            if ((bloom[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Записывает заголовок сегментного файла.
+     *
+     * @param buffer Буфер файла.
+     */
+    private static void writeFileHeader(ByteBuffer buffer) {
+        buffer.putInt(0, FILE_MAGIC);
+        buffer.putInt(4, FILE_VERSION);
+    }
+
+    /**
+     * Создает счетчик обращений к хранилищу с указанным результатом.
+     *
+     * @param meterRegistry Реестр метрик.
+     * @param result        Результат обращения.
+     * @return Счетчик.
+     */
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("gigachat.responses.persistent.gets")
+                .description("Обращения к персистентному кэшу ответов")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,112 @@
+package org.surkov.gigachatservice.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.surkov.gigachatservice.config.GigaChatConfig;
+
+import java.time.Duration;
+
+/**
+ * Ограниченный по объему потокобезопасный кэш ответов модели в памяти.
+ * Ключ — хэш запроса (см. {@link org.surkov.gigachatservice.utils.RequestKey}),
+ * значение — текст ответа модели (JSON). Построен на Caffeine: допуск новых записей
+ * выполняется по политике W-TinyLFU, вес записи равен размеру ответа в байтах,
+ * записи устаревают по TTL. Счетчики попаданий, промахов и вытеснений публикуются
+ * в Micrometer под именем {@code gigachat.responses}. При промахе в памяти ответ
+ * ищется в персистентном уровне ({@link PersistentResponseStore}) и при попадании
+ * поднимается в память; новые ответы записываются в оба уровня.
+ *
+ * @author surkov
+ */
+@Slf4j
+@Component
+public class ResponseCache {
+
+    /**
+     * Имя кэша в метриках.
+     */
+    private static final String CACHE_NAME = "gigachat.responses";
+
+    /**
+     * Фиксированные накладные расходы на одну запись (ключ и служебные объекты), в байтах.
+     */
+    private static final int ENTRY_OVERHEAD_BYTES = 128;
+
+    /**
+     * Признак включения кэша.
+     */
+    private final boolean enabled;
+
+    /**
+     * Кэш ответов модели.
+     */
+    private final Cache<String, String> cache;
+
+    /**
+     * Персистентный уровень кэша.
+     */
+    private final PersistentResponseStore persistentStore;
+
+    /**
+     * Создает кэш по настройкам из конфигурации и регистрирует его метрики.
+     *
+     * @param config          Конфигурация GigaChat API.
+     * @param meterRegistry   Реестр метрик.
+     * @param persistentStore Персистентный уровень кэша.
+     */
+    public ResponseCache(GigaChatConfig config, MeterRegistry meterRegistry, PersistentResponseStore persistentStore) {
+        GigaChatConfig.Cache settings = config.getCache();
+        this.enabled = settings.isEnabled();
+        this.persistentStore = persistentStore;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(settings.getMaxWeightBytes())
+                .weigher((String key, String value) -> ENTRY_OVERHEAD_BYTES + value.length() * 2)
+                .expireAfterWrite(Duration.ofMillis(settings.getTtlMs()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        log.info(
+                "Кэш ответов: enabled={}, maxWeightBytes={}, ttlMs={}",
+                enabled,
+                settings.getMaxWeightBytes(),
+                settings.getTtlMs()
+        );
+    }
+
+    /**
+     * Возвращает закэшированный ответ модели.
+     *
+     * @param key Ключ запроса.
+     * @return Текст ответа модели или {@code null}, если ответа нет в кэше.
+     */
+    public String get(String key) {
+        if (!enabled) {
+            return null;
+        }
+        String response = cache.getIfPresent(key);
+        if (response == null) {
+            response = persistentStore.get(key);
+            if (response != null) {
+                cache.put(key, response);
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Сохраняет ответ модели в кэш.
+     *
+     * @param key      Ключ запроса.
+     * @param response Текст ответа модели.
+     */
+    public void put(String key, String response) {
+        if (enabled) {
+            cache.put(key, response);
+            persistentStore.put(key, response);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+/**
+ * Пакет содержит компоненты кэширования ответов модели GigaChat.
+ * Кэш позволяет не повторять дорогостоящие обращения к API для одинаковых запросов
+ * (одна и та же модель, системный промпт и текст).
+ *
+ * @author surkov
+ */
+package org.surkov.gigachatservice.service.cache;
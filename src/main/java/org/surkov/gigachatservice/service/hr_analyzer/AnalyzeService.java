@@ -4,21 +4,28 @@ import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.surkov.gigachatservice.config.GigaChatConfig;
 import org.surkov.gigachatservice.dto.hr_analyzer.request.AnalyzeRequest;
 import org.surkov.gigachatservice.dto.hr_analyzer.request.ClarityRequest;
 import org.surkov.gigachatservice.dto.hr_analyzer.request.HighlightsRequest;
 import org.surkov.gigachatservice.dto.hr_analyzer.request.MatchRequest;
 import org.surkov.gigachatservice.dto.hr_analyzer.request.StabilityRequest;
 import org.surkov.gigachatservice.dto.hr_analyzer.request.StructureRequest;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.AnalysisResult;
 import org.surkov.gigachatservice.dto.hr_analyzer.response.AnalyzeResponse;
 import org.surkov.gigachatservice.dto.hr_analyzer.response.ClarityResponse;
 import org.surkov.gigachatservice.dto.hr_analyzer.response.HighlightsResponse;
 import org.surkov.gigachatservice.dto.hr_analyzer.response.MatchResponse;
 import org.surkov.gigachatservice.dto.hr_analyzer.response.StabilityResponse;
 import org.surkov.gigachatservice.dto.hr_analyzer.response.StructureResponse;
+import org.surkov.gigachatservice.entity.hr_analyzer.JobType;
+import org.surkov.gigachatservice.service.CompletionListener;
+import org.surkov.gigachatservice.service.jobs.JobQueueClient;
 import org.surkov.gigachatservice.utils.GigaModel;
 import org.surkov.gigachatservice.utils.SystemPrompt;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Сервисный слой, реализующий бизнес-логику анализа резюме.
  * Для каждого типа анализа формирует системный промпт, обращается к GigaChat API
@@ -38,13 +45,50 @@ public class AnalyzeService {
      */
     private final AnalyzeUtils analyzeUtils;
 
+    /**
+     * Конфигурация GigaChat API с настройками комплексного анализа.
+     */
+    private final GigaChatConfig config;
+
+    /**
+     * Параллельное выполнение комплексного анализа специализированными анализами.
+     */
+    private final FanOutAnalyzer fanOutAnalyzer;
+
+    /**
+     * Выполнение запросов через общую очередь задач на узле в роли API.
+     */
+    private final JobQueueClient jobQueue;
+
     /**
      * Выполняет комплексный анализ резюме (эндпоинт /chat/analyze).
      *
      * @param request Запрос с текстом резюме и дополнительными параметрами.
-     * @return Ответ с результатами комплексного анализа резюме.
+     * @return Future с ответом с результатами комплексного анализа резюме
+     * и моделью, сформировавшей ответ.
      */
-    public AnalyzeResponse analyzeComplex(AnalyzeRequest request) {
+    public CompletableFuture<AnalysisResult<AnalyzeResponse>> analyzeComplex(AnalyzeRequest request) {
+        return analyzeComplex(request, null);
+    }
+
+    /**
+     * Выполняет комплексный анализ резюме (эндпоинт /chat/analyze).
+     * Фрагменты ответа передаются слушателю по мере генерации моделью.
+     * Если выбран способ {@link GigaChatConfig.ComplexAnalysis.Engine#FAN_OUT}, обычный (непотоковый)
+     * запрос выполняется параллельными специализированными анализами ({@link FanOutAnalyzer}).
+     *
+     * @param request  Запрос с текстом резюме и дополнительными параметрами.
+     * @param listener Слушатель фрагментов ответа или {@code null} для обычного запроса.
+     * @return Future с ответом с результатами комплексного анализа резюме
+     * и моделью, сформировавшей ответ.
+     */
+    public CompletableFuture<AnalysisResult<AnalyzeResponse>> analyzeComplex(AnalyzeRequest request, CompletionListener listener) {
+        if (jobQueue.isEnabled()) {
+            return jobQueue.execute(JobType.ANALYZE, request, AnalyzeResponse.class);
+        }
+        if (listener == null && config.getComplexAnalysis().getEngine() == GigaChatConfig.ComplexAnalysis.Engine.FAN_OUT) {
+            return fanOutAnalyzer.analyze(request);
+        }
         String decodedTextResume = analyzeUtils.decodeBase64(request.text());
         String inputText = analyzeUtils.buildResumeInput(
                 decodedTextResume,
@@ -59,6 +103,38 @@ public class AnalyzeService {
                 SystemPrompt.ANALYZE_PROMPT_EN,
                 SystemPrompt.ANALYZE_PROMPT_RU,
                 GigaModel.GIGA_MODEL_PRO,
+                AnalyzeResponse.class,
+                listener
+        );
+    }
+
+    /**
+     * Выполняет комплексный анализ резюме (эндпоинт /chat/analyze) в прогрессивном режиме:
+     * черновой ответ Lite-модели приходит сразу, уточненный ответ — после генерации
+     * моделью эндпоинта.
+     *
+     * @param request Запрос с текстом резюме и дополнительными параметрами.
+     * @return Future чернового и уточненного ответов.
+     */
+    public ProgressiveAnalysis<AnalyzeResponse> analyzeComplexProgressive(AnalyzeRequest request) {
+        if (jobQueue.isEnabled()) {
+            return new ProgressiveAnalysis<>(null, jobQueue.execute(JobType.ANALYZE, request, AnalyzeResponse.class));
+        }
+        String decodedTextResume = analyzeUtils.decodeBase64(request.text());
+        String inputText = analyzeUtils.buildResumeInput(
+                decodedTextResume,
+                request.vacancy(),
+                request.expectedPosition(),
+                request.experienceLevel()
+        );
+        return analyzeUtils.processProgressive(
+                "/chat/analyze",
+                inputText,
+                request.language(),
+                SystemPrompt.ANALYZE_PROMPT_EN,
+                SystemPrompt.ANALYZE_PROMPT_RU,
+                GigaModel.GIGA_MODEL_LITE,
+                GigaModel.GIGA_MODEL_PRO,
                 AnalyzeResponse.class
         );
     }
@@ -67,9 +143,26 @@ public class AnalyzeService {
      * Выполняет анализ структуры резюме (эндпоинт /chat/structure).
      *
      * @param request Запрос с текстом резюме и языком.
-     * @return Ответ с результатами анализа структуры резюме.
+     * @return Future с ответом с результатами анализа структуры резюме
+     * и моделью, сформировавшей ответ.
      */
-    public StructureResponse analyzeStructure(StructureRequest request) {
+    public CompletableFuture<AnalysisResult<StructureResponse>> analyzeStructure(StructureRequest request) {
+        return analyzeStructure(request, null);
+    }
+
+    /**
+     * Выполняет анализ структуры резюме (эндпоинт /chat/structure).
+     * Фрагменты ответа передаются слушателю по мере генерации моделью.
+     *
+     * @param request  Запрос с текстом резюме и языком.
+     * @param listener Слушатель фрагментов ответа или {@code null} для обычного запроса.
+     * @return Future с ответом с результатами анализа структуры резюме
+     * и моделью, сформировавшей ответ.
+     */
+    public CompletableFuture<AnalysisResult<StructureResponse>> analyzeStructure(StructureRequest request, CompletionListener listener) {
+        if (jobQueue.isEnabled()) {
+            return jobQueue.execute(JobType.STRUCTURE, request, StructureResponse.class);
+        }
         String decodedTextResume = analyzeUtils.decodeBase64(request.text());
         return analyzeUtils.processRequest(
                 "/chat/structure",
@@ -78,16 +171,35 @@ public class AnalyzeService {
                 SystemPrompt.STRUCTURE_PROMPT_EN,
                 SystemPrompt.STRUCTURE_PROMPT_RU,
                 GigaModel.GIGA_MODEL_LITE,
-                StructureResponse.class);
+                StructureResponse.class,
+                listener
+        );
     }
 
     /**
      * Выполняет анализ ясности изложения резюме (эндпоинт /chat/clarity).
      *
      * @param request Запрос с текстом резюме и языком.
-     * @return Ответ с результатами анализа ясности изложения резюме.
+     * @return Future с ответом с результатами анализа ясности изложения резюме
+     * и моделью, сформировавшей ответ.
      */
-    public ClarityResponse analyzeClarity(ClarityRequest request) {
+    public CompletableFuture<AnalysisResult<ClarityResponse>> analyzeClarity(ClarityRequest request) {
+        return analyzeClarity(request, null);
+    }
+
+    /**
+     * Выполняет анализ ясности изложения резюме (эндпоинт /chat/clarity).
+     * Фрагменты ответа передаются слушателю по мере генерации моделью.
+     *
+     * @param request  Запрос с текстом резюме и языком.
+     * @param listener Слушатель фрагментов ответа или {@code null} для обычного запроса.
+     * @return Future с ответом с результатами анализа ясности изложения резюме
+     * и моделью, сформировавшей ответ.
+     */
+    public CompletableFuture<AnalysisResult<ClarityResponse>> analyzeClarity(ClarityRequest request, CompletionListener listener) {
+        if (jobQueue.isEnabled()) {
+            return jobQueue.execute(JobType.CLARITY, request, ClarityResponse.class);
+        }
         String decodedTextResume = analyzeUtils.decodeBase64(request.text());
         return analyzeUtils.processRequest(
                 "/chat/clarity",
@@ -96,16 +208,35 @@ public class AnalyzeService {
                 SystemPrompt.CLARITY_PROMPT_EN,
                 SystemPrompt.CLARITY_PROMPT_RU,
                 GigaModel.GIGA_MODEL_PRO,
-                ClarityResponse.class);
+                ClarityResponse.class,
+                listener
+        );
     }
 
     /**
      * Выполняет анализ стабильности карьерного пути (эндпоинт /chat/stability).
      *
      * @param request Запрос с текстом резюме и языком.
-     * @return Ответ с результатами анализа стабильности карьерного пути.
+     * @return Future с ответом с результатами анализа стабильности карьерного пути
+     * и моделью, сформировавшей ответ.
+     */
+    public CompletableFuture<AnalysisResult<StabilityResponse>> analyzeStability(StabilityRequest request) {
+        return analyzeStability(request, null);
+    }
+
+    /**
+     * Выполняет анализ стабильности карьерного пути (эндпоинт /chat/stability).
+     * Фрагменты ответа передаются слушателю по мере генерации моделью.
+     *
+     * @param request  Запрос с текстом резюме и языком.
+     * @param listener Слушатель фрагментов ответа или {@code null} для обычного запроса.
+     * @return Future с ответом с результатами анализа стабильности карьерного пути
+     * и моделью, сформировавшей ответ.
      */
-    public StabilityResponse analyzeStability(StabilityRequest request) {
+    public CompletableFuture<AnalysisResult<StabilityResponse>> analyzeStability(StabilityRequest request, CompletionListener listener) {
+        if (jobQueue.isEnabled()) {
+            return jobQueue.execute(JobType.STABILITY, request, StabilityResponse.class);
+        }
         String decodedTextResume = analyzeUtils.decodeBase64(request.text());
         return analyzeUtils.processRequest(
                 "/chat/stability",
@@ -114,7 +245,8 @@ public class AnalyzeService {
                 SystemPrompt.STABILITY_PROMPT_RU,
                 SystemPrompt.STABILITY_PROMPT_RU,
                 GigaModel.GIGA_MODEL_LITE,
-                StabilityResponse.class
+                StabilityResponse.class,
+                listener
         );
     }
 
@@ -122,9 +254,26 @@ public class AnalyzeService {
      * Проверяет соответствие резюме заданной вакансии (эндпоинт /chat/match).
      *
      * @param request Запрос с текстом резюме и дополнительными параметрами.
-     * @return Ответ с результатами проверки соответствия резюме вакансии.
+     * @return Future с ответом с результатами проверки соответствия резюме вакансии
+     * и моделью, сформировавшей ответ.
      */
-    public MatchResponse checkMatch(MatchRequest request) {
+    public CompletableFuture<AnalysisResult<MatchResponse>> checkMatch(MatchRequest request) {
+        return checkMatch(request, null);
+    }
+
+    /**
+     * Проверяет соответствие резюме заданной вакансии (эндпоинт /chat/match).
+     * Фрагменты ответа передаются слушателю по мере генерации моделью.
+     *
+     * @param request  Запрос с текстом резюме и дополнительными параметрами.
+     * @param listener Слушатель фрагментов ответа или {@code null} для обычного запроса.
+     * @return Future с ответом с результатами проверки соответствия резюме вакансии
+     * и моделью, сформировавшей ответ.
+     */
+    public CompletableFuture<AnalysisResult<MatchResponse>> checkMatch(MatchRequest request, CompletionListener listener) {
+        if (jobQueue.isEnabled()) {
+            return jobQueue.execute(JobType.MATCH, request, MatchResponse.class);
+        }
         String decodedTextResume = analyzeUtils.decodeBase64(request.text());
         String inputText = analyzeUtils.buildResumeInput(
                 decodedTextResume,
@@ -139,7 +288,8 @@ public class AnalyzeService {
                 SystemPrompt.MATCH_PROMPT_EN,
                 SystemPrompt.MATCH_PROMPT_RU,
                 GigaModel.GIGA_MODEL_PRO,
-                MatchResponse.class
+                MatchResponse.class,
+                listener
         );
     }
 
@@ -147,9 +297,26 @@ public class AnalyzeService {
      * Выделяет ключевые достижения из резюме (эндпоинт /chat/highlights).
      *
      * @param request Запрос с текстом резюме и языком.
-     * @return Ответ с ключевыми достижениями из резюме.
+     * @return Future с ответом с ключевыми достижениями из резюме
+     * и моделью, сформировавшей ответ.
+     */
+    public CompletableFuture<AnalysisResult<HighlightsResponse>> extractHighlights(HighlightsRequest request) {
+        return extractHighlights(request, null);
+    }
+
+    /**
+     * Выделяет ключевые достижения из резюме (эндпоинт /chat/highlights).
+     * Фрагменты ответа передаются слушателю по мере генерации моделью.
+     *
+     * @param request  Запрос с текстом резюме и языком.
+     * @param listener Слушатель фрагментов ответа или {@code null} для обычного запроса.
+     * @return Future с ответом с ключевыми достижениями из резюме
+     * и моделью, сформировавшей ответ.
      */
-    public HighlightsResponse extractHighlights(HighlightsRequest request) {
+    public CompletableFuture<AnalysisResult<HighlightsResponse>> extractHighlights(HighlightsRequest request, CompletionListener listener) {
+        if (jobQueue.isEnabled()) {
+            return jobQueue.execute(JobType.HIGHLIGHTS, request, HighlightsResponse.class);
+        }
         String decodedTextResume = analyzeUtils.decodeBase64(request.text());
         return analyzeUtils.processRequest(
                 "/chat/highlights",
@@ -158,7 +325,8 @@ public class AnalyzeService {
                 SystemPrompt.HIGHLIGHTS_PROMPT_EN,
                 SystemPrompt.HIGHLIGHTS_PROMPT_RU,
                 GigaModel.GIGA_MODEL_MAX,
-                HighlightsResponse.class
+                HighlightsResponse.class,
+                listener
         );
     }
 }
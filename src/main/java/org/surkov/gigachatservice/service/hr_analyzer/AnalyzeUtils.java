@@ -1,13 +1,29 @@
 package org.surkov.gigachatservice.service.hr_analyzer;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
+import org.surkov.gigachatservice.config.GigaChatConfig;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.AnalysisResult;
+import org.surkov.gigachatservice.service.CompletionListener;
 import org.surkov.gigachatservice.service.GigaChatDialog;
+import org.surkov.gigachatservice.service.cache.ResponseCache;
+import org.surkov.gigachatservice.service.routing.ModelRouter;
+import org.surkov.gigachatservice.utils.IncrementalJsonParser;
+import org.surkov.gigachatservice.utils.JsonCodecRegistry;
+import org.surkov.gigachatservice.utils.RequestKey;
+import org.surkov.gigachatservice.utils.TokenEstimator;
 
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Класс содержащий различные вспомогательные методы, используемые в процессе анализа резюме.
@@ -17,7 +33,6 @@ import java.util.Base64;
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class AnalyzeUtils {
 
     /**
@@ -32,6 +47,74 @@ public class AnalyzeUtils {
      * Сервис для работы с историей запросов анализа резюме.
      */
     private final HistoryService historyService;
+    /**
+     * Кэш ответов модели для повторяющихся запросов.
+     */
+    private final ResponseCache responseCache;
+    /**
+     * Маршрутизатор, выбирающий модель для запроса по задержке и доле ошибок моделей.
+     */
+    private final ModelRouter modelRouter;
+    /**
+     * Реестр заранее созданных ObjectReader по классам ответов анализа.
+     */
+    private final JsonCodecRegistry jsonCodecs;
+    /**
+     * Потоки, в которых ответ модели разбирается и записывается в историю
+     * (вне потоков HTTP-транспорта).
+     */
+    private final ThreadPoolExecutor responseExecutor;
+
+    /**
+     * Создает компонент и пул потоков обработки ответов.
+     *
+     * @param config         Конфигурация GigaChat API.
+     * @param gigaChatDialog Фасад для взаимодействия с GigaChat API.
+     * @param objectMapper   ObjectMapper для обработки JSON.
+     * @param historyService Сервис истории запросов.
+     * @param responseCache  Кэш ответов модели.
+     * @param modelRouter    Маршрутизатор моделей.
+     * @param jsonCodecs     Реестр ObjectReader по классам ответов.
+     */
+    public AnalyzeUtils(
+            GigaChatConfig config,
+            GigaChatDialog gigaChatDialog,
+            ObjectMapper objectMapper,
+            HistoryService historyService,
+            ResponseCache responseCache,
+            ModelRouter modelRouter,
+            JsonCodecRegistry jsonCodecs
+    ) {
+        this.gigaChatDialog = gigaChatDialog;
+        this.objectMapper = objectMapper;
+        this.historyService = historyService;
+        this.responseCache = responseCache;
+        this.modelRouter = modelRouter;
+        this.jsonCodecs = jsonCodecs;
+        GigaChatConfig.ResponseProcessing settings = config.getResponseProcessing();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.responseExecutor = new ThreadPoolExecutor(
+                settings.getThreads(),
+                settings.getThreads(),
+                60,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(settings.getMaxQueueSize()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "gigachat-response-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+    }
+
+    /**
+     * Останавливает пул потоков обработки ответов.
+     */
+    @PreDestroy
+    public void shutdown() {
+        responseExecutor.shutdown();
+    }
 
     /**
      * Формирует текст для ввода резюме, комбинируя основной текст резюме с дополнительной информацией о вакансии,
@@ -118,33 +201,304 @@ public class AnalyzeUtils {
 
     /**
      * Универсальный метод обработки запроса к GigaChat API.
+     * Запрос выполняется асинхронно: десериализация ответа и запись в историю
+     * выполняются по завершении вызова модели. Отмена возвращаемого future отменяет вызов модели.
+     *
+     * @param endpoint     URL эндпоинта, для которого выполняется запрос.
+     * @param text         Текст запроса, который будет отправлен в GigaChat API.
+     * @param language     Код языка запроса. Если значение равно "en" (без учета регистра), используется {@code promptEn}, иначе — {@code promptRu}.
+     * @param promptEn     Системный промпт для английской версии запроса.
+     * @param promptRu     Системный промпт для русской версии запроса.
+     * @param model        Модель GigaChat эндпоинта по умолчанию; фактическую модель выбирает {@link ModelRouter}.
+     * @param responseType Класс, в который будет десериализован JSON-ответ.
+     * @return Future с объектом типа {@code T}, полученным в результате десериализации JSON-ответа от GigaChat API,
+     * и моделью, сформировавшей ответ.
+     * Завершается исключением, если происходит ошибка запроса или десериализации JSON-ответа.
+     */
+    public <T> CompletableFuture<AnalysisResult<T>> processRequest(
+            String endpoint,
+            String text,
+            String language,
+            String promptEn,
+            String promptRu,
+            String model,
+            Class<T> responseType
+    ) {
+        return processRequest(endpoint, text, language, promptEn, promptRu, model, responseType, null);
+    }
+
+    /**
+     * Универсальный метод обработки запроса к GigaChat API с поддержкой потоковой генерации.
+     * Если передан слушатель, ответ запрашивается в потоковом режиме и фрагменты текста
+     * передаются слушателю по мере генерации. Десериализация ответа и запись в историю
+     * выполняются один раз, после получения ответа целиком.
+     * Успешно разобранные ответы кэшируются по ключу (модель, системный промпт, нормализованный текст),
+     * и повторный запрос обслуживается из кэша без обращения к GigaChat API.
+     * Модель для запроса выбирает {@link ModelRouter} по эндпоинту и оценке числа токенов текста,
+     * а по завершении вызова ему сообщаются задержка и результат (ошибка запроса или разбора ответа).
+     *
+     * @param endpoint     URL эндпоинта, для которого выполняется запрос.
+     * @param text         Текст запроса, который будет отправлен в GigaChat API.
+     * @param language     Код языка запроса. Если значение равно "en" (без учета регистра), используется {@code promptEn}, иначе — {@code promptRu}.
+     * @param promptEn     Системный промпт для английской версии запроса.
+     * @param promptRu     Системный промпт для русской версии запроса.
+     * @param model        Модель GigaChat эндпоинта по умолчанию; фактическую модель выбирает {@link ModelRouter}.
+     * @param responseType Класс, в который будет десериализован JSON-ответ.
+     * @param listener     Слушатель фрагментов ответа или {@code null} для обычного (непотокового) запроса.
+     * @return Future с объектом типа {@code T}, полученным в результате десериализации JSON-ответа от GigaChat API,
+     * и моделью, сформировавшей ответ.
+     */
+    public <T> CompletableFuture<AnalysisResult<T>> processRequest(
+            String endpoint,
+            String text,
+            String language,
+            String promptEn,
+            String promptRu,
+            String model,
+            Class<T> responseType,
+            CompletionListener listener
+    ) {
+        String systemPrompt = "en".equalsIgnoreCase(language) ? promptEn : promptRu;
+        String routedModel = modelRouter.route(endpoint, model, TokenEstimator.estimate(text));
+        return execute(endpoint, text, systemPrompt, routedModel, responseType, listener, true);
+    }
+
+    /**
+     * Выполняет запрос одной ветви составного анализа или элемента пакета: так же, как
+     * {@link #processRequest(String, String, String, String, String, String, Class)},
+     * но без сохранения ответа в историю (историю сохраняет вызывающий код).
+     *
+     * @param endpoint     Эндпоинт ветви (определяет политику выбора модели).
+     * @param text         Текст запроса, который будет отправлен в GigaChat API.
+     * @param language     Код языка запроса. Если значение равно "en" (без учета регистра), используется {@code promptEn}, иначе — {@code promptRu}.
+     * @param promptEn     Системный промпт для английской версии запроса.
+     * @param promptRu     Системный промпт для русской версии запроса.
+     * @param model        Модель GigaChat ветви по умолчанию; фактическую модель выбирает {@link ModelRouter}.
+     * @param responseType Класс, в который будет десериализован JSON-ответ.
+     * @param <T>          Тип ответа ветви.
+     * @return Future с ответом ветви и моделью, сформировавшей его.
+     */
+    public <T> CompletableFuture<AnalysisResult<T>> processBranch(
+            String endpoint,
+            String text,
+            String language,
+            String promptEn,
+            String promptRu,
+            String model,
+            Class<T> responseType
+    ) {
+        String systemPrompt = "en".equalsIgnoreCase(language) ? promptEn : promptRu;
+        String routedModel = modelRouter.route(endpoint, model, TokenEstimator.estimate(text));
+        return execute(endpoint, text, systemPrompt, routedModel, responseType, null, false);
+    }
+
+    /**
+     * Обрабатывает запрос в прогрессивном режиме: одновременно запрашивает быстрый черновой
+     * ответ у {@code draftModel} и уточненный ответ у модели, выбранной {@link ModelRouter}.
+     * Оба ответа кэшируются, а в историю сохраняется только ответ, ставший итоговым.
+     * Черновой запрос отменяется, как только получен уточненный ответ; если уточненный ответ
+     * получить не удалось, итоговым становится черновой. Черновой запрос не выполняется,
+     * если уточненный ответ уже есть в кэше или маршрутизатор выбрал ту же модель.
      *
      * @param endpoint     URL эндпоинта, для которого выполняется запрос.
      * @param text         Текст запроса, который будет отправлен в GigaChat API.
      * @param language     Код языка запроса. Если значение равно "en" (без учета регистра), используется {@code promptEn}, иначе — {@code promptRu}.
      * @param promptEn     Системный промпт для английской версии запроса.
      * @param promptRu     Системный промпт для русской версии запроса.
-     * @param model        Модель GigaChat, которая будет использоваться для обработки запроса.
+     * @param draftModel   Быстрая модель для чернового ответа.
+     * @param model        Модель GigaChat эндпоинта по умолчанию для уточненного ответа.
      * @param responseType Класс, в который будет десериализован JSON-ответ.
-     * @return Объект типа {@code T}, полученный в результате десериализации JSON-ответа от GigaChat API.
-     * @throws RuntimeException если происходит ошибка при десериализации JSON-ответа.
+     * @param <T>          Тип ответа анализа.
+     * @return Future чернового (может отсутствовать) и итогового ответов. Отмена итогового
+     * future отменяет оба запроса.
      */
-    public <T> T processRequest(
+    public <T> ProgressiveAnalysis<T> processProgressive(
             String endpoint,
             String text,
             String language,
             String promptEn,
             String promptRu,
+            String draftModel,
             String model,
             Class<T> responseType
     ) {
         String systemPrompt = "en".equalsIgnoreCase(language) ? promptEn : promptRu;
-        String jsonResponse = gigaChatDialog.getResponse(systemPrompt, text, model);
-        T result = readJson(jsonResponse, responseType);
-        historyService.saveHistory(endpoint, text, null, jsonResponse);
+        String routedModel = modelRouter.route(endpoint, model, TokenEstimator.estimate(text));
+        CompletableFuture<AnalysisResult<T>> refined =
+                execute(endpoint, text, systemPrompt, routedModel, responseType, null, true);
+        if (refined.isDone() || draftModel.equals(routedModel)) {
+            return new ProgressiveAnalysis<>(null, refined);
+        }
+        CompletableFuture<AnalysisResult<T>> draft =
+                execute(endpoint, text, systemPrompt, draftModel, responseType, null, false);
+        CompletableFuture<AnalysisResult<T>> result = refined
+                .whenComplete((value, error) -> {
+                    if (error == null) {
+                        draft.cancel(true);
+                    }
+                })
+                .exceptionallyCompose(error -> draft.thenApply(value -> {
+                    saveDraftHistory(endpoint, text, value);
+                    return value;
+                }));
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                refined.cancel(true);
+                draft.cancel(true);
+            }
+        });
+        return new ProgressiveAnalysis<>(draft, result);
+    }
+
+    /**
+     * Сохраняет в историю черновой ответ, ставший итоговым.
+     *
+     * @param endpoint URL эндпоинта.
+     * @param text     Текст запроса.
+     * @param draft    Черновой ответ и модель.
+     * @param <T>      Тип ответа анализа.
+     */
+    private <T> void saveDraftHistory(String endpoint, String text, AnalysisResult<T> draft) {
+        try {
+            historyService.saveHistory(endpoint, text, null, jsonCodecs.write(draft.response()), draft.model());
+        } catch (Exception e) {
+            log.error("Не удалось сохранить черновой ответ {} в историю: {}", endpoint, e.getMessage());
+        }
+    }
+
+    /**
+     * Выполняет запрос к выбранной модели с использованием кэша ответов.
+     *
+     * @param endpoint     URL эндпоинта, для которого выполняется запрос.
+     * @param text         Текст запроса.
+     * @param systemPrompt Системный промпт.
+     * @param routedModel  Модель, которой отправляется запрос.
+     * @param responseType Класс, в который будет десериализован JSON-ответ.
+     * @param listener     Слушатель фрагментов ответа или {@code null} для обычного запроса.
+     * @param saveHistory  Сохранять ли ответ в историю.
+     * @param <T>          Тип ответа анализа.
+     * @return Future с результатом анализа и моделью.
+     */
+    private <T> CompletableFuture<AnalysisResult<T>> execute(
+            String endpoint,
+            String text,
+            String systemPrompt,
+            String routedModel,
+            Class<T> responseType,
+            CompletionListener listener,
+            boolean saveHistory
+    ) {
+        String cacheKey = RequestKey.hash(routedModel, systemPrompt, text);
+        String cachedResponse = responseCache.get(cacheKey);
+        if (cachedResponse != null) {
+            log.debug("Ответ для {} получен из кэша", endpoint);
+            if (listener != null) {
+                replayResponse(cachedResponse, listener);
+            }
+            return CompletableFuture.completedFuture(cachedResponse)
+                    .thenApply(jsonResponse -> toResult(endpoint, text, routedModel, jsonResponse, responseType, saveHistory));
+        }
+        long startedAt = System.nanoTime();
+        CompletableFuture<String> response = listener == null
+                ? gigaChatDialog.getResponseAsync(systemPrompt, text, routedModel)
+                : streamResponse(systemPrompt, text, routedModel, listener);
+        // Разбор ответа и запись истории (JDBC) выполняются вне потока HTTP-транспорта
+        CompletableFuture<AnalysisResult<T>> result = response.thenApplyAsync(jsonResponse -> {
+            AnalysisResult<T> analysisResult =
+                    toResult(endpoint, text, routedModel, jsonResponse, responseType, saveHistory);
+            responseCache.put(cacheKey, jsonResponse);
+            return analysisResult;
+        }, responseExecutor);
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                response.cancel(true);
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause()
+                    : error;
+            if (!(cause instanceof CancellationException)) {
+                modelRouter.record(
+                        routedModel,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt),
+                        error == null
+                );
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Разбирает ответ модели и при необходимости сохраняет его в историю.
+     *
+     * @param endpoint     Эндпоинт запроса.
+     * @param text         Текст запроса.
+     * @param model        Модель, сформировавшая ответ.
+     * @param jsonResponse JSON-ответ модели.
+     * @param responseType Класс, в который будет десериализован JSON-ответ.
+     * @param saveHistory  Сохранять ли ответ в историю.
+     * @param <T>          Тип ответа анализа.
+     * @return Результат анализа с моделью.
+     */
+    private <T> AnalysisResult<T> toResult(
+            String endpoint,
+            String text,
+            String model,
+            String jsonResponse,
+            Class<T> responseType,
+            boolean saveHistory
+    ) {
+        T response = readJson(jsonResponse, responseType);
+        if (saveHistory) {
+            historyService.saveHistory(endpoint, text, null, jsonResponse, model);
+        }
+        return new AnalysisResult<>(response, model);
+    }
+
+    /**
+     * Запрашивает ответ модели в потоковом режиме. Помимо фрагментов текста слушатель
+     * получает события о полях JSON-ответа по мере их генерации, что позволяет
+     * показывать оценки до завершения генерации длинных текстовых полей.
+     *
+     * @param systemPrompt Системный промпт.
+     * @param text         Текст запроса.
+     * @param model        Модель GigaChat.
+     * @param listener     Слушатель фрагментов ответа и полей JSON-ответа.
+     * @return Future с полным текстом ответа модели.
+     */
+    private CompletableFuture<String> streamResponse(
+            String systemPrompt,
+            String text,
+            String model,
+            CompletionListener listener
+    ) {
+        IncrementalJsonParser jsonParser = new IncrementalJsonParser(objectMapper.getFactory(), listener::onField);
+        CompletableFuture<String> response = gigaChatDialog.getResponseStreamAsync(systemPrompt, text, model, delta -> {
+            listener.onDelta(delta);
+            jsonParser.feed(delta);
+        });
+        CompletableFuture<String> result = response.whenComplete((content, error) -> jsonParser.finish());
+        result.whenComplete((content, error) -> {
+            if (result.isCancelled()) {
+                response.cancel(true);
+            }
+        });
         return result;
     }
 
+    /**
+     * Передает слушателю потокового режима готовый (например, закэшированный) ответ целиком:
+     * одним фрагментом текста и событиями обо всех полях JSON-ответа.
+     *
+     * @param response Текст ответа модели.
+     * @param listener Слушатель фрагментов ответа и полей JSON-ответа.
+     */
+    private void replayResponse(String response, CompletionListener listener) {
+        IncrementalJsonParser jsonParser = new IncrementalJsonParser(objectMapper.getFactory(), listener::onField);
+        listener.onDelta(response);
+        jsonParser.feed(response);
+        jsonParser.finish();
+    }
+
     /**
      * Декодирует строку, закодированную в Base64,
      * в обычный текст с использованием кодировки UTF-8.
@@ -158,6 +512,8 @@ public class AnalyzeUtils {
 
     /**
      * Вспомогательный метод для десериализации JSON-строки в указанный класс DTO.
+     * Используется ObjectReader класса из {@link JsonCodecRegistry}, поэтому
+     * десериализатор не ищется заново при каждом ответе.
      *
      * @param json  JSON-строка.
      * @param clazz Класс, в объект которого нужно десериализовать JSON.
@@ -166,7 +522,7 @@ public class AnalyzeUtils {
      */
     public <T> T readJson(String json, Class<T> clazz) {
         try {
-            return objectMapper.readValue(json, clazz);
+            return jsonCodecs.read(json, clazz);
         } catch (Exception e) {
             log.error("Ошибка парсинга ответа JSON в {}: {}", clazz.getSimpleName(), e.getMessage());
             throw new RuntimeException("Failed to parse JSON response", e);
@@ -0,0 +1,389 @@
+package org.surkov.gigachatservice.service.hr_analyzer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.surkov.gigachatservice.config.GigaChatConfig;
+import org.surkov.gigachatservice.dto.hr_analyzer.request.AnalyzeRequest;
+import org.surkov.gigachatservice.dto.hr_analyzer.request.BatchAnalyzeItem;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.AnalysisResult;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.AnalyzeResponse;
+import org.surkov.gigachatservice.entity.hr_analyzer.History;
+import org.surkov.gigachatservice.entity.hr_analyzer.JobType;
+import org.surkov.gigachatservice.exception.ServiceUnavailableException;
+import org.surkov.gigachatservice.service.jobs.JobQueueClient;
+import org.surkov.gigachatservice.utils.GigaModel;
+import org.surkov.gigachatservice.utils.JsonCodecRegistry;
+import org.surkov.gigachatservice.utils.SystemPrompt;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Пакетный комплексный анализ резюме.
+ * <p>
+ * Элементы пакета читаются из итератора по одному и отправляются в модель так, чтобы
+ * одновременно выполнялось не больше {@code maxParallelism} запросов; следующий элемент
+ * читается только после освобождения места. Запросы проходят через те же лимиты,
+ * кэш и выбор модели, что и одиночные запросы к /chat/analyze. Результаты передаются
+ * получателю в порядке завершения, а записи истории сохраняются порциями по
+ * {@code historyFlushSize}. Поэтому потребление памяти не зависит от размера пакета.
+ * <p>
+ * Каждый пакет обрабатывается в отдельном потоке; число одновременно обрабатываемых
+ * пакетов ограничено {@code maxConcurrentBatches}.
+ *
+ * @author surkov
+ */
+@Slf4j
+@Service
+public class BatchAnalyzeService {
+
+    /**
+     * Эндпоинт, под которым результаты сохраняются в историю.
+     */
+    private static final String ENDPOINT = "/chat/analyze";
+
+    /**
+     * Настройки пакетного анализа.
+     */
+    private final GigaChatConfig.Batch settings;
+
+    /**
+     * Вспомогательные методы анализа резюме.
+     */
+    private final AnalyzeUtils analyzeUtils;
+
+    /**
+     * Выполнение запросов через общую очередь задач на узле в роли API.
+     */
+    private final JobQueueClient jobQueue;
+
+    /**
+     * Сервис для работы с историей запросов анализа резюме.
+     */
+    private final HistoryService historyService;
+
+    /**
+     * Реестр ObjectWriter для сериализации результатов в историю.
+     */
+    private final JsonCodecRegistry jsonCodecs;
+
+    /**
+     * Валидатор элементов пакета.
+     */
+    private final Validator validator;
+
+    /**
+     * Число успешно обработанных элементов.
+     */
+    private final Counter succeeded;
+
+    /**
+     * Число элементов, обработанных с ошибкой.
+     */
+    private final Counter failed;
+
+    /**
+     * Потоки обработки пакетов.
+     */
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Создает сервис пакетного анализа по настройкам из конфигурации.
+     *
+     * @param config         Конфигурация GigaChat API.
+     * @param analyzeUtils   Вспомогательные методы анализа резюме.
+     * @param jobQueue       Выполнение запросов через общую очередь задач.
+     * @param historyService Сервис истории запросов.
+     * @param jsonCodecs     Реестр ObjectWriter для сериализации результатов.
+     * @param validator      Валидатор элементов пакета.
+     * @param meterRegistry  Реестр метрик.
+     */
+    public BatchAnalyzeService(
+            GigaChatConfig config,
+            AnalyzeUtils analyzeUtils,
+            JobQueueClient jobQueue,
+            HistoryService historyService,
+            JsonCodecRegistry jsonCodecs,
+            Validator validator,
+            MeterRegistry meterRegistry
+    ) {
+        this.settings = config.getBatch();
+        this.analyzeUtils = analyzeUtils;
+        this.jobQueue = jobQueue;
+        this.historyService = historyService;
+        this.jsonCodecs = jsonCodecs;
+        this.validator = validator;
+        this.succeeded = itemCounter(meterRegistry, "success");
+        this.failed = itemCounter(meterRegistry, "error");
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                0,
+                settings.getMaxConcurrentBatches(),
+                60,
+                TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "gigachat-batch-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+    }
+
+    /**
+     * Запускает обработку пакета.
+     * Отмена возвращенного future прекращает чтение элементов и отменяет выполняемые запросы.
+     *
+     * @param items    Элементы пакета; итератор читается в потоке обработки пакета.
+     * @param listener Получатель результатов.
+     * @return Future, завершающийся после передачи результатов всех элементов
+     * или с ошибкой чтения элементов.
+     * @throws ServiceUnavailableException уже обрабатывается максимальное число пакетов.
+     */
+    public CompletableFuture<Void> process(Iterator<BatchAnalyzeItem> items, BatchListener listener) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        try {
+            executor.execute(() -> run(items, listener, done));
+        } catch (RejectedExecutionException e) {
+            throw new ServiceUnavailableException("Превышено число одновременно обрабатываемых пакетов");
+        }
+        return done;
+    }
+
+    /**
+     * Обрабатывает пакет в текущем потоке.
+     *
+     * @param items    Элементы пакета.
+     * @param listener Получатель результатов.
+     * @param done     Future завершения пакета.
+     */
+    private void run(Iterator<BatchAnalyzeItem> items, BatchListener listener, CompletableFuture<Void> done) {
+        BlockingQueue<Completion> completed = new LinkedBlockingQueue<>();
+        Set<CompletableFuture<?>> inFlight = ConcurrentHashMap.newKeySet();
+        done.whenComplete((ignored, error) -> {
+            if (done.isCancelled()) {
+                inFlight.forEach(future -> future.cancel(true));
+            }
+        });
+        List<History> history = new ArrayList<>();
+        int submitted = 0;
+        int delivered = 0;
+        try {
+            while (!done.isDone() && items.hasNext()) {
+                submit(items.next(), completed, inFlight);
+                submitted++;
+                while (submitted - delivered >= settings.getMaxParallelism()) {
+                    deliver(completed.take(), listener, history);
+                    delivered++;
+                }
+                for (Completion completion = completed.poll(); completion != null; completion = completed.poll()) {
+                    deliver(completion, listener, history);
+                    delivered++;
+                }
+            }
+            while (delivered < submitted && !done.isDone()) {
+                deliver(completed.take(), listener, history);
+                delivered++;
+            }
+            done.complete(null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            done.cancel(false);
+        } catch (RuntimeException e) {
+            log.warn("Обработка пакета прервана: {}", e.getMessage());
+            listener.onError(null, e);
+            done.completeExceptionally(e);
+        } finally {
+            inFlight.forEach(future -> future.cancel(true));
+            flush(history);
+        }
+        log.info("Пакет обработан: элементов {}, результатов передано {}", submitted, delivered);
+    }
+
+    /**
+     * Проверяет элемент и отправляет его на анализ.
+     * Результат (или ошибка) помещается в очередь завершенных элементов.
+     *
+     * @param item      Элемент пакета.
+     * @param completed Очередь завершенных элементов.
+     * @param inFlight  Выполняемые запросы.
+     */
+    private void submit(BatchAnalyzeItem item, BlockingQueue<Completion> completed, Set<CompletableFuture<?>> inFlight) {
+        Set<ConstraintViolation<BatchAnalyzeItem>> violations = validator.validate(item);
+        if (!violations.isEmpty()) {
+            completed.add(new Completion(item.id(), null, null, new ConstraintViolationException(violations)));
+            return;
+        }
+        if (jobQueue.isEnabled()) {
+            submitToQueue(item, completed, inFlight);
+            return;
+        }
+        CompletableFuture<AnalysisResult<AnalyzeResponse>> future;
+        String inputText;
+        try {
+            AnalyzeRequest request = item.request();
+            inputText = analyzeUtils.buildResumeInput(
+                    analyzeUtils.decodeBase64(request.text()),
+                    request.vacancy(),
+                    request.expectedPosition(),
+                    request.experienceLevel()
+            );
+            future = analyzeUtils.processBranch(
+                    ENDPOINT,
+                    inputText,
+                    request.language(),
+                    SystemPrompt.ANALYZE_PROMPT_EN,
+                    SystemPrompt.ANALYZE_PROMPT_RU,
+                    GigaModel.GIGA_MODEL_PRO,
+                    AnalyzeResponse.class
+            );
+        } catch (RuntimeException e) {
+            completed.add(new Completion(item.id(), null, null, e));
+            return;
+        }
+        inFlight.add(future);
+        future.whenComplete((result, error) -> {
+            inFlight.remove(future);
+            completed.add(error != null
+                    ? new Completion(item.id(), null, null, error)
+                    : new Completion(item.id(), result, toHistory(inputText, result), null));
+        });
+    }
+
+    /**
+     * Ставит элемент в общую очередь задач (узел в роли API). Историю сохраняет
+     * выполнивший задачу обработчик.
+     *
+     * @param item      Элемент пакета.
+     * @param completed Очередь завершенных элементов.
+     * @param inFlight  Выполняемые запросы.
+     */
+    private void submitToQueue(BatchAnalyzeItem item, BlockingQueue<Completion> completed, Set<CompletableFuture<?>> inFlight) {
+        CompletableFuture<AnalysisResult<AnalyzeResponse>> future;
+        try {
+            future = jobQueue.execute(JobType.ANALYZE, item.request(), AnalyzeResponse.class);
+        } catch (RuntimeException e) {
+            completed.add(new Completion(item.id(), null, null, e));
+            return;
+        }
+        inFlight.add(future);
+        future.whenComplete((result, error) -> {
+            inFlight.remove(future);
+            completed.add(new Completion(item.id(), result, null, error));
+        });
+    }
+
+    /**
+     * Передает результат элемента получателю и накапливает запись истории.
+     *
+     * @param completion Завершенный элемент.
+     * @param listener   Получатель результатов.
+     * @param history    Накопленные записи истории.
+     */
+    private void deliver(Completion completion, BatchListener listener, List<History> history) {
+        if (completion.error() != null) {
+            failed.increment();
+            listener.onError(completion.id(), completion.error());
+            return;
+        }
+        succeeded.increment();
+        if (completion.history() != null) {
+            history.add(completion.history());
+            if (history.size() >= settings.getHistoryFlushSize()) {
+                flush(history);
+            }
+        }
+        listener.onResult(completion.id(), completion.result());
+    }
+
+    /**
+     * Сохраняет накопленные записи истории одной операцией и очищает список.
+     *
+     * @param history Накопленные записи истории.
+     */
+    private void flush(List<History> history) {
+        if (history.isEmpty()) {
+            return;
+        }
+        try {
+            historyService.saveAll(history);
+        } catch (RuntimeException e) {
+            log.error("Не удалось сохранить историю пакетного анализа ({} записей): {}", history.size(), e.getMessage());
+        }
+        history.clear();
+    }
+
+    /**
+     * Формирует запись истории для результата элемента.
+     *
+     * @param inputText Входной текст анализа.
+     * @param result    Результат анализа.
+     * @return Запись истории или {@code null}, если результат не удалось сериализовать.
+     */
+    private History toHistory(String inputText, AnalysisResult<AnalyzeResponse> result) {
+        try {
+            return historyService.createHistory(
+                    ENDPOINT, inputText, null, jsonCodecs.write(result.response()), result.model()
+            );
+        } catch (JsonProcessingException e) {
+            log.error("Не удалось сериализовать результат пакетного анализа: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Создает счетчик обработанных элементов пакетов.
+     *
+     * @param meterRegistry Реестр метрик.
+     * @param outcome       Результат обработки.
+     * @return Счетчик.
+     */
+    private static Counter itemCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("gigachat.batch.items")
+                .description("Элементы пакетного анализа резюме")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Останавливает обработку пакетов при завершении работы приложения.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Завершенный элемент пакета.
+     *
+     * @param id      Идентификатор элемента.
+     * @param result  Результат анализа или {@code null} при ошибке.
+     * @param history Запись истории или {@code null}.
+     * @param error   Ошибка или {@code null}.
+     */
+    private record Completion(
+            String id,
+            AnalysisResult<AnalyzeResponse> result,
+            History history,
+            Throwable error
+    ) {
+    }
+}
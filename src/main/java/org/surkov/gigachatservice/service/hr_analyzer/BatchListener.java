@@ -0,0 +1,32 @@
+package org.surkov.gigachatservice.service.hr_analyzer;
+
+import org.surkov.gigachatservice.dto.hr_analyzer.response.AnalysisResult;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.AnalyzeResponse;
+
+/**
+ * Получатель результатов пакетного анализа резюме.
+ * Результаты передаются в порядке завершения элементов, а не в порядке их следования в пакете.
+ * Методы вызываются последовательно из потока обработки пакета и могут блокировать его
+ * (например, при записи в медленное соединение): это приостанавливает чтение следующих элементов.
+ *
+ * @author surkov
+ */
+public interface BatchListener {
+
+    /**
+     * Вызывается при успешном анализе элемента.
+     *
+     * @param id     Идентификатор элемента, переданный клиентом.
+     * @param result Ответ анализа и модель, сформировавшая его.
+     */
+    void onResult(String id, AnalysisResult<AnalyzeResponse> result);
+
+    /**
+     * Вызывается, если элемент не удалось обработать.
+     *
+     * @param id    Идентификатор элемента или {@code null}, если ошибка относится ко всему пакету
+     *              (например, некорректный JSON во входном потоке).
+     * @param error Причина ошибки.
+     */
+    void onError(String id, Throwable error);
+}
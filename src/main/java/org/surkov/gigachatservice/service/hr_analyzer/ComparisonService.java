@@ -3,11 +3,17 @@ package org.surkov.gigachatservice.service.hr_analyzer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.AnalysisResult;
 import org.surkov.gigachatservice.dto.hr_analyzer.response.CompareRequest;
 import org.surkov.gigachatservice.dto.hr_analyzer.response.CompareResponse;
+import org.surkov.gigachatservice.entity.hr_analyzer.JobType;
+import org.surkov.gigachatservice.service.CompletionListener;
+import org.surkov.gigachatservice.service.jobs.JobQueueClient;
 import org.surkov.gigachatservice.utils.GigaModel;
 import org.surkov.gigachatservice.utils.SystemPrompt;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Сервис для сравнения двух резюме кандидатов.
  * Предоставляет возможность сравнить резюме по различным критериям и получить результаты сравнения.
@@ -25,13 +31,35 @@ public class ComparisonService {
      */
     private final AnalyzeUtils analyzeUtils;
 
+    /**
+     * Выполнение запросов через общую очередь задач на узле в роли API.
+     */
+    private final JobQueueClient jobQueue;
+
     /**
      * Сравнивает два резюме кандидатов (эндпоинт /chat/compare).
      *
      * @param request Запрос с текстами двух резюме и дополнительными параметрами.
-     * @return Ответ с результатами сравнения двух резюме.
+     * @return Future с ответом с результатами сравнения двух резюме
+     * и моделью, сформировавшей ответ.
+     */
+    public CompletableFuture<AnalysisResult<CompareResponse>> compareCandidates(CompareRequest request) {
+        return compareCandidates(request, null);
+    }
+
+    /**
+     * Сравнивает два резюме кандидатов (эндпоинт /chat/compare).
+     * Фрагменты ответа передаются слушателю по мере генерации моделью.
+     *
+     * @param request  Запрос с текстами двух резюме и дополнительными параметрами.
+     * @param listener Слушатель фрагментов ответа или {@code null} для обычного запроса.
+     * @return Future с ответом с результатами сравнения двух резюме
+     * и моделью, сформировавшей ответ.
      */
-    public CompareResponse compareCandidates(CompareRequest request) {
+    public CompletableFuture<AnalysisResult<CompareResponse>> compareCandidates(CompareRequest request, CompletionListener listener) {
+        if (jobQueue.isEnabled()) {
+            return jobQueue.execute(JobType.COMPARE, request, CompareResponse.class);
+        }
         String decodedTextResumeA = analyzeUtils.decodeBase64(request.text1());
         String decodedTextResumeB = analyzeUtils.decodeBase64(request.text2());
         String inputText = analyzeUtils.buildComparisonInput(
@@ -47,7 +75,8 @@ public class ComparisonService {
                 SystemPrompt.COMPARE_PROMPT_EN,
                 SystemPrompt.COMPARE_PROMPT_RU,
                 GigaModel.GIGA_MODEL_MAX,
-                CompareResponse.class
+                CompareResponse.class,
+                listener
         );
     }
 }
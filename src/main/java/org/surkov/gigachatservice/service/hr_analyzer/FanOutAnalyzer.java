@@ -0,0 +1,255 @@
+package org.surkov.gigachatservice.service.hr_analyzer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.surkov.gigachatservice.config.GigaChatConfig;
+import org.surkov.gigachatservice.dto.hr_analyzer.request.AnalyzeRequest;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.AnalysisResult;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.AnalyzeResponse;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.ClarityResponse;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.HighlightsResponse;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.MatchResponse;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.StabilityResponse;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.StructureResponse;
+import org.surkov.gigachatservice.exception.ApiRequestException;
+import org.surkov.gigachatservice.utils.GigaModel;
+import org.surkov.gigachatservice.utils.JsonCodecRegistry;
+import org.surkov.gigachatservice.utils.SystemPrompt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Параллельное выполнение комплексного анализа резюме.
+ * Вместо одного длинного запроса с общим промптом одновременно выполняются специализированные
+ * анализы (структура, ясность, стабильность, соответствие вакансии, достижения) с промптами
+ * и моделями соответствующих эндпоинтов, а их результаты объединяются в {@link AnalyzeResponse}.
+ * Время ответа определяется самой медленной ветвью; ответ каждой ветви кэшируется отдельно.
+ * Ветвь, завершившаяся ошибкой или не уложившаяся в {@code branchTimeoutMs}, исключается
+ * из результата (ее оценка равна 0, списки пусты), а в заключении перечисляются недоступные
+ * разделы анализа. Если не удалось выполнить ни одну ветвь, анализ завершается ошибкой.
+ * Отмена анализа отменяет все его ветви.
+ *
+ * @author surkov
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FanOutAnalyzer {
+
+    /**
+     * Эндпоинт, под которым итоговый результат сохраняется в историю.
+     */
+    private static final String ENDPOINT = "/chat/analyze";
+
+    /**
+     * Конфигурация GigaChat API с настройками комплексного анализа.
+     */
+    private final GigaChatConfig config;
+
+    /**
+     * Вспомогательные методы анализа резюме.
+     */
+    private final AnalyzeUtils analyzeUtils;
+
+    /**
+     * Сервис для работы с историей запросов анализа резюме.
+     */
+    private final HistoryService historyService;
+
+    /**
+     * Реестр ObjectWriter для сериализации итогового результата в историю.
+     */
+    private final JsonCodecRegistry jsonCodecs;
+
+    /**
+     * Выполняет комплексный анализ резюме параллельными ветвями.
+     *
+     * @param request Запрос с текстом резюме и дополнительными параметрами.
+     * @return Future с объединенным ответом и перечнем моделей ветвей через запятую.
+     * Завершается исключением {@link ApiRequestException}, если не удалось выполнить ни одну ветвь.
+     * Отмена future отменяет вызовы всех ветвей.
+     */
+    public CompletableFuture<AnalysisResult<AnalyzeResponse>> analyze(AnalyzeRequest request) {
+        String resumeText = analyzeUtils.decodeBase64(request.text());
+        String language = request.language();
+        boolean withVacancy = isPresent(request.vacancy()) || isPresent(request.expectedPosition());
+        List<CompletableFuture<?>> calls = new ArrayList<>();
+
+        CompletableFuture<AnalysisResult<StructureResponse>> structure = branch(calls, analyzeUtils.processBranch(
+                "/chat/structure", resumeText, language,
+                SystemPrompt.STRUCTURE_PROMPT_EN, SystemPrompt.STRUCTURE_PROMPT_RU,
+                GigaModel.GIGA_MODEL_LITE, StructureResponse.class
+        ));
+        CompletableFuture<AnalysisResult<ClarityResponse>> clarity = branch(calls, analyzeUtils.processBranch(
+                "/chat/clarity", resumeText, language,
+                SystemPrompt.CLARITY_PROMPT_EN, SystemPrompt.CLARITY_PROMPT_RU,
+                GigaModel.GIGA_MODEL_PRO, ClarityResponse.class
+        ));
+        CompletableFuture<AnalysisResult<StabilityResponse>> stability = branch(calls, analyzeUtils.processBranch(
+                "/chat/stability", resumeText, language,
+                SystemPrompt.STABILITY_PROMPT_RU, SystemPrompt.STABILITY_PROMPT_RU,
+                GigaModel.GIGA_MODEL_LITE, StabilityResponse.class
+        ));
+        CompletableFuture<AnalysisResult<HighlightsResponse>> highlights = branch(calls, analyzeUtils.processBranch(
+                "/chat/highlights", resumeText, language,
+                SystemPrompt.HIGHLIGHTS_PROMPT_EN, SystemPrompt.HIGHLIGHTS_PROMPT_RU,
+                GigaModel.GIGA_MODEL_MAX, HighlightsResponse.class
+        ));
+        CompletableFuture<AnalysisResult<MatchResponse>> match = withVacancy
+                ? branch(calls, analyzeUtils.processBranch(
+                        "/chat/match",
+                        analyzeUtils.buildResumeInput(resumeText, request.vacancy(), request.expectedPosition(), null),
+                        language,
+                        SystemPrompt.MATCH_PROMPT_EN, SystemPrompt.MATCH_PROMPT_RU,
+                        GigaModel.GIGA_MODEL_PRO, MatchResponse.class
+                ))
+                : CompletableFuture.completedFuture(null);
+
+        String inputText = analyzeUtils.buildResumeInput(
+                resumeText,
+                request.vacancy(),
+                request.expectedPosition(),
+                request.experienceLevel()
+        );
+        CompletableFuture<AnalysisResult<AnalyzeResponse>> result = CompletableFuture
+                .allOf(structure, clarity, stability, highlights, match)
+                .thenApply(ignored -> merge(
+                        inputText,
+                        withVacancy,
+                        structure.join(),
+                        clarity.join(),
+                        stability.join(),
+                        highlights.join(),
+                        match.join()
+                ));
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                calls.forEach(call -> call.cancel(true));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Ограничивает время ветви и заменяет ее ошибку пустым результатом.
+     * Не уложившаяся в {@code branchTimeoutMs} ветвь отменяется вместе с вызовом модели.
+     *
+     * @param calls  Запущенные вызовы ветвей (для отмены вместе с комплексным анализом).
+     * @param future Future ветви.
+     * @param <T>    Тип ответа ветви.
+     * @return Future с ответом ветви или {@code null}, если ветвь не выполнена.
+     */
+    private <T> CompletableFuture<AnalysisResult<T>> branch(
+            List<CompletableFuture<?>> calls,
+            CompletableFuture<AnalysisResult<T>> future
+    ) {
+        calls.add(future);
+        long timeoutMs = config.getComplexAnalysis().getBranchTimeoutMs();
+        CompletableFuture.delayedExecutor(timeoutMs, TimeUnit.MILLISECONDS).execute(() -> {
+            if (future.cancel(true)) {
+                log.warn("Ветвь комплексного анализа не уложилась в {} мс и отменена", timeoutMs);
+            }
+        });
+        return future.exceptionally(error -> {
+            if (!future.isCancelled()) {
+                log.warn("Ветвь комплексного анализа не выполнена: {}", error.toString());
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Объединяет ответы ветвей и сохраняет итоговый результат в историю.
+     *
+     * @param inputText   Входной текст комплексного анализа (для истории).
+     * @param withVacancy Признак наличия вакансии или ожидаемой должности.
+     * @param structure   Ответ анализа структуры или {@code null}.
+     * @param clarity     Ответ анализа ясности или {@code null}.
+     * @param stability   Ответ анализа стабильности или {@code null}.
+     * @param highlights  Ответ выделения достижений или {@code null}.
+     * @param match       Ответ проверки соответствия или {@code null}.
+     * @return Объединенный результат.
+     * @throws ApiRequestException не удалось выполнить ни одну ветвь.
+     */
+    private AnalysisResult<AnalyzeResponse> merge(
+            String inputText,
+            boolean withVacancy,
+            AnalysisResult<StructureResponse> structure,
+            AnalysisResult<ClarityResponse> clarity,
+            AnalysisResult<StabilityResponse> stability,
+            AnalysisResult<HighlightsResponse> highlights,
+            AnalysisResult<MatchResponse> match
+    ) {
+        if (structure == null && clarity == null && stability == null && highlights == null && match == null) {
+            throw new ApiRequestException("Не удалось выполнить ни одну ветвь комплексного анализа");
+        }
+        List<String> missing = new ArrayList<>();
+        StringJoiner summary = new StringJoiner(", ", "Оценки: ", ".");
+        summary.setEmptyValue("");
+        if (structure != null) {
+            summary.add("структура " + structure.response().score() + "/100");
+        } else {
+            missing.add("структура");
+        }
+        if (clarity != null) {
+            summary.add("ясность изложения " + clarity.response().clarityScore() + "/100");
+        } else {
+            missing.add("ясность изложения");
+        }
+        if (stability != null) {
+            summary.add("стабильность карьеры " + stability.response().stabilityScore() + "/100");
+        } else {
+            missing.add("стабильность карьеры");
+        }
+        if (match != null) {
+            summary.add("соответствие вакансии " + match.response().matchScore() + "/100");
+        } else if (withVacancy) {
+            missing.add("соответствие вакансии");
+        }
+        if (highlights == null) {
+            missing.add("ключевые достижения");
+        }
+
+        AnalyzeResponse response = new AnalyzeResponse(
+                structure != null ? structure.response().score() : 0,
+                clarity != null ? clarity.response().clarityScore() : 0,
+                stability != null ? stability.response().stabilityScore() : 0,
+                match != null ? Integer.valueOf(match.response().matchScore()) : null,
+                highlights != null ? highlights.response().keyAchievements() : List.of(),
+                structure != null ? structure.response().missingSections() : List.of(),
+                stability != null ? stability.response().warnings() : List.of(),
+                missing.isEmpty()
+                        ? summary.toString()
+                        : (summary + " Недоступны разделы анализа: " + String.join(", ", missing) + ".").trim()
+        );
+        String models = String.join(",", Stream.of(structure, clarity, stability, highlights, match)
+                .filter(Objects::nonNull)
+                .map(AnalysisResult::model)
+                .distinct()
+                .toList());
+        try {
+            historyService.saveHistory(ENDPOINT, inputText, null, jsonCodecs.write(response), models);
+        } catch (JsonProcessingException e) {
+            log.error("Не удалось сохранить результат комплексного анализа в историю: {}", e.getMessage());
+        }
+        return new AnalysisResult<>(response, models);
+    }
+
+    /**
+     * Проверяет, что строка задана и не пуста.
+     *
+     * @param value Строка.
+     * @return {@code true}, если строка не пуста.
+     */
+    private static boolean isPresent(String value) {
+        return value != null && !value.isBlank();
+    }
+}
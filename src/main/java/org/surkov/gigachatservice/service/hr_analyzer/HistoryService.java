@@ -1,7 +1,5 @@
 package org.surkov.gigachatservice.service.hr_analyzer;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -9,9 +7,9 @@ import org.springframework.stereotype.Service;
 import org.surkov.gigachatservice.dto.hr_analyzer.entry.HistoryEntryDto;
 import org.surkov.gigachatservice.entity.hr_analyzer.History;
 import org.surkov.gigachatservice.repository.hr_analyzer.HistoryRepository;
+import org.surkov.gigachatservice.utils.JsonCodecRegistry;
 
 import java.time.Instant;
-import java.util.LinkedHashMap;
 import java.util.List;
 
 /**
@@ -31,9 +29,9 @@ public class HistoryService {
      */
     private final HistoryRepository historyRepository;
     /**
-     * ObjectMapper для обработки JSON (парсинг ответов и формирования истории).
+     * Реестр ObjectReader для разбора сохраненных ответов.
      */
-    private final ObjectMapper objectMapper;
+    private final JsonCodecRegistry jsonCodecs;
 
     /**
      * Сохраняет запись истории в базу данных.
@@ -42,20 +40,53 @@ public class HistoryService {
      * @param resumeText   текст резюме (для превью).
      * @param vacancyText  текст вакансии или должности (для превью, может быть null).
      * @param responseJson JSON ответа анализа.
+     * @param model        модель, обработавшая запрос.
      */
     public void saveHistory(
             String endpoint,
             String resumeText,
             String vacancyText,
-            String responseJson
+            String responseJson,
+            String model
+    ) {
+        historyRepository.save(createHistory(endpoint, resumeText, vacancyText, responseJson, model));
+    }
+
+    /**
+     * Сохраняет записи истории в базу данных одной операцией (например, результаты пакетного анализа).
+     * Вставки отправляются пакетами JDBC размером {@code hibernate.jdbc.batch_size}.
+     *
+     * @param records записи истории, сформированные {@link #createHistory}.
+     */
+    public void saveAll(List<History> records) {
+        historyRepository.saveAll(records);
+    }
+
+    /**
+     * Формирует запись истории без сохранения в базу данных.
+     *
+     * @param endpoint     эндпоинт запроса (напр. "/chat/structure").
+     * @param resumeText   текст резюме (для превью).
+     * @param vacancyText  текст вакансии или должности (для превью, может быть null).
+     * @param responseJson JSON ответа анализа.
+     * @param model        модель, обработавшая запрос.
+     * @return запись истории с превью текстов и текущим временем.
+     */
+    public History createHistory(
+            String endpoint,
+            String resumeText,
+            String vacancyText,
+            String responseJson,
+            String model
     ) {
         History history = new History();
         history.setEndpoint(endpoint);
+        history.setModel(model);
         history.setResumePreview(makePreview(resumeText));
         history.setVacancyPreview(vacancyText != null ? makePreview(vacancyText) : null);
         history.setTimestamp(Instant.now());
         history.setResponseJson(responseJson);
-        historyRepository.save(history);
+        return history;
     }
 
     /**
@@ -100,15 +131,14 @@ public class HistoryService {
             // Парсим сохраненный JSON ответа обратно в объект (Map) для вывода
             Object responseObject;
             try {
-                responseObject = objectMapper.readValue(history.getResponseJson(),
-                        new TypeReference<LinkedHashMap<String, Object>>() {
-                        });
+                responseObject = jsonCodecs.readMap(history.getResponseJson());
             } catch (Exception e) {
                 // В случае ошибки парсинга, возвращаем сырую строку
                 responseObject = history.getResponseJson();
             }
             HistoryEntryDto.RequestInfo requestInfo = new HistoryEntryDto.RequestInfo(
                     history.getEndpoint(),
+                    history.getModel(),
                     history.getResumePreview(),
                     history.getVacancyPreview(),
                     history.getTimestamp()
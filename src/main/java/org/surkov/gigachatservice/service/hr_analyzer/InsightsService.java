@@ -4,10 +4,16 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.surkov.gigachatservice.dto.hr_analyzer.request.InsightsRequest;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.AnalysisResult;
 import org.surkov.gigachatservice.dto.hr_analyzer.response.InsightsResponse;
+import org.surkov.gigachatservice.entity.hr_analyzer.JobType;
+import org.surkov.gigachatservice.service.CompletionListener;
+import org.surkov.gigachatservice.service.jobs.JobQueueClient;
 import org.surkov.gigachatservice.utils.GigaModel;
 import org.surkov.gigachatservice.utils.SystemPrompt;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Сервис для генерации аналитических рекомендаций и инсайтов на основе резюме.
  * Использует вспомогательные утилиты для декодирования и подготовки данных,
@@ -26,13 +32,35 @@ public class InsightsService {
      */
     private final AnalyzeUtils analyzeUtils;
 
+    /**
+     * Выполнение запросов через общую очередь задач на узле в роли API.
+     */
+    private final JobQueueClient jobQueue;
+
     /**
      * Генерирует инсайты и рекомендации на основе резюме (эндпоинт /chat/insights).
      *
      * @param request Запрос с текстом резюме и дополнительными параметрами.
-     * @return Ответ с рекомендациями и инсайтами на основе резюме.
+     * @return Future с ответом с рекомендациями и инсайтами на основе резюме
+     * и моделью, сформировавшей ответ.
      */
-    public InsightsResponse generateInsights(InsightsRequest request) {
+    public CompletableFuture<AnalysisResult<InsightsResponse>> generateInsights(InsightsRequest request) {
+        return generateInsights(request, null);
+    }
+
+    /**
+     * Генерирует инсайты и рекомендации на основе резюме (эндпоинт /chat/insights).
+     * Фрагменты ответа передаются слушателю по мере генерации моделью.
+     *
+     * @param request  Запрос с текстом резюме и дополнительными параметрами.
+     * @param listener Слушатель фрагментов ответа или {@code null} для обычного запроса.
+     * @return Future с ответом с рекомендациями и инсайтами на основе резюме
+     * и моделью, сформировавшей ответ.
+     */
+    public CompletableFuture<AnalysisResult<InsightsResponse>> generateInsights(InsightsRequest request, CompletionListener listener) {
+        if (jobQueue.isEnabled()) {
+            return jobQueue.execute(JobType.INSIGHTS, request, InsightsResponse.class);
+        }
         String decodedTextResume = analyzeUtils.decodeBase64(request.text());
         String inputText = analyzeUtils.buildInsightInput(
                 decodedTextResume,
@@ -46,6 +74,37 @@ public class InsightsService {
                 SystemPrompt.INSIGHTS_PROMPT_EN,
                 SystemPrompt.INSIGHTS_PROMPT_RU,
                 GigaModel.GIGA_MODEL_PRO,
+                InsightsResponse.class,
+                listener
+        );
+    }
+
+    /**
+     * Генерирует инсайты и рекомендации на основе резюме (эндпоинт /chat/insights)
+     * в прогрессивном режиме: черновой ответ Lite-модели приходит сразу,
+     * уточненный ответ — после генерации моделью эндпоинта.
+     *
+     * @param request Запрос с текстом резюме и дополнительными параметрами.
+     * @return Future чернового и уточненного ответов.
+     */
+    public ProgressiveAnalysis<InsightsResponse> generateInsightsProgressive(InsightsRequest request) {
+        if (jobQueue.isEnabled()) {
+            return new ProgressiveAnalysis<>(null, jobQueue.execute(JobType.INSIGHTS, request, InsightsResponse.class));
+        }
+        String decodedTextResume = analyzeUtils.decodeBase64(request.text());
+        String inputText = analyzeUtils.buildInsightInput(
+                decodedTextResume,
+                request.vacancy(),
+                request.expectedPosition()
+        );
+        return analyzeUtils.processProgressive(
+                "/chat/insights",
+                inputText,
+                request.language(),
+                SystemPrompt.INSIGHTS_PROMPT_EN,
+                SystemPrompt.INSIGHTS_PROMPT_RU,
+                GigaModel.GIGA_MODEL_LITE,
+                GigaModel.GIGA_MODEL_PRO,
                 InsightsResponse.class
         );
     }
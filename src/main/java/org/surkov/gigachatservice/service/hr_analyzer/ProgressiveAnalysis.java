@@ -0,0 +1,20 @@
+package org.surkov.gigachatservice.service.hr_analyzer;
+
+import org.surkov.gigachatservice.dto.hr_analyzer.response.AnalysisResult;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Анализ в прогрессивном режиме: быстрый черновой ответ легкой модели
+ * и уточненный ответ более мощной модели, выполняемые одновременно.
+ *
+ * @param draft  Future чернового ответа или {@code null}, если черновой запрос не выполнялся.
+ * @param result Future итогового ответа: уточненного либо, если его получить не удалось, чернового.
+ * @param <T>    Тип ответа анализа.
+ * @author surkov
+ */
+public record ProgressiveAnalysis<T>(
+        CompletableFuture<AnalysisResult<T>> draft,
+        CompletableFuture<AnalysisResult<T>> result
+) {
+}
@@ -0,0 +1,166 @@
+package org.surkov.gigachatservice.service.jobs;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.surkov.gigachatservice.dto.hr_analyzer.request.AnalyzeRequest;
+import org.surkov.gigachatservice.dto.hr_analyzer.request.ClarityRequest;
+import org.surkov.gigachatservice.dto.hr_analyzer.request.HighlightsRequest;
+import org.surkov.gigachatservice.dto.hr_analyzer.request.InsightsRequest;
+import org.surkov.gigachatservice.dto.hr_analyzer.request.JobSubmitRequest;
+import org.surkov.gigachatservice.dto.hr_analyzer.request.MatchRequest;
+import org.surkov.gigachatservice.dto.hr_analyzer.request.StabilityRequest;
+import org.surkov.gigachatservice.dto.hr_analyzer.request.StructureRequest;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.AnalyzeResponse;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.ClarityResponse;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.CompareRequest;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.CompareResponse;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.HighlightsResponse;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.InsightsResponse;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.MatchResponse;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.StabilityResponse;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.StructureResponse;
+import org.surkov.gigachatservice.entity.hr_analyzer.JobType;
+import org.surkov.gigachatservice.utils.JsonCodecRegistry;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Связывает типы задач с форматами запросов и ответов: проверяет запросы при создании задач,
+ * сериализует их и читает сохраненные ответы.
+ *
+ * @author surkov
+ */
+@Component
+@RequiredArgsConstructor
+public class JobCodec {
+
+    /**
+     * Реестр ObjectReader и ObjectWriter для чтения и записи запросов и ответов задач.
+     */
+    private final JsonCodecRegistry jsonCodecs;
+
+    /**
+     * Валидатор запросов задач.
+     */
+    private final Validator validator;
+
+    /**
+     * Проверяет запрос на создание задачи и преобразует запрос анализа в DTO запроса ее типа.
+     *
+     * @param request Тип анализа и запрос в формате JSON.
+     * @return DTO запроса анализа.
+     * @throws RuntimeJsonMappingException запрос не соответствует формату типа задачи.
+     * @throws ConstraintViolationException запрос не прошел проверку.
+     */
+    public Object parse(JobSubmitRequest request) {
+        validate(request);
+        Object parsed;
+        try {
+            parsed = jsonCodecs.reader(requestType(request.type())).readValue(request.request());
+        } catch (IOException | IllegalArgumentException e) {
+            throw new RuntimeJsonMappingException(
+                    "Запрос не соответствует типу задачи " + request.type() + ": " + e.getMessage()
+            );
+        }
+        validate(parsed);
+        return parsed;
+    }
+
+    /**
+     * Сериализует DTO в JSON для сохранения в задаче.
+     *
+     * @param value DTO запроса или ответа.
+     * @return JSON-строка.
+     */
+    public String write(Object value) {
+        try {
+            return jsonCodecs.write(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать данные задачи", e);
+        }
+    }
+
+    /**
+     * Читает сохраненный ответ задачи в DTO ответа ее типа.
+     *
+     * @param type       Тип задачи.
+     * @param resultJson JSON ответа.
+     * @return DTO ответа.
+     */
+    public Object readResult(JobType type, String resultJson) {
+        return read(resultJson, responseType(type));
+    }
+
+    /**
+     * Читает JSON в объект указанного класса.
+     *
+     * @param json  JSON-строка.
+     * @param clazz Класс объекта.
+     * @param <T>   Тип объекта.
+     * @return Объект.
+     */
+    public <T> T read(String json, Class<T> clazz) {
+        try {
+            return jsonCodecs.read(json, clazz);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeJsonMappingException("Не удалось прочитать JSON задачи: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Проверяет объект по ограничениям Bean Validation.
+     *
+     * @param value Проверяемый объект.
+     * @throws ConstraintViolationException объект не прошел проверку.
+     */
+    private void validate(Object value) {
+        Set<ConstraintViolation<Object>> violations = validator.validate(value);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+    }
+
+    /**
+     * Возвращает класс DTO запроса для типа задачи.
+     *
+     * @param type Тип задачи.
+     * @return Класс DTO запроса.
+     */
+    private static Class<?> requestType(JobType type) {
+        return switch (type) {
+            case ANALYZE -> AnalyzeRequest.class;
+            case STRUCTURE -> StructureRequest.class;
+            case CLARITY -> ClarityRequest.class;
+            case STABILITY -> StabilityRequest.class;
+            case MATCH -> MatchRequest.class;
+            case HIGHLIGHTS -> HighlightsRequest.class;
+            case COMPARE -> CompareRequest.class;
+            case INSIGHTS -> InsightsRequest.class;
+        };
+    }
+
+    /**
+     * Возвращает класс DTO ответа для типа задачи.
+     *
+     * @param type Тип задачи.
+     * @return Класс DTO ответа.
+     */
+    private static Class<?> responseType(JobType type) {
+        return switch (type) {
+            case ANALYZE -> AnalyzeResponse.class;
+            case STRUCTURE -> StructureResponse.class;
+            case CLARITY -> ClarityResponse.class;
+            case STABILITY -> StabilityResponse.class;
+            case MATCH -> MatchResponse.class;
+            case HIGHLIGHTS -> HighlightsResponse.class;
+            case COMPARE -> CompareResponse.class;
+            case INSIGHTS -> InsightsResponse.class;
+        };
+    }
+}
@@ -0,0 +1,69 @@
+package org.surkov.gigachatservice.service.jobs;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.surkov.gigachatservice.dto.hr_analyzer.request.AnalyzeRequest;
+import org.surkov.gigachatservice.dto.hr_analyzer.request.ClarityRequest;
+import org.surkov.gigachatservice.dto.hr_analyzer.request.HighlightsRequest;
+import org.surkov.gigachatservice.dto.hr_analyzer.request.InsightsRequest;
+import org.surkov.gigachatservice.dto.hr_analyzer.request.MatchRequest;
+import org.surkov.gigachatservice.dto.hr_analyzer.request.StabilityRequest;
+import org.surkov.gigachatservice.dto.hr_analyzer.request.StructureRequest;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.AnalysisResult;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.CompareRequest;
+import org.surkov.gigachatservice.entity.hr_analyzer.JobType;
+import org.surkov.gigachatservice.service.hr_analyzer.AnalyzeService;
+import org.surkov.gigachatservice.service.hr_analyzer.ComparisonService;
+import org.surkov.gigachatservice.service.hr_analyzer.InsightsService;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Выполняет задачи анализа сервисами соответствующих эндпоинтов.
+ *
+ * @author surkov
+ */
+@Component
+@RequiredArgsConstructor
+public class JobExecutor {
+
+    /**
+     * Сервис анализа резюме.
+     */
+    private final AnalyzeService analyzeService;
+
+    /**
+     * Сервис сравнения резюме.
+     */
+    private final ComparisonService comparisonService;
+
+    /**
+     * Сервис генерации инсайтов.
+     */
+    private final InsightsService insightsService;
+
+    /**
+     * Чтение запросов задач.
+     */
+    private final JobCodec jobCodec;
+
+    /**
+     * Выполняет анализ задачи.
+     *
+     * @param type        Тип задачи.
+     * @param requestJson JSON запроса, сохраненный при создании задачи.
+     * @return Future с ответом анализа и моделью, сформировавшей его.
+     */
+    public CompletableFuture<? extends AnalysisResult<?>> execute(JobType type, String requestJson) {
+        return switch (type) {
+            case ANALYZE -> analyzeService.analyzeComplex(jobCodec.read(requestJson, AnalyzeRequest.class));
+            case STRUCTURE -> analyzeService.analyzeStructure(jobCodec.read(requestJson, StructureRequest.class));
+            case CLARITY -> analyzeService.analyzeClarity(jobCodec.read(requestJson, ClarityRequest.class));
+            case STABILITY -> analyzeService.analyzeStability(jobCodec.read(requestJson, StabilityRequest.class));
+            case MATCH -> analyzeService.checkMatch(jobCodec.read(requestJson, MatchRequest.class));
+            case HIGHLIGHTS -> analyzeService.extractHighlights(jobCodec.read(requestJson, HighlightsRequest.class));
+            case COMPARE -> comparisonService.compareCandidates(jobCodec.read(requestJson, CompareRequest.class));
+            case INSIGHTS -> insightsService.generateInsights(jobCodec.read(requestJson, InsightsRequest.class));
+        };
+    }
+}
@@ -0,0 +1,188 @@
+package org.surkov.gigachatservice.service.jobs;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.surkov.gigachatservice.config.GigaChatConfig;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.AnalysisResult;
+import org.surkov.gigachatservice.entity.hr_analyzer.AnalysisJob;
+import org.surkov.gigachatservice.entity.hr_analyzer.JobType;
+import org.surkov.gigachatservice.exception.ApiRequestException;
+import org.surkov.gigachatservice.exception.ServiceUnavailableException;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выполнение синхронных запросов анализа через общую очередь задач на узле в роли
+ * {@link GigaChatConfig.Jobs.Role#API}.
+ * <p>
+ * Такой узел не обращается к модели: запрос ставится в очередь, а его future завершается,
+ * когда узел-обработчик ({@link JobWorker}) сохраняет результат задачи. Завершение всех
+ * ожидаемых задач проверяется раз в {@code awaitPollIntervalMs} запросами к очереди
+ * по {@link #POLL_CHUNK_SIZE} задач.
+ * Если клиент отменил запрос или задача не выполнена за {@code awaitTimeoutMs}, она отменяется,
+ * чтобы обработчики не тратили на нее запросы к модели.
+ *
+ * @author surkov
+ */
+@Slf4j
+@Component
+public class JobQueueClient {
+
+    /**
+     * Максимальное число идентификаторов задач в одном запросе проверки завершения
+     * (ограничивает размер списка IN и число параметров запроса).
+     */
+    private static final int POLL_CHUNK_SIZE = 500;
+
+    /**
+     * Настройки очереди задач.
+     */
+    private final GigaChatConfig.Jobs settings;
+
+    /**
+     * Сервис очереди задач.
+     */
+    private final JobService jobService;
+
+    /**
+     * Чтение результатов задач.
+     */
+    private final JobCodec jobCodec;
+
+    /**
+     * Ожидаемые задачи по идентификаторам.
+     */
+    private final ConcurrentMap<String, Awaiting<?>> awaiting = new ConcurrentHashMap<>();
+
+    /**
+     * Создает клиент очереди задач.
+     *
+     * @param config     Конфигурация GigaChat API.
+     * @param jobService Сервис очереди задач.
+     * @param jobCodec   Чтение результатов задач.
+     */
+    public JobQueueClient(GigaChatConfig config, JobService jobService, JobCodec jobCodec) {
+        this.settings = config.getJobs();
+        this.jobService = jobService;
+        this.jobCodec = jobCodec;
+    }
+
+    /**
+     * Проверяет, выполняются ли запросы анализа на этом узле через очередь задач.
+     *
+     * @return {@code true}, если узел работает в роли {@link GigaChatConfig.Jobs.Role#API}.
+     */
+    public boolean isEnabled() {
+        return settings.getRole() == GigaChatConfig.Jobs.Role.API;
+    }
+
+    /**
+     * Ставит запрос анализа в очередь и ожидает его выполнения обработчиком.
+     *
+     * @param type         Тип анализа.
+     * @param request      Проверенный DTO запроса анализа.
+     * @param responseType Класс DTO ответа.
+     * @param <T>          Тип DTO ответа.
+     * @return Future с ответом и моделью, сформировавшей его. Завершается исключением
+     * {@link ApiRequestException}, если задача не выполнена, или {@link ServiceUnavailableException},
+     * если она не выполнена за {@code awaitTimeoutMs}.
+     */
+    public <T> CompletableFuture<AnalysisResult<T>> execute(JobType type, Object request, Class<T> responseType) {
+        String id = jobService.enqueue(type, request).id();
+        CompletableFuture<AnalysisResult<T>> future = new CompletableFuture<>();
+        awaiting.put(id, new Awaiting<>(future, responseType));
+        future.whenComplete((result, error) -> {
+            if (awaiting.remove(id) != null && error != null) {
+                cancelQuietly(id);
+            }
+        });
+        CompletableFuture.delayedExecutor(settings.getAwaitTimeoutMs(), TimeUnit.MILLISECONDS).execute(() ->
+                future.completeExceptionally(new ServiceUnavailableException(
+                        "Задача " + id + " не выполнена за " + settings.getAwaitTimeoutMs() + " мс"
+                ))
+        );
+        return future;
+    }
+
+    /**
+     * Проверяет завершение ожидаемых задач и завершает их future.
+     */
+    @Scheduled(fixedDelayString = "${giga-chat.jobs.await-poll-interval-ms:500}")
+    public void poll() {
+        if (awaiting.isEmpty()) {
+            return;
+        }
+        List<String> ids = List.copyOf(awaiting.keySet());
+        for (int from = 0; from < ids.size(); from += POLL_CHUNK_SIZE) {
+            List<AnalysisJob> finished;
+            try {
+                finished = jobService.findFinished(ids.subList(from, Math.min(ids.size(), from + POLL_CHUNK_SIZE)));
+            } catch (RuntimeException e) {
+                log.error("Ошибка проверки ожидаемых задач: {}", e.getMessage(), e);
+                return;
+            }
+            for (AnalysisJob job : finished) {
+                Awaiting<?> entry = awaiting.remove(job.getId());
+                if (entry != null) {
+                    complete(entry, job);
+                }
+            }
+        }
+    }
+
+    /**
+     * Отменяет задачу, не прерывая обработку ошибкой отмены.
+     *
+     * @param id Идентификатор задачи.
+     */
+    private void cancelQuietly(String id) {
+        try {
+            jobService.cancel(id);
+        } catch (RuntimeException e) {
+            log.warn("Не удалось отменить задачу {}: {}", id, e.getMessage());
+        }
+    }
+
+    /**
+     * Завершает future ожидаемой задачи по ее состоянию.
+     *
+     * @param entry Ожидаемая задача.
+     * @param job   Завершенная задача.
+     * @param <T>   Тип DTO ответа.
+     */
+    private <T> void complete(Awaiting<T> entry, AnalysisJob job) {
+        switch (job.getStatus()) {
+            case SUCCEEDED -> {
+                try {
+                    entry.future().complete(new AnalysisResult<>(
+                            jobCodec.read(job.getResultJson(), entry.responseType()),
+                            job.getModel()
+                    ));
+                } catch (RuntimeException e) {
+                    entry.future().completeExceptionally(e);
+                }
+            }
+            case CANCELLED -> entry.future().completeExceptionally(
+                    new ApiRequestException("Задача " + job.getId() + " отменена")
+            );
+            default -> entry.future().completeExceptionally(new ApiRequestException(
+                    job.getError() != null ? job.getError() : "Задача " + job.getId() + " не выполнена"
+            ));
+        }
+    }
+
+    /**
+     * Future задачи, ожидаемой синхронным запросом, и класс ее ответа.
+     *
+     * @param future       Future запроса.
+     * @param responseType Класс DTO ответа.
+     * @param <T>          Тип DTO ответа.
+     */
+    private record Awaiting<T>(CompletableFuture<AnalysisResult<T>> future, Class<T> responseType) {
+    }
+}
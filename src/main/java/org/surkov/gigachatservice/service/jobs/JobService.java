@@ -0,0 +1,308 @@
+package org.surkov.gigachatservice.service.jobs;
+
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.surkov.gigachatservice.config.GigaChatConfig;
+import org.surkov.gigachatservice.dto.hr_analyzer.request.JobSubmitRequest;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.JobResponse;
+import org.surkov.gigachatservice.entity.hr_analyzer.AnalysisJob;
+import org.surkov.gigachatservice.entity.hr_analyzer.JobStatus;
+import org.surkov.gigachatservice.entity.hr_analyzer.JobType;
+import org.surkov.gigachatservice.exception.JobNotFoundException;
+import org.surkov.gigachatservice.repository.hr_analyzer.AnalysisJobRepository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Сервис персистентной очереди задач анализа.
+ * Создает, возвращает и отменяет задачи по запросам клиентов, а также выдает задачи
+ * обработчикам и фиксирует результаты их выполнения. Каждый метод выполняется
+ * в собственной транзакции, поэтому блокировки строк при выдаче задач удерживаются недолго.
+ *
+ * @author surkov
+ */
+@Slf4j
+@Service
+@Transactional
+public class JobService {
+
+    /**
+     * Максимальное число задач с истекшей арендой, возвращаемых в очередь за один вызов.
+     */
+    private static final int RECOVERY_BATCH_SIZE = 100;
+
+    /**
+     * Максимальная длина сохраняемого описания ошибки.
+     */
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    /**
+     * Незавершенные состояния задачи, из которых возможна отмена.
+     */
+    private static final List<JobStatus> ACTIVE = List.of(JobStatus.QUEUED, JobStatus.RUNNING);
+
+    /**
+     * Завершенные состояния задачи.
+     */
+    private static final List<JobStatus> FINISHED = List.of(JobStatus.SUCCEEDED, JobStatus.CANCELLED, JobStatus.DEAD);
+
+    /**
+     * Настройки очереди задач.
+     */
+    private final GigaChatConfig.Jobs settings;
+
+    /**
+     * Репозиторий задач.
+     */
+    private final AnalysisJobRepository jobRepository;
+
+    /**
+     * Преобразование запросов и ответов задач.
+     */
+    private final JobCodec jobCodec;
+
+    /**
+     * Создает сервис очереди задач.
+     *
+     * @param config        Конфигурация GigaChat API.
+     * @param jobRepository Репозиторий задач.
+     * @param jobCodec      Преобразование запросов и ответов задач.
+     */
+    public JobService(GigaChatConfig config, AnalysisJobRepository jobRepository, JobCodec jobCodec) {
+        this.settings = config.getJobs();
+        this.jobRepository = jobRepository;
+        this.jobCodec = jobCodec;
+    }
+
+    /**
+     * Проверяет запрос и ставит задачу в очередь.
+     *
+     * @param request Тип анализа и запрос в формате соответствующего эндпоинта.
+     * @return Состояние созданной задачи.
+     */
+    public JobResponse submit(JobSubmitRequest request) {
+        return enqueue(request.type(), jobCodec.parse(request));
+    }
+
+    /**
+     * Ставит в очередь задачу с уже проверенным запросом.
+     *
+     * @param type    Тип анализа.
+     * @param request DTO запроса анализа соответствующего типа.
+     * @return Состояние созданной задачи.
+     */
+    public JobResponse enqueue(JobType type, Object request) {
+        Instant now = Instant.now();
+        AnalysisJob job = new AnalysisJob();
+        job.setId(UUID.randomUUID().toString());
+        job.setType(type);
+        job.setStatus(JobStatus.QUEUED);
+        job.setRequestJson(jobCodec.write(request));
+        job.setAvailableAt(now);
+        job.setCreatedAt(now);
+        job.setUpdatedAt(now);
+        jobRepository.save(job);
+        log.debug("Задача {} ({}) поставлена в очередь", job.getId(), job.getType());
+        return toResponse(job);
+    }
+
+    /**
+     * Возвращает состояние задачи и, если она выполнена, ее результат.
+     *
+     * @param id Идентификатор задачи.
+     * @return Состояние задачи.
+     * @throws JobNotFoundException задача не найдена.
+     */
+    public JobResponse get(String id) {
+        return toResponse(find(id));
+    }
+
+    /**
+     * Отменяет задачу, если она еще не завершена. Выполняемый запрос к модели
+     * прерывается обработчиком при следующем опросе очереди.
+     *
+     * @param id Идентификатор задачи.
+     * @return Состояние задачи после отмены (для завершенной задачи — без изменений).
+     * @throws JobNotFoundException задача не найдена.
+     */
+    public JobResponse cancel(String id) {
+        if (jobRepository.cancel(id, Instant.now(), ACTIVE, JobStatus.CANCELLED) > 0) {
+            log.info("Задача {} отменена", id);
+        }
+        return toResponse(find(id));
+    }
+
+    /**
+     * Возвращает завершенные задачи (выполненные, отмененные или переведенные в {@code DEAD}) из переданных.
+     *
+     * @param ids Идентификаторы задач.
+     * @return Завершенные задачи.
+     */
+    public List<AnalysisJob> findFinished(Collection<String> ids) {
+        return jobRepository.findByIdInAndStatusIn(ids, FINISHED);
+    }
+
+    /**
+     * Выдает обработчику до {@code limit} задач, готовых к выполнению.
+     *
+     * @param owner Идентификатор обработчика.
+     * @param limit Максимальное число задач.
+     * @return Выданные задачи (в состоянии {@code RUNNING} с арендой обработчика).
+     */
+    public List<AnalysisJob> claim(String owner, int limit) {
+        Instant now = Instant.now();
+        List<String> ids = jobRepository.lockQueued(now, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        jobRepository.markRunning(ids, owner, now.plusMillis(settings.getLeaseMs()), now, JobStatus.RUNNING);
+        return jobRepository.findAllById(ids);
+    }
+
+    /**
+     * Продлевает аренду выполняемых обработчиком задач.
+     *
+     * @param owner Идентификатор обработчика.
+     * @param ids   Идентификаторы выполняемых задач.
+     */
+    public void renewLeases(String owner, Collection<String> ids) {
+        jobRepository.renewLeases(ids, owner, Instant.now().plusMillis(settings.getLeaseMs()), JobStatus.RUNNING);
+    }
+
+    /**
+     * Возвращает задачи из выполняемых обработчиком, которые он больше не удерживает
+     * (отменены или выданы другому обработчику).
+     *
+     * @param owner Идентификатор обработчика.
+     * @param ids   Идентификаторы выполняемых задач.
+     * @return Идентификаторы задач, выполнение которых следует прекратить.
+     */
+    public List<String> findLost(String owner, Collection<String> ids) {
+        return jobRepository.findLost(ids, owner, JobStatus.RUNNING);
+    }
+
+    /**
+     * Сохраняет результат выполненной задачи.
+     *
+     * @param id         Идентификатор задачи.
+     * @param owner      Идентификатор обработчика.
+     * @param model      Модель, сформировавшая ответ.
+     * @param resultJson JSON ответа.
+     */
+    public void complete(String id, String owner, String model, String resultJson) {
+        if (jobRepository.complete(id, owner, model, resultJson, Instant.now(), JobStatus.RUNNING, JobStatus.SUCCEEDED) == 0) {
+            log.info("Результат задачи {} не сохранен: задача отменена или выдана другому обработчику", id);
+        }
+    }
+
+    /**
+     * Фиксирует ошибку выполнения задачи: возвращает ее в очередь с экспоненциальной задержкой
+     * или, если попытки исчерпаны, переводит в состояние {@code DEAD}.
+     *
+     * @param id       Идентификатор задачи.
+     * @param owner    Идентификатор обработчика.
+     * @param attempts Число попыток с учетом завершившейся.
+     * @param error    Ошибка выполнения.
+     */
+    public void fail(String id, String owner, int attempts, Throwable error) {
+        Instant now = Instant.now();
+        boolean dead = attempts >= settings.getMaxAttempts();
+        long delayMs = settings.getRetryDelayMs() << Math.min(attempts - 1, 20);
+        jobRepository.release(
+                id,
+                owner,
+                dead ? JobStatus.DEAD : JobStatus.QUEUED,
+                describe(error),
+                dead ? now : now.plusMillis(delayMs),
+                now,
+                JobStatus.RUNNING
+        );
+        if (dead) {
+            log.warn("Задача {} не выполнена за {} попыток и переведена в DEAD: {}", id, attempts, error.toString());
+        } else {
+            log.info("Задача {} не выполнена (попытка {}), повтор через {} мс: {}", id, attempts, delayMs, error.toString());
+        }
+    }
+
+    /**
+     * Возвращает в очередь задачи обработчика, выполнение которых прервано его остановкой.
+     * Прерванная попытка не засчитывается.
+     *
+     * @param owner Идентификатор обработчика.
+     * @param ids   Идентификаторы прерванных задач.
+     */
+    public void requeue(String owner, Collection<String> ids) {
+        int requeued = jobRepository.requeue(ids, owner, Instant.now(), JobStatus.RUNNING, JobStatus.QUEUED);
+        log.info("Возвращено в очередь прерванных задач: {}", requeued);
+    }
+
+    /**
+     * Возвращает в очередь выполняемые задачи с истекшей арендой (например, после падения
+     * обработчика); задачи, исчерпавшие попытки, переводятся в состояние {@code DEAD}.
+     *
+     * @return Число обработанных задач.
+     */
+    public int recoverExpired() {
+        Instant now = Instant.now();
+        List<String> ids = jobRepository.lockExpired(now, RECOVERY_BATCH_SIZE);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        jobRepository.recover(
+                ids,
+                settings.getMaxAttempts(),
+                "Истек срок аренды задачи",
+                now,
+                JobStatus.QUEUED,
+                JobStatus.DEAD
+        );
+        log.warn("Возвращено в очередь задач с истекшей арендой: {}", ids.size());
+        return ids.size();
+    }
+
+    /**
+     * Находит задачу по идентификатору.
+     *
+     * @param id Идентификатор задачи.
+     * @return Задача.
+     * @throws JobNotFoundException задача не найдена.
+     */
+    private AnalysisJob find(String id) {
+        return jobRepository.findById(id).orElseThrow(() -> new JobNotFoundException(id));
+    }
+
+    /**
+     * Формирует DTO состояния задачи.
+     *
+     * @param job Задача.
+     * @return DTO состояния задачи.
+     */
+    private JobResponse toResponse(AnalysisJob job) {
+        return new JobResponse(
+                job.getId(),
+                job.getType(),
+                job.getStatus(),
+                job.getAttempts(),
+                job.getModel(),
+                job.getResultJson() != null ? jobCodec.readResult(job.getType(), job.getResultJson()) : null,
+                job.getError(),
+                job.getCreatedAt(),
+                job.getUpdatedAt()
+        );
+    }
+
+    /**
+     * Формирует описание ошибки для сохранения в задаче.
+     *
+     * @param error Ошибка.
+     * @return Описание ошибки не длиннее {@link #MAX_ERROR_LENGTH} символов.
+     */
+    private static String describe(Throwable error) {
+        String message = error.toString();
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
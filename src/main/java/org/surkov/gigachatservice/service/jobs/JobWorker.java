@@ -0,0 +1,189 @@
+package org.surkov.gigachatservice.service.jobs;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.surkov.gigachatservice.config.GigaChatConfig;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.AnalysisResult;
+import org.surkov.gigachatservice.entity.hr_analyzer.AnalysisJob;
+import org.surkov.gigachatservice.utils.JsonCodecRegistry;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Обработчик очереди задач анализа.
+ * <p>
+ * Периодически возвращает в очередь задачи с истекшей арендой, продлевает аренду выполняемых
+ * задач, прерывает задачи, отмененные клиентом или выданные другому обработчику, и выбирает
+ * новые задачи в пределах {@code workerConcurrency}. Задачи выполняются асинхронно теми же
+ * сервисами, что и синхронные эндпоинты (с кэшем, лимитами и сохранением истории).
+ * При остановке приложения выполняемые задачи возвращаются в очередь. На узле в роли
+ * {@link GigaChatConfig.Jobs.Role#API} задачи не выполняются.
+ *
+ * @author surkov
+ */
+@Slf4j
+@Component
+public class JobWorker {
+
+    /**
+     * Настройки очереди задач.
+     */
+    private final GigaChatConfig.Jobs settings;
+
+    /**
+     * Сервис очереди задач.
+     */
+    private final JobService jobService;
+
+    /**
+     * Выполнение задач по типам.
+     */
+    private final JobExecutor jobExecutor;
+
+    /**
+     * Реестр ObjectWriter для сериализации результатов задач.
+     */
+    private final JsonCodecRegistry jsonCodecs;
+
+    /**
+     * Идентификатор обработчика (владельца аренды задач).
+     */
+    private final String owner;
+
+    /**
+     * Выполняемые задачи по идентификаторам.
+     */
+    private final ConcurrentMap<String, CompletableFuture<?>> running = new ConcurrentHashMap<>();
+
+    /**
+     * Время последнего продления аренды (в миллисекундах).
+     */
+    private long renewedAt;
+
+    /**
+     * Создает обработчик очереди задач.
+     *
+     * @param config       Конфигурация GigaChat API.
+     * @param jobService   Сервис очереди задач.
+     * @param jobExecutor  Выполнение задач по типам.
+     * @param jsonCodecs   Реестр ObjectWriter для сериализации результатов.
+     */
+    public JobWorker(
+            GigaChatConfig config,
+            JobService jobService,
+            JobExecutor jobExecutor,
+            JsonCodecRegistry jsonCodecs
+    ) {
+        this.settings = config.getJobs();
+        this.jobService = jobService;
+        this.jobExecutor = jobExecutor;
+        this.jsonCodecs = jsonCodecs;
+        this.owner = ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * Опрашивает очередь задач.
+     */
+    @Scheduled(fixedDelayString = "${giga-chat.jobs.poll-interval-ms:1000}")
+    public void poll() {
+        if (!settings.isWorkerEnabled() || settings.getRole() == GigaChatConfig.Jobs.Role.API) {
+            return;
+        }
+        try {
+            jobService.recoverExpired();
+            if (!running.isEmpty()) {
+                List<String> ids = List.copyOf(running.keySet());
+                long now = System.currentTimeMillis();
+                if (now - renewedAt >= settings.getLeaseMs() / 3) {
+                    jobService.renewLeases(owner, ids);
+                    renewedAt = now;
+                }
+                for (String id : jobService.findLost(owner, ids)) {
+                    CompletableFuture<?> future = running.remove(id);
+                    if (future != null) {
+                        log.info("Выполнение задачи {} прервано: задача отменена или выдана другому обработчику", id);
+                        future.cancel(true);
+                    }
+                }
+            }
+            int capacity = settings.getWorkerConcurrency() - running.size();
+            if (capacity > 0) {
+                jobService.claim(owner, capacity).forEach(this::start);
+            }
+        } catch (RuntimeException e) {
+            log.error("Ошибка опроса очереди задач: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Запускает выполнение задачи и фиксирует его результат.
+     *
+     * @param job Выданная обработчику задача.
+     */
+    private void start(AnalysisJob job) {
+        CompletableFuture<? extends AnalysisResult<?>> future;
+        try {
+            future = jobExecutor.execute(job.getType(), job.getRequestJson());
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        running.put(job.getId(), future);
+        CompletableFuture<? extends AnalysisResult<?>> call = future;
+        future.whenComplete((result, error) -> {
+            running.remove(job.getId(), call);
+            if (call.isCancelled()) {
+                return;
+            }
+            try {
+                if (error == null) {
+                    jobService.complete(job.getId(), owner, result.model(), jsonCodecs.write(result.response()));
+                } else {
+                    jobService.fail(job.getId(), owner, job.getAttempts(), unwrap(error));
+                }
+            } catch (JsonProcessingException | RuntimeException e) {
+                log.error("Не удалось сохранить результат задачи {}: {}", job.getId(), e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Прерывает выполняемые задачи и возвращает их в очередь при остановке приложения.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (running.isEmpty()) {
+            return;
+        }
+        List<String> ids = List.copyOf(running.keySet());
+        ids.forEach(id -> {
+            CompletableFuture<?> future = running.remove(id);
+            if (future != null) {
+                future.cancel(true);
+            }
+        });
+        try {
+            jobService.requeue(owner, ids);
+        } catch (RuntimeException e) {
+            log.warn("Не удалось вернуть задачи в очередь при остановке: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Раскрывает обертку {@link CompletionException}.
+     *
+     * @param error Ошибка.
+     * @return Исходная ошибка.
+     */
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
@@ -0,0 +1,8 @@
+/**
+ * Пакет содержит компоненты асинхронного выполнения анализов через персистентную очередь задач:
+ * создание, опрос и отмену задач, а также обработчик, выбирающий задачи из таблицы с арендой,
+ * повторами и переводом в dead letter после исчерпания попыток.
+ *
+ * @author surkov
+ */
+package org.surkov.gigachatservice.service.jobs;
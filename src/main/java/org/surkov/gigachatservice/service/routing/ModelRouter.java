@@ -0,0 +1,267 @@
+package org.surkov.gigachatservice.service.routing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.surkov.gigachatservice.config.GigaChatConfig;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Маршрутизатор запросов по моделям GigaChat.
+ * <p>
+ * Для каждой модели ведутся скользящие средние задержки ответа и доли ошибок (включая
+ * ответы, которые не удалось разобрать). Эндпоинт с политикой получает первую модель
+ * из своей цепочки, укладывающуюся в SLO по задержке и порог доли ошибок: так перегруженная
+ * GigaChat-Max заменяется более быстрой моделью, а Lite-модель с частыми ошибками — более
+ * мощной. Модель, нарушающая SLO, раз в {@code probeIntervalMs} получает пробный запрос,
+ * и после восстановления трафик возвращается к ней.
+ * <p>
+ * Начальная модель цепочки выбирается по оценке числа токенов входа: короткие входы
+ * по порогам политики направляются в более быструю модель. Распределение размеров входа
+ * по выбранным моделям публикуется метрикой {@code gigachat.routing.input_tokens},
+ * чтобы пороги можно было подбирать по данным.
+ *
+ * @author surkov
+ */
+@Slf4j
+@Component
+public class ModelRouter {
+
+    /**
+     * Настройки маршрутизации.
+     */
+    private final GigaChatConfig.Routing settings;
+
+    /**
+     * Реестр метрик.
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Политики по эндпоинтам.
+     */
+    private final Map<String, GigaChatConfig.RoutingPolicy> policies = new HashMap<>();
+
+    /**
+     * Статистика по моделям.
+     */
+    private final ConcurrentMap<String, ModelStats> models = new ConcurrentHashMap<>();
+
+    /**
+     * Создает маршрутизатор по политикам из конфигурации.
+     *
+     * @param config        Конфигурация GigaChat API.
+     * @param meterRegistry Реестр метрик.
+     */
+    public ModelRouter(GigaChatConfig config, MeterRegistry meterRegistry) {
+        this.settings = config.getRouting();
+        this.meterRegistry = meterRegistry;
+        for (GigaChatConfig.RoutingPolicy policy : settings.getPolicies()) {
+            if (!policy.getModels().isEmpty()) {
+                policies.put(policy.getEndpoint(), policy);
+            }
+        }
+    }
+
+    /**
+     * Выбирает модель для запроса к эндпоинту.
+     *
+     * @param endpoint     Эндпоинт запроса.
+     * @param defaultModel Модель эндпоинта по умолчанию (используется, если политики нет).
+     * @param inputTokens  Оценка числа токенов входа.
+     * @return Модель, которой следует отправить запрос.
+     */
+    public String route(String endpoint, String defaultModel, int inputTokens) {
+        GigaChatConfig.RoutingPolicy policy = policies.get(endpoint);
+        if (!settings.isEnabled() || policy == null) {
+            return defaultModel;
+        }
+        List<String> chain = policy.getModels();
+        String sized = sizeTier(policy, inputTokens);
+        int start = sized != null ? chain.indexOf(sized) : 0;
+        if (start < 0) {
+            return decide(endpoint, sized, "size", inputTokens);
+        }
+        long now = System.currentTimeMillis();
+        for (int i = start; i < chain.size(); i++) {
+            ModelStats stats = stats(chain.get(i));
+            if (stats.meetsSlo(policy.getLatencySloMs())) {
+                return decide(endpoint, chain.get(i), i == start ? "primary" : "fallback", inputTokens);
+            }
+            if (stats.tryProbe(now)) {
+                return decide(endpoint, chain.get(i), "probe", inputTokens);
+            }
+        }
+        return decide(endpoint, fastest(chain.subList(start, chain.size())), "exhausted", inputTokens);
+    }
+
+    /**
+     * Возвращает модель первого порога политики, вмещающего вход.
+     *
+     * @param policy      Политика эндпоинта.
+     * @param inputTokens Оценка числа токенов входа.
+     * @return Модель или {@code null}, если ни один порог не вмещает вход.
+     */
+    private static String sizeTier(GigaChatConfig.RoutingPolicy policy, int inputTokens) {
+        for (GigaChatConfig.RoutingTier tier : policy.getTiers()) {
+            if (inputTokens <= tier.getMaxInputTokens()) {
+                return tier.getModel();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Учитывает результат запроса к модели.
+     *
+     * @param model     Модель GigaChat.
+     * @param latencyMs Задержка ответа (в миллисекундах).
+     * @param success   Признак успешного ответа.
+     */
+    public void record(String model, long latencyMs, boolean success) {
+        stats(model).record(latencyMs, success);
+    }
+
+    /**
+     * Возвращает модель цепочки с наименьшей средней задержкой.
+     *
+     * @param chain Цепочка моделей.
+     * @return Модель.
+     */
+    private String fastest(List<String> chain) {
+        String best = chain.get(chain.size() - 1);
+        double bestLatency = Double.MAX_VALUE;
+        for (String model : chain) {
+            double latency = stats(model).latencyMs;
+            if (latency < bestLatency) {
+                best = model;
+                bestLatency = latency;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Учитывает решение маршрутизатора в метриках.
+     *
+     * @param endpoint    Эндпоинт запроса.
+     * @param model       Выбранная модель.
+     * @param reason      Причина выбора.
+     * @param inputTokens Оценка числа токенов входа.
+     * @return Выбранная модель.
+     */
+    private String decide(String endpoint, String model, String reason, int inputTokens) {
+        Counter.builder("gigachat.routing.decisions")
+                .description("Решения маршрутизатора моделей")
+                .tag("endpoint", endpoint)
+                .tag("model", model)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        DistributionSummary.builder("gigachat.routing.input_tokens")
+                .description("Оценка числа токенов входа запросов, направленных в модель")
+                .baseUnit("tokens")
+                .tag("endpoint", endpoint)
+                .tag("model", model)
+                .publishPercentiles(0.5, 0.95)
+                .register(meterRegistry)
+                .record(inputTokens);
+        if (!"primary".equals(reason)) {
+            log.debug("Запрос к {} направлен в модель {} ({})", endpoint, model, reason);
+        }
+        return model;
+    }
+
+    /**
+     * Возвращает статистику модели, создавая ее при первом обращении.
+     *
+     * @param model Модель GigaChat.
+     * @return Статистика модели.
+     */
+    private ModelStats stats(String model) {
+        return models.computeIfAbsent(model, ModelStats::new);
+    }
+
+    /**
+     * Скользящая статистика одной модели. Изменяется под монитором объекта.
+     */
+    private final class ModelStats {
+
+        /**
+         * Средняя задержка ответа (в миллисекундах); 0 — еще не измерена.
+         */
+        private volatile double latencyMs;
+
+        /**
+         * Средняя доля ошибок.
+         */
+        private volatile double errorRate;
+
+        /**
+         * Время последнего пробного запроса (в миллисекундах).
+         */
+        private long probedAt;
+
+        /**
+         * Создает статистику модели и регистрирует ее метрики.
+         *
+         * @param model Модель GigaChat.
+         */
+        private ModelStats(String model) {
+            Gauge.builder("gigachat.routing.latency", this, stats -> stats.latencyMs)
+                    .description("Скользящее среднее задержки ответа модели (в миллисекундах)")
+                    .tag("model", model)
+                    .register(meterRegistry);
+            Gauge.builder("gigachat.routing.error_rate", this, stats -> stats.errorRate)
+                    .description("Скользящее среднее доли ошибок модели")
+                    .tag("model", model)
+                    .register(meterRegistry);
+        }
+
+        /**
+         * Проверяет, укладывается ли модель в SLO по задержке и порог доли ошибок.
+         *
+         * @param latencySloMs SLO по задержке (в миллисекундах).
+         * @return {@code true}, если модель укладывается в SLO или еще не измерена.
+         */
+        private boolean meetsSlo(long latencySloMs) {
+            return latencyMs <= latencySloMs && errorRate <= settings.getErrorRateThreshold();
+        }
+
+        /**
+         * Резервирует пробный запрос, если с предыдущего прошло не меньше {@code probeIntervalMs}.
+         *
+         * @param now Текущее время (в миллисекундах).
+         * @return {@code true}, если запрос следует отправить в модель как пробный.
+         */
+        private synchronized boolean tryProbe(long now) {
+            if (now - probedAt < settings.getProbeIntervalMs()) {
+                return false;
+            }
+            probedAt = now;
+            return true;
+        }
+
+        /**
+         * Учитывает результат запроса.
+         *
+         * @param sampleMs Задержка ответа (в миллисекундах).
+         * @param success  Признак успешного ответа.
+         */
+        private synchronized void record(long sampleMs, boolean success) {
+            double smoothing = settings.getSmoothing();
+            errorRate += ((success ? 0 : 1) - errorRate) * smoothing;
+            if (success) {
+                latencyMs = latencyMs == 0 ? sampleMs : latencyMs + (sampleMs - latencyMs) * smoothing;
+            }
+        }
+    }
+}
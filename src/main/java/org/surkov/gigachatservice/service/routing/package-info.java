@@ -0,0 +1,7 @@
+/**
+ * Пакет содержит компоненты выбора модели GigaChat для запроса: маршрутизацию
+ * по задержке и доле ошибок моделей с переходом на более быструю модель при нарушении SLO.
+ *
+ * @author surkov
+ */
+package org.surkov.gigachatservice.service.routing;
@@ -0,0 +1,174 @@
+package org.surkov.gigachatservice.utils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import org.surkov.gigachatservice.dto.ChatCompletion;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Потоковое извлечение текста ответа модели и расхода токенов из ответа GigaChat API.
+ * <p>
+ * Ответ читается парсером Jackson прямо из тела HTTP-ответа: из него сохраняются только
+ * {@code choices[0].message.content} (или {@code choices[0].delta.content} для чанков потокового
+ * ответа) и {@code usage}, остальные поля пропускаются без построения дерева и без чтения
+ * тела в строку.
+ *
+ * @author surkov
+ */
+@Component
+public class ChatCompletionDecoder {
+
+    /**
+     * Фабрика парсеров JSON.
+     */
+    private final JsonFactory jsonFactory;
+
+    /**
+     * Создает декодер ответов.
+     *
+     * @param objectMapper ObjectMapper приложения (источник фабрики парсеров JSON).
+     */
+    public ChatCompletionDecoder(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * Извлекает текст ответа и расход токенов из тела ответа API.
+     *
+     * @param body Тело ответа в кодировке UTF-8; не закрывается.
+     * @return Текст ответа ({@code null}, если ответ его не содержит) и расход токенов.
+     * @throws IOException тело ответа не является JSON-объектом или не удалось его прочитать.
+     */
+    public ChatCompletion decode(InputStream body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            return read(parser, "message");
+        }
+    }
+
+    /**
+     * Извлекает фрагмент текста ({@code choices[0].delta.content}) из чанка потокового ответа.
+     *
+     * @param chunk JSON-чанк потокового ответа.
+     * @return Фрагмент текста или пустая строка, если чанк не содержит текста.
+     * @throws IOException чанк не является JSON-объектом.
+     */
+    public String decodeDelta(String chunk) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(chunk)) {
+            String content = read(parser, "delta").content();
+            return content != null ? content : "";
+        }
+    }
+
+    /**
+     * Читает объект ответа.
+     *
+     * @param parser       Парсер, установленный перед объектом ответа.
+     * @param messageField Имя поля сообщения в элементе {@code choices}.
+     * @return Текст ответа и расход токенов.
+     * @throws IOException ответ не является JSON-объектом.
+     */
+    private static ChatCompletion read(JsonParser parser, String messageField) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Ответ GigaChat API не является JSON-объектом");
+        }
+        String content = null;
+        ChatCompletion.Usage usage = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("choices".equals(field) && value == JsonToken.START_ARRAY) {
+                content = readFirstChoice(parser, messageField);
+            } else if ("usage".equals(field) && value == JsonToken.START_OBJECT) {
+                usage = readUsage(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return new ChatCompletion(content, usage);
+    }
+
+    /**
+     * Читает текст сообщения первого элемента массива {@code choices}, пропуская остальные.
+     *
+     * @param parser       Парсер, установленный на начало массива.
+     * @param messageField Имя поля сообщения.
+     * @return Текст сообщения или {@code null}.
+     * @throws IOException ошибка разбора.
+     */
+    private static String readFirstChoice(JsonParser parser, String messageField) throws IOException {
+        String content = null;
+        boolean first = true;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (first && parser.currentToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    if (parser.nextToken() == JsonToken.START_OBJECT && messageField.equals(field)) {
+                        content = readContent(parser);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+            first = false;
+        }
+        return content;
+    }
+
+    /**
+     * Читает поле {@code content} объекта сообщения.
+     *
+     * @param parser Парсер, установленный на начало объекта.
+     * @return Текст сообщения или {@code null}.
+     * @throws IOException ошибка разбора.
+     */
+    private static String readContent(JsonParser parser) throws IOException {
+        String content = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            if (parser.nextToken() == JsonToken.VALUE_STRING && "content".equals(field)) {
+                content = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return content;
+    }
+
+    /**
+     * Читает объект {@code usage}.
+     *
+     * @param parser Парсер, установленный на начало объекта.
+     * @return Расход токенов.
+     * @throws IOException ошибка разбора.
+     */
+    private static ChatCompletion.Usage readUsage(JsonParser parser) throws IOException {
+        int promptTokens = 0;
+        int completionTokens = 0;
+        int totalTokens = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            if (parser.nextToken() != JsonToken.VALUE_NUMBER_INT) {
+                parser.skipChildren();
+                continue;
+            }
+            switch (field) {
+                case "prompt_tokens" -> promptTokens = parser.getIntValue();
+                case "completion_tokens" -> completionTokens = parser.getIntValue();
+                case "total_tokens" -> totalTokens = parser.getIntValue();
+                default -> {
+                    // прочие счетчики (например, precached_prompt_tokens) не используются
+                }
+            }
+        }
+        return new ChatCompletion.Usage(promptTokens, completionTokens, totalTokens);
+    }
+}
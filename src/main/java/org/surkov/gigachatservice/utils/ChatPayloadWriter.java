@@ -0,0 +1,207 @@
+package org.surkov.gigachatservice.utils;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.core.json.JsonWriteFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import org.surkov.gigachatservice.utils.transport.TransportRequest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Формирование тела запроса к GigaChat API без промежуточных объектов и строк.
+ * <p>
+ * Системные промпты ({@link SystemPrompt}) и названия моделей ({@link GigaModel}) при создании
+ * бина один раз экранируются и кодируются в UTF-8; при отправке запроса эти байты копируются
+ * в тело как есть, а текст пользователя кодируется генератором Jackson сразу в поток тела запроса
+ * HTTP-транспорта. Результат совпадает с сериализацией {@code GigaChatRequest} через {@link ObjectMapper}.
+ * Тело формируется заново при каждой отправке, поэтому запрос можно повторять.
+ *
+ * @author surkov
+ */
+@Component
+public class ChatPayloadWriter {
+
+    /**
+     * Имя поля модели.
+     */
+    private static final SerializableString MODEL = encoded("model");
+
+    /**
+     * Имя поля сообщений.
+     */
+    private static final SerializableString MESSAGES = encoded("messages");
+
+    /**
+     * Имя поля роли сообщения.
+     */
+    private static final SerializableString ROLE = encoded("role");
+
+    /**
+     * Имя поля текста сообщения.
+     */
+    private static final SerializableString CONTENT = encoded("content");
+
+    /**
+     * Имя поля признака потоковой генерации.
+     */
+    private static final SerializableString STREAM = encoded("stream");
+
+    /**
+     * Роль системного сообщения.
+     */
+    private static final SerializableString SYSTEM_ROLE = encoded("system");
+
+    /**
+     * Роль пользовательского сообщения.
+     */
+    private static final SerializableString USER_ROLE = encoded("user");
+
+    /**
+     * Фабрика генераторов JSON.
+     */
+    private final JsonFactory jsonFactory;
+
+    /**
+     * Закодированные системные промпты и названия моделей.
+     */
+    private final Map<String, SerializableString> constants;
+
+    /**
+     * Создает формирователь тела запроса и кодирует промпты и названия моделей.
+     *
+     * @param objectMapper ObjectMapper приложения (источник фабрики генераторов JSON).
+     */
+    public ChatPayloadWriter(ObjectMapper objectMapper) {
+        // Как при сериализации в строку: символы вне BMP кодируются в UTF-8, а не экранируются парой суррогатов
+        this.jsonFactory = objectMapper.getFactory().rebuild()
+                .enable(JsonWriteFeature.COMBINE_UNICODE_SURROGATES_IN_UTF8)
+                .build();
+        Map<String, SerializableString> encoded = new HashMap<>();
+        collect(SystemPrompt.class, encoded);
+        collect(GigaModel.class, encoded);
+        this.constants = Map.copyOf(encoded);
+    }
+
+    /**
+     * Создает тело запроса с системным и пользовательским сообщениями.
+     *
+     * @param systemPrompt Системный промпт.
+     * @param text         Текст пользовательского сообщения.
+     * @param model        Модель GigaChat.
+     * @param stream       Признак потоковой генерации ответа.
+     * @return Запись тела запроса.
+     */
+    public TransportRequest.BodyWriter body(String systemPrompt, String text, String model, boolean stream) {
+        return out -> write(out, systemPrompt, text, model, stream);
+    }
+
+    /**
+     * Записывает тело запроса в поток в кодировке UTF-8.
+     * Поток не закрывается.
+     *
+     * @param out          Поток.
+     * @param systemPrompt Системный промпт.
+     * @param text         Текст пользовательского сообщения.
+     * @param model        Модель GigaChat.
+     * @param stream       Признак потоковой генерации ответа.
+     * @throws IOException ошибка записи в поток.
+     */
+    public void write(OutputStream out, String systemPrompt, String text, String model, boolean stream)
+            throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeFieldName(MODEL);
+            writeValue(generator, model);
+            generator.writeFieldName(MESSAGES);
+            generator.writeStartArray();
+            writeMessage(generator, SYSTEM_ROLE, systemPrompt);
+            writeMessage(generator, USER_ROLE, text);
+            generator.writeEndArray();
+            generator.writeFieldName(STREAM);
+            generator.writeBoolean(stream);
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Записывает сообщение.
+     *
+     * @param generator Генератор JSON.
+     * @param role      Роль сообщения.
+     * @param content   Текст сообщения.
+     * @throws IOException ошибка записи в поток.
+     */
+    private void writeMessage(JsonGenerator generator, SerializableString role, String content) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(ROLE);
+        generator.writeString(role);
+        generator.writeFieldName(CONTENT);
+        writeValue(generator, content);
+        generator.writeEndObject();
+    }
+
+    /**
+     * Записывает строковое значение, используя закодированные байты, если значение — известная константа.
+     *
+     * @param generator Генератор JSON.
+     * @param value     Значение.
+     * @throws IOException ошибка записи в поток.
+     */
+    private void writeValue(JsonGenerator generator, String value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+            return;
+        }
+        SerializableString constant = constants.get(value);
+        if (constant != null) {
+            generator.writeString(constant);
+        } else {
+            generator.writeString(value);
+        }
+    }
+
+    /**
+     * Кодирует строковые константы класса.
+     *
+     * @param holder  Класс с константами.
+     * @param encoded Закодированные константы.
+     */
+    private static void collect(Class<?> holder, Map<String, SerializableString> encoded) {
+        for (Field field : holder.getDeclaredFields()) {
+            int modifiers = field.getModifiers();
+            if (field.getType() != String.class || !Modifier.isStatic(modifiers) || !Modifier.isPublic(modifiers)) {
+                continue;
+            }
+            try {
+                String value = (String) field.get(null);
+                encoded.putIfAbsent(value, encoded(value));
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Не удалось прочитать константу " + field.getName(), e);
+            }
+        }
+    }
+
+    /**
+     * Экранирует строку и кодирует ее в UTF-8.
+     *
+     * @param value Строка.
+     * @return Закодированная строка.
+     */
+    private static SerializableString encoded(String value) {
+        SerializedString encoded = new SerializedString(value);
+        encoded.asQuotedUTF8();
+        encoded.asQuotedChars();
+        return encoded;
+    }
+}
@@ -0,0 +1,113 @@
+package org.surkov.gigachatservice.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.surkov.gigachatservice.config.GigaChatConfig;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Прогрев HTTP-соединений с GigaChat API.
+ * <p>
+ * После старта приложения, до того как оно начинает принимать трафик, открываются соединения
+ * общего клиента с {@code authUrl} и изолированных клиентов моделей с {@code apiUrl}; затем прогрев
+ * повторяется раз в {@code warmupIntervalMs}, чтобы простаивающие соединения не закрывались.
+ * Так первые запросы после развертывания или простоя не ждут TCP- и TLS-рукопожатия.
+ * Узел в роли {@link GigaChatConfig.Jobs.Role#API} к модели не обращается и соединения не прогревает.
+ *
+ * @author surkov
+ */
+@Slf4j
+@Component
+public class ConnectionWarmer {
+
+    /**
+     * Максимальное время ожидания прогрева при старте (в секундах).
+     */
+    private static final long STARTUP_WAIT_SECONDS = 10;
+
+    /**
+     * Конфигурация GigaChat API.
+     */
+    private final GigaChatConfig config;
+
+    /**
+     * Обертка над HTTP-клиентом.
+     */
+    private final HttpClientWrapper httpClientWrapper;
+
+    /**
+     * Модели, соединения изолированных клиентов которых прогреваются.
+     */
+    private final Set<String> models = new LinkedHashSet<>();
+
+    /**
+     * Создает прогрев соединений для моделей GigaChat и моделей политик маршрутизации.
+     *
+     * @param config            Конфигурация GigaChat API.
+     * @param httpClientWrapper Обертка над HTTP-клиентом.
+     */
+    public ConnectionWarmer(GigaChatConfig config, HttpClientWrapper httpClientWrapper) {
+        this.config = config;
+        this.httpClientWrapper = httpClientWrapper;
+        models.addAll(List.of(GigaModel.GIGA_MODEL_LITE, GigaModel.GIGA_MODEL_PRO, GigaModel.GIGA_MODEL_MAX));
+        config.getRouting().getPolicies().forEach(policy -> models.addAll(policy.getModels()));
+    }
+
+    /**
+     * Прогревает соединения при старте и ожидает результата не дольше {@link #STARTUP_WAIT_SECONDS}.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        CompletableFuture<Long> warmed = warmUp();
+        try {
+            Long opened = warmed.get(STARTUP_WAIT_SECONDS, TimeUnit.SECONDS);
+            if (opened != null) {
+                log.info("Прогрето соединений с GigaChat API: {} из {}", opened, models.size() + 1);
+            }
+        } catch (TimeoutException e) {
+            log.warn("Прогрев соединений с GigaChat API не завершился за {} с", STARTUP_WAIT_SECONDS);
+        } catch (ExecutionException e) {
+            log.warn("Ошибка прогрева соединений с GigaChat API: {}", e.getCause().toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Периодически обновляет соединения.
+     */
+    @Scheduled(
+            initialDelayString = "${giga-chat.connections.warmup-interval-ms:240000}",
+            fixedDelayString = "${giga-chat.connections.warmup-interval-ms:240000}"
+    )
+    public void refresh() {
+        warmUp();
+    }
+
+    /**
+     * Прогревает соединение общего клиента с {@code authUrl} и клиентов моделей с {@code apiUrl}.
+     *
+     * @return Future с числом установленных соединений или {@code null}, если прогрев отключен.
+     */
+    CompletableFuture<Long> warmUp() {
+        if (!config.getConnections().isWarmupEnabled() || config.getJobs().getRole() == GigaChatConfig.Jobs.Role.API) {
+            return CompletableFuture.completedFuture(null);
+        }
+        List<CompletableFuture<Boolean>> calls = new ArrayList<>();
+        calls.add(httpClientWrapper.warmUp(null, config.getAuthUrl()));
+        models.forEach(model -> calls.add(httpClientWrapper.warmUp(model, config.getApiUrl())));
+        return CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> calls.stream().filter(CompletableFuture::join).count());
+    }
+}
@@ -0,0 +1,499 @@
+package org.surkov.gigachatservice.utils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.stereotype.Component;
+import org.surkov.gigachatservice.config.GigaChatConfig;
+import org.surkov.gigachatservice.exception.AuthenticationException;
+import org.surkov.gigachatservice.exception.RateLimitExceededException;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Пул учетных записей GigaChat API.
+ * Для каждой учетной записи хранит собственный {@link TokenManager} и лимит одновременных запросов.
+ * На каждый вызов выдается наименее загруженная учетная запись; учетная запись, получившая
+ * ответ 429, временно исключается из ротации. Если все учетные записи в ротации исчерпали
+ * лимит одновременных запросов, запрос ждет освобождения одной из них в ограниченной очереди.
+ * Суммарная пропускная способность растет пропорционально числу учетных записей.
+ *
+ * @author surkov
+ */
+@Slf4j
+@Component
+public class CredentialPool {
+
+    /**
+     * Задержка, рекомендуемая клиенту, когда все учетные записи заняты, но не ограничены API.
+     */
+    private static final Duration BUSY_RETRY_AFTER = Duration.ofSeconds(1);
+
+    /**
+     * Максимальная задержка (в миллисекундах) между попытками получения токена при старте.
+     */
+    private static final long MAX_STARTUP_RETRY_DELAY_MS = 30_000;
+
+    /**
+     * Учетные записи пула.
+     */
+    private final List<PooledCredential> credentials = new ArrayList<>();
+
+    /**
+     * Курсор для циклического обхода учетных записей при равной загрузке.
+     */
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    /**
+     * Время исключения учетной записи из ротации, если API не указал {@code Retry-After}.
+     */
+    private final Duration defaultCooldown;
+
+    /**
+     * Шаблон повторных попыток получения токена при старте.
+     */
+    private final RetryTemplate startupRetry;
+
+    /**
+     * Запросы, ожидающие освобождения учетной записи. Изменяется под монитором очереди.
+     */
+    private final Queue<CompletableFuture<Lease>> waiters = new ArrayDeque<>();
+
+    /**
+     * Максимальное число ожидающих запросов.
+     */
+    private final int maxQueueSize;
+
+    /**
+     * Максимальное время ожидания свободной учетной записи (в миллисекундах).
+     */
+    private final long queueWaitMs;
+
+    /**
+     * Создает пул по списку учетных записей из конфигурации и регистрирует метрики.
+     *
+     * @param config            Конфигурация GigaChat API.
+     * @param httpClientWrapper Обертка над HTTP-клиентом.
+     * @param meterRegistry     Реестр метрик.
+     */
+    public CredentialPool(
+            final GigaChatConfig config,
+            final HttpClientWrapper httpClientWrapper,
+            final MeterRegistry meterRegistry
+    ) {
+        List<GigaChatConfig.Credential> configured = config.getCredentials();
+        if (configured.isEmpty()) {
+            GigaChatConfig.Credential single = new GigaChatConfig.Credential();
+            single.setClientId(config.getClientId());
+            single.setClientSecret(config.getClientSecret());
+            // Одновременные запросы ограничивает адаптивный лимит моделей, как и до появления пула
+            single.setMaxConcurrentRequests(Integer.MAX_VALUE);
+            configured = List.of(single);
+        }
+        for (int i = 0; i < configured.size(); i++) {
+            GigaChatConfig.Credential credential = configured.get(i);
+            String name = String.valueOf(i);
+            PooledCredential pooled = new PooledCredential(
+                    SecurityUtils.maskSensitiveData(credential.getClientId()),
+                    new TokenManager(
+                            config,
+                            httpClientWrapper,
+                            credential.getClientId(),
+                            credential.getClientSecret(),
+                            name
+                    ),
+                    credential.getMaxConcurrentRequests(),
+                    Counter.builder("gigachat.credentials.rate_limited")
+                            .description("Число ответов 429, полученных по учетной записи")
+                            .tag("credential", name)
+                            .register(meterRegistry)
+            );
+            Gauge.builder("gigachat.credentials.inflight", pooled.inFlight, AtomicInteger::get)
+                    .description("Число выполняемых запросов по учетной записи")
+                    .tag("credential", name)
+                    .register(meterRegistry);
+            credentials.add(pooled);
+        }
+        this.defaultCooldown = Duration.ofMillis(config.getCredentialCooldownMs());
+        this.maxQueueSize = config.getCredentialMaxQueueSize();
+        this.queueWaitMs = config.getCredentialQueueWaitMs();
+        this.startupRetry = RetryTemplate.builder()
+                .maxAttempts(3)
+                .exponentialBackoff(
+                        config.getRetryInitialDelayMs(),
+                        config.getRetryDelayMultiplier(),
+                        MAX_STARTUP_RETRY_DELAY_MS
+                )
+                .retryOn(AuthenticationException.class)
+                .build();
+        log.info("Пул учетных записей GigaChat: {} шт.", credentials.size());
+    }
+
+    /**
+     * Получает начальные токены доступа для всех учетных записей с повторными попытками.
+     * Учетные записи, для которых токен получить не удалось, продолжают попытки в фоне.
+     *
+     * @throws AuthenticationException не удалось получить токен ни для одной учетной записи.
+     */
+    public void fetchAccessTokens() {
+        int ready = 0;
+        for (PooledCredential credential : credentials) {
+            try {
+                startupRetry.execute(context -> {
+                    credential.tokenManager.fetchAccessToken();
+                    return null;
+                });
+                ready++;
+            } catch (AuthenticationException e) {
+                log.error("Не удалось получить токен для учетной записи {}", credential.name, e);
+                credential.tokenManager.hasValidToken();
+            }
+        }
+        if (ready == 0) {
+            throw new AuthenticationException("Не удалось получить токен ни для одной учетной записи");
+        }
+    }
+
+    /**
+     * Выдает наименее загруженную доступную учетную запись.
+     * Недоступны учетные записи без действующего токена, исключенные из ротации после 429
+     * и исчерпавшие лимит одновременных запросов. Если в ротации есть учетные записи,
+     * но все они заняты, запрос ждет освобождения одной из них не дольше {@code credentialQueueWaitMs}.
+     * Не блокирует поток.
+     *
+     * @return Future с арендой учетной записи; аренда должна быть освобождена вызовом
+     * {@link Lease#release()}. Отмена future снимает запрос с ожидания. Завершается исключением
+     * {@link RateLimitExceededException}, если учетных записей в ротации нет, очередь переполнена
+     * или время ожидания истекло.
+     */
+    public CompletableFuture<Lease> acquire() {
+        Lease lease = tryAcquire();
+        if (lease != null) {
+            return CompletableFuture.completedFuture(lease);
+        }
+        if (!hasBusyCredentials()) {
+            return CompletableFuture.failedFuture(
+                    new RateLimitExceededException("Нет доступных учетных записей GigaChat API", retryAfter())
+            );
+        }
+        CompletableFuture<Lease> waiter = new CompletableFuture<>();
+        synchronized (waiters) {
+            // Повторная попытка под монитором: освобождение между попытками не должно потеряться
+            lease = tryAcquire();
+            if (lease != null) {
+                return CompletableFuture.completedFuture(lease);
+            }
+            if (waiters.size() >= maxQueueSize) {
+                return CompletableFuture.failedFuture(new RateLimitExceededException(
+                        "Превышено число запросов, ожидающих учетную запись GigaChat API", BUSY_RETRY_AFTER
+                ));
+            }
+            waiters.add(waiter);
+        }
+        waiter.whenComplete((value, error) -> {
+            if (error != null) {
+                synchronized (waiters) {
+                    waiters.remove(waiter);
+                }
+            }
+        });
+        CompletableFuture.delayedExecutor(queueWaitMs, TimeUnit.MILLISECONDS).execute(() ->
+                waiter.completeExceptionally(new RateLimitExceededException(
+                        "Истекло время ожидания свободной учетной записи GigaChat API", retryAfter()
+                ))
+        );
+        return waiter;
+    }
+
+    /**
+     * Занимает наименее загруженную доступную учетную запись без ожидания.
+     *
+     * @return Аренда учетной записи или {@code null}, если доступных учетных записей нет.
+     */
+    private Lease tryAcquire() {
+        int size = credentials.size();
+        for (int attempt = 0; attempt < size; attempt++) {
+            long now = System.currentTimeMillis();
+            int start = Math.floorMod(cursor.getAndIncrement(), size);
+            PooledCredential best = null;
+            double bestLoad = Double.MAX_VALUE;
+            for (int i = 0; i < size; i++) {
+                PooledCredential candidate = credentials.get((start + i) % size);
+                if (!candidate.isAvailable(now)) {
+                    continue;
+                }
+                double load = candidate.load();
+                if (load < bestLoad) {
+                    best = candidate;
+                    bestLoad = load;
+                }
+            }
+            if (best == null) {
+                return null;
+            }
+            if (best.tryAcquire()) {
+                return new Lease(best);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Передает освободившиеся учетные записи ожидающим запросам.
+     */
+    private void grantWaiters() {
+        while (true) {
+            CompletableFuture<Lease> waiter;
+            Lease lease;
+            synchronized (waiters) {
+                if (waiters.isEmpty()) {
+                    return;
+                }
+                lease = tryAcquire();
+                if (lease == null) {
+                    return;
+                }
+                waiter = waiters.poll();
+            }
+            if (!waiter.complete(lease)) {
+                lease.release();
+            }
+        }
+    }
+
+    /**
+     * Проверяет, есть ли в ротации учетные записи, которые освободятся по завершении текущих запросов.
+     *
+     * @return {@code true}, если хотя бы одна учетная запись не исключена из ротации и имеет токен.
+     */
+    private boolean hasBusyCredentials() {
+        long now = System.currentTimeMillis();
+        for (PooledCredential credential : credentials) {
+            if (credential.inRotation(now)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Возвращает число учетных записей в ротации: не исключенных после 429 и имеющих токен.
+     *
+     * @return Число учетных записей.
+     */
+    public int activeCount() {
+        long now = System.currentTimeMillis();
+        int active = 0;
+        for (PooledCredential credential : credentials) {
+            if (credential.inRotation(now)) {
+                active++;
+            }
+        }
+        return active;
+    }
+
+    /**
+     * Возвращает число учетных записей в пуле.
+     *
+     * @return Число учетных записей.
+     */
+    public int size() {
+        return credentials.size();
+    }
+
+    /**
+     * Останавливает фоновое обновление токенов всех учетных записей.
+     */
+    @PreDestroy
+    public void shutdown() {
+        credentials.forEach(credential -> credential.tokenManager.shutdown());
+    }
+
+    /**
+     * Вычисляет время, через которое освободится хотя бы одна исключенная из ротации учетная запись.
+     *
+     * @return Рекомендуемая задержка перед повторным запросом.
+     */
+    private Duration retryAfter() {
+        long now = System.currentTimeMillis();
+        long earliest = Long.MAX_VALUE;
+        for (PooledCredential credential : credentials) {
+            if (credential.cooldownUntil > now) {
+                earliest = Math.min(earliest, credential.cooldownUntil);
+            } else {
+                return BUSY_RETRY_AFTER;
+            }
+        }
+        return earliest == Long.MAX_VALUE ? BUSY_RETRY_AFTER : Duration.ofMillis(earliest - now);
+    }
+
+    /**
+     * Аренда учетной записи на время одного запроса к API.
+     */
+    public final class Lease {
+
+        /**
+         * Арендованная учетная запись.
+         */
+        private final PooledCredential credential;
+
+        /**
+         * Признак освобождения аренды.
+         */
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        /**
+         * Создает аренду учетной записи.
+         *
+         * @param credential Арендованная учетная запись.
+         */
+        private Lease(final PooledCredential credential) {
+            this.credential = credential;
+        }
+
+        /**
+         * Возвращает токен доступа учетной записи.
+         *
+         * @return Токен доступа.
+         * @throws AuthenticationException действующего токена нет.
+         */
+        public String accessToken() {
+            return credential.tokenManager.getAccessToken();
+        }
+
+        /**
+         * Исключает учетную запись из ротации после ответа 429.
+         *
+         * @param retryAfter Задержка из заголовка {@code Retry-After} или {@code null}.
+         */
+        public void markRateLimited(final Duration retryAfter) {
+            Duration cooldown = retryAfter != null ? retryAfter : defaultCooldown;
+            credential.cooldownUntil = System.currentTimeMillis() + cooldown.toMillis();
+            credential.rateLimited.increment();
+            log.warn("Учетная запись {} исключена из ротации на {} мс после ответа 429",
+                    credential.name, cooldown.toMillis());
+        }
+
+        /**
+         * Освобождает учетную запись и передает ее ожидающему запросу. Повторные вызовы игнорируются.
+         */
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                credential.inFlight.decrementAndGet();
+                grantWaiters();
+            }
+        }
+    }
+
+    /**
+     * Учетная запись пула и ее текущее состояние.
+     */
+    private static final class PooledCredential {
+
+        /**
+         * Маскированный идентификатор клиента для логов.
+         */
+        private final String name;
+
+        /**
+         * Менеджер токенов учетной записи.
+         */
+        private final TokenManager tokenManager;
+
+        /**
+         * Максимальное число одновременных запросов.
+         */
+        private final int maxConcurrentRequests;
+
+        /**
+         * Счетчик ответов 429.
+         */
+        private final Counter rateLimited;
+
+        /**
+         * Число выполняемых запросов.
+         */
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        /**
+         * Время (в миллисекундах), до которого учетная запись исключена из ротации.
+         */
+        private volatile long cooldownUntil;
+
+        /**
+         * Создает учетную запись пула.
+         *
+         * @param name                  Маскированный идентификатор клиента.
+         * @param tokenManager          Менеджер токенов.
+         * @param maxConcurrentRequests Максимальное число одновременных запросов.
+         * @param rateLimited           Счетчик ответов 429.
+         */
+        private PooledCredential(
+                final String name,
+                final TokenManager tokenManager,
+                final int maxConcurrentRequests,
+                final Counter rateLimited
+        ) {
+            this.name = name;
+            this.tokenManager = tokenManager;
+            this.maxConcurrentRequests = maxConcurrentRequests;
+            this.rateLimited = rateLimited;
+        }
+
+        /**
+         * Проверяет, может ли учетная запись принять запрос.
+         *
+         * @param now Текущее время (в миллисекундах).
+         * @return {@code true}, если учетная запись не исключена из ротации, не исчерпала лимит и имеет токен.
+         */
+        private boolean isAvailable(final long now) {
+            return inFlight.get() < maxConcurrentRequests && inRotation(now);
+        }
+
+        /**
+         * Проверяет, находится ли учетная запись в ротации.
+         *
+         * @param now Текущее время (в миллисекундах).
+         * @return {@code true}, если учетная запись не исключена из ротации и имеет токен.
+         */
+        private boolean inRotation(final long now) {
+            return cooldownUntil <= now && tokenManager.hasValidToken();
+        }
+
+        /**
+         * Возвращает загрузку учетной записи как долю занятого лимита.
+         *
+         * @return Загрузка от 0 до 1.
+         */
+        private double load() {
+            return (double) inFlight.get() / maxConcurrentRequests;
+        }
+
+        /**
+         * Занимает место в лимите одновременных запросов.
+         *
+         * @return {@code true}, если место занято.
+         */
+        private boolean tryAcquire() {
+            int current;
+            do {
+                current = inFlight.get();
+                if (current >= maxConcurrentRequests) {
+                    return false;
+                }
+            } while (!inFlight.compareAndSet(current, current + 1));
+            return true;
+        }
+    }
+}
@@ -1,20 +1,30 @@
 package org.surkov.gigachatservice.utils;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import okhttp3.MediaType;
-import okhttp3.Request;
-import okhttp3.RequestBody;
 import org.springframework.stereotype.Component;
 import org.surkov.gigachatservice.config.GigaChatConfig;
-import org.surkov.gigachatservice.dto.GigaChatMessage;
-import org.surkov.gigachatservice.dto.GigaChatRequest;
+import org.surkov.gigachatservice.dto.ChatCompletion;
 import org.surkov.gigachatservice.exception.ApiRequestException;
+import org.surkov.gigachatservice.exception.RateLimitExceededException;
+import org.surkov.gigachatservice.exception.ServiceUnavailableException;
+import org.surkov.gigachatservice.exception.UpstreamHttpException;
+import org.surkov.gigachatservice.utils.resilience.AdaptiveConcurrencyLimiter;
+import org.surkov.gigachatservice.utils.resilience.HedgingPolicy;
+import org.surkov.gigachatservice.utils.resilience.ModelRateLimiter;
+import org.surkov.gigachatservice.utils.resilience.RetryPolicy;
+import org.surkov.gigachatservice.utils.transport.TransportRequest;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 /**
  * Клиент для выполнения запросов к GigaChat API.
@@ -27,15 +37,25 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class GigaChatApiClient {
 
+    /**
+     * Префикс строки с данными в потоке Server-Sent Events.
+     */
+    private static final String SSE_DATA_PREFIX = "data:";
+
+    /**
+     * Маркер завершения потока ответа GigaChat API.
+     */
+    private static final String SSE_DONE_MARKER = "[DONE]";
+
     /**
      * Конфигурация GigaChat API, содержащая URL и другие параметры.
      */
     private final GigaChatConfig config;
 
     /**
-     * Менеджер токенов, предоставляющий токен доступа для аутентификации в API.
+     * Пул учетных записей, предоставляющий токен доступа для аутентификации в API.
      */
-    private final TokenManager tokenManager;
+    private final CredentialPool credentialPool;
 
     /**
      * Обертка над HTTP-клиентом для выполнения запросов к API.
@@ -43,75 +63,421 @@ public class GigaChatApiClient {
     private final HttpClientWrapper httpClientWrapper;
 
     /**
-     * Объект для сериализации и десериализации JSON.
+     * Ограничитель частоты запросов по моделям.
+     */
+    private final ModelRateLimiter rateLimiter;
+
+    /**
+     * Адаптивный ограничитель числа одновременных запросов по моделям.
+     */
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    /**
+     * Политика повторов при временных ошибках API.
+     */
+    private final RetryPolicy retryPolicy;
+
+    /**
+     * Политика хеджирования медленных запросов.
      */
-    private final ObjectMapper objectMapper;
+    private final HedgingPolicy hedgingPolicy;
+
+    /**
+     * Формирование тела запроса с закодированными заранее промптами.
+     */
+    private final ChatPayloadWriter payloadWriter;
+
+    /**
+     * Извлечение текста ответа и расхода токенов из ответа API.
+     */
+    private final ChatCompletionDecoder completionDecoder;
 
     /**
      * Выполняет запрос к GigaChat API
      * для получения ответа на основе переданных данных.
+     * Блокирует поток до получения ответа; запрос проходит те же лимиты,
+     * что и {@link #getResponseAsync(String, String, String)}.
      *
      * @param systemPrompt Системный промпт, задающий контекст для анализа.
      * @param text         Текст резюме для анализа.
      * @param model        Модель для анализа резюме.
-     * @return Ответ от API в виде строки.
-     * @throws ApiRequestException ошибка при выполнении запроса к API.
+     * @return Текст ответа модели и расход токенов.
+     * @throws ApiRequestException         ошибка при выполнении запроса к API.
+     * @throws RateLimitExceededException  превышен лимит запросов.
+     * @throws ServiceUnavailableException превышен лимит одновременных запросов к модели.
      */
-    public String getResponse(
+    public ChatCompletion getResponse(
             final String systemPrompt,
             final String text,
             final String model
     ) {
         try {
-            GigaChatMessage systemMessage = new GigaChatMessage();
-            systemMessage.setRole("system");
-            systemMessage.setContent(systemPrompt);
-
-            GigaChatMessage userMessage = new GigaChatMessage();
-            userMessage.setRole("user");
-            userMessage.setContent(text);
-
-            List<GigaChatMessage> messages = new ArrayList<>();
-            messages.add(systemMessage);
-            messages.add(userMessage);
-
-            GigaChatRequest payload = new GigaChatRequest();
-            payload.setModel(model);
-            payload.setMessages(messages);
-            payload.setStream(false);
-
-            String jsonPayload = objectMapper.writeValueAsString(payload);
-            RequestBody body = RequestBody.create(
-                    jsonPayload,
-                    MediaType.get("application/json; charset=utf-8")
-            );
-
-            Request request = new Request.Builder()
-                    .url(config.getApiUrl())
-                    .post(body)
-                    .addHeader(
-                            "Authorization",
-                            "Bearer " + tokenManager.getAccessToken()
-                    )
-                    .addHeader(
-                            "Content-Type",
-                            "application/json"
-                    )
-                    .addHeader(
-                            "RqUID",
-                            UUID.randomUUID().toString()
-                    )
-                    .build();
-
-            return httpClientWrapper.executeRequestForString(
-                    request,
-                    "Ошибка запроса к GigaChat API"
-            );
-        } catch (Exception e) {
+            return getResponseAsync(systemPrompt, text, model).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
             log.error("Ошибка при обработке запроса к GigaChat API", e);
             throw new ApiRequestException(
-                    "Ошибка при обработке запроса к GigaChat API", e
+                    "Ошибка при обработке запроса к GigaChat API", e.getCause()
             );
         }
     }
+
+    /**
+     * Асинхронно выполняет запрос к GigaChat API.
+     * Запрос ставится в очередь HTTP-транспорта, поэтому поток вызывающего
+     * освобождается сразу, а не удерживается на время генерации ответа моделью.
+     * Временные ошибки API повторяются по {@link RetryPolicy}, а запрос без ответа дольше
+     * обычного для модели дублируется по {@link HedgingPolicy}. Текст ответа и расход токенов
+     * извлекаются из тела ответа по мере его чтения ({@link ChatCompletionDecoder}).
+     *
+     * @param systemPrompt Системный промпт, задающий контекст для анализа.
+     * @param text         Текст резюме для анализа.
+     * @param model        Модель для анализа резюме.
+     * @return Future с текстом ответа модели и расходом токенов. Завершается исключением
+     * {@link ApiRequestException} при ошибке выполнения запроса или ответе без текста либо
+     * {@link RateLimitExceededException}, если все учетные записи исчерпали лимит.
+     */
+    public CompletableFuture<ChatCompletion> getResponseAsync(
+            final String systemPrompt,
+            final String text,
+            final String model
+    ) {
+        int promptTokens = TokenEstimator.estimate(systemPrompt, text);
+        return retryPolicy.execute(
+                () -> hedgingPolicy.execute(model, onSent -> withCredential(
+                        model,
+                        promptTokens,
+                        true,
+                        lease -> {
+                            onSent.run();
+                            return httpClientWrapper.executeRequestAsync(
+                                    model,
+                                    buildRequest(systemPrompt, text, model, false, lease.accessToken()),
+                                    "Ошибка запроса к GigaChat API",
+                                    this::decodeCompletion
+                            );
+                        }
+                )),
+                () -> true
+        );
+    }
+
+    /**
+     * Асинхронно выполняет запрос к GigaChat API в потоковом режиме ({@code stream=true}).
+     * Ответ API приходит в формате Server-Sent Events: каждая строка {@code data:} содержит
+     * JSON-фрагмент с очередной порцией сгенерированного текста. Полезная нагрузка каждого
+     * фрагмента передается обработчику по мере поступления, завершающий маркер {@code [DONE]} пропускается.
+     * Временные ошибки API повторяются по {@link RetryPolicy}, пока обработчику не передан ни один фрагмент.
+     *
+     * @param systemPrompt  Системный промпт, задающий контекст для анализа.
+     * @param text          Текст резюме для анализа.
+     * @param model         Модель для анализа резюме.
+     * @param chunkConsumer Обработчик JSON-фрагментов ответа. Вызывается в потоке HTTP-транспорта.
+     * @return Future, завершающийся после получения всего ответа. Завершается исключением
+     * {@link ApiRequestException} при ошибке выполнения запроса или
+     * {@link RateLimitExceededException}, если все учетные записи исчерпали лимит.
+     */
+    public CompletableFuture<Void> getResponseStreamAsync(
+            final String systemPrompt,
+            final String text,
+            final String model,
+            final Consumer<String> chunkConsumer
+    ) {
+        int promptTokens = TokenEstimator.estimate(systemPrompt, text);
+        AtomicBoolean emitted = new AtomicBoolean(false);
+        return retryPolicy.execute(
+                () -> withCredential(
+                        model,
+                        promptTokens,
+                        false,
+                        lease -> httpClientWrapper.executeStreamingRequestAsync(
+                                model,
+                                buildRequest(systemPrompt, text, model, true, lease.accessToken()),
+                                "Ошибка потокового запроса к GigaChat API",
+                                line -> {
+                                    if (!line.startsWith(SSE_DATA_PREFIX)) {
+                                        return;
+                                    }
+                                    String data = line.substring(SSE_DATA_PREFIX.length()).trim();
+                                    if (!data.isEmpty() && !SSE_DONE_MARKER.equals(data)) {
+                                        emitted.set(true);
+                                        chunkConsumer.accept(data);
+                                    }
+                                }
+                        )
+                ),
+                () -> !emitted.get()
+        );
+    }
+
+    /**
+     * Выполняет асинхронный вызов API от имени учетной записи из пула.
+     * Перед вызовом занимается место в адаптивном лимите одновременных запросов модели
+     * и только затем резервируется место в ее лимите частоты запросов, чтобы отклоненные
+     * по параллелизму запросы не расходовали лимит частоты; по завершении вызова адаптивный лимит корректируется
+     * по задержке и результату. Учетная запись освобождается по завершении вызова.
+     * При ответе 429 она исключается из ротации, а вызов повторяется с другой учетной записью,
+     * пока они не закончатся. Отмена возвращенного future отменяет и текущий HTTP-вызов.
+     *
+     * @param model          Модель, к которой выполняется вызов.
+     * @param promptTokens   Оценка числа токенов запроса.
+     * @param measureLatency Учитывать ли задержку вызова в адаптивном лимите
+     *                       (не учитывается для потоковых ответов).
+     * @param call           Вызов API, выполняемый с арендованной учетной записью.
+     * @param <T>            Тип результата вызова.
+     * @return Future с результатом вызова. Завершается исключением {@link RateLimitExceededException},
+     * если превышен лимит модели или все учетные записи исчерпали лимит, или
+     * {@link ServiceUnavailableException}, если превышен лимит одновременных запросов.
+     */
+    private <T> CompletableFuture<T> withCredential(
+            final String model,
+            final int promptTokens,
+            final boolean measureLatency,
+            final LeasedCall<T> call
+    ) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        concurrencyLimiter.acquire(model).whenComplete((permit, error) -> {
+            if (error != null) {
+                result.completeExceptionally(unwrap(error));
+                return;
+            }
+            if (result.isDone()) {
+                permit.release(-1, false);
+                return;
+            }
+            result.whenComplete((value, failure) -> permit.release(
+                    measureLatency && failure == null ? permit.elapsedNanos() : -1,
+                    isCongestion(failure)
+            ));
+            reserve(model, promptTokens, permit, call, result);
+        });
+        return result;
+    }
+
+    /**
+     * Резервирует место в лимите частоты запросов модели и запускает вызов.
+     * Резерв возвращается лимиту, если запрос так и не был отправлен: вызов отменен
+     * или не нашлось свободной учетной записи.
+     *
+     * @param model        Модель, к которой выполняется вызов.
+     * @param promptTokens Оценка числа токенов запроса.
+     * @param permit       Разрешение адаптивного лимита одновременных запросов.
+     * @param call         Вызов API.
+     * @param result       Итоговый future вызова.
+     * @param <T>          Тип результата вызова.
+     */
+    private <T> void reserve(
+            final String model,
+            final int promptTokens,
+            final AdaptiveConcurrencyLimiter.Permit permit,
+            final LeasedCall<T> call,
+            final CompletableFuture<T> result
+    ) {
+        CompletableFuture<Void> reserved = rateLimiter.acquire(model, promptTokens);
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                reserved.cancel(false);
+            }
+        });
+        reserved.whenComplete((ignored, error) -> {
+            if (reserved.isCancelled()) {
+                rateLimiter.refund(model, promptTokens);
+                return;
+            }
+            if (error != null) {
+                // Отказ локального лимита частоты не говорит о перегрузке API
+                permit.release(-1, false);
+                result.completeExceptionally(unwrap(error));
+                return;
+            }
+            if (result.isDone()) {
+                rateLimiter.refund(model, promptTokens);
+                return;
+            }
+            AtomicBoolean sent = new AtomicBoolean(false);
+            result.whenComplete((value, failure) -> {
+                if (!sent.get()) {
+                    rateLimiter.refund(model, promptTokens);
+                }
+            });
+            attempt(lease -> {
+                sent.set(true);
+                return call.execute(lease);
+            }, credentialPool.size(), result);
+        });
+    }
+
+    /**
+     * Проверяет, указывает ли ошибка вызова на перегрузку внешнего API:
+     * ответ 429 или 5xx, исчерпание лимитов либо тайм-аут.
+     *
+     * @param error Ошибка вызова или {@code null}.
+     * @return {@code true}, если ошибка вызвана перегрузкой.
+     */
+    private static boolean isCongestion(final Throwable error) {
+        Throwable cause = unwrap(error);
+        if (cause instanceof UpstreamHttpException upstream) {
+            return upstream.isRateLimited() || upstream.getStatusCode() >= 500;
+        }
+        return cause instanceof RateLimitExceededException
+                || cause instanceof ApiRequestException && cause.getCause() instanceof InterruptedIOException;
+    }
+
+    /**
+     * Раскрывает обертку {@link CompletionException}.
+     *
+     * @param error Ошибка.
+     * @return Исходная ошибка.
+     */
+    private static Throwable unwrap(final Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * Выполняет одну попытку вызова API и при ответе 429 запускает следующую.
+     * Если все учетные записи заняты, попытка ждет освобождения одной из них.
+     *
+     * @param call         Вызов API.
+     * @param attemptsLeft Оставшееся число попыток.
+     * @param result       Итоговый future вызова.
+     * @param <T>          Тип результата вызова.
+     */
+    private <T> void attempt(final LeasedCall<T> call, final int attemptsLeft, final CompletableFuture<T> result) {
+        CompletableFuture<CredentialPool.Lease> leased = credentialPool.acquire();
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                leased.cancel(false);
+            }
+        });
+        leased.whenComplete((lease, error) -> {
+            if (error != null) {
+                result.completeExceptionally(unwrap(error));
+                return;
+            }
+            if (result.isDone()) {
+                lease.release();
+                return;
+            }
+            execute(call, lease, attemptsLeft, result);
+        });
+    }
+
+    /**
+     * Выполняет вызов API с арендованной учетной записью.
+     *
+     * @param call         Вызов API.
+     * @param lease        Аренда учетной записи.
+     * @param attemptsLeft Оставшееся число попыток.
+     * @param result       Итоговый future вызова.
+     * @param <T>          Тип результата вызова.
+     */
+    private <T> void execute(
+            final LeasedCall<T> call,
+            final CredentialPool.Lease lease,
+            final int attemptsLeft,
+            final CompletableFuture<T> result
+    ) {
+        CompletableFuture<T> future;
+        try {
+            future = call.execute(lease);
+        } catch (RuntimeException e) {
+            lease.release();
+            result.completeExceptionally(e);
+            return;
+        }
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                future.cancel(false);
+            }
+        });
+        future.whenComplete((value, error) -> {
+            Throwable cause = unwrap(error);
+            if (cause instanceof UpstreamHttpException upstream && upstream.isRateLimited()) {
+                // До освобождения: освобожденная учетная запись сразу передается ожидающему запросу
+                lease.markRateLimited(upstream.getRetryAfter());
+            }
+            lease.release();
+            if (error == null) {
+                result.complete(value);
+                return;
+            }
+            if (cause instanceof UpstreamHttpException upstream && upstream.isRateLimited()) {
+                if (attemptsLeft > 1 && !result.isDone()) {
+                    attempt(call, attemptsLeft - 1, result);
+                    return;
+                }
+                result.completeExceptionally(new RateLimitExceededException(
+                        "Превышен лимит запросов GigaChat API",
+                        upstream.getRetryAfter() != null ? upstream.getRetryAfter() : Duration.ofSeconds(1),
+                        upstream
+                ));
+                return;
+            }
+            result.completeExceptionally(cause);
+        });
+    }
+
+    /**
+     * Извлекает текст ответа модели и расход токенов из тела ответа API.
+     *
+     * @param body Тело ответа.
+     * @return Текст ответа модели и расход токенов.
+     * @throws IOException         ошибка чтения или разбора тела ответа.
+     * @throws ApiRequestException ответ не содержит текста ответа модели.
+     */
+    private ChatCompletion decodeCompletion(final InputStream body) throws IOException {
+        ChatCompletion completion = completionDecoder.decode(body);
+        if (completion.content() == null) {
+            throw new ApiRequestException("Ответ GigaChat API не содержит текста ответа модели");
+        }
+        return completion;
+    }
+
+    /**
+     * Формирует HTTP-запрос к GigaChat API с системным и пользовательским сообщениями.
+     *
+     * @param systemPrompt Системный промпт, задающий контекст для анализа.
+     * @param text         Текст резюме для анализа.
+     * @param model        Модель для анализа резюме.
+     * @param stream       Признак потоковой генерации ответа.
+     * @param accessToken  Токен доступа учетной записи.
+     * @return Готовый к отправке HTTP-запрос.
+     */
+    private TransportRequest buildRequest(
+            final String systemPrompt,
+            final String text,
+            final String model,
+            final boolean stream,
+            final String accessToken
+    ) {
+        return TransportRequest.post(
+                config.getApiUrl(),
+                Map.of(
+                        "Authorization", "Bearer " + accessToken,
+                        "Content-Type", "application/json; charset=utf-8",
+                        "Accept", stream ? "text/event-stream" : "application/json",
+                        "RqUID", UUID.randomUUID().toString()
+                ),
+                payloadWriter.body(systemPrompt, text, model, stream)
+        );
+    }
+
+    /**
+     * Вызов API, выполняемый с арендованной учетной записью.
+     *
+     * @param <T> Тип результата вызова.
+     */
+    @FunctionalInterface
+    private interface LeasedCall<T> {
+
+        /**
+         * Выполняет вызов API.
+         *
+         * @param lease Аренда учетной записи.
+         * @return Future с результатом вызова.
+         */
+        CompletableFuture<T> execute(CredentialPool.Lease lease);
+    }
 }
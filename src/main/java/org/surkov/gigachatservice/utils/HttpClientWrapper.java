@@ -2,21 +2,44 @@ package org.surkov.gigachatservice.utils;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.Response;
-import okhttp3.ResponseBody;
 import org.springframework.stereotype.Component;
+import org.surkov.gigachatservice.config.GigaChatConfig;
 import org.surkov.gigachatservice.exception.ApiRequestException;
 import org.surkov.gigachatservice.exception.AuthenticationException;
+import org.surkov.gigachatservice.exception.ServiceUnavailableException;
+import org.surkov.gigachatservice.exception.UpstreamHttpException;
+import org.surkov.gigachatservice.utils.resilience.CircuitBreaker;
+import org.surkov.gigachatservice.utils.transport.HttpTransport;
+import org.surkov.gigachatservice.utils.transport.ResponseHandler;
+import org.surkov.gigachatservice.utils.transport.TransportRequest;
+import org.surkov.gigachatservice.utils.transport.TransportResponse;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 /**
- * Обертка над HTTP-клиентом для выполнения запросов к API.
+ * Обертка над HTTP-транспортом для выполнения запросов к API.
  * Предоставляет методы для выполнения запросов и обработки ответов, включая обработку ошибок.
+ * <p>
+ * HTTP-библиотека скрыта за {@link HttpTransport} (OkHttp или {@code java.net.http.HttpClient},
+ * выбирается настройкой {@code giga-chat.connections.transport}). Асинхронные вызовы моделей
+ * изолированы друг от друга: у каждой модели собственные очередь вызовов и пул соединений
+ * транспорта (bulkhead) и собственный {@link CircuitBreaker}, поэтому деградация одной модели
+ * не занимает ресурсы других, а вызовы к модели с разомкнутым выключателем сразу завершаются
+ * {@link ServiceUnavailableException}.
  */
 @Slf4j
 @Component
@@ -24,15 +47,30 @@ import java.io.IOException;
 public class HttpClientWrapper {
 
     /**
-     * HTTP-клиент для выполнения запросов к API.
+     * HTTP-транспорт для выполнения запросов к API.
      */
-    private final OkHttpClient client;
+    private final HttpTransport transport;
 
     /**
      * Объект для сериализации и десериализации JSON.
      */
     private final ObjectMapper objectMapper;
 
+    /**
+     * Конфигурация GigaChat API с настройками выключателей моделей.
+     */
+    private final GigaChatConfig config;
+
+    /**
+     * Реестр метрик.
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Выключатели вызовов по моделям.
+     */
+    private final ConcurrentMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
     /**
      * Выполняет HTTP-запрос и возвращает тело ответа в виде JSON-объекта.
      *
@@ -42,10 +80,12 @@ public class HttpClientWrapper {
      * @throws ApiRequestException     запрос завершился с ошибкой или произошла ошибка ввода-вывода.
      * @throws AuthenticationException ошибка связана с аутентификацией (коды ответа 401 или 403).
      */
-    public JsonNode executeRequest(final Request request, final String errorMessage) {
-        try (Response response = client.newCall(request).execute()) {
-            String responseBody = handleResponse(response, errorMessage);
-            return objectMapper.readTree(responseBody);
+    public JsonNode executeRequest(final TransportRequest request, final String errorMessage) {
+        try {
+            return transport.execute(
+                    request,
+                    response -> objectMapper.readTree(requireSuccessfulBody(response, errorMessage))
+            );
         } catch (IOException e) {
             log.error("{} Ошибка при выполнении запроса", errorMessage, e);
             throw new ApiRequestException(errorMessage + ". Ошибка при выполнении запроса", e);
@@ -60,9 +100,9 @@ public class HttpClientWrapper {
      * @return Тело ответа в виде строки.
      * @throws ApiRequestException запрос завершился с ошибкой или произошла ошибка ввода-вывода.
      */
-    public String executeRequestForString(final Request request, final String errorMessage) {
-        try (Response response = client.newCall(request).execute()) {
-            return handleResponse(response, errorMessage);
+    public String executeRequestForString(final TransportRequest request, final String errorMessage) {
+        try {
+            return transport.execute(request, response -> readString(requireSuccessfulBody(response, errorMessage)));
         } catch (IOException e) {
             log.error("{} Ошибка при выполнении запроса", errorMessage, e);
             throw new ApiRequestException(errorMessage + ". Ошибка при выполнении запроса", e);
@@ -70,37 +110,239 @@ public class HttpClientWrapper {
     }
 
     /**
-     * Обрабатывает HTTP-ответ, проверяет его успешность и возвращает тело ответа в виде строки.
-     * Если ответ неуспешен или тело отсутствует, логирует ошибку и выбрасывает соответствующее исключение.
+     * Асинхронно выполняет HTTP-запрос и разбирает тело ответа по мере чтения, не загружая его в строку.
+     * Поток вызывающего не блокируется на время запроса: результат
+     * завершается в потоке транспорта.
+     * Отмена возвращенного future отменяет и сам HTTP-вызов.
+     *
+     * @param model        Модель, к которой выполняется запрос; определяет изолированный канал.
+     * @param request      HTTP-запрос, который необходимо выполнить.
+     * @param errorMessage Сообщение об ошибке для логирования и исключения.
+     * @param bodyReader   Разбор тела успешного ответа. Вызывается в потоке транспорта.
+     * @param <R>          Тип результата разбора.
+     * @return Future с результатом разбора тела ответа. Завершается исключением
+     * {@link ApiRequestException} или {@link AuthenticationException} при ошибке
+     * либо {@link ServiceUnavailableException}, если выключатель модели разомкнут.
+     */
+    public <R> CompletableFuture<R> executeRequestAsync(
+            final String model,
+            final TransportRequest request,
+            final String errorMessage,
+            final BodyReader<R> bodyReader
+    ) {
+        return enqueue(
+                model,
+                request,
+                errorMessage,
+                response -> bodyReader.read(requireSuccessfulBody(response, errorMessage))
+        );
+    }
+
+    /**
+     * Асинхронно выполняет HTTP-запрос с потоковым ответом (например, {@code text/event-stream})
+     * и передает каждую строку тела ответа обработчику по мере ее поступления.
+     *
+     * @param model        Модель, к которой выполняется запрос; определяет изолированный канал.
+     * @param request      HTTP-запрос, который необходимо выполнить.
+     * @param errorMessage Сообщение об ошибке для логирования и исключения.
+     * @param lineConsumer Обработчик строк тела ответа. Вызывается в потоке транспорта.
+     * @return Future, завершающийся после прочтения всего тела ответа. Завершается исключением
+     * {@link ApiRequestException} или {@link AuthenticationException} при ошибке
+     * либо {@link ServiceUnavailableException}, если выключатель модели разомкнут.
+     */
+    public CompletableFuture<Void> executeStreamingRequestAsync(
+            final String model,
+            final TransportRequest request,
+            final String errorMessage,
+            final Consumer<String> lineConsumer
+    ) {
+        return enqueue(model, request, errorMessage, response -> {
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(requireSuccessfulBody(response, errorMessage), StandardCharsets.UTF_8)
+            );
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineConsumer.accept(line);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Заранее открывает соединение с хостом адреса: отправляет запрос {@code HEAD} и сразу закрывает
+     * ответ, оставляя установленное соединение (TCP, TLS и, если поддерживается, HTTP/2) в пуле клиента.
+     * Код ответа не важен. Клиент, у которого есть выполняемые вызовы, не прогревается: его соединения
+     * и так используются. Вызов не учитывается выключателем модели.
+     *
+     * @param model Модель, пул соединений изолированного канала которой прогревается,
+     *              или {@code null} для общего клиента.
+     * @param url   Адрес на прогреваемом хосте.
+     * @return Future с признаком того, что соединение установлено; ошибкой не завершается.
+     */
+    public CompletableFuture<Boolean> warmUp(final String model, final String url) {
+        if (transport.activeCalls(model) > 0) {
+            return CompletableFuture.completedFuture(true);
+        }
+        return transport.executeAsync(model, TransportRequest.head(url), response -> {
+            log.debug("Соединение с {} прогрето ({}, {})", url, response.protocol(), response.statusCode());
+            return true;
+        }).exceptionally(error -> {
+            log.debug("Не удалось прогреть соединение с {}: {}", url, error.toString());
+            return false;
+        });
+    }
+
+    /**
+     * Ставит HTTP-запрос в очередь канала модели и связывает его с {@link CompletableFuture}.
+     * Отмена возвращенного future отменяет и сам HTTP-вызов. Результат вызова учитывается
+     * выключателем модели: ошибками считаются ошибки соединения, тайм-ауты и ответы 5xx,
+     * длительность вызова измеряется до получения заголовков ответа.
+     *
+     * @param model           Модель, к которой выполняется запрос.
+     * @param request         HTTP-запрос, который необходимо выполнить.
+     * @param errorMessage    Сообщение об ошибке для логирования и исключения.
+     * @param responseHandler Обработчик полученного HTTP-ответа.
+     * @param <R>             Тип результата обработки ответа.
+     * @return Future с результатом обработки ответа.
+     */
+    private <R> CompletableFuture<R> enqueue(
+            final String model,
+            final TransportRequest request,
+            final String errorMessage,
+            final ResponseHandler<R> responseHandler
+    ) {
+        CircuitBreaker breaker = breakers.computeIfAbsent(
+                model, name -> new CircuitBreaker(name, config.getCircuitBreaker(), meterRegistry)
+        );
+        if (!breaker.tryAcquire()) {
+            return CompletableFuture.failedFuture(new ServiceUnavailableException(
+                    "Вызовы модели " + model + " временно приостановлены"
+            ));
+        }
+        long startedAt = System.currentTimeMillis();
+        AtomicLong respondedAt = new AtomicLong();
+        CompletableFuture<R> future = new CompletableFuture<>();
+        CompletableFuture<R> call = transport.executeAsync(model, request, response -> {
+            respondedAt.set(System.currentTimeMillis());
+            return responseHandler.handle(response);
+        });
+        call.whenComplete((result, error) -> {
+            long durationMs = (respondedAt.get() != 0 ? respondedAt.get() : System.currentTimeMillis()) - startedAt;
+            if (error == null) {
+                breaker.onSuccess(durationMs);
+                future.complete(result);
+                return;
+            }
+            if (call.isCancelled() || future.isCancelled()) {
+                breaker.onIgnored();
+                future.cancel(false);
+                return;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+            if (cause instanceof IOException) {
+                breaker.onFailure(durationMs);
+                log.error("{} Ошибка при выполнении запроса", errorMessage, cause);
+                future.completeExceptionally(
+                        new ApiRequestException(errorMessage + ". Ошибка при выполнении запроса", cause)
+                );
+            } else if (cause instanceof UpstreamHttpException upstream) {
+                if (upstream.getStatusCode() >= 500) {
+                    breaker.onFailure(durationMs);
+                } else {
+                    breaker.onIgnored();
+                }
+                future.completeExceptionally(upstream);
+            } else {
+                breaker.onIgnored();
+                future.completeExceptionally(cause);
+            }
+        });
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                call.cancel(false);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Проверяет успешность HTTP-ответа и возвращает его тело.
+     * Если ответ неуспешен, логирует ошибку и выбрасывает соответствующее исключение.
      *
      * @param response     HTTP-ответ, полученный от сервера.
      * @param errorMessage Сообщение об ошибке для логирования и исключения.
-     * @return Тело ответа в виде строки.
-     * @throws ApiRequestException     запрос завершился с ошибкой или произошла ошибка ввода-вывода.
+     * @return Тело ответа.
+     * @throws UpstreamHttpException   запрос завершился неуспешным HTTP-статусом.
      * @throws AuthenticationException ошибка связана с аутентификацией (коды ответа 401 или 403).
-     * @throws IOException             ошибка при чтении тела ответа.
+     * @throws IOException             ошибка при чтении тела неуспешного ответа.
      */
-    private String handleResponse(final Response response, final String errorMessage) throws IOException {
-        if (!response.isSuccessful()) {
-            String responseBody = response.body() != null ? response.body().string() : "Тело ответа отсутствует";
+    private InputStream requireSuccessfulBody(final TransportResponse response, final String errorMessage)
+            throws IOException {
+        int code = response.statusCode();
+        if (code < 200 || code >= 300) {
+            String responseBody = readString(response.body());
             log.error(
                     "{} Код ответа: {}, тело: {}",
                     errorMessage,
-                    response.code(),
-                    SecurityUtils.maskSensitiveData(responseBody)
+                    code,
+                    SecurityUtils.maskSensitiveData(responseBody.isEmpty() ? "Тело ответа отсутствует" : responseBody)
             );
-            if (response.code() == 401 || response.code() == 403) {
-                throw new AuthenticationException(errorMessage + ". Код ответа: " + response.code());
+            if (code == 401 || code == 403) {
+                throw new AuthenticationException(errorMessage + ". Код ответа: " + code);
             }
-            throw new ApiRequestException(errorMessage + ". Код ответа: " + response.code());
+            throw new UpstreamHttpException(
+                    errorMessage + ". Код ответа: " + code,
+                    code,
+                    parseRetryAfter(response.header("Retry-After"))
+            );
         }
+        return response.body();
+    }
 
-        ResponseBody responseBody = response.body();
-        if (responseBody == null) {
-            log.error("{} Тело ответа отсутствует", errorMessage);
-            throw new ApiRequestException(errorMessage + ". Тело ответа отсутствует");
+    /**
+     * Читает тело ответа в строку в кодировке UTF-8.
+     *
+     * @param body Тело ответа.
+     * @return Тело ответа в виде строки.
+     * @throws IOException ошибка при чтении тела ответа.
+     */
+    private static String readString(final InputStream body) throws IOException {
+        return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Разбирает заголовок {@code Retry-After}, заданный в секундах.
+     *
+     * @param header Значение заголовка или {@code null}.
+     * @return Задержка перед повтором или {@code null}, если заголовок отсутствует или не является числом.
+     */
+    private static Duration parseRetryAfter(final String header) {
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(header.trim())));
+        } catch (NumberFormatException e) {
+            return null;
         }
+    }
+
+    /**
+     * Разбор тела успешного HTTP-ответа.
+     *
+     * @param <R> Тип результата разбора.
+     */
+    @FunctionalInterface
+    public interface BodyReader<R> {
 
-        return responseBody.string();
+        /**
+         * Разбирает тело ответа.
+         *
+         * @param body Тело ответа; закрывается после разбора.
+         * @return Результат разбора.
+         * @throws IOException ошибка при чтении или разборе тела ответа.
+         */
+        R read(InputStream body) throws IOException;
     }
 }
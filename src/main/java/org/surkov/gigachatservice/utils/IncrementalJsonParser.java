@@ -0,0 +1,205 @@
+package org.surkov.gigachatservice.utils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Инкрементальный парсер JSON-объекта, генерируемого моделью по частям.
+ * Построен на неблокирующем парсере Jackson: текст подается фрагментами по мере генерации,
+ * и как только очередное скалярное значение (число, строка, логическое значение или {@code null})
+ * полностью получено, слушателю передается событие с путем к полю и типизированным значением.
+ * <p>
+ * Путь к полю формируется в виде {@code structure_score}, {@code key_achievements[0]}
+ * или {@code candidate_A_vs_B.structure}. Текст до первой открывающей фигурной скобки
+ * (например, разметка {@code ```json}) и после закрытия корневого объекта игнорируется.
+ * Если текст не является корректным JSON, генерация событий прекращается без исключения —
+ * итоговый ответ в любом случае разбирается целиком после завершения генерации.
+ * <p>
+ * Экземпляр не потокобезопасен: фрагменты должны подаваться последовательно.
+ */
+@Slf4j
+public class IncrementalJsonParser {
+
+    /**
+     * Неблокирующий парсер Jackson.
+     */
+    private final JsonParser parser;
+
+    /**
+     * Источник входных данных неблокирующего парсера.
+     */
+    private final ByteArrayFeeder feeder;
+
+    /**
+     * Слушатель событий о полученных полях.
+     */
+    private final FieldListener listener;
+
+    /**
+     * Старший суррогат, оставшийся в конце предыдущего фрагмента.
+     */
+    private char pendingHighSurrogate;
+
+    /**
+     * Признак того, что начало корневого объекта уже найдено.
+     */
+    private boolean started;
+
+    /**
+     * Признак того, что разбор завершен (корневой объект закрыт или произошла ошибка).
+     */
+    private boolean finished;
+
+    /**
+     * Создает парсер.
+     *
+     * @param jsonFactory Фабрика JSON-парсеров Jackson.
+     * @param listener    Слушатель событий о полученных полях.
+     * @throws IllegalStateException не удалось создать неблокирующий парсер.
+     */
+    public IncrementalJsonParser(JsonFactory jsonFactory, FieldListener listener) {
+        try {
+            this.parser = jsonFactory.createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new IllegalStateException("Не удалось создать неблокирующий JSON-парсер", e);
+        }
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+        this.listener = listener;
+    }
+
+    /**
+     * Передает парсеру очередной фрагмент текста и генерирует события
+     * для всех значений, которые стали полностью доступны.
+     *
+     * @param chunk Очередной фрагмент сгенерированного текста.
+     */
+    public void feed(String chunk) {
+        if (finished || chunk == null || chunk.isEmpty()) {
+            return;
+        }
+        String text = pendingHighSurrogate != 0 ? pendingHighSurrogate + chunk : chunk;
+        pendingHighSurrogate = 0;
+        if (Character.isHighSurrogate(text.charAt(text.length() - 1))) {
+            pendingHighSurrogate = text.charAt(text.length() - 1);
+            text = text.substring(0, text.length() - 1);
+        }
+        if (!started) {
+            int objectStart = text.indexOf('{');
+            if (objectStart < 0) {
+                return;
+            }
+            started = true;
+            text = text.substring(objectStart);
+        }
+        if (text.isEmpty()) {
+            return;
+        }
+        try {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            feeder.feedInput(bytes, 0, bytes.length);
+            drain();
+        } catch (IOException e) {
+            log.debug("Инкрементальный разбор ответа прекращен: {}", e.getMessage());
+            finish();
+        }
+    }
+
+    /**
+     * Завершает разбор и освобождает ресурсы парсера.
+     */
+    public void finish() {
+        finished = true;
+        try {
+            parser.close();
+        } catch (IOException e) {
+            log.debug("Ошибка при закрытии JSON-парсера: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Читает все доступные токены и генерирует события для скалярных значений.
+     *
+     * @throws IOException текст не является корректным JSON.
+     */
+    private void drain() throws IOException {
+        JsonToken token;
+        while (!finished && (token = parser.nextToken()) != JsonToken.NOT_AVAILABLE && token != null) {
+            if (token.isScalarValue()) {
+                listener.onField(currentPath(), scalarValue(token));
+            } else if (token == JsonToken.END_OBJECT && parser.getParsingContext().inRoot()) {
+                finish();
+            }
+        }
+    }
+
+    /**
+     * Возвращает типизированное значение текущего скалярного токена.
+     *
+     * @param token Текущий токен.
+     * @return Значение токена: {@link Number}, {@link String}, {@link Boolean} или {@code null}.
+     * @throws IOException ошибка чтения значения.
+     */
+    private Object scalarValue(JsonToken token) throws IOException {
+        return switch (token) {
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> parser.getNumberValue();
+            case VALUE_TRUE -> Boolean.TRUE;
+            case VALUE_FALSE -> Boolean.FALSE;
+            case VALUE_NULL -> null;
+            default -> parser.getText();
+        };
+    }
+
+    /**
+     * Формирует путь к текущему значению по стеку контекстов парсера.
+     *
+     * @return Путь к значению, например {@code key_achievements[0]}.
+     */
+    private String currentPath() {
+        StringBuilder path = new StringBuilder();
+        appendPath(path, parser.getParsingContext());
+        return path.toString();
+    }
+
+    /**
+     * Рекурсивно дописывает в путь сегменты от корня до указанного контекста.
+     *
+     * @param path    Формируемый путь.
+     * @param context Текущий контекст парсера.
+     */
+    private void appendPath(StringBuilder path, JsonStreamContext context) {
+        if (context == null || context.inRoot()) {
+            return;
+        }
+        appendPath(path, context.getParent());
+        if (context.inArray()) {
+            path.append('[').append(context.getCurrentIndex()).append(']');
+        } else if (context.getCurrentName() != null) {
+            if (!path.isEmpty()) {
+                path.append('.');
+            }
+            path.append(context.getCurrentName());
+        }
+    }
+
+    /**
+     * Слушатель событий о полностью полученных полях JSON-объекта.
+     */
+    @FunctionalInterface
+    public interface FieldListener {
+
+        /**
+         * Вызывается, когда значение поля полностью получено.
+         *
+         * @param path  Путь к полю, например {@code structure_score} или {@code key_achievements[0]}.
+         * @param value Типизированное значение поля.
+         */
+        void onField(String path, Object value);
+    }
+}
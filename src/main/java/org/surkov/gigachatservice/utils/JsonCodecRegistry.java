@@ -0,0 +1,145 @@
+package org.surkov.gigachatservice.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.AnalyzeResponse;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.BatchAnalyzeResult;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.ClarityResponse;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.CompareResponse;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.HighlightsResponse;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.InsightsResponse;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.MatchResponse;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.StabilityResponse;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.StructureResponse;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Реестр заранее созданных {@link ObjectReader} и {@link ObjectWriter} для DTO ответов анализа.
+ * <p>
+ * При создании бина для каждого класса ответа строятся читатель и писатель, которые сразу
+ * разрешают (де)сериализаторы своего типа, поэтому разбор ответа модели, запись результата
+ * в историю и вывод истории не ищут сериализаторы при каждом вызове. Для классов вне списка
+ * читатели и писатели создаются при первом обращении и также сохраняются.
+ *
+ * @author surkov
+ */
+@Slf4j
+@Component
+public class JsonCodecRegistry {
+
+    /**
+     * Классы, для которых читатели и писатели создаются при старте.
+     */
+    private static final List<Class<?>> PRECOMPILED = List.of(
+            AnalyzeResponse.class,
+            StructureResponse.class,
+            ClarityResponse.class,
+            StabilityResponse.class,
+            MatchResponse.class,
+            HighlightsResponse.class,
+            CompareResponse.class,
+            InsightsResponse.class,
+            BatchAnalyzeResult.class
+    );
+
+    /**
+     * ObjectMapper приложения.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Читатели по классам.
+     */
+    private final ConcurrentMap<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    /**
+     * Писатели по классам.
+     */
+    private final ConcurrentMap<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    /**
+     * Читатель сохраненных в истории ответов в виде упорядоченного словаря.
+     */
+    private final ObjectReader mapReader;
+
+    /**
+     * Создает реестр и строит читатели и писатели для DTO ответов анализа.
+     *
+     * @param objectMapper ObjectMapper приложения.
+     */
+    public JsonCodecRegistry(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.mapReader = objectMapper.readerFor(new TypeReference<LinkedHashMap<String, Object>>() {
+        });
+        PRECOMPILED.forEach(type -> {
+            reader(type);
+            writer(type);
+        });
+        log.debug("Подготовлены ObjectReader/ObjectWriter для {} классов ответов", PRECOMPILED.size());
+    }
+
+    /**
+     * Десериализует JSON в объект указанного класса.
+     *
+     * @param json JSON-строка.
+     * @param type Класс объекта.
+     * @param <T>  Тип объекта.
+     * @return Объект.
+     * @throws JsonProcessingException JSON не соответствует классу.
+     */
+    public <T> T read(String json, Class<T> type) throws JsonProcessingException {
+        return reader(type).readValue(json);
+    }
+
+    /**
+     * Десериализует JSON-объект в упорядоченный словарь.
+     *
+     * @param json JSON-строка.
+     * @return Словарь полей объекта.
+     * @throws JsonProcessingException строка не является JSON-объектом.
+     */
+    public Map<String, Object> readMap(String json) throws JsonProcessingException {
+        return mapReader.readValue(json);
+    }
+
+    /**
+     * Сериализует объект в JSON.
+     *
+     * @param value Объект.
+     * @return JSON-строка.
+     * @throws JsonProcessingException ошибка сериализации.
+     */
+    public String write(Object value) throws JsonProcessingException {
+        return value == null ? "null" : writer(value.getClass()).writeValueAsString(value);
+    }
+
+    /**
+     * Возвращает читатель класса, создавая его при первом обращении.
+     *
+     * @param type Класс объекта.
+     * @return Читатель.
+     */
+    public ObjectReader reader(Class<?> type) {
+        return readers.computeIfAbsent(type, objectMapper::readerFor);
+    }
+
+    /**
+     * Возвращает писатель класса, создавая его при первом обращении.
+     *
+     * @param type Класс объекта.
+     * @return Писатель.
+     */
+    public ObjectWriter writer(Class<?> type) {
+        return writers.computeIfAbsent(type, objectMapper::writerFor);
+    }
+}
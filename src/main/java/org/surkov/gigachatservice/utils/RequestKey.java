@@ -0,0 +1,84 @@
+package org.surkov.gigachatservice.utils;
+
+import lombok.experimental.UtilityClass;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Вычисление ключа запроса к модели.
+ * Ключ — SHA-256 от модели, системного промпта и нормализованного текста запроса,
+ * поэтому одинаковые по смыслу запросы (отличающиеся только пробелами и переводами строк)
+ * получают одинаковый ключ.
+ */
+@UtilityClass
+public class RequestKey {
+
+    /**
+     * Разделитель частей ключа, не встречающийся в тексте.
+     */
+    private static final byte SEPARATOR = 0;
+
+    /**
+     * Вычисляет ключ запроса.
+     *
+     * @param model        Модель GigaChat.
+     * @param systemPrompt Системный промпт.
+     * @param text         Текст запроса.
+     * @return Ключ запроса в виде шестнадцатеричной строки (64 символа).
+     */
+    public static String hash(String model, String systemPrompt, String text) {
+        MessageDigest digest = sha256();
+        digest.update(model.getBytes(StandardCharsets.UTF_8));
+        digest.update(SEPARATOR);
+        digest.update(systemPrompt.getBytes(StandardCharsets.UTF_8));
+        digest.update(SEPARATOR);
+        digest.update(normalize(text).getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Нормализует текст запроса: приводит переводы строк к {@code \n},
+     * схлопывает последовательности пробелов и табуляций, удаляет пробелы
+     * в конце строк и по краям текста.
+     *
+     * @param text Исходный текст.
+     * @return Нормализованный текст.
+     */
+    public static String normalize(String text) {
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\r') {
+                continue;
+            }
+            if (c == ' ' || c == '\t' || c == ' ') {
+                pendingSpace = true;
+                continue;
+            }
+            if (pendingSpace && c != '\n' && !normalized.isEmpty()
+                    && normalized.charAt(normalized.length() - 1) != '\n') {
+                normalized.append(' ');
+            }
+            pendingSpace = false;
+            normalized.append(c);
+        }
+        return normalized.toString().strip();
+    }
+
+    /**
+     * Создает экземпляр алгоритма SHA-256.
+     *
+     * @return Экземпляр {@link MessageDigest}.
+     */
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 не поддерживается", e);
+        }
+    }
+}
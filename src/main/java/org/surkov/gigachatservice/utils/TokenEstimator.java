@@ -0,0 +1,39 @@
+package org.surkov.gigachatservice.utils;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Оценка числа токенов запроса к модели без обращения к токенизатору GigaChat.
+ * Используется для учета лимита токенов в минуту до отправки запроса,
+ * поэтому оценка намеренно округляется вверх.
+ */
+@UtilityClass
+public class TokenEstimator {
+
+    /**
+     * Среднее число символов на токен для смешанного русско-английского текста.
+     */
+    private static final double CHARS_PER_TOKEN = 3.0;
+
+    /**
+     * Служебные токены на одно сообщение (роль и разметка).
+     */
+    private static final int MESSAGE_OVERHEAD_TOKENS = 4;
+
+    /**
+     * Оценивает число токенов в сообщениях запроса.
+     *
+     * @param messages Тексты сообщений запроса.
+     * @return Оценка числа токенов.
+     */
+    public static int estimate(String... messages) {
+        int tokens = 0;
+        for (String message : messages) {
+            tokens += MESSAGE_OVERHEAD_TOKENS;
+            if (message != null) {
+                tokens += (int) Math.ceil(message.length() / CHARS_PER_TOKEN);
+            }
+        }
+        return tokens;
+    }
+}
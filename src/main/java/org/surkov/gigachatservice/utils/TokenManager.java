@@ -1,34 +1,31 @@
 package org.surkov.gigachatservice.utils;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import okhttp3.FormBody;
-import okhttp3.Request;
-import okhttp3.RequestBody;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
-import org.springframework.stereotype.Component;
 import org.surkov.gigachatservice.config.GigaChatConfig;
 import org.surkov.gigachatservice.exception.AuthenticationException;
+import org.surkov.gigachatservice.utils.transport.TransportRequest;
 
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Менеджер токенов для работы с GigaChat API.
- * Отвечает за получение, обновление и хранение токена доступа, обеспечивая потокобезопасность.
+ * Отвечает за получение, обновление и хранение токена доступа одной учетной записи,
+ * обеспечивая потокобезопасность. Экземпляры создаются {@link CredentialPool} для каждой учетной записи.
+ * <p>
+ * Токен обновляется заранее фоновым потоком, а потоки запросов читают неизменяемый
+ * снимок (токен и срок действия) одним volatile-чтением: они никогда не блокируются
+ * и не выполняют сетевых вызовов для аутентификации.
  */
 @Slf4j
-@Component
-@RequiredArgsConstructor
 public class TokenManager {
 
     /**
@@ -42,144 +39,207 @@ public class TokenManager {
     private final HttpClientWrapper httpClientWrapper;
 
     /**
-     * Токен доступа для аутентификации в API.
-     * Хранится в атомарной ссылке для обеспечения потокобезопасности.
+     * Идентификатор клиента.
      */
-    private final AtomicReference<String> accessToken = new AtomicReference<>("");
+    private final String clientId;
 
     /**
-     * Время истечения срока действия токена доступа (в миллисекундах).
-     * Хранится в атомарном объекте для обеспечения потокобезопасности.
+     * Секретный ключ клиента.
      */
-    private final AtomicLong tokenExpirationTime = new AtomicLong(0);
+    private final String clientSecret;
 
     /**
-     * Флаг, указывающий, обновляется ли токен в данный момент.
-     * Используется для предотвращения одновременного обновления токена несколькими потоками.
+     * Текущий снимок токена доступа. Заменяется целиком при каждом обновлении.
      */
-    private final AtomicBoolean isRefreshing = new AtomicBoolean(false);
+    private volatile TokenSnapshot snapshot = TokenSnapshot.EMPTY;
 
     /**
-     * Блокировка для синхронизации потоков при обновлении токена.
+     * Флаг срочного обновления, запрошенного потоком запроса при отсутствии действующего токена.
+     * Предотвращает постановку в очередь нескольких одинаковых обновлений.
      */
-    private final Lock lock = new ReentrantLock();
+    private final AtomicBoolean urgentRefreshRequested = new AtomicBoolean(false);
 
     /**
-     * Условие для ожидания завершения обновления токена.
+     * Планировщик фонового обновления токена.
      */
-    private final Condition tokenRefreshed = lock.newCondition();
+    private final ScheduledExecutorService refresher;
 
     /**
-     * Множитель для перевода секунд в миллисекунды.
+     * Запланированное следующее обновление токена.
      */
-    private static final int SECONDS_TO_MILLISECONDS = 1000;
+    private ScheduledFuture<?> nextRefresh;
 
     /**
-     * Получает текущий токен доступа, обновляя его, если это необходимо.
+     * Число подряд неудачных попыток фонового обновления.
+     */
+    private volatile int failedAttempts;
+
+    /**
+     * Максимальная задержка (в миллисекундах) между повторными попытками фонового обновления.
+     */
+    private static final long MAX_RETRY_DELAY_MS = 30_000;
+
+    /**
+     * Тело запроса токена (форма {@code application/x-www-form-urlencoded}).
+     */
+    private static final byte[] TOKEN_REQUEST_FORM = "scope=GIGACHAT_API_PERS".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Создает менеджер токенов учетной записи.
+     *
+     * @param config            Конфигурация GigaChat API.
+     * @param httpClientWrapper Обертка над HTTP-клиентом.
+     * @param clientId          Идентификатор клиента.
+     * @param clientSecret      Секретный ключ клиента.
+     * @param name              Имя учетной записи для потока фонового обновления.
+     */
+    public TokenManager(
+            final GigaChatConfig config,
+            final HttpClientWrapper httpClientWrapper,
+            final String clientId,
+            final String clientSecret,
+            final String name
+    ) {
+        this.config = config;
+        this.httpClientWrapper = httpClientWrapper;
+        this.clientId = clientId;
+        this.clientSecret = clientSecret;
+        this.refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "gigachat-token-refresher-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Возвращает текущий токен доступа. Не блокирует поток и не обращается к сети.
      *
      * @return Токен доступа в виде строки.
+     * @throws AuthenticationException действующего токена нет; его получение запрошено в фоне.
      */
     public String getAccessToken() {
-        if (isTokenExpiredOrExpiringSoon()) {
-            refreshToken();
+        TokenSnapshot current = snapshot;
+        if (current.isValidAt(System.currentTimeMillis())) {
+            return current.token();
         }
-        return accessToken.get();
+        requestRefresh();
+        throw new AuthenticationException("Токен доступа недоступен, выполняется его получение");
     }
 
     /**
-     * Проверяет, истек ли токен или скоро истечет.
+     * Проверяет наличие действующего токена. Если его нет, запрашивает получение в фоне.
      *
-     * @return {@code true}, если токен истек или скоро истечет, иначе {@code false}.
+     * @return {@code true}, если токен действует.
      */
-    private boolean isTokenExpiredOrExpiringSoon() {
-        long tokenExpirationThreshold = tokenExpirationTime.get() - config.getTokenRefreshBufferMs();
-        return System.currentTimeMillis() >= tokenExpirationThreshold;
+    public boolean hasValidToken() {
+        if (snapshot.isValidAt(System.currentTimeMillis())) {
+            return true;
+        }
+        requestRefresh();
+        return false;
     }
 
     /**
-     * Обновляет токен доступа, если он не обновляется в данный момент.
-     * Если обновление уже выполняется другим потоком, текущий поток ожидает завершения обновления.
+     * Ставит в очередь срочное фоновое обновление токена, если оно еще не запрошено.
      */
-    private void refreshToken() {
-        if (isRefreshing.compareAndSet(false, true)) {
-            lock.lock();
-            try {
-                fetchAccessToken();
-                tokenRefreshed.signalAll();
-            } finally {
-                isRefreshing.set(false);
-                lock.unlock();
-            }
-        } else {
-            waitForTokenRefresh();
+    private void requestRefresh() {
+        if (urgentRefreshRequested.compareAndSet(false, true) && !refresher.isShutdown()) {
+            refresher.execute(this::refreshInBackground);
         }
     }
 
     /**
-     * Ожидает завершения обновления токена другим потоком.
-     * Использует механизм блокировки и условия для эффективного ожидания без активного ожидания.
-     *
-     * @throws AuthenticationException ожидание обновления токена было прервано.
+     * Останавливает фоновое обновление токена.
      */
-    private void waitForTokenRefresh() {
-        lock.lock();
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    /**
+     * Обновляет токен в фоновом потоке. При ошибке планирует повторную попытку
+     * с экспоненциальной задержкой; прежний токен остается в силе до истечения срока.
+     */
+    private void refreshInBackground() {
+        urgentRefreshRequested.set(false);
         try {
-            while (isRefreshing.get()) {
-                try {
-                    tokenRefreshed.await();
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    throw new AuthenticationException("Прервано ожидание обновления токена", e);
-                }
-            }
-        } finally {
-            lock.unlock();
+            publish(requestToken());
+        } catch (AuthenticationException e) {
+            failedAttempts++;
+            long delay = Math.min(
+                    (long) (config.getRetryInitialDelayMs()
+                            * Math.pow(config.getRetryDelayMultiplier(), failedAttempts - 1)),
+                    MAX_RETRY_DELAY_MS
+            );
+            log.warn("Фоновое обновление токена не удалось (попытка {}), повтор через {} мс", failedAttempts, delay);
+            scheduleRefresh(delay);
         }
     }
 
     /**
-     * Получает новый токен доступа от GigaChat API.
-     * Метод выполняется с механизмом повторных попыток в случае ошибок аутентификации.
+     * Публикует новый снимок токена и планирует его следующее обновление:
+     * на середине срока действия, но не позже чем за {@code tokenRefreshBufferMs} до истечения.
+     *
+     * @param fresh Новый снимок токена.
+     */
+    private void publish(TokenSnapshot fresh) {
+        snapshot = fresh;
+        failedAttempts = 0;
+        long now = System.currentTimeMillis();
+        long lifetime = fresh.expiresAtMs() - now;
+        long delay = Math.max(0, Math.min(lifetime / 2, lifetime - config.getTokenRefreshBufferMs()));
+        scheduleRefresh(delay);
+        log.info("Токен доступа успешно получен, истекает: {}, следующее обновление через {} мс",
+                fresh.expiresAtMs(), delay);
+    }
+
+    /**
+     * Планирует фоновое обновление токена, отменяя ранее запланированное.
+     *
+     * @param delayMs Задержка (в миллисекундах).
+     */
+    private synchronized void scheduleRefresh(long delayMs) {
+        if (refresher.isShutdown()) {
+            return;
+        }
+        if (nextRefresh != null) {
+            nextRefresh.cancel(false);
+        }
+        nextRefresh = refresher.schedule(this::refreshInBackground, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Синхронно получает новый токен доступа от GigaChat API и запускает его фоновое обновление.
+     * Вызывается при старте сервиса.
      *
      * @throws AuthenticationException не удалось получить токен доступа.
      */
-    @Retryable(
-            retryFor = AuthenticationException.class,
-            backoff = @Backoff(
-                    delayExpression = "#{@gigaChatConfig.retryInitialDelayMs}",
-                    multiplierExpression = "#{@gigaChatConfig.retryDelayMultiplier}"
-            )
-    )
     public void fetchAccessToken() {
+        publish(requestToken());
+    }
+
+    /**
+     * Запрашивает новый токен доступа у GigaChat API.
+     *
+     * @return Снимок полученного токена.
+     * @throws AuthenticationException не удалось получить токен доступа.
+     */
+    private TokenSnapshot requestToken() {
         try {
-            String credentials = config.getClientId() + ":" + config.getClientSecret();
+            String credentials = clientId + ":" + clientSecret;
             String authKey = Base64.getEncoder().encodeToString(
                     credentials.getBytes(StandardCharsets.UTF_8)
             );
 
-            RequestBody formBody = new FormBody.Builder()
-                    .add("scope", "GIGACHAT_API_PERS")
-                    .build();
-            Request request = new Request.Builder()
-                    .url(config.getAuthUrl())
-                    .post(formBody)
-                    .addHeader(
-                            "Content-Type",
-                            "application/x-www-form-urlencoded"
-                    )
-                    .addHeader(
-                            "Accept",
-                            "application/json"
-                    )
-                    .addHeader(
-                            "RqUID",
-                            UUID.randomUUID().toString()
-                    )
-                    .addHeader(
-                            "Authorization",
-                            "Basic " + authKey
-                    )
-                    .build();
+            TransportRequest request = TransportRequest.post(
+                    config.getAuthUrl(),
+                    Map.of(
+                            "Content-Type", "application/x-www-form-urlencoded",
+                            "Accept", "application/json",
+                            "RqUID", UUID.randomUUID().toString(),
+                            "Authorization", "Basic " + authKey
+                    ),
+                    out -> out.write(TOKEN_REQUEST_FORM)
+            );
 
             JsonNode responseBody = httpClientWrapper.executeRequest(request, "Не удалось получить токен доступа");
             if (!responseBody.has("access_token") || !responseBody.has("expires_at")) {
@@ -187,13 +247,40 @@ public class TokenManager {
                 throw new AuthenticationException("Некорректный ответ токена");
             }
 
-            accessToken.set(responseBody.get("access_token").asText());
-            long expiresAtSec = responseBody.get("expires_at").asLong();
-            tokenExpirationTime.set(expiresAtSec * SECONDS_TO_MILLISECONDS);
-            log.info("Токен доступа успешно получен, истекает: {}", tokenExpirationTime.get());
+            // expires_at GigaChat OAuth передается в миллисекундах Unix-времени
+            return new TokenSnapshot(
+                    responseBody.get("access_token").asText(),
+                    responseBody.get("expires_at").asLong()
+            );
+        } catch (AuthenticationException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Ошибка при получении токена доступа", e);
             throw new AuthenticationException("Ошибка при получении токена доступа", e);
         }
     }
+
+    /**
+     * Неизменяемый снимок токена доступа.
+     *
+     * @param token       Токен доступа.
+     * @param expiresAtMs Время истечения срока действия токена (в миллисекундах).
+     */
+    private record TokenSnapshot(String token, long expiresAtMs) {
+
+        /**
+         * Пустой снимок до получения первого токена.
+         */
+        private static final TokenSnapshot EMPTY = new TokenSnapshot("", 0);
+
+        /**
+         * Проверяет, действует ли токен в указанный момент.
+         *
+         * @param nowMs Текущее время (в миллисекундах).
+         * @return {@code true}, если токен не пуст и не истек.
+         */
+        private boolean isValidAt(long nowMs) {
+            return !token.isEmpty() && nowMs < expiresAtMs;
+        }
+    }
 }
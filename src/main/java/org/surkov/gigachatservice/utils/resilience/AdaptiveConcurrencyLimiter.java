@@ -0,0 +1,321 @@
+package org.surkov.gigachatservice.utils.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.surkov.gigachatservice.config.GigaChatConfig;
+import org.surkov.gigachatservice.exception.ServiceUnavailableException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Адаптивное ограничение числа одновременных запросов к GigaChat API по моделям (AIMD).
+ * <p>
+ * Для каждой модели ведутся два скользящих средних задержки ответа: короткое (текущее
+ * состояние) и длинное (базовое). Сравниваются именно средние, а не отдельные ответы,
+ * так как задержка LLM сильно зависит от длины ответа. Пока короткое среднее не превышает
+ * базовое более чем в {@code latencyTolerance} раз и лимит используется, он растет примерно
+ * на единицу за окно запросов; при ответах 429/5xx, тайм-аутах или росте задержки лимит
+ * уменьшается в {@code backoffRatio} раз, но не чаще одного раза за окно задержки. Так число одновременных запросов удерживается
+ * у «колена» кривой задержки внешнего API.
+ * Запросы сверх лимита ждут в ограниченной очереди, при ее переполнении или истечении
+ * времени ожидания отклоняются с {@link ServiceUnavailableException}.
+ * Текущий лимит публикуется метрикой {@code gigachat.concurrency.limit}.
+ *
+ * @author surkov
+ */
+@Slf4j
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    /**
+     * Коэффициент сглаживания короткого среднего задержки.
+     */
+    private static final double SHORT_SMOOTHING = 0.2;
+
+    /**
+     * Коэффициент сглаживания длинного (базового) среднего задержки.
+     */
+    private static final double LONG_SMOOTHING = 0.01;
+
+    /**
+     * Настройки ограничения.
+     */
+    private final GigaChatConfig.Concurrency settings;
+
+    /**
+     * Реестр метрик.
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Состояние ограничения по моделям.
+     */
+    private final ConcurrentMap<String, ModelState> models = new ConcurrentHashMap<>();
+
+    /**
+     * Создает ограничитель по настройкам из конфигурации.
+     *
+     * @param config        Конфигурация GigaChat API.
+     * @param meterRegistry Реестр метрик.
+     */
+    public AdaptiveConcurrencyLimiter(GigaChatConfig config, MeterRegistry meterRegistry) {
+        this.settings = config.getConcurrency();
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Занимает место среди одновременных запросов к модели.
+     *
+     * @param model Модель GigaChat.
+     * @return Future с разрешением на запрос; разрешение обязательно освобождается
+     * вызовом {@link Permit#release(long, boolean)}. Завершается исключением
+     * {@link ServiceUnavailableException}, если очередь переполнена или ожидание истекло.
+     */
+    public CompletableFuture<Permit> acquire(String model) {
+        return models.computeIfAbsent(model, ModelState::new).acquire();
+    }
+
+    /**
+     * Возвращает текущий лимит одновременных запросов к модели.
+     *
+     * @param model Модель GigaChat.
+     * @return Текущий лимит.
+     */
+    public int currentLimit(String model) {
+        return (int) models.computeIfAbsent(model, ModelState::new).limit;
+    }
+
+    /**
+     * Разрешение на один запрос к модели.
+     */
+    public static final class Permit {
+
+        /**
+         * Состояние модели, выдавшей разрешение.
+         */
+        private final ModelState state;
+
+        /**
+         * Время выдачи разрешения (в наносекундах).
+         */
+        private final long startedAt = System.nanoTime();
+
+        /**
+         * Признак освобождения разрешения.
+         */
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        /**
+         * Создает разрешение.
+         *
+         * @param state Состояние модели.
+         */
+        private Permit(ModelState state) {
+            this.state = state;
+        }
+
+        /**
+         * Возвращает время, прошедшее с выдачи разрешения.
+         *
+         * @return Время (в наносекундах).
+         */
+        public long elapsedNanos() {
+            return System.nanoTime() - startedAt;
+        }
+
+        /**
+         * Освобождает разрешение и корректирует лимит по результату запроса.
+         * Повторные вызовы игнорируются.
+         *
+         * @param latencyNanos Задержка ответа (в наносекундах) или отрицательное значение,
+         *                     если ее не нужно учитывать (например, для потоковых ответов).
+         * @param congested    Признак ошибки перегрузки (429, 5xx, тайм-аут).
+         */
+        public void release(long latencyNanos, boolean congested) {
+            if (released.compareAndSet(false, true)) {
+                state.release(startedAt, latencyNanos, congested);
+            }
+        }
+    }
+
+    /**
+     * Состояние ограничения одной модели. Изменяется под монитором объекта.
+     */
+    private final class ModelState {
+
+        /**
+         * Модель GigaChat.
+         */
+        private final String model;
+
+        /**
+         * Запросы, ожидающие освобождения лимита.
+         */
+        private final Queue<CompletableFuture<Permit>> waiters = new ArrayDeque<>();
+
+        /**
+         * Счетчик отклоненных запросов.
+         */
+        private final Counter shed;
+
+        /**
+         * Текущий лимит (дробный, чтобы рост был плавным).
+         */
+        private volatile double limit;
+
+        /**
+         * Число выполняемых запросов.
+         */
+        private volatile int inFlight;
+
+        /**
+         * Короткое скользящее среднее задержки (в наносекундах); 0 — еще не измерено.
+         */
+        private double shortLatencyNanos;
+
+        /**
+         * Длинное (базовое) скользящее среднее задержки (в наносекундах).
+         */
+        private double longLatencyNanos;
+
+        /**
+         * Время последнего уменьшения лимита (в наносекундах).
+         */
+        private long decreasedAt = System.nanoTime();
+
+        /**
+         * Создает состояние модели и регистрирует ее метрики.
+         *
+         * @param model Модель GigaChat.
+         */
+        private ModelState(String model) {
+            this.model = model;
+            this.limit = settings.getInitialLimit();
+            this.shed = Counter.builder("gigachat.concurrency.shed")
+                    .description("Запросы, отклоненные адаптивным лимитом")
+                    .tag("model", model)
+                    .register(meterRegistry);
+            Gauge.builder("gigachat.concurrency.limit", this, state -> Math.floor(state.limit))
+                    .description("Текущий адаптивный лимит одновременных запросов к модели")
+                    .tag("model", model)
+                    .register(meterRegistry);
+            Gauge.builder("gigachat.concurrency.inflight", this, state -> state.inFlight)
+                    .description("Число выполняемых запросов к модели")
+                    .tag("model", model)
+                    .register(meterRegistry);
+        }
+
+        /**
+         * Выдает разрешение сразу, ставит запрос в очередь или отклоняет его.
+         *
+         * @return Future с разрешением.
+         */
+        private synchronized CompletableFuture<Permit> acquire() {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                return CompletableFuture.completedFuture(new Permit(this));
+            }
+            if (waiters.size() >= settings.getMaxQueueSize()) {
+                shed.increment();
+                return CompletableFuture.failedFuture(new ServiceUnavailableException(
+                        "Превышен лимит одновременных запросов к модели " + model
+                ));
+            }
+            CompletableFuture<Permit> waiter = new CompletableFuture<>();
+            waiters.add(waiter);
+            CompletableFuture.delayedExecutor(settings.getMaxQueueWaitMs(), TimeUnit.MILLISECONDS).execute(() -> {
+                if (waiter.completeExceptionally(new ServiceUnavailableException(
+                        "Истекло время ожидания свободного места для запроса к модели " + model
+                ))) {
+                    synchronized (this) {
+                        waiters.remove(waiter);
+                    }
+                    shed.increment();
+                }
+            });
+            return waiter;
+        }
+
+        /**
+         * Освобождает место, корректирует лимит и передает освободившиеся места ожидающим запросам.
+         *
+         * @param startedAt    Время выдачи разрешения (в наносекундах).
+         * @param latencyNanos Задержка ответа или отрицательное значение.
+         * @param congested    Признак ошибки перегрузки.
+         */
+        private void release(long startedAt, long latencyNanos, boolean congested) {
+            List<CompletableFuture<Permit>> granted = new ArrayList<>();
+            synchronized (this) {
+                adjust(startedAt, latencyNanos, congested);
+                inFlight--;
+                while (inFlight < (int) limit && !waiters.isEmpty()) {
+                    granted.add(waiters.poll());
+                    inFlight++;
+                }
+            }
+            for (CompletableFuture<Permit> waiter : granted) {
+                Permit permit = new Permit(this);
+                if (!waiter.complete(permit)) {
+                    permit.release(-1, false);
+                }
+            }
+        }
+
+        /**
+         * Корректирует лимит по результату запроса.
+         *
+         * @param startedAt    Время выдачи разрешения (в наносекундах).
+         * @param latencyNanos Задержка ответа или отрицательное значение.
+         * @param congested    Признак ошибки перегрузки.
+         */
+        private void adjust(long startedAt, long latencyNanos, boolean congested) {
+            double previous = limit;
+            if (congested) {
+                decrease(startedAt);
+            } else if (latencyNanos >= 0) {
+                if (shortLatencyNanos == 0) {
+                    shortLatencyNanos = latencyNanos;
+                    longLatencyNanos = latencyNanos;
+                } else {
+                    shortLatencyNanos += (latencyNanos - shortLatencyNanos) * SHORT_SMOOTHING;
+                    longLatencyNanos += (latencyNanos - longLatencyNanos) * LONG_SMOOTHING;
+                }
+                if (shortLatencyNanos > longLatencyNanos * settings.getLatencyTolerance()) {
+                    decrease(startedAt);
+                } else if (inFlight * 2 >= limit) {
+                    limit = Math.min(settings.getMaxLimit(), limit + 1 / limit);
+                }
+            }
+            if ((int) previous != (int) limit) {
+                log.debug("Лимит одновременных запросов к модели {}: {} -> {}", model, (int) previous, (int) limit);
+            }
+        }
+
+        /**
+         * Мультипликативно уменьшает лимит не чаще одного раза за окно задержки.
+         * Запросы, начатые до предыдущего уменьшения, отправлялись еще при прежнем лимите
+         * и отражают уже учтенную перегрузку, поэтому их ошибки лимит повторно не уменьшают:
+         * иначе серия одновременных ошибок сразу сбросила бы лимит до минимума.
+         *
+         * @param startedAt Время выдачи разрешения завершившемуся запросу (в наносекундах).
+         */
+        private void decrease(long startedAt) {
+            if (startedAt - decreasedAt < 0) {
+                return;
+            }
+            limit = Math.max(settings.getMinLimit(), limit * settings.getBackoffRatio());
+            decreasedAt = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package org.surkov.gigachatservice.utils.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.surkov.gigachatservice.config.GigaChatConfig;
+
+/**
+ * Автоматический выключатель вызовов одной модели GigaChat.
+ * <ul>
+ *     <li>В замкнутом состоянии пропускает все вызовы и учитывает результаты последних
+ *     {@code slidingWindowSize} вызовов. Если доля ошибок или медленных вызовов превышает
+ *     порог, выключатель размыкается.</li>
+ *     <li>В разомкнутом состоянии сразу отклоняет вызовы, не занимая соединения и очередь.</li>
+ *     <li>По истечении {@code openStateMs} переходит в полуоткрытое состояние и пропускает
+ *     {@code halfOpenCalls} пробных вызовов: если все успешны, выключатель замыкается,
+ *     при первой ошибке снова размыкается.</li>
+ * </ul>
+ * Потокобезопасен: состояние изменяется под монитором объекта.
+ *
+ * @author surkov
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    /**
+     * Состояние выключателя.
+     */
+    public enum State {
+        /**
+         * Вызовы пропускаются.
+         */
+        CLOSED,
+        /**
+         * Пропускаются только пробные вызовы.
+         */
+        HALF_OPEN,
+        /**
+         * Вызовы отклоняются.
+         */
+        OPEN
+    }
+
+    /**
+     * Модель GigaChat.
+     */
+    private final String model;
+
+    /**
+     * Настройки выключателя.
+     */
+    private final GigaChatConfig.CircuitBreaker settings;
+
+    /**
+     * Признаки ошибки последних вызовов (кольцевой буфер).
+     */
+    private final boolean[] failures;
+
+    /**
+     * Признаки медленных последних вызовов (кольцевой буфер).
+     */
+    private final boolean[] slowCalls;
+
+    /**
+     * Счетчик отклоненных вызовов.
+     */
+    private final Counter rejected;
+
+    /**
+     * Позиция следующей записи в кольцевом буфере.
+     */
+    private int position;
+
+    /**
+     * Число записанных вызовов (не больше размера окна).
+     */
+    private int recorded;
+
+    /**
+     * Число ошибок в окне.
+     */
+    private int failureCount;
+
+    /**
+     * Число медленных вызовов в окне.
+     */
+    private int slowCount;
+
+    /**
+     * Текущее состояние.
+     */
+    private volatile State state = State.CLOSED;
+
+    /**
+     * Время размыкания (в миллисекундах).
+     */
+    private long openedAt;
+
+    /**
+     * Число выданных пробных вызовов в полуоткрытом состоянии.
+     */
+    private int halfOpenStarted;
+
+    /**
+     * Число успешных пробных вызовов в полуоткрытом состоянии.
+     */
+    private int halfOpenSucceeded;
+
+    /**
+     * Создает замкнутый выключатель и регистрирует его метрики.
+     *
+     * @param model         Модель GigaChat.
+     * @param settings      Настройки выключателя.
+     * @param meterRegistry Реестр метрик.
+     */
+    public CircuitBreaker(String model, GigaChatConfig.CircuitBreaker settings, MeterRegistry meterRegistry) {
+        this.model = model;
+        this.settings = settings;
+        this.failures = new boolean[settings.getSlidingWindowSize()];
+        this.slowCalls = new boolean[settings.getSlidingWindowSize()];
+        this.rejected = Counter.builder("gigachat.circuit.rejected")
+                .description("Вызовы, отклоненные разомкнутым выключателем модели")
+                .tag("model", model)
+                .register(meterRegistry);
+        Gauge.builder("gigachat.circuit.state", this, breaker -> breaker.state.ordinal())
+                .description("Состояние выключателя модели: 0 — замкнут, 1 — полуоткрыт, 2 — разомкнут")
+                .tag("model", model)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Проверяет, можно ли выполнить вызов. Разрешенный вызов обязательно завершается
+     * вызовом {@link #onSuccess(long)}, {@link #onFailure(long)} или {@link #onIgnored()}.
+     *
+     * @return {@code true}, если вызов разрешен.
+     */
+    public synchronized boolean tryAcquire() {
+        if (!settings.isEnabled()) {
+            return true;
+        }
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() - openedAt < settings.getOpenStateMs()) {
+                rejected.increment();
+                return false;
+            }
+            transitionTo(State.HALF_OPEN);
+            halfOpenStarted = 0;
+            halfOpenSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenStarted >= settings.getHalfOpenCalls()) {
+                rejected.increment();
+                return false;
+            }
+            halfOpenStarted++;
+        }
+        return true;
+    }
+
+    /**
+     * Учитывает успешный вызов.
+     *
+     * @param durationMs Время до получения заголовков ответа (в миллисекундах).
+     */
+    public void onSuccess(long durationMs) {
+        record(false, durationMs >= settings.getSlowCallThresholdMs());
+    }
+
+    /**
+     * Учитывает вызов, завершившийся ошибкой внешнего сервиса.
+     *
+     * @param durationMs Время вызова (в миллисекундах).
+     */
+    public void onFailure(long durationMs) {
+        record(true, durationMs >= settings.getSlowCallThresholdMs());
+    }
+
+    /**
+     * Освобождает разрешение без учета результата (вызов отменен или ошибка не связана
+     * с состоянием модели, например превышение лимита запросов).
+     */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN && halfOpenStarted > halfOpenSucceeded) {
+            halfOpenStarted--;
+        }
+    }
+
+    /**
+     * Возвращает текущее состояние выключателя.
+     *
+     * @return Состояние.
+     */
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Учитывает результат вызова и при необходимости меняет состояние.
+     *
+     * @param failure Признак ошибки.
+     * @param slow    Признак медленного вызова.
+     */
+    private synchronized void record(boolean failure, boolean slow) {
+        if (!settings.isEnabled() || state == State.OPEN) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            if (failure || slow) {
+                open();
+            } else if (++halfOpenSucceeded >= settings.getHalfOpenCalls()) {
+                resetWindow();
+                transitionTo(State.CLOSED);
+            }
+            return;
+        }
+        if (recorded == failures.length) {
+            failureCount -= failures[position] ? 1 : 0;
+            slowCount -= slowCalls[position] ? 1 : 0;
+        } else {
+            recorded++;
+        }
+        failures[position] = failure;
+        slowCalls[position] = slow;
+        failureCount += failure ? 1 : 0;
+        slowCount += slow ? 1 : 0;
+        position = (position + 1) % failures.length;
+
+        if (recorded >= settings.getMinimumCalls()
+                && ((double) failureCount / recorded >= settings.getFailureRateThreshold()
+                || (double) slowCount / recorded >= settings.getSlowCallRateThreshold())) {
+            open();
+        }
+    }
+
+    /**
+     * Размыкает выключатель.
+     */
+    private void open() {
+        openedAt = System.currentTimeMillis();
+        resetWindow();
+        transitionTo(State.OPEN);
+    }
+
+    /**
+     * Очищает окно результатов.
+     */
+    private void resetWindow() {
+        position = 0;
+        recorded = 0;
+        failureCount = 0;
+        slowCount = 0;
+    }
+
+    /**
+     * Меняет состояние выключателя.
+     *
+     * @param next Новое состояние.
+     */
+    private void transitionTo(State next) {
+        if (state != next) {
+            log.warn("Выключатель модели {}: {} -> {}", model, state, next);
+            state = next;
+        }
+    }
+}
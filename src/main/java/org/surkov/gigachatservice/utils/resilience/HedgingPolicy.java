@@ -0,0 +1,279 @@
+package org.surkov.gigachatservice.utils.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.surkov.gigachatservice.config.GigaChatConfig;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Хеджирование запросов к модели GigaChat для сокращения «хвоста» задержек.
+ * <p>
+ * Для каждой модели хранятся задержки последних успешных вызовов. Если ответ не получен
+ * за время, соответствующее процентилю {@code percentile} этих задержек, отправляется
+ * второй такой же вызов; используется результат, пришедший первым, а оставшийся вызов
+ * отменяется вместе с его HTTP-запросом. Дублирующие вызовы ограничены общим бюджетом
+ * (долей от числа запросов), чтобы хеджирование не увеличивало нагрузку на API сверх заданной.
+ * Пока измерений задержки модели недостаточно, запросы не дублируются.
+ * <p>
+ * Задержка вызова отсчитывается с момента фактической отправки HTTP-запроса
+ * ({@link HedgedCall}), а не с момента запуска вызова: ожидание локальных лимитов
+ * и учетной записи в нее не входит.
+ *
+ * @author surkov
+ */
+@Slf4j
+@Component
+public class HedgingPolicy {
+
+    /**
+     * Значение счетчика незавершенных вызовов после завершения итогового future.
+     */
+    private static final int COMPLETED = -1;
+
+    /**
+     * Настройки хеджирования.
+     */
+    private final GigaChatConfig.Hedging settings;
+
+    /**
+     * Реестр метрик.
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Общий бюджет дублирующих запросов.
+     */
+    private final RequestBudget budget;
+
+    /**
+     * Состояние хеджирования по моделям.
+     */
+    private final ConcurrentMap<String, ModelState> models = new ConcurrentHashMap<>();
+
+    /**
+     * Создает политику хеджирования по настройкам из конфигурации.
+     *
+     * @param config        Конфигурация GigaChat API.
+     * @param meterRegistry Реестр метрик.
+     */
+    public HedgingPolicy(GigaChatConfig config, MeterRegistry meterRegistry) {
+        this.settings = config.getHedging();
+        this.meterRegistry = meterRegistry;
+        this.budget = new RequestBudget(settings.getBudgetRatio(), settings.getBudgetMaxTokens());
+    }
+
+    /**
+     * Выполняет вызов к модели, при необходимости дублируя его.
+     * Отмена возвращенного future отменяет все выполняемые вызовы.
+     *
+     * @param model Модель GigaChat.
+     * @param call  Вызов; каждый вызов {@link HedgedCall#start(Runnable)} — новый независимый запрос.
+     * @param <T>   Тип результата вызова.
+     * @return Future с результатом первого успешного вызова или ошибкой последнего.
+     */
+    public <T> CompletableFuture<T> execute(String model, HedgedCall<T> call) {
+        if (!settings.isEnabled()) {
+            return call.start(() -> { });
+        }
+        ModelState state = models.computeIfAbsent(model, ModelState::new);
+        budget.deposit();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(1);
+        result.whenComplete((value, error) -> pending.set(COMPLETED));
+        List<CompletableFuture<T>> calls = new CopyOnWriteArrayList<>();
+        start(state, call, result, pending, calls, false);
+
+        long delayMs = state.hedgeDelayMs;
+        if (delayMs < 0 || result.isDone()) {
+            return result;
+        }
+        CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS).execute(() -> {
+            if (pending.get() <= 0) {
+                return;
+            }
+            if (!budget.tryWithdraw()) {
+                state.throttled.increment();
+                return;
+            }
+            // Проверка и учет нового вызова — одна атомарная операция: если за это время
+            // все вызовы завершились ошибкой, счетчик уже равен нулю и дубль не запускается
+            if (pending.getAndUpdate(count -> count > 0 ? count + 1 : count) <= 0) {
+                return;
+            }
+            state.fired.increment();
+            log.debug("Нет ответа модели {} за {} мс, отправлен дублирующий запрос", model, delayMs);
+            start(state, call, result, pending, calls, true);
+        });
+        return result;
+    }
+
+    /**
+     * Запускает один вызов и связывает его с итоговым future.
+     * Первый успешный вызов отменяет остальные.
+     *
+     * @param state   Состояние модели.
+     * @param call    Вызов.
+     * @param result  Итоговый future.
+     * @param pending Число незавершенных вызовов или {@link #COMPLETED}.
+     * @param calls   Все запущенные вызовы запроса.
+     * @param hedged  Признак дублирующего вызова.
+     * @param <T>     Тип результата вызова.
+     */
+    private <T> void start(
+            ModelState state,
+            HedgedCall<T> call,
+            CompletableFuture<T> result,
+            AtomicInteger pending,
+            List<CompletableFuture<T>> calls,
+            boolean hedged
+    ) {
+        AtomicLong sentAt = new AtomicLong(System.nanoTime());
+        CompletableFuture<T> future = call.start(() -> sentAt.set(System.nanoTime()));
+        calls.add(future);
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                future.cancel(false);
+            }
+        });
+        future.whenComplete((value, error) -> {
+            if (error == null) {
+                state.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - sentAt.get()));
+                pending.set(COMPLETED);
+                if (!result.isDone()) {
+                    calls.stream().filter(other -> other != future).forEach(other -> other.cancel(false));
+                    if (hedged) {
+                        state.won.increment();
+                    }
+                }
+                result.complete(value);
+                return;
+            }
+            if (pending.decrementAndGet() == 0) {
+                result.completeExceptionally(
+                        error instanceof CompletionException && error.getCause() != null ? error.getCause() : error
+                );
+            }
+        });
+    }
+
+    /**
+     * Вызов к модели, сообщающий о фактической отправке запроса.
+     *
+     * @param <T> Тип результата вызова.
+     */
+    @FunctionalInterface
+    public interface HedgedCall<T> {
+
+        /**
+         * Запускает новый независимый запрос.
+         *
+         * @param onSent Вызывается непосредственно перед отправкой HTTP-запроса, после ожидания
+         *               локальных лимитов и учетной записи.
+         * @return Future с результатом запроса.
+         */
+        CompletableFuture<T> start(Runnable onSent);
+    }
+
+    /**
+     * Состояние хеджирования одной модели: окно последних задержек и метрики.
+     */
+    private final class ModelState {
+
+        /**
+         * Последние задержки успешных вызовов (кольцевой буфер, в миллисекундах).
+         */
+        private final long[] latencies;
+
+        /**
+         * Число отправленных дублирующих запросов.
+         */
+        private final Counter fired;
+
+        /**
+         * Число дублирующих запросов, ответ на которые пришел раньше исходного.
+         */
+        private final Counter won;
+
+        /**
+         * Число дублирующих запросов, не отправленных из-за исчерпания бюджета.
+         */
+        private final Counter throttled;
+
+        /**
+         * Позиция следующей записи в кольцевом буфере.
+         */
+        private int position;
+
+        /**
+         * Число записанных задержек (не больше размера окна).
+         */
+        private int recorded;
+
+        /**
+         * Текущая задержка перед дублированием (в миллисекундах) или -1, если измерений недостаточно.
+         */
+        private volatile long hedgeDelayMs = -1;
+
+        /**
+         * Создает состояние модели и регистрирует ее метрики.
+         *
+         * @param model Модель GigaChat.
+         */
+        private ModelState(String model) {
+            this.latencies = new long[settings.getWindowSize()];
+            this.fired = hedgeCounter(model, "fired");
+            this.won = hedgeCounter(model, "won");
+            this.throttled = hedgeCounter(model, "throttled");
+            Gauge.builder("gigachat.hedge.delay", this, state -> state.hedgeDelayMs)
+                    .description("Задержка перед отправкой дублирующего запроса к модели (в миллисекундах)")
+                    .tag("model", model)
+                    .register(meterRegistry);
+        }
+
+        /**
+         * Учитывает задержку успешного вызова и пересчитывает процентиль.
+         *
+         * @param latencyMs Задержка (в миллисекундах).
+         */
+        private synchronized void record(long latencyMs) {
+            latencies[position] = latencyMs;
+            position = (position + 1) % latencies.length;
+            recorded = Math.min(recorded + 1, latencies.length);
+            if (recorded < settings.getMinSamples()) {
+                return;
+            }
+            long[] sorted = Arrays.copyOf(latencies, recorded);
+            Arrays.sort(sorted);
+            int index = Math.min(recorded - 1, (int) Math.ceil(settings.getPercentile() * recorded) - 1);
+            hedgeDelayMs = Math.max(settings.getMinDelayMs(), sorted[Math.max(0, index)]);
+        }
+
+        /**
+         * Создает счетчик событий хеджирования модели.
+         *
+         * @param model   Модель GigaChat.
+         * @param outcome Событие.
+         * @return Счетчик.
+         */
+        private Counter hedgeCounter(String model, String outcome) {
+            return Counter.builder("gigachat.hedge")
+                    .description("Дублирующие запросы к модели")
+                    .tag("model", model)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package org.surkov.gigachatservice.utils.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.surkov.gigachatservice.config.GigaChatConfig;
+import org.surkov.gigachatservice.exception.RateLimitExceededException;
+import org.surkov.gigachatservice.utils.CredentialPool;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ограничитель частоты исходящих запросов к GigaChat API по моделям.
+ * Для каждой модели ведутся два маркерных ведра: запросов в секунду и токенов в минуту.
+ * Лимиты задаются на одну учетную запись, поэтому емкость и скорость пополнения ведер
+ * умножаются на число учетных записей в ротации ({@link CredentialPool#activeCount()}).
+ * Запрос резервирует маркеры сразу и, если их пока недостаточно, ожидает их накопления
+ * без блокировки потока. Если ожидание превышает {@code rateLimitMaxWaitMs},
+ * запрос отклоняется с {@link RateLimitExceededException} и не отправляется в API.
+ *
+ * @author surkov
+ */
+@Slf4j
+@Component
+public class ModelRateLimiter {
+
+    /**
+     * Число наносекунд в секунде.
+     */
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+    /**
+     * Число наносекунд в минуте.
+     */
+    private static final double NANOS_PER_MINUTE = 60 * NANOS_PER_SECOND;
+
+    /**
+     * Лимиты по моделям.
+     */
+    private final Map<String, ModelLimit> limits = new HashMap<>();
+
+    /**
+     * Максимальное время ожидания маркеров (в наносекундах).
+     */
+    private final long maxWaitNanos;
+
+    /**
+     * Пул учетных записей, определяющий суммарный лимит.
+     */
+    private final CredentialPool credentialPool;
+
+    /**
+     * Создает ограничитель по лимитам из конфигурации и регистрирует метрики.
+     *
+     * @param config         Конфигурация GigaChat API.
+     * @param meterRegistry  Реестр метрик.
+     * @param credentialPool Пул учетных записей.
+     */
+    public ModelRateLimiter(GigaChatConfig config, MeterRegistry meterRegistry, CredentialPool credentialPool) {
+        this.credentialPool = credentialPool;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(config.getRateLimitMaxWaitMs());
+        for (GigaChatConfig.RateLimit rateLimit : config.getRateLimits()) {
+            limits.put(rateLimit.getModel(), new ModelLimit(rateLimit, meterRegistry));
+            log.info(
+                    "Лимит модели {} на учетную запись: {} запросов/с (всплеск {}), {} токенов/мин",
+                    rateLimit.getModel(),
+                    rateLimit.getRequestsPerSecond(),
+                    rateLimit.getBurst(),
+                    rateLimit.getTokensPerMinute()
+            );
+        }
+    }
+
+    /**
+     * Резервирует право на запрос к модели.
+     *
+     * @param model        Модель GigaChat.
+     * @param promptTokens Оценка числа токенов запроса.
+     * @return Future, завершающийся, когда запрос можно отправлять. Завершается исключением
+     * {@link RateLimitExceededException}, если ожидание превысило бы допустимое.
+     */
+    public CompletableFuture<Void> acquire(String model, int promptTokens) {
+        ModelLimit limit = limits.get(model);
+        if (limit == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        long waitNanos;
+        try {
+            waitNanos = limit.reserve(promptTokens, Math.max(1, credentialPool.activeCount()), maxWaitNanos);
+        } catch (RateLimitExceededException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (waitNanos <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(
+                () -> { },
+                CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS)
+        );
+    }
+
+    /**
+     * Возвращает лимиту резерв запроса, который так и не был отправлен
+     * (отменен или отклонен до обращения к API).
+     *
+     * @param model        Модель GigaChat.
+     * @param promptTokens Оценка числа токенов запроса, переданная в {@link #acquire(String, int)}.
+     */
+    public void refund(String model, int promptTokens) {
+        ModelLimit limit = limits.get(model);
+        if (limit != null) {
+            limit.refund(promptTokens);
+        }
+    }
+
+    /**
+     * Лимиты одной модели.
+     */
+    private static final class ModelLimit {
+
+        /**
+         * Модель GigaChat.
+         */
+        private final String model;
+
+        /**
+         * Ведро запросов в секунду или {@code null}, если лимита нет.
+         */
+        private final TokenBucket requests;
+
+        /**
+         * Ведро токенов в минуту или {@code null}, если лимита нет.
+         */
+        private final TokenBucket tokens;
+
+        /**
+         * Ожидаемое число токенов ответа.
+         */
+        private final int expectedCompletionTokens;
+
+        /**
+         * Счетчик отклоненных запросов.
+         */
+        private final Counter rejected;
+
+        /**
+         * Время ожидания маркеров.
+         */
+        private final Timer waits;
+
+        /**
+         * Создает лимиты модели.
+         *
+         * @param rateLimit     Настройки лимита.
+         * @param meterRegistry Реестр метрик.
+         */
+        private ModelLimit(GigaChatConfig.RateLimit rateLimit, MeterRegistry meterRegistry) {
+            this.model = rateLimit.getModel();
+            this.requests = rateLimit.getRequestsPerSecond() > 0
+                    ? new TokenBucket(
+                            Math.max(1, rateLimit.getBurst()),
+                            rateLimit.getRequestsPerSecond() / NANOS_PER_SECOND
+                    )
+                    : null;
+            this.tokens = rateLimit.getTokensPerMinute() > 0
+                    ? new TokenBucket(
+                            rateLimit.getTokensPerMinute(),
+                            rateLimit.getTokensPerMinute() / NANOS_PER_MINUTE
+                    )
+                    : null;
+            this.expectedCompletionTokens = rateLimit.getExpectedCompletionTokens();
+            this.rejected = Counter.builder("gigachat.ratelimit.rejected")
+                    .description("Запросы, отклоненные лимитом модели")
+                    .tag("model", model)
+                    .register(meterRegistry);
+            this.waits = Timer.builder("gigachat.ratelimit.wait")
+                    .description("Время ожидания запроса в очереди лимита модели")
+                    .tag("model", model)
+                    .register(meterRegistry);
+        }
+
+        /**
+         * Резервирует маркеры обоих ведер.
+         *
+         * @param promptTokens Оценка числа токенов запроса.
+         * @param credentials  Число учетных записей в ротации.
+         * @param maxWaitNanos Максимальное время ожидания.
+         * @return Время (в наносекундах), через которое запрос можно отправлять.
+         * @throws RateLimitExceededException ожидание превысило бы допустимое; маркеры не резервируются.
+         */
+        private synchronized long reserve(int promptTokens, int credentials, long maxWaitNanos) {
+            long now = System.nanoTime();
+            long cost = (long) promptTokens + expectedCompletionTokens;
+            long waitNanos = Math.max(
+                    requests != null ? requests.waitNanos(1, credentials, now) : 0,
+                    tokens != null ? tokens.waitNanos(cost, credentials, now) : 0
+            );
+            if (waitNanos > maxWaitNanos) {
+                rejected.increment();
+                throw new RateLimitExceededException(
+                        "Превышен лимит запросов к модели " + model,
+                        Duration.ofNanos(waitNanos)
+                );
+            }
+            if (requests != null) {
+                requests.take(1);
+            }
+            if (tokens != null) {
+                tokens.take(cost);
+            }
+            waits.record(waitNanos, TimeUnit.NANOSECONDS);
+            return waitNanos;
+        }
+
+        /**
+         * Возвращает зарезервированные маркеры в оба ведра.
+         *
+         * @param promptTokens Оценка числа токенов запроса.
+         */
+        private synchronized void refund(int promptTokens) {
+            if (requests != null) {
+                requests.take(-1);
+            }
+            if (tokens != null) {
+                tokens.take(-((long) promptTokens + expectedCompletionTokens));
+            }
+        }
+    }
+
+    /**
+     * Маркерное ведро с резервированием: маркеры списываются сразу, даже если их
+     * недостаточно, а последующие запросы ожидают погашения образовавшегося долга.
+     * Не потокобезопасно, синхронизируется владельцем.
+     */
+    private static final class TokenBucket {
+
+        /**
+         * Емкость ведра на одну учетную запись.
+         */
+        private final double capacity;
+
+        /**
+         * Скорость пополнения на одну учетную запись (маркеров в наносекунду).
+         */
+        private final double refillPerNano;
+
+        /**
+         * Доступные маркеры; отрицательное значение — зарезервированный долг.
+         */
+        private double available;
+
+        /**
+         * Время последнего пополнения (в наносекундах).
+         */
+        private long refilledAt;
+
+        /**
+         * Создает полное ведро.
+         *
+         * @param capacity      Емкость ведра.
+         * @param refillPerNano Скорость пополнения.
+         */
+        private TokenBucket(double capacity, double refillPerNano) {
+            this.capacity = capacity;
+            this.refillPerNano = refillPerNano;
+            this.available = capacity;
+            this.refilledAt = System.nanoTime();
+        }
+
+        /**
+         * Пополняет ведро и вычисляет ожидание до накопления нужного числа маркеров.
+         *
+         * @param cost        Число маркеров.
+         * @param credentials Число учетных записей, на которое умножаются емкость и скорость пополнения.
+         * @param now         Текущее время (в наносекундах).
+         * @return Время ожидания (в наносекундах).
+         */
+        private long waitNanos(double cost, int credentials, long now) {
+            double rate = refillPerNano * credentials;
+            available = Math.min(capacity * credentials, available + (now - refilledAt) * rate);
+            refilledAt = now;
+            return available >= cost ? 0 : (long) Math.ceil((cost - available) / rate);
+        }
+
+        /**
+         * Списывает маркеры; отрицательное значение возвращает их в ведро.
+         * Переполнение ведра сверх емкости срезается при следующем пополнении.
+         *
+         * @param cost Число маркеров.
+         */
+        private void take(double cost) {
+            available -= cost;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.surkov.gigachatservice.utils.resilience;
+
+/**
+ * Бюджет дополнительных запросов (повторов, дублирующих запросов): каждый исходный
+ * запрос пополняет его на {@code ratio}, каждый дополнительный расходует единицу;
+ * запас ограничен {@code maxTokens}.
+ *
+ * @author surkov
+ */
+final class RequestBudget {
+
+    /**
+     * Пополнение бюджета на один запрос.
+     */
+    private final double ratio;
+
+    /**
+     * Максимальный запас бюджета.
+     */
+    private final double maxTokens;
+
+    /**
+     * Текущий запас бюджета.
+     */
+    private double tokens;
+
+    /**
+     * Создает полный бюджет.
+     *
+     * @param ratio     Пополнение на один запрос.
+     * @param maxTokens Максимальный запас.
+     */
+    RequestBudget(double ratio, int maxTokens) {
+        this.ratio = ratio;
+        this.maxTokens = maxTokens;
+        this.tokens = maxTokens;
+    }
+
+    /**
+     * Пополняет бюджет за новый запрос.
+     */
+    synchronized void deposit() {
+        tokens = Math.min(maxTokens, tokens + ratio);
+    }
+
+    /**
+     * Расходует бюджет на один дополнительный запрос.
+     *
+     * @return {@code true}, если бюджета достаточно.
+     */
+    synchronized boolean tryWithdraw() {
+        if (tokens < 1) {
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+}
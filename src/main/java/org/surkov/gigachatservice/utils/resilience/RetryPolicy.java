@@ -0,0 +1,224 @@
+package org.surkov.gigachatservice.utils.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.surkov.gigachatservice.config.GigaChatConfig;
+import org.surkov.gigachatservice.exception.ApiRequestException;
+import org.surkov.gigachatservice.exception.RateLimitExceededException;
+import org.surkov.gigachatservice.exception.UpstreamHttpException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Политика повторов запросов к модели при временных ошибках GigaChat API:
+ * ответах 429 и 502/503/504, ошибках соединения и тайм-аутах.
+ * <p>
+ * Задержка выбирается с декоррелированным джиттером
+ * ({@code random(retryInitialDelayMs, предыдущая задержка * retryDelayMultiplier)},
+ * не больше {@code completionRetryMaxDelayMs}) и не меньше значения {@code Retry-After}.
+ * Повторы одного запроса ограничены числом попыток и бюджетом времени, а повторы в целом
+ * по сервису — долей от числа запросов, чтобы повторы не усиливали сбой внешнего API.
+ * Отказы собственных ограничителей (503 и 429 без ответа API) не повторяются.
+ *
+ * @author surkov
+ */
+@Slf4j
+@Component
+public class RetryPolicy {
+
+    /**
+     * Конфигурация GigaChat API с параметрами повторов.
+     */
+    private final GigaChatConfig config;
+
+    /**
+     * Общий по сервису бюджет повторов.
+     */
+    private final RequestBudget budget;
+
+    /**
+     * Число выполненных повторов.
+     */
+    private final Counter retried;
+
+    /**
+     * Число отказов от повтора из-за исчерпания попыток или бюджета времени запроса.
+     */
+    private final Counter exhausted;
+
+    /**
+     * Число отказов от повтора из-за исчерпания общего бюджета повторов.
+     */
+    private final Counter throttled;
+
+    /**
+     * Создает политику повторов и регистрирует ее метрики.
+     *
+     * @param config        Конфигурация GigaChat API.
+     * @param meterRegistry Реестр метрик.
+     */
+    public RetryPolicy(GigaChatConfig config, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.budget = new RequestBudget(config.getRetryBudgetRatio(), config.getRetryBudgetMaxTokens());
+        this.retried = retryCounter(meterRegistry, "retried");
+        this.exhausted = retryCounter(meterRegistry, "exhausted");
+        this.throttled = retryCounter(meterRegistry, "throttled");
+    }
+
+    /**
+     * Выполняет вызов с повторами.
+     * Отмена возвращенного future отменяет текущую попытку и последующие повторы.
+     *
+     * @param call         Вызов; каждый вызов {@link Supplier#get()} — новая попытка.
+     * @param retryAllowed Дополнительное условие повтора (например, для потокового ответа —
+     *                     отсутствие уже переданных клиенту данных).
+     * @param <T>          Тип результата вызова.
+     * @return Future с результатом первой успешной попытки или ошибкой последней.
+     */
+    public <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> call, BooleanSupplier retryAllowed) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        budget.deposit();
+        long deadline = System.currentTimeMillis() + config.getCompletionRetryTimeBudgetMs();
+        attempt(call, retryAllowed, result, 1, config.getRetryInitialDelayMs(), deadline);
+        return result;
+    }
+
+    /**
+     * Выполняет одну попытку и при временной ошибке планирует следующую.
+     *
+     * @param call          Вызов.
+     * @param retryAllowed  Дополнительное условие повтора.
+     * @param result        Итоговый future.
+     * @param attemptNumber Номер попытки, начиная с 1.
+     * @param previousDelay Предыдущая задержка (в миллисекундах).
+     * @param deadline      Момент окончания бюджета времени (в миллисекундах).
+     * @param <T>           Тип результата вызова.
+     */
+    private <T> void attempt(
+            Supplier<CompletableFuture<T>> call,
+            BooleanSupplier retryAllowed,
+            CompletableFuture<T> result,
+            int attemptNumber,
+            long previousDelay,
+            long deadline
+    ) {
+        if (result.isDone()) {
+            return;
+        }
+        CompletableFuture<T> future = call.get();
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                future.cancel(false);
+            }
+        });
+        future.whenComplete((value, error) -> {
+            if (error == null) {
+                result.complete(value);
+                return;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause()
+                    : error;
+            if (!isRetryable(cause) || !retryAllowed.getAsBoolean() || result.isDone()) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            long delay = nextDelay(previousDelay, retryAfter(cause));
+            if (attemptNumber >= config.getCompletionRetryMaxAttempts()
+                    || System.currentTimeMillis() + delay > deadline) {
+                exhausted.increment();
+                result.completeExceptionally(cause);
+                return;
+            }
+            if (!budget.tryWithdraw()) {
+                throttled.increment();
+                log.warn("Повтор запроса к GigaChat API не выполнен: исчерпан общий бюджет повторов");
+                result.completeExceptionally(cause);
+                return;
+            }
+            retried.increment();
+            log.warn(
+                    "Временная ошибка GigaChat API ({}), попытка {} через {} мс",
+                    cause.getMessage(),
+                    attemptNumber + 1,
+                    delay
+            );
+            CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS).execute(() ->
+                    attempt(call, retryAllowed, result, attemptNumber + 1, delay, deadline)
+            );
+        });
+    }
+
+    /**
+     * Вычисляет задержку перед следующей попыткой с декоррелированным джиттером.
+     *
+     * @param previousDelay Предыдущая задержка (в миллисекундах).
+     * @param retryAfter    Задержка из {@code Retry-After} или {@code null}.
+     * @return Задержка (в миллисекундах).
+     */
+    private long nextDelay(long previousDelay, Duration retryAfter) {
+        long base = config.getRetryInitialDelayMs();
+        long upper = Math.max(base + 1, previousDelay * config.getRetryDelayMultiplier());
+        long delay = Math.min(
+                config.getCompletionRetryMaxDelayMs(),
+                ThreadLocalRandom.current().nextLong(base, upper)
+        );
+        return retryAfter != null ? Math.max(delay, retryAfter.toMillis()) : delay;
+    }
+
+    /**
+     * Проверяет, является ли ошибка временной ошибкой внешнего API.
+     *
+     * @param error Ошибка попытки.
+     * @return {@code true}, если попытку стоит повторить.
+     */
+    private static boolean isRetryable(Throwable error) {
+        if (error instanceof UpstreamHttpException upstream) {
+            int status = upstream.getStatusCode();
+            return status == 429 || status == 502 || status == 503 || status == 504;
+        }
+        if (error instanceof RateLimitExceededException) {
+            return error.getCause() instanceof UpstreamHttpException;
+        }
+        return error instanceof ApiRequestException && error.getCause() instanceof IOException;
+    }
+
+    /**
+     * Возвращает задержку, указанную внешним API, если она есть.
+     *
+     * @param error Ошибка попытки.
+     * @return Задержка или {@code null}.
+     */
+    private static Duration retryAfter(Throwable error) {
+        if (error instanceof UpstreamHttpException upstream) {
+            return upstream.getRetryAfter();
+        }
+        if (error instanceof RateLimitExceededException rateLimited) {
+            return rateLimited.getRetryAfter();
+        }
+        return null;
+    }
+
+    /**
+     * Создает счетчик решений о повторе.
+     *
+     * @param meterRegistry Реестр метрик.
+     * @param outcome       Решение.
+     * @return Счетчик.
+     */
+    private static Counter retryCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("gigachat.retry")
+                .description("Решения о повторе запросов к GigaChat API")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
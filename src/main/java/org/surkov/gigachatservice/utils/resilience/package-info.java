@@ -0,0 +1,10 @@
+/**
+ * Пакет содержит компоненты защиты исходящих вызовов GigaChat API:
+ * ограничение частоты запросов и расхода токенов по моделям, адаптивное ограничение
+ * числа одновременных запросов, автоматические выключатели вызовов моделей
+ * и повторы при временных ошибках.
+ * Они не дают сервису отправлять запросы, которые API заведомо отклонит.
+ *
+ * @author surkov
+ */
+package org.surkov.gigachatservice.utils.resilience;
@@ -0,0 +1,58 @@
+package org.surkov.gigachatservice.utils.transport;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * HTTP-транспорт исходящих вызовов.
+ * <p>
+ * Асинхронные вызовы выполняются в каналах: каждому каналу (модели GigaChat) транспорт выделяет
+ * собственные очередь вызовов, потоки и пул соединений, поэтому деградация одной модели
+ * не занимает ресурсы других. Вызовы без канала и синхронные вызовы выполняются общим клиентом.
+ * Потоковые ответы (например, {@code text/event-stream}) читаются обработчиком из тела ответа
+ * по мере поступления данных.
+ *
+ * @author surkov
+ */
+public interface HttpTransport extends AutoCloseable {
+
+    /**
+     * Синхронно выполняет запрос общим клиентом и обрабатывает ответ в потоке вызывающего.
+     *
+     * @param request HTTP-запрос.
+     * @param handler Обработчик ответа.
+     * @param <R>     Тип результата обработки ответа.
+     * @return Результат обработки ответа.
+     * @throws IOException ошибка соединения, тайм-аут или ошибка чтения ответа.
+     */
+    <R> R execute(TransportRequest request, ResponseHandler<R> handler) throws IOException;
+
+    /**
+     * Асинхронно выполняет запрос в канале. Поток вызывающего не блокируется:
+     * обработчик вызывается в потоке транспорта после получения заголовков ответа.
+     * Отмена возвращенного future отменяет и сам HTTP-вызов.
+     * Тайм-ауты завершают future исключением {@link java.io.InterruptedIOException}.
+     *
+     * @param channel Канал вызова или {@code null} для общего клиента.
+     * @param request HTTP-запрос.
+     * @param handler Обработчик ответа.
+     * @param <R>     Тип результата обработки ответа.
+     * @return Future с результатом обработки ответа. Завершается исключением {@link IOException}
+     * при ошибке соединения или чтения ответа либо исключением, выброшенным обработчиком.
+     */
+    <R> CompletableFuture<R> executeAsync(String channel, TransportRequest request, ResponseHandler<R> handler);
+
+    /**
+     * Возвращает число выполняемых вызовов канала.
+     *
+     * @param channel Канал или {@code null} для общего клиента.
+     * @return Число выполняемых вызовов.
+     */
+    int activeCalls(String channel);
+
+    /**
+     * Останавливает потоки каналов и закрывает их соединения.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,417 @@
+package org.surkov.gigachatservice.utils.transport;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.surkov.gigachatservice.config.GigaChatConfig;
+
+import javax.net.ssl.SSLContext;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * HTTP-транспорт на {@link HttpClient} из JDK.
+ * <p>
+ * У каждого канала собственные {@link HttpClient} (а значит, и пул соединений) и потоки;
+ * число одновременных вызовов канала ограничено {@code maxRequests} из {@link GigaChatConfig.Bulkhead},
+ * остальные вызовы ждут в очереди канала, как в диспетчере OkHttp. Все клиенты используют общий
+ * {@link SSLContext} с кэшем TLS-сессий. Тело запроса перед отправкой записывается в массив,
+ * поэтому запрос отправляется с заголовком {@code Content-Length}. Время жизни и число простаивающих
+ * соединений задаются системными свойствами {@code jdk.httpclient.keepalive.timeout*} и настройками
+ * {@code connections.keep-alive-ms} и {@code max-idle-connections} не управляются.
+ *
+ * @author surkov
+ */
+@Slf4j
+public class JdkHttpTransport implements HttpTransport {
+
+    /**
+     * Имя общего канала в именах потоков.
+     */
+    private static final String SHARED = "shared";
+
+    /**
+     * Начальный размер буфера тела запроса (в байтах).
+     */
+    private static final int INITIAL_BODY_BUFFER_BYTES = 8 * 1024;
+
+    /**
+     * Контекст TLS.
+     */
+    private final SSLContext sslContext;
+
+    /**
+     * Версия HTTP.
+     */
+    private final HttpClient.Version version;
+
+    /**
+     * Тайм-аут установки соединения.
+     */
+    private final Duration connectTimeout;
+
+    /**
+     * Тайм-аут ожидания заголовков ответа.
+     */
+    private final Duration responseTimeout;
+
+    /**
+     * Настройки изолированных клиентов каналов.
+     */
+    private final GigaChatConfig.Bulkhead bulkhead;
+
+    /**
+     * Реестр метрик.
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Общий канал.
+     */
+    private final Channel shared;
+
+    /**
+     * Изолированные каналы.
+     */
+    private final ConcurrentMap<String, Channel> channels = new ConcurrentHashMap<>();
+
+    /**
+     * Создает транспорт.
+     *
+     * @param sslContext      Контекст TLS.
+     * @param connections     Настройки общего клиента.
+     * @param bulkhead        Настройки изолированных клиентов каналов.
+     * @param connectTimeout  Тайм-аут установки соединения.
+     * @param responseTimeout Тайм-аут ожидания заголовков ответа.
+     * @param meterRegistry   Реестр метрик.
+     */
+    public JdkHttpTransport(
+            SSLContext sslContext,
+            GigaChatConfig.Connections connections,
+            GigaChatConfig.Bulkhead bulkhead,
+            Duration connectTimeout,
+            Duration responseTimeout,
+            MeterRegistry meterRegistry
+    ) {
+        this.sslContext = sslContext;
+        this.version = connections.isHttp2Enabled() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1;
+        this.connectTimeout = connectTimeout;
+        this.responseTimeout = responseTimeout;
+        this.bulkhead = bulkhead;
+        this.meterRegistry = meterRegistry;
+        this.shared = new Channel(SHARED, connections.getMaxRequests());
+    }
+
+    @Override
+    public <R> R execute(TransportRequest request, ResponseHandler<R> handler) throws IOException {
+        shared.running.incrementAndGet();
+        try {
+            HttpResponse<InputStream> response = shared.client.send(
+                    toRequest(request), HttpResponse.BodyHandlers.ofInputStream()
+            );
+            try (InputStream ignored = response.body()) {
+                return handler.handle(new JdkResponse(response));
+            }
+        } catch (HttpTimeoutException e) {
+            throw timeout(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Запрос прерван");
+        } finally {
+            shared.running.decrementAndGet();
+        }
+    }
+
+    @Override
+    public <R> CompletableFuture<R> executeAsync(String channel, TransportRequest request, ResponseHandler<R> handler) {
+        Channel target = channel == null ? shared : channels.computeIfAbsent(channel, this::createChannel);
+        CompletableFuture<R> future = new CompletableFuture<>();
+        HttpRequest httpRequest;
+        try {
+            httpRequest = toRequest(request);
+        } catch (IOException | RuntimeException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+        AtomicReference<CompletableFuture<?>> exchange = new AtomicReference<>();
+        AtomicReference<InputStream> body = new AtomicReference<>();
+        target.submit(() -> {
+            if (future.isDone()) {
+                target.finished();
+                return;
+            }
+            CompletableFuture<HttpResponse<InputStream>> sent;
+            try {
+                sent = target.client.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofInputStream());
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+                target.finished();
+                return;
+            }
+            exchange.set(sent);
+            sent.whenCompleteAsync((response, error) -> {
+                try {
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause() : error;
+                        future.completeExceptionally(cause instanceof HttpTimeoutException timeout
+                                ? timeout(timeout) : cause);
+                        return;
+                    }
+                    body.set(response.body());
+                    try (InputStream ignored = response.body()) {
+                        if (!future.isDone()) {
+                            future.complete(handler.handle(new JdkResponse(response)));
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        future.completeExceptionally(e);
+                    }
+                } finally {
+                    target.finished();
+                }
+            }, target.executor);
+        });
+        future.whenComplete((result, error) -> {
+            if (!future.isCancelled()) {
+                return;
+            }
+            CompletableFuture<?> sent = exchange.get();
+            if (sent != null) {
+                sent.cancel(true);
+            }
+            InputStream stream = body.get();
+            if (stream != null) {
+                try {
+                    stream.close();
+                } catch (IOException e) {
+                    log.debug("Не удалось закрыть тело отмененного ответа: {}", e.getMessage());
+                }
+            }
+        });
+        return future;
+    }
+
+    @Override
+    public int activeCalls(String channel) {
+        Channel target = channel == null ? shared : channels.computeIfAbsent(channel, this::createChannel);
+        return target.running.get();
+    }
+
+    @Override
+    public void close() {
+        shared.executor.shutdown();
+        channels.values().forEach(channel -> channel.executor.shutdown());
+    }
+
+    /**
+     * Создает изолированный канал модели и регистрирует его метрики.
+     *
+     * @param channel Канал (модель GigaChat).
+     * @return Канал.
+     */
+    private Channel createChannel(String channel) {
+        Channel created = new Channel(channel, bulkhead.getMaxRequests());
+        Gauge.builder("gigachat.http.queued", created.queued, Queue::size)
+                .description("Вызовы модели, ожидающие в очереди диспетчера HTTP-клиента")
+                .tag("model", channel)
+                .register(meterRegistry);
+        Gauge.builder("gigachat.http.running", created.running, AtomicInteger::get)
+                .description("Выполняемые HTTP-вызовы модели")
+                .tag("model", channel)
+                .register(meterRegistry);
+        log.info("Создан изолированный HTTP-клиент JDK модели {}: maxRequests={}", channel, bulkhead.getMaxRequests());
+        return created;
+    }
+
+    /**
+     * Преобразует запрос в запрос JDK. Тело запроса записывается в массив.
+     *
+     * @param request HTTP-запрос.
+     * @return Запрос JDK.
+     * @throws IOException ошибка записи тела запроса.
+     */
+    private HttpRequest toRequest(TransportRequest request) throws IOException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(request.url())).timeout(responseTimeout);
+        request.headers().forEach(builder::header);
+        HttpRequest.BodyPublisher publisher = HttpRequest.BodyPublishers.noBody();
+        if (request.body() != null) {
+            BodyBuffer buffer = new BodyBuffer();
+            request.body().writeTo(buffer);
+            publisher = buffer.publisher();
+        }
+        return builder.method(request.method(), publisher).build();
+    }
+
+    /**
+     * Приводит тайм-аут JDK к {@link InterruptedIOException}, которым тайм-ауты завершаются в OkHttp.
+     *
+     * @param e Тайм-аут JDK.
+     * @return Исключение тайм-аута.
+     */
+    private static SocketTimeoutException timeout(HttpTimeoutException e) {
+        SocketTimeoutException timeout = new SocketTimeoutException(e.getMessage());
+        timeout.initCause(e);
+        return timeout;
+    }
+
+    /**
+     * Канал вызовов: клиент, потоки и очередь вызовов, превышающих лимит.
+     */
+    private final class Channel {
+
+        /**
+         * HTTP-клиент канала.
+         */
+        private final HttpClient client;
+
+        /**
+         * Потоки клиента и обработчиков ответов.
+         */
+        private final ExecutorService executor;
+
+        /**
+         * Максимальное число одновременных вызовов.
+         */
+        private final int maxRequests;
+
+        /**
+         * Число выполняемых вызовов.
+         */
+        private final AtomicInteger running = new AtomicInteger();
+
+        /**
+         * Вызовы, ожидающие освобождения лимита.
+         */
+        private final Queue<Runnable> queued = new ConcurrentLinkedQueue<>();
+
+        /**
+         * Создает канал.
+         *
+         * @param name        Имя канала для потоков.
+         * @param maxRequests Максимальное число одновременных вызовов.
+         */
+        private Channel(String name, int maxRequests) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            this.executor = Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "jdk-http-" + name + "-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.client = HttpClient.newBuilder()
+                    .version(version)
+                    .sslContext(sslContext)
+                    .connectTimeout(connectTimeout)
+                    .executor(executor)
+                    .build();
+            this.maxRequests = maxRequests;
+        }
+
+        /**
+         * Ставит вызов в очередь и запускает вызовы, укладывающиеся в лимит.
+         *
+         * @param call Запуск вызова; по его завершении должен быть вызван {@link #finished()}.
+         */
+        private void submit(Runnable call) {
+            queued.add(call);
+            drain();
+        }
+
+        /**
+         * Освобождает место завершенного вызова и запускает следующие.
+         */
+        private void finished() {
+            running.decrementAndGet();
+            drain();
+        }
+
+        /**
+         * Запускает вызовы из очереди, пока не исчерпан лимит.
+         */
+        private void drain() {
+            while (!queued.isEmpty()) {
+                int current = running.get();
+                if (current >= maxRequests) {
+                    return;
+                }
+                if (!running.compareAndSet(current, current + 1)) {
+                    continue;
+                }
+                Runnable call = queued.poll();
+                if (call == null) {
+                    running.decrementAndGet();
+                    continue;
+                }
+                call.run();
+            }
+        }
+    }
+
+    /**
+     * Буфер тела запроса, публикуемый без копирования массива.
+     */
+    private static final class BodyBuffer extends ByteArrayOutputStream {
+
+        /**
+         * Создает буфер начального размера.
+         */
+        private BodyBuffer() {
+            super(INITIAL_BODY_BUFFER_BYTES);
+        }
+
+        /**
+         * Создает публикатор тела из записанных байтов.
+         *
+         * @return Публикатор тела запроса.
+         */
+        private HttpRequest.BodyPublisher publisher() {
+            return HttpRequest.BodyPublishers.ofByteArray(buf, 0, count);
+        }
+    }
+
+    /**
+     * Ответ JDK.
+     *
+     * @param response Ответ.
+     */
+    private record JdkResponse(HttpResponse<InputStream> response) implements TransportResponse {
+
+        @Override
+        public int statusCode() {
+            return response.statusCode();
+        }
+
+        @Override
+        public String header(String name) {
+            return response.headers().firstValue(name).orElse(null);
+        }
+
+        @Override
+        public String protocol() {
+            return response.version() == HttpClient.Version.HTTP_2 ? "h2" : "http/1.1";
+        }
+
+        @Override
+        public InputStream body() {
+            return response.body();
+        }
+    }
+}
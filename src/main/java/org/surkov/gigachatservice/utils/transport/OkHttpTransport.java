@@ -0,0 +1,243 @@
+package org.surkov.gigachatservice.utils.transport;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSink;
+import org.surkov.gigachatservice.config.GigaChatConfig;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HTTP-транспорт на OkHttp.
+ * Клиент канала создается из общего клиента через {@link OkHttpClient#newBuilder()}: он наследует
+ * TLS (вместе с кэшем TLS-сессий), протоколы и тайм-ауты, но получает собственные диспетчер
+ * и пул соединений, размеры которых задаются {@link GigaChatConfig.Bulkhead}.
+ * Тело запроса записывается прямо в сокет при отправке, без промежуточного массива.
+ *
+ * @author surkov
+ */
+@Slf4j
+public class OkHttpTransport implements HttpTransport {
+
+    /**
+     * Общий HTTP-клиент.
+     */
+    private final OkHttpClient client;
+
+    /**
+     * Настройки изолированных клиентов каналов.
+     */
+    private final GigaChatConfig.Bulkhead bulkhead;
+
+    /**
+     * Реестр метрик.
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Изолированные клиенты по каналам.
+     */
+    private final ConcurrentMap<String, OkHttpClient> channels = new ConcurrentHashMap<>();
+
+    /**
+     * Создает транспорт на основе общего клиента.
+     *
+     * @param client        Общий HTTP-клиент с настройками TLS, протоколов и тайм-аутов.
+     * @param bulkhead      Настройки изолированных клиентов каналов.
+     * @param meterRegistry Реестр метрик.
+     */
+    public OkHttpTransport(OkHttpClient client, GigaChatConfig.Bulkhead bulkhead, MeterRegistry meterRegistry) {
+        this.client = client;
+        this.bulkhead = bulkhead;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public <R> R execute(TransportRequest request, ResponseHandler<R> handler) throws IOException {
+        try (Response response = client.newCall(toRequest(request)).execute()) {
+            return handler.handle(new OkHttpResponse(response));
+        }
+    }
+
+    @Override
+    public <R> CompletableFuture<R> executeAsync(String channel, TransportRequest request, ResponseHandler<R> handler) {
+        CompletableFuture<R> future = new CompletableFuture<>();
+        Call call = client(channel).newCall(toRequest(request));
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(final Call failedCall, final IOException e) {
+                if (failedCall.isCanceled()) {
+                    future.cancel(false);
+                    return;
+                }
+                future.completeExceptionally(e);
+            }
+
+            @Override
+            public void onResponse(final Call successfulCall, final Response response) {
+                try (response) {
+                    future.complete(handler.handle(new OkHttpResponse(response)));
+                } catch (IOException | RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            }
+        });
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                call.cancel();
+            }
+        });
+        return future;
+    }
+
+    @Override
+    public int activeCalls(String channel) {
+        return client(channel).dispatcher().runningCallsCount();
+    }
+
+    @Override
+    public void close() {
+        channels.values().forEach(channelClient -> {
+            channelClient.dispatcher().executorService().shutdown();
+            channelClient.connectionPool().evictAll();
+        });
+    }
+
+    /**
+     * Возвращает клиент канала, создавая его при первом обращении.
+     *
+     * @param channel Канал или {@code null} для общего клиента.
+     * @return HTTP-клиент.
+     */
+    private OkHttpClient client(String channel) {
+        return channel == null ? client : channels.computeIfAbsent(channel, this::createChannel);
+    }
+
+    /**
+     * Создает изолированный HTTP-клиент канала.
+     * Клиент использует общие настройки TLS и тайм-аутов, но собственные диспетчер и пул соединений.
+     *
+     * @param channel Канал (модель GigaChat).
+     * @return HTTP-клиент канала.
+     */
+    private OkHttpClient createChannel(String channel) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        Dispatcher dispatcher = new Dispatcher(new ThreadPoolExecutor(
+                0,
+                Integer.MAX_VALUE,
+                60,
+                TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "okhttp-" + channel + "-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        ));
+        dispatcher.setMaxRequests(bulkhead.getMaxRequests());
+        dispatcher.setMaxRequestsPerHost(bulkhead.getMaxRequests());
+        OkHttpClient channelClient = client.newBuilder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(
+                        bulkhead.getMaxIdleConnections(),
+                        bulkhead.getKeepAliveMs(),
+                        TimeUnit.MILLISECONDS
+                ))
+                .build();
+        Gauge.builder("gigachat.http.queued", dispatcher, Dispatcher::queuedCallsCount)
+                .description("Вызовы модели, ожидающие в очереди диспетчера HTTP-клиента")
+                .tag("model", channel)
+                .register(meterRegistry);
+        Gauge.builder("gigachat.http.running", dispatcher, Dispatcher::runningCallsCount)
+                .description("Выполняемые HTTP-вызовы модели")
+                .tag("model", channel)
+                .register(meterRegistry);
+        log.info("Создан изолированный HTTP-клиент OkHttp модели {}: maxRequests={}", channel, bulkhead.getMaxRequests());
+        return channelClient;
+    }
+
+    /**
+     * Преобразует запрос в запрос OkHttp.
+     *
+     * @param request HTTP-запрос.
+     * @return Запрос OkHttp.
+     */
+    private static Request toRequest(TransportRequest request) {
+        Request.Builder builder = new Request.Builder().url(request.url());
+        request.headers().forEach(builder::addHeader);
+        TransportRequest.BodyWriter body = request.body();
+        return builder.method(request.method(), body == null ? null : new RequestBody() {
+            @Override
+            public MediaType contentType() {
+                // Тип содержимого передается заголовком запроса
+                return null;
+            }
+
+            @Override
+            public void writeTo(BufferedSink sink) throws IOException {
+                // OkHttp сам сбрасывает тело после записи; промежуточный flush генератора JSON
+                // отправил бы тело отдельным сегментом, и завершающий фрагмент chunked-кодирования
+                // ждал бы подтверждения TCP (алгоритм Нейгла)
+                body.writeTo(new FilterOutputStream(sink.outputStream()) {
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        out.write(b, off, len);
+                    }
+
+                    @Override
+                    public void flush() {
+                    }
+                });
+            }
+        }).build();
+    }
+
+    /**
+     * Ответ OkHttp.
+     *
+     * @param response Ответ.
+     */
+    private record OkHttpResponse(Response response) implements TransportResponse {
+
+        @Override
+        public int statusCode() {
+            return response.code();
+        }
+
+        @Override
+        public String header(String name) {
+            return response.header(name);
+        }
+
+        @Override
+        public String protocol() {
+            return response.protocol().toString();
+        }
+
+        @Override
+        public InputStream body() {
+            ResponseBody body = response.body();
+            return body != null ? body.byteStream() : InputStream.nullInputStream();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.surkov.gigachatservice.utils.transport;
+
+import java.io.IOException;
+
+/**
+ * Обработчик HTTP-ответа. Вызывается транспортом после получения заголовков ответа;
+ * тело ответа читается обработчиком по мере поступления.
+ *
+ * @param <R> Тип результата обработки ответа.
+ * @author surkov
+ */
+@FunctionalInterface
+public interface ResponseHandler<R> {
+
+    /**
+     * Обрабатывает HTTP-ответ.
+     *
+     * @param response HTTP-ответ.
+     * @return Результат обработки.
+     * @throws IOException ошибка при чтении тела ответа.
+     */
+    R handle(TransportResponse response) throws IOException;
+}
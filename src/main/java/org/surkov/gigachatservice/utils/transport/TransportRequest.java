@@ -0,0 +1,65 @@
+package org.surkov.gigachatservice.utils.transport;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * HTTP-запрос, не зависящий от реализации транспорта.
+ *
+ * @param method  HTTP-метод.
+ * @param url     Адрес запроса.
+ * @param headers Заголовки запроса (включая {@code Content-Type} тела).
+ * @param body    Запись тела запроса или {@code null}, если тела нет.
+ * @author surkov
+ */
+public record TransportRequest(String method, String url, Map<String, String> headers, BodyWriter body) {
+
+    /**
+     * Создает запрос {@code POST}.
+     *
+     * @param url     Адрес запроса.
+     * @param headers Заголовки запроса.
+     * @param body    Запись тела запроса.
+     * @return Запрос.
+     */
+    public static TransportRequest post(String url, Map<String, String> headers, BodyWriter body) {
+        return new TransportRequest("POST", url, headers, body);
+    }
+
+    /**
+     * Создает запрос {@code HEAD} без заголовков.
+     *
+     * @param url Адрес запроса.
+     * @return Запрос.
+     */
+    public static TransportRequest head(String url) {
+        return new TransportRequest("HEAD", url, Map.of(), null);
+    }
+
+    /**
+     * Возвращает значение заголовка запроса.
+     *
+     * @param name Имя заголовка (с учетом регистра, как при создании запроса).
+     * @return Значение заголовка или {@code null}, если заголовка нет.
+     */
+    public String header(String name) {
+        return headers.get(name);
+    }
+
+    /**
+     * Запись тела запроса. Может вызываться несколько раз (например, при повторной
+     * отправке запроса транспортом) и каждый раз должна записывать одно и то же тело.
+     */
+    @FunctionalInterface
+    public interface BodyWriter {
+
+        /**
+         * Записывает тело запроса в поток. Поток не закрывается.
+         *
+         * @param out Поток.
+         * @throws IOException ошибка записи в поток.
+         */
+        void writeTo(OutputStream out) throws IOException;
+    }
+}
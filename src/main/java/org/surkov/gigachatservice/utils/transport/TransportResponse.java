@@ -0,0 +1,41 @@
+package org.surkov.gigachatservice.utils.transport;
+
+import java.io.InputStream;
+
+/**
+ * HTTP-ответ, не зависящий от реализации транспорта.
+ * Доступен обработчику, пока он выполняется; тело закрывает транспорт.
+ *
+ * @author surkov
+ */
+public interface TransportResponse {
+
+    /**
+     * Возвращает HTTP-код ответа.
+     *
+     * @return Код ответа.
+     */
+    int statusCode();
+
+    /**
+     * Возвращает значение заголовка ответа.
+     *
+     * @param name Имя заголовка (без учета регистра).
+     * @return Значение заголовка или {@code null}, если заголовка нет.
+     */
+    String header(String name);
+
+    /**
+     * Возвращает протокол, по которому получен ответ (например, {@code h2} или {@code http/1.1}).
+     *
+     * @return Протокол.
+     */
+    String protocol();
+
+    /**
+     * Возвращает тело ответа. Тело читается по мере поступления данных из сети.
+     *
+     * @return Поток тела ответа; для ответа без тела — пустой поток.
+     */
+    InputStream body();
+}
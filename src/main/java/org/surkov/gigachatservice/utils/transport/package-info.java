@@ -0,0 +1,10 @@
+/**
+ * Пакет содержит HTTP-транспорт исходящих вызовов GigaChat API: интерфейс {@link
+ * org.surkov.gigachatservice.utils.transport.HttpTransport} с синхронным, асинхронным
+ * и потоковым выполнением запросов и его реализации на OkHttp и {@code java.net.http.HttpClient}.
+ * Реализация выбирается настройкой {@code giga-chat.connections.transport}, поэтому
+ * сервисы и клиенты API не зависят от конкретной HTTP-библиотеки.
+ *
+ * @author surkov
+ */
+package org.surkov.gigachatservice.utils.transport;
@@ -0,0 +1,107 @@
+package org.surkov.gigachatservice.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import okio.Buffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.surkov.gigachatservice.dto.ChatCompletion;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.AnalyzeResponse;
+import org.surkov.gigachatservice.utils.ChatCompletionDecoder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение разбора ответа GigaChat API: чтение тела в строку, {@code readTree} и повторный разбор
+ * текста ответа через {@link ObjectMapper#readValue(String, Class)} против {@link ChatCompletionDecoder}
+ * и заранее созданного {@link ObjectReader}.
+ * Запуск через {@link #main(String[])} включает профилировщик GC.
+ *
+ * @author surkov
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChatCompletionBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ChatCompletionDecoder decoder = new ChatCompletionDecoder(objectMapper);
+    private final ObjectReader reader = objectMapper.readerFor(AnalyzeResponse.class);
+    private byte[] body;
+    private Buffer source;
+
+    @Setup
+    public void setUp() throws IOException {
+        AnalyzeResponse response = new AnalyzeResponse(
+                80, 70, 60, 75,
+                List.of("Внедрил CI/CD и сократил время релиза в 3 раза", "Руководил командой из 5 разработчиков"),
+                List.of("Курсы/Сертификаты"),
+                List.of("Частая смена работы в 2019–2021 годах"),
+                "Кандидат с сильным опытом backend-разработки на Java. ".repeat(20)
+        );
+        ObjectNode message = objectMapper.createObjectNode()
+                .put("role", "assistant")
+                .put("content", objectMapper.writeValueAsString(response));
+        ObjectNode choice = objectMapper.createObjectNode().put("index", 0).put("finish_reason", "stop");
+        choice.set("message", message);
+        ObjectNode usage = objectMapper.createObjectNode()
+                .put("prompt_tokens", 1200)
+                .put("completion_tokens", 300)
+                .put("total_tokens", 1500);
+        ObjectNode root = objectMapper.createObjectNode();
+        root.set("choices", objectMapper.createArrayNode().add(choice));
+        root.put("created", 1_700_000_000).put("model", "GigaChat-Pro:1.0.26.20").put("object", "chat.completion");
+        root.set("usage", usage);
+        body = objectMapper.writeValueAsBytes(root);
+        source = new Buffer();
+    }
+
+    @Benchmark
+    public AnalyzeResponse stringAndTree() throws IOException {
+        source.write(body);
+        String raw = source.readUtf8();
+        JsonNode root = objectMapper.readTree(raw);
+        String content = root.path("choices").get(0).path("message").path("content").asText();
+        return objectMapper.readValue(content, AnalyzeResponse.class);
+    }
+
+    @Benchmark
+    public AnalyzeResponse streamingDecoder() throws IOException {
+        source.write(body);
+        ChatCompletion completion = decoder.decode(source.inputStream());
+        return reader.readValue(completion.content());
+    }
+
+    /**
+     * Запускает бенчмарк с профилировщиком GC.
+     *
+     * @param args Не используются.
+     * @throws RunnerException ошибка выполнения бенчмарка.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ChatCompletionBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()
+        ).run();
+    }
+}
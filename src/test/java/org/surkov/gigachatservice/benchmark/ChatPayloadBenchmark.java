@@ -0,0 +1,124 @@
+package org.surkov.gigachatservice.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import okio.Okio;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.surkov.gigachatservice.dto.GigaChatMessage;
+import org.surkov.gigachatservice.dto.GigaChatRequest;
+import org.surkov.gigachatservice.utils.ChatPayloadWriter;
+import org.surkov.gigachatservice.utils.GigaModel;
+import org.surkov.gigachatservice.utils.SystemPrompt;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение формирования тела запроса к GigaChat API: сериализация {@link GigaChatRequest}
+ * в строку и {@link ChatPayloadWriter} с закодированными заранее промптами.
+ * Основная метрика — {@code gc.alloc.rate.norm} (байт на запрос); запуск через {@link #main(String[])}
+ * включает профилировщик GC.
+ *
+ * @author surkov
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChatPayloadBenchmark {
+
+    /**
+     * Размер текста резюме (в символах).
+     */
+    @Param({"2000", "20000"})
+    private int textLength;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ChatPayloadWriter payloadWriter = new ChatPayloadWriter(objectMapper);
+    private String text;
+    private BufferedSink sink;
+
+    @Setup
+    public void setUp() {
+        StringBuilder builder = new StringBuilder(textLength);
+        String line = "Опыт работы: Java-разработчик, \"Spring Boot\", микросервисы.\n";
+        while (builder.length() < textLength) {
+            builder.append(line);
+        }
+        text = builder.substring(0, textLength);
+        sink = Okio.buffer(Okio.blackhole());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        sink.close();
+    }
+
+    @Benchmark
+    public BufferedSink objectMapperString() throws IOException {
+        GigaChatMessage systemMessage = new GigaChatMessage();
+        systemMessage.setRole("system");
+        systemMessage.setContent(SystemPrompt.ANALYZE_PROMPT_RU);
+        GigaChatMessage userMessage = new GigaChatMessage();
+        userMessage.setRole("user");
+        userMessage.setContent(text);
+        List<GigaChatMessage> messages = new ArrayList<>();
+        messages.add(systemMessage);
+        messages.add(userMessage);
+        GigaChatRequest payload = new GigaChatRequest();
+        payload.setModel(GigaModel.GIGA_MODEL_PRO);
+        payload.setMessages(messages);
+        payload.setStream(false);
+
+        RequestBody body = RequestBody.create(
+                objectMapper.writeValueAsString(payload),
+                MediaType.get("application/json; charset=utf-8")
+        );
+        body.writeTo(sink);
+        sink.emit();
+        return sink;
+    }
+
+    @Benchmark
+    public BufferedSink payloadWriter() throws IOException {
+        payloadWriter.body(SystemPrompt.ANALYZE_PROMPT_RU, text, GigaModel.GIGA_MODEL_PRO, false)
+                .writeTo(sink.outputStream());
+        sink.emit();
+        return sink;
+    }
+
+    /**
+     * Запускает бенчмарк с профилировщиком GC.
+     *
+     * @param args Не используются.
+     * @throws RunnerException ошибка выполнения бенчмарка.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ChatPayloadBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()
+        ).run();
+    }
+}
@@ -0,0 +1,117 @@
+package org.surkov.gigachatservice.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.AnalyzeResponse;
+import org.surkov.gigachatservice.utils.JsonCodecRegistry;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение чтения и записи DTO ответа анализа: вызовы {@link ObjectMapper} с разрешением типа
+ * при каждом обращении и заранее созданные читатели и писатели {@link JsonCodecRegistry},
+ * без модуля Blackbird и с ним.
+ *
+ * @author surkov
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonCodecBenchmark {
+
+    /**
+     * Конфигурация ObjectMapper.
+     */
+    @Param({"plain", "blackbird"})
+    private String mapper;
+
+    private ObjectMapper objectMapper;
+    private JsonCodecRegistry registry;
+    private AnalyzeResponse response;
+    private String json;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = new ObjectMapper();
+        if ("blackbird".equals(mapper)) {
+            objectMapper.registerModule(new BlackbirdModule());
+        }
+        registry = new JsonCodecRegistry(objectMapper);
+        response = new AnalyzeResponse(
+                82, 74, 65, 70,
+                List.of("Сократил время сборки на 40%", "Запустил платежный сервис", "Наставник трех разработчиков"),
+                List.of("education"),
+                List.of("Перерыв в работе 8 месяцев"),
+                "Оценки: структура 82/100, ясность изложения 74/100, стабильность карьеры 65/100."
+        );
+        json = objectMapper.writeValueAsString(response);
+    }
+
+    @Benchmark
+    public AnalyzeResponse readObjectMapper() throws JsonProcessingException {
+        return objectMapper.readValue(json, AnalyzeResponse.class);
+    }
+
+    @Benchmark
+    public AnalyzeResponse readRegistry() throws JsonProcessingException {
+        return registry.read(json, AnalyzeResponse.class);
+    }
+
+    @Benchmark
+    public String writeObjectMapper() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(response);
+    }
+
+    @Benchmark
+    public String writeRegistry() throws JsonProcessingException {
+        return registry.write(response);
+    }
+
+    @Benchmark
+    public Map<String, Object> readMapTypeReference() throws JsonProcessingException {
+        return objectMapper.readValue(json, new TypeReference<LinkedHashMap<String, Object>>() {
+        });
+    }
+
+    @Benchmark
+    public Map<String, Object> readMapRegistry() throws JsonProcessingException {
+        return registry.readMap(json);
+    }
+
+    /**
+     * Запускает бенчмарк с профилировщиком GC.
+     *
+     * @param args Не используются.
+     * @throws RunnerException ошибка выполнения бенчмарка.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JsonCodecBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()
+        ).run();
+    }
+}
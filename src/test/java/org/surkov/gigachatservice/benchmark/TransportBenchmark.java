@@ -0,0 +1,151 @@
+package org.surkov.gigachatservice.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.OkHttpClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.surkov.gigachatservice.config.GigaChatConfig;
+import org.surkov.gigachatservice.utils.ChatPayloadWriter;
+import org.surkov.gigachatservice.utils.GigaModel;
+import org.surkov.gigachatservice.utils.SystemPrompt;
+import org.surkov.gigachatservice.utils.transport.HttpTransport;
+import org.surkov.gigachatservice.utils.transport.JdkHttpTransport;
+import org.surkov.gigachatservice.utils.transport.OkHttpTransport;
+import org.surkov.gigachatservice.utils.transport.ResponseHandler;
+import org.surkov.gigachatservice.utils.transport.TransportRequest;
+
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение реализаций HTTP-транспорта ({@link OkHttpTransport} и {@link JdkHttpTransport})
+ * на полном цикле запроса к чату: запись тела {@link ChatPayloadWriter}, отправка, чтение ответа.
+ * Запросы идут к локальному серверу по HTTP/1.1 без TLS, поэтому бенчмарк сравнивает накладные
+ * расходы клиентов, а не HTTP/2 и возобновление TLS-сессий; итоговый выбор транспорта для
+ * развертывания стоит подтверждать нагрузочным тестом против GigaChat API.
+ *
+ * @author surkov
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class TransportBenchmark {
+
+    /**
+     * Ответ сервера, близкий по размеру к ответу анализа.
+     */
+    private static final byte[] COMPLETION = ("{\"choices\":[{\"message\":{\"role\":\"assistant\",\"content\":\""
+            + "{\\\"score\\\":82,\\\"missingSections\\\":[\\\"education\\\"]}".repeat(20)
+            + "\"},\"index\":0,\"finish_reason\":\"stop\"}],\"model\":\"GigaChat-Pro\","
+            + "\"usage\":{\"prompt_tokens\":512,\"completion_tokens\":256,\"total_tokens\":768}}")
+            .getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * Реализация транспорта.
+     */
+    @Param({"okhttp", "jdk"})
+    private String transport;
+
+    private HttpServer server;
+    private HttpTransport httpTransport;
+    private TransportRequest request;
+
+    private final ResponseHandler<Integer> handler = response -> {
+        try (InputStream body = response.body()) {
+            return body.readAllBytes().length;
+        }
+    };
+
+    @Setup
+    public void setUp() throws Exception {
+        // Без TCP_NODELAY встроенный сервер упирается в задержку подтверждений TCP, а не в клиента
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 128);
+        server.setExecutor(Executors.newFixedThreadPool(16));
+        server.createContext("/chat/completions", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, COMPLETION.length);
+            exchange.getResponseBody().write(COMPLETION);
+            exchange.close();
+        });
+        server.start();
+
+        GigaChatConfig config = new GigaChatConfig();
+        httpTransport = "jdk".equals(transport)
+                ? new JdkHttpTransport(
+                        SSLContext.getDefault(),
+                        config.getConnections(),
+                        config.getBulkhead(),
+                        Duration.ofSeconds(30),
+                        Duration.ofSeconds(30),
+                        new SimpleMeterRegistry())
+                : new OkHttpTransport(new OkHttpClient(), config.getBulkhead(), new SimpleMeterRegistry());
+
+        String text = "Опыт работы: Java-разработчик, \"Spring Boot\", микросервисы.\n".repeat(40);
+        request = TransportRequest.post(
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/chat/completions",
+                Map.of("Content-Type", "application/json; charset=utf-8", "Accept", "application/json"),
+                new ChatPayloadWriter(new ObjectMapper())
+                        .body(SystemPrompt.ANALYZE_PROMPT_RU, text, GigaModel.GIGA_MODEL_PRO, false)
+        );
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        httpTransport.close();
+        server.stop(0);
+    }
+
+    @Benchmark
+    public Integer sync() throws IOException {
+        return httpTransport.execute(request, handler);
+    }
+
+    @Benchmark
+    public Integer async() {
+        return httpTransport.executeAsync(GigaModel.GIGA_MODEL_PRO, request, handler).join();
+    }
+
+    /**
+     * Запускает бенчмарк с профилировщиком GC.
+     *
+     * @param args Не используются.
+     * @throws RunnerException ошибка выполнения бенчмарка.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TransportBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()
+        ).run();
+    }
+}
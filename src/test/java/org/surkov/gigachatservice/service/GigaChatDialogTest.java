@@ -0,0 +1,47 @@
+package org.surkov.gigachatservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.surkov.gigachatservice.config.GigaChatConfig;
+import org.surkov.gigachatservice.utils.ChatCompletionDecoder;
+import org.surkov.gigachatservice.utils.CredentialPool;
+import org.surkov.gigachatservice.utils.GigaChatApiClient;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class GigaChatDialogTest {
+
+    private final CredentialPool credentialPool = mock(CredentialPool.class);
+
+    @Test
+    void fetchesTokensOnWorkerNodes() {
+        dialog(GigaChatConfig.Jobs.Role.ALL).init();
+
+        verify(credentialPool).fetchAccessTokens();
+    }
+
+    @Test
+    void skipsTokensOnApiNodes() {
+        dialog(GigaChatConfig.Jobs.Role.API).init();
+
+        verify(credentialPool, never()).fetchAccessTokens();
+    }
+
+    private GigaChatDialog dialog(GigaChatConfig.Jobs.Role role) {
+        GigaChatConfig config = new GigaChatConfig();
+        config.setAuthUrl("https://localhost/oauth");
+        config.getJobs().setRole(role);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        return new GigaChatDialog(
+                config,
+                credentialPool,
+                mock(GigaChatApiClient.class),
+                new ChatCompletionDecoder(new ObjectMapper()),
+                meterRegistry,
+                new RequestCoalescer(meterRegistry)
+        );
+    }
+}
@@ -0,0 +1,87 @@
+package org.surkov.gigachatservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.surkov.gigachatservice.exception.ApiRequestException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestCoalescerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestCoalescer coalescer = new RequestCoalescer(meterRegistry);
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void deduplicatesConcurrentCallsAndReleasesKey() {
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+
+        CompletableFuture<String> first = coalescer.execute("key", () -> call(upstream));
+        CompletableFuture<String> second = coalescer.execute("key", () -> call(new CompletableFuture<>()));
+        assertThat(inflight()).isEqualTo(1);
+        upstream.complete("{}");
+
+        assertThat(first).isCompletedWithValue("{}");
+        assertThat(second).isCompletedWithValue("{}");
+        assertThat(calls).hasValue(1);
+        assertThat(meterRegistry.get("gigachat.singleflight.deduplicated").counter().count()).isEqualTo(1);
+        assertThat(inflight()).isZero();
+
+        coalescer.execute("key", () -> call(CompletableFuture.completedFuture("{}")));
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void propagatesErrorsToAllCallers() {
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+
+        CompletableFuture<String> first = coalescer.execute("key", () -> call(upstream));
+        CompletableFuture<String> second = coalescer.execute("key", () -> call(upstream));
+        upstream.completeExceptionally(new ApiRequestException("boom"));
+
+        assertThat(first).isCompletedExceptionally();
+        assertThat(second).isCompletedExceptionally();
+        assertThat(inflight()).isZero();
+    }
+
+    @Test
+    void releasesKeyWhenCallFailsToStart() {
+        CompletableFuture<String> result = coalescer.execute("key", () -> {
+            throw new ApiRequestException("boom");
+        });
+
+        assertThat(result).isCompletedExceptionally();
+        assertThat(inflight()).isZero();
+    }
+
+    @Test
+    void cancelsCallWhenLastCallerCancels() {
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+
+        CompletableFuture<String> first = coalescer.execute("key", () -> call(upstream));
+        CompletableFuture<String> second = coalescer.execute("key", () -> call(upstream));
+        first.cancel(true);
+        assertThat(upstream).isNotDone();
+        assertThat(second).isNotDone();
+
+        second.cancel(true);
+        assertThat(upstream).isCancelled();
+        assertThat(inflight()).isZero();
+
+        CompletableFuture<String> next = new CompletableFuture<>();
+        coalescer.execute("key", () -> call(next));
+        assertThat(calls).hasValue(2);
+    }
+
+    private CompletableFuture<String> call(CompletableFuture<String> future) {
+        calls.incrementAndGet();
+        return future;
+    }
+
+    private double inflight() {
+        return meterRegistry.get("gigachat.singleflight.inflight").gauge().value();
+    }
+}
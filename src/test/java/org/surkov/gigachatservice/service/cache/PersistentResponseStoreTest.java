@@ -0,0 +1,143 @@
+package org.surkov.gigachatservice.service.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.surkov.gigachatservice.config.GigaChatConfig;
+import org.surkov.gigachatservice.utils.RequestKey;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PersistentResponseStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void survivesReopen() {
+        GigaChatConfig config = config(1024 * 1024);
+        String key = RequestKey.hash("GigaChat", "prompt", "резюме");
+
+        PersistentResponseStore store = open(config);
+        assertThat(store.get(key)).isNull();
+        store.put(key, "{\"score\": 1}");
+        store.put(key, "{\"score\": 2}");
+        store.close();
+
+        PersistentResponseStore reopened = open(config);
+        assertThat(reopened.get(key)).isEqualTo("{\"score\": 2}");
+        assertThat(reopened.get(RequestKey.hash("GigaChat", "prompt", "другое"))).isNull();
+    }
+
+    @Test
+    void compactsWhenSegmentIsFull() throws Exception {
+        GigaChatConfig config = config(16 * 1024);
+        String stable = RequestKey.hash("GigaChat", "prompt", "stable");
+        String rewritten = RequestKey.hash("GigaChat", "prompt", "rewritten");
+        String value = "x".repeat(1000);
+
+        PersistentResponseStore store = open(config);
+        store.put(stable, "stable");
+        for (int i = 0; i < 100; i++) {
+            store.put(rewritten, value + i);
+        }
+
+        assertThat(store.get(stable)).isEqualTo("stable");
+        assertThat(store.get(rewritten)).isEqualTo(value + 99);
+        assertThat(Files.exists(dir.resolve("cache.seg.compact"))).isFalse();
+    }
+
+    @Test
+    void evictsOldestEntriesWhenSegmentIsFullOfLiveData() {
+        GigaChatConfig config = config(16 * 1024);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PersistentResponseStore store = new PersistentResponseStore(config, meterRegistry);
+        store.init();
+        String value = "x".repeat(1000);
+
+        for (int i = 0; i < 100; i++) {
+            store.put(RequestKey.hash("GigaChat", "prompt", "резюме " + i), value + i);
+        }
+
+        assertThat(store.get(RequestKey.hash("GigaChat", "prompt", "резюме 99"))).isEqualTo(value + 99);
+        assertThat(store.get(RequestKey.hash("GigaChat", "prompt", "резюме 0"))).isNull();
+        // Каждое уплотнение освобождает четверть файла, а не место под одну запись
+        double compactions = meterRegistry.get("gigachat.responses.persistent.compactions").counter().count();
+        assertThat(compactions).isBetween(1.0, 30.0);
+        assertThat(meterRegistry.get("gigachat.responses.persistent.evictions").counter().count())
+                .isGreaterThanOrEqualTo(3 * compactions);
+
+        store.close();
+        PersistentResponseStore reopened = open(config);
+        assertThat(reopened.get(RequestKey.hash("GigaChat", "prompt", "резюме 99"))).isEqualTo(value + 99);
+    }
+
+    @Test
+    void ignoresExpiredEntries() {
+        GigaChatConfig config = config(1024 * 1024);
+        config.getCache().getPersistent().setTtlMs(-1);
+        String key = RequestKey.hash("GigaChat", "prompt", "резюме");
+
+        PersistentResponseStore store = open(config);
+        store.put(key, "{}");
+
+        assertThat(store.get(key)).isNull();
+    }
+
+    @Test
+    void disablesItselfWhileAnotherInstanceHoldsTheFile() {
+        GigaChatConfig config = config(1024 * 1024);
+        String key = RequestKey.hash("GigaChat", "prompt", "резюме");
+
+        PersistentResponseStore owner = open(config);
+        owner.put(key, "{}");
+        PersistentResponseStore second = open(config);
+        second.put(key, "{\"score\": 2}");
+
+        assertThat(second.get(key)).isNull();
+        assertThat(owner.get(key)).isEqualTo("{}");
+
+        owner.close();
+        PersistentResponseStore next = open(config);
+        assertThat(next.get(key)).isEqualTo("{}");
+        next.close();
+    }
+
+    @Test
+    void treatsCorruptedRecordAsMiss() throws Exception {
+        GigaChatConfig config = config(1024 * 1024);
+        String key = RequestKey.hash("GigaChat", "prompt", "резюме");
+        PersistentResponseStore store = open(config);
+        store.put(key, "{\"score\": 1}");
+
+        // Первый байт ответа первой записи: заголовок файла (64 байта) и заголовок записи (52 байта)
+        try (FileChannel channel = FileChannel.open(dir.resolve("cache.seg"), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'['}), 64 + 52);
+        }
+
+        assertThat(store.get(key)).isNull();
+        store.close();
+    }
+
+    private GigaChatConfig config(int segmentSizeBytes) {
+        GigaChatConfig config = new GigaChatConfig();
+        GigaChatConfig.Cache.Persistent persistent = config.getCache().getPersistent();
+        persistent.setPath(dir.resolve("cache.seg").toString());
+        persistent.setSegmentSizeBytes(segmentSizeBytes);
+        persistent.setInitialIndexSlots(16);
+        persistent.setBloomFilterBits(1024);
+        return config;
+    }
+
+    private static PersistentResponseStore open(GigaChatConfig config) {
+        PersistentResponseStore store = new PersistentResponseStore(config, new SimpleMeterRegistry());
+        store.init();
+        return store;
+    }
+}
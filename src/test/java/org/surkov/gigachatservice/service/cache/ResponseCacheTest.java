@@ -0,0 +1,95 @@
+package org.surkov.gigachatservice.service.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.surkov.gigachatservice.config.GigaChatConfig;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ResponseCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PersistentResponseStore persistentStore = mock(PersistentResponseStore.class);
+    private final GigaChatConfig config = new GigaChatConfig();
+
+    @Test
+    void countsHitsAndMissesAndWritesBothLevels() {
+        ResponseCache cache = new ResponseCache(config, meterRegistry, persistentStore);
+
+        assertThat(cache.get("a")).isNull();
+        cache.put("a", "{\"score\": 1}");
+
+        assertThat(cache.get("a")).isEqualTo("{\"score\": 1}");
+        verify(persistentStore).put("a", "{\"score\": 1}");
+        verify(persistentStore, times(1)).get("a");
+        assertThat(gets("hit")).isEqualTo(1);
+        assertThat(gets("miss")).isEqualTo(1);
+    }
+
+    @Test
+    void promotesPersistentHitToMemory() {
+        when(persistentStore.get("a")).thenReturn("{\"score\": 2}");
+        ResponseCache cache = new ResponseCache(config, meterRegistry, persistentStore);
+
+        assertThat(cache.get("a")).isEqualTo("{\"score\": 2}");
+        assertThat(cache.get("a")).isEqualTo("{\"score\": 2}");
+
+        verify(persistentStore, times(1)).get("a");
+        assertThat(gets("miss")).isEqualTo(1);
+        assertThat(gets("hit")).isEqualTo(1);
+    }
+
+    @Test
+    void expiresEntriesAfterTtl() throws InterruptedException {
+        config.getCache().setTtlMs(50);
+        ResponseCache cache = new ResponseCache(config, meterRegistry, persistentStore);
+
+        cache.put("a", "{}");
+        assertThat(cache.get("a")).isEqualTo("{}");
+        Thread.sleep(100);
+
+        assertThat(cache.get("a")).isNull();
+    }
+
+    @Test
+    void evictsByResponseSize() throws InterruptedException {
+        // Вес записи: 128 байт накладных расходов + 2 байта на символ ответа
+        config.getCache().setMaxWeightBytes(10_000);
+        ResponseCache cache = new ResponseCache(config, meterRegistry, persistentStore);
+
+        cache.put("small", "x".repeat(2_000));
+        cache.put("large", "x".repeat(5_000));
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (evictions() < 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(evictions()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.eviction.weight").functionCounter().count()).isEqualTo(10_128);
+        assertThat(cache.get("small")).isNotNull();
+        assertThat(cache.get("large")).isNull();
+    }
+
+    @Test
+    void bypassesBothLevelsWhenDisabled() {
+        config.getCache().setEnabled(false);
+        ResponseCache cache = new ResponseCache(config, meterRegistry, persistentStore);
+
+        cache.put("a", "{}");
+
+        assertThat(cache.get("a")).isNull();
+        verify(persistentStore, times(0)).put("a", "{}");
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets").tag("result", result).functionCounter().count();
+    }
+
+    private double evictions() {
+        return meterRegistry.get("cache.evictions").functionCounter().count();
+    }
+}
@@ -0,0 +1,175 @@
+package org.surkov.gigachatservice.service.hr_analyzer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.surkov.gigachatservice.config.GigaChatConfig;
+import org.surkov.gigachatservice.dto.ChatCompletion;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.AnalysisResult;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.StructureResponse;
+import org.surkov.gigachatservice.service.GigaChatDialog;
+import org.surkov.gigachatservice.service.RequestCoalescer;
+import org.surkov.gigachatservice.service.cache.ResponseCache;
+import org.surkov.gigachatservice.service.routing.ModelRouter;
+import org.surkov.gigachatservice.utils.ChatCompletionDecoder;
+import org.surkov.gigachatservice.utils.CredentialPool;
+import org.surkov.gigachatservice.utils.GigaChatApiClient;
+import org.surkov.gigachatservice.utils.GigaModel;
+import org.surkov.gigachatservice.utils.JsonCodecRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AnalyzeUtilsTest {
+
+    private final GigaChatApiClient apiClient = mock(GigaChatApiClient.class);
+    private final ModelRouter modelRouter = mock(ModelRouter.class);
+    private final HistoryService historyService = mock(HistoryService.class);
+    private AnalyzeUtils analyzeUtils;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        GigaChatDialog dialog = new GigaChatDialog(
+                new GigaChatConfig(),
+                mock(CredentialPool.class),
+                apiClient,
+                new ChatCompletionDecoder(objectMapper),
+                meterRegistry,
+                new RequestCoalescer(meterRegistry)
+        );
+        analyzeUtils = new AnalyzeUtils(
+                new GigaChatConfig(),
+                dialog,
+                objectMapper,
+                historyService,
+                mock(ResponseCache.class),
+                modelRouter,
+                new JsonCodecRegistry(objectMapper)
+        );
+        when(modelRouter.route(anyString(), anyString(), anyInt())).thenReturn(GigaModel.GIGA_MODEL_LITE);
+    }
+
+    @Test
+    void cancellingRequestCancelsApiCall() {
+        CompletableFuture<ChatCompletion> call = new CompletableFuture<>();
+        when(apiClient.getResponseAsync(anyString(), anyString(), anyString())).thenReturn(call);
+
+        CompletableFuture<AnalysisResult<StructureResponse>> result = analyzeUtils.processRequest(
+                "/chat/structure", "resume", "ru", "prompt", "промпт",
+                GigaModel.GIGA_MODEL_LITE, StructureResponse.class
+        );
+        result.cancel(true);
+
+        assertThat(call).isCancelled();
+    }
+
+    @Test
+    void cancellingStreamingRequestCancelsApiCall() {
+        CompletableFuture<Void> call = new CompletableFuture<>();
+        when(apiClient.getResponseStreamAsync(anyString(), anyString(), anyString(), any())).thenReturn(call);
+
+        CompletableFuture<AnalysisResult<StructureResponse>> result = analyzeUtils.processRequest(
+                "/chat/structure", "resume", "ru", "prompt", "промпт",
+                GigaModel.GIGA_MODEL_LITE, StructureResponse.class, delta -> {
+                }
+        );
+        result.cancel(true);
+
+        assertThat(call).isCancelled();
+    }
+
+    @AfterEach
+    void tearDown() {
+        analyzeUtils.shutdown();
+    }
+
+    @Test
+    void writesHistoryOutsideTransportThread() throws Exception {
+        CompletableFuture<ChatCompletion> call = new CompletableFuture<>();
+        when(apiClient.getResponseAsync(anyString(), anyString(), anyString())).thenReturn(call);
+        AtomicReference<String> historyThread = new AtomicReference<>();
+        doAnswer(invocation -> {
+            historyThread.set(Thread.currentThread().getName());
+            return null;
+        }).when(historyService).saveHistory(any(), any(), any(), any(), any());
+
+        CompletableFuture<AnalysisResult<StructureResponse>> result = analyzeUtils.processRequest(
+                "/chat/structure", "resume", "ru", "prompt", "промпт",
+                GigaModel.GIGA_MODEL_LITE, StructureResponse.class
+        );
+        Thread transport = new Thread(() -> call.complete(new ChatCompletion("{}", null)), "transport");
+        transport.start();
+        transport.join();
+
+        assertThat(result.join().model()).isEqualTo(GigaModel.GIGA_MODEL_LITE);
+        assertThat(historyThread.get()).startsWith("gigachat-response-");
+    }
+
+    @Test
+    void refinedResultCancelsDraftAndIsTheOnlyOneSaved() {
+        CompletableFuture<ChatCompletion> draftCall = new CompletableFuture<>();
+        CompletableFuture<ChatCompletion> refinedCall = new CompletableFuture<>();
+        ProgressiveAnalysis<StructureResponse> analysis = processProgressive(draftCall, refinedCall);
+
+        refinedCall.complete(new ChatCompletion("{}", null));
+
+        assertThat(analysis.result().join().model()).isEqualTo(GigaModel.GIGA_MODEL_PRO);
+        assertThat(draftCall).isCancelled();
+        verify(historyService).saveHistory(anyString(), anyString(), any(), anyString(), eq(GigaModel.GIGA_MODEL_PRO));
+        verify(historyService, never()).saveHistory(any(), any(), any(), any(), eq(GigaModel.GIGA_MODEL_LITE));
+    }
+
+    @Test
+    void draftIsSavedWhenItBecomesTheResult() {
+        CompletableFuture<ChatCompletion> draftCall = new CompletableFuture<>();
+        CompletableFuture<ChatCompletion> refinedCall = new CompletableFuture<>();
+        ProgressiveAnalysis<StructureResponse> analysis = processProgressive(draftCall, refinedCall);
+
+        draftCall.complete(new ChatCompletion("{}", null));
+        verify(historyService, never()).saveHistory(any(), any(), any(), any(), any());
+        refinedCall.completeExceptionally(new IllegalStateException("refined failed"));
+
+        assertThat(analysis.result().join().model()).isEqualTo(GigaModel.GIGA_MODEL_LITE);
+        verify(historyService).saveHistory(anyString(), anyString(), any(), anyString(), eq(GigaModel.GIGA_MODEL_LITE));
+    }
+
+    @Test
+    void cancellingProgressiveResultCancelsBothCalls() {
+        CompletableFuture<ChatCompletion> draftCall = new CompletableFuture<>();
+        CompletableFuture<ChatCompletion> refinedCall = new CompletableFuture<>();
+        ProgressiveAnalysis<StructureResponse> analysis = processProgressive(draftCall, refinedCall);
+
+        analysis.result().cancel(true);
+
+        assertThat(draftCall).isCancelled();
+        assertThat(refinedCall).isCancelled();
+    }
+
+    private ProgressiveAnalysis<StructureResponse> processProgressive(
+            CompletableFuture<ChatCompletion> draftCall,
+            CompletableFuture<ChatCompletion> refinedCall
+    ) {
+        when(modelRouter.route(anyString(), anyString(), anyInt())).thenReturn(GigaModel.GIGA_MODEL_PRO);
+        when(apiClient.getResponseAsync(anyString(), anyString(), eq(GigaModel.GIGA_MODEL_LITE))).thenReturn(draftCall);
+        when(apiClient.getResponseAsync(anyString(), anyString(), eq(GigaModel.GIGA_MODEL_PRO))).thenReturn(refinedCall);
+        return analyzeUtils.processProgressive(
+                "/chat/structure", "resume", "ru", "prompt", "промпт",
+                GigaModel.GIGA_MODEL_LITE, GigaModel.GIGA_MODEL_PRO, StructureResponse.class
+        );
+    }
+}
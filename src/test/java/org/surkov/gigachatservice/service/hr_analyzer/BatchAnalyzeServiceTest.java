@@ -0,0 +1,152 @@
+package org.surkov.gigachatservice.service.hr_analyzer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.surkov.gigachatservice.config.GigaChatConfig;
+import org.surkov.gigachatservice.dto.hr_analyzer.request.AnalyzeRequest;
+import org.surkov.gigachatservice.dto.hr_analyzer.request.BatchAnalyzeItem;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.AnalysisResult;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.AnalyzeResponse;
+import org.surkov.gigachatservice.entity.hr_analyzer.History;
+import org.surkov.gigachatservice.service.jobs.JobQueueClient;
+import org.surkov.gigachatservice.utils.JsonCodecRegistry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BatchAnalyzeServiceTest {
+
+    private static final AnalyzeResponse RESPONSE =
+            new AnalyzeResponse(80, 70, 60, null, List.of(), List.of(), List.of(), "ok");
+
+    private final AnalyzeUtils analyzeUtils = mock(AnalyzeUtils.class);
+    private final HistoryService historyService = mock(HistoryService.class);
+    private final Map<String, CompletableFuture<AnalysisResult<AnalyzeResponse>>> calls = new ConcurrentHashMap<>();
+    private BatchAnalyzeService service;
+
+    @BeforeEach
+    void setUp() {
+        GigaChatConfig config = new GigaChatConfig();
+        config.getBatch().setMaxParallelism(2);
+        config.getBatch().setHistoryFlushSize(2);
+        service = new BatchAnalyzeService(
+                config,
+                analyzeUtils,
+                mock(JobQueueClient.class),
+                historyService,
+                new JsonCodecRegistry(new ObjectMapper()),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new SimpleMeterRegistry()
+        );
+        when(analyzeUtils.decodeBase64(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(analyzeUtils.buildResumeInput(anyString(), any(), any(), any()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(analyzeUtils.processBranch(eq("/chat/analyze"), anyString(), any(), any(), any(), any(), eq(AnalyzeResponse.class)))
+                .thenAnswer(invocation -> {
+                    CompletableFuture<AnalysisResult<AnalyzeResponse>> call = new CompletableFuture<>();
+                    calls.put(invocation.getArgument(1), call);
+                    return call;
+                });
+        when(historyService.createHistory(anyString(), anyString(), any(), anyString(), anyString()))
+                .thenAnswer(invocation -> new History());
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void limitsParallelismAndStreamsInCompletionOrder() throws InterruptedException {
+        RecordingListener listener = new RecordingListener();
+        CompletableFuture<Void> done = service.process(
+                IntStream.range(0, 4).mapToObj(i -> item("id-" + i, "resume-" + i)).iterator(),
+                listener
+        );
+
+        waitForCalls(2);
+        Thread.sleep(50);
+        assertThat(calls).containsOnlyKeys("resume-0", "resume-1");
+
+        complete("resume-1");
+        waitForCalls(3);
+        complete("resume-0");
+        waitForCalls(4);
+        complete("resume-3");
+        complete("resume-2");
+
+        assertThat(done).succeedsWithin(Duration.ofSeconds(5));
+        assertThat(listener.results).containsExactly("id-1", "id-0", "id-3", "id-2");
+        verify(historyService, times(2)).saveAll(anyList());
+    }
+
+    @Test
+    void reportsInvalidAndFailedItemsWithoutStoppingBatch() {
+        RecordingListener listener = new RecordingListener();
+        CompletableFuture<Void> done = service.process(
+                List.of(item("bad", ""), item("failed", "resume-1"), item("good", "resume-2")).iterator(),
+                listener
+        );
+
+        waitForCalls(2);
+        calls.get("resume-1").completeExceptionally(new IllegalStateException("boom"));
+        complete("resume-2");
+
+        assertThat(done).succeedsWithin(Duration.ofSeconds(5));
+        assertThat(listener.results).containsExactly("good");
+        assertThat(listener.errors).containsKeys("bad", "failed");
+        assertThat(listener.errors.get("bad")).isInstanceOf(ConstraintViolationException.class);
+    }
+
+    private void complete(String text) {
+        calls.get(text).complete(new AnalysisResult<>(RESPONSE, "GigaChat-Pro"));
+    }
+
+    private void waitForCalls(int count) {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (calls.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(calls).hasSize(count);
+    }
+
+    private static BatchAnalyzeItem item(String id, String text) {
+        return new BatchAnalyzeItem(id, new AnalyzeRequest(text, null, "ru", null, null));
+    }
+
+    private static final class RecordingListener implements BatchListener {
+
+        private final List<String> results = new ArrayList<>();
+        private final Map<String, Throwable> errors = new ConcurrentHashMap<>();
+
+        @Override
+        public synchronized void onResult(String id, AnalysisResult<AnalyzeResponse> result) {
+            results.add(id);
+        }
+
+        @Override
+        public void onError(String id, Throwable error) {
+            errors.put(id, error);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.surkov.gigachatservice.service.hr_analyzer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.surkov.gigachatservice.config.GigaChatConfig;
+import org.surkov.gigachatservice.dto.hr_analyzer.request.AnalyzeRequest;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.AnalysisResult;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.AnalyzeResponse;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.HighlightsResponse;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.StabilityResponse;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.StructureResponse;
+import org.surkov.gigachatservice.exception.ApiRequestException;
+import org.surkov.gigachatservice.utils.JsonCodecRegistry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FanOutAnalyzerTest {
+
+    private final AnalyzeUtils analyzeUtils = mock(AnalyzeUtils.class);
+    private final HistoryService historyService = mock(HistoryService.class);
+    private FanOutAnalyzer analyzer;
+
+    @BeforeEach
+    void setUp() {
+        GigaChatConfig config = new GigaChatConfig();
+        config.getComplexAnalysis().setBranchTimeoutMs(200);
+        analyzer = new FanOutAnalyzer(config, analyzeUtils, historyService, new JsonCodecRegistry(new ObjectMapper()));
+        when(analyzeUtils.decodeBase64(anyString())).thenReturn("resume");
+        when(analyzeUtils.buildResumeInput(anyString(), any(), any(), any())).thenReturn("input");
+    }
+
+    @Test
+    void mergesBranchesAndDropsFailedOnes() {
+        branch("/chat/structure", CompletableFuture.completedFuture(new AnalysisResult<>(
+                new StructureResponse(null, 80, List.of("courses")), "GigaChat")));
+        branch("/chat/clarity", CompletableFuture.failedFuture(new ApiRequestException("boom")));
+        branch("/chat/stability", CompletableFuture.completedFuture(new AnalysisResult<>(
+                new StabilityResponse(List.of(), 60, List.of("gap")), "GigaChat")));
+        CompletableFuture<AnalysisResult<HighlightsResponse>> slow = new CompletableFuture<>();
+        branch("/chat/highlights", slow);
+
+        CompletableFuture<AnalysisResult<AnalyzeResponse>> result =
+                analyzer.analyze(new AnalyzeRequest("cmVzdW1l", null, "ru", null, null));
+
+        AnalysisResult<AnalyzeResponse> merged = result.join();
+        assertThat(slow).isCancelled();
+        assertThat(merged.model()).isEqualTo("GigaChat");
+        assertThat(merged.response().structureScore()).isEqualTo(80);
+        assertThat(merged.response().clarityScore()).isZero();
+        assertThat(merged.response().stabilityScore()).isEqualTo(60);
+        assertThat(merged.response().matchScore()).isNull();
+        assertThat(merged.response().missingSections()).containsExactly("courses");
+        assertThat(merged.response().riskFactors()).containsExactly("gap");
+        assertThat(merged.response().keyAchievements()).isEmpty();
+        assertThat(merged.response().summary()).contains("ясность изложения", "ключевые достижения");
+        verify(historyService).saveHistory(eq("/chat/analyze"), eq("input"), isNull(), anyString(), eq("GigaChat"));
+    }
+
+    @Test
+    void failsWhenAllBranchesFail() {
+        for (String endpoint : List.of("/chat/structure", "/chat/clarity", "/chat/stability", "/chat/highlights")) {
+            branch(endpoint, CompletableFuture.failedFuture(new ApiRequestException("boom")));
+        }
+
+        assertThat(analyzer.analyze(new AnalyzeRequest("cmVzdW1l", null, "ru", null, null)))
+                .failsWithin(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void cancellingAnalysisCancelsAllBranches() {
+        List<CompletableFuture<AnalysisResult<?>>> calls = new ArrayList<>();
+        for (String endpoint : List.of("/chat/structure", "/chat/clarity", "/chat/stability", "/chat/highlights")) {
+            CompletableFuture<AnalysisResult<?>> call = new CompletableFuture<>();
+            calls.add(call);
+            branch(endpoint, call);
+        }
+
+        analyzer.analyze(new AnalyzeRequest("cmVzdW1l", null, "ru", null, null)).cancel(true);
+
+        assertThat(calls).allMatch(CompletableFuture::isCancelled);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void branch(String endpoint, CompletableFuture<? extends AnalysisResult<?>> future) {
+        when(analyzeUtils.processBranch(eq(endpoint), anyString(), any(), any(), any(), any(), any()))
+                .thenReturn((CompletableFuture) future);
+    }
+}
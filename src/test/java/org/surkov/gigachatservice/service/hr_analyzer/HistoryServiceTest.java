@@ -0,0 +1,55 @@
+package org.surkov.gigachatservice.service.hr_analyzer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.surkov.gigachatservice.entity.hr_analyzer.History;
+import org.surkov.gigachatservice.repository.hr_analyzer.HistoryRepository;
+import org.surkov.gigachatservice.utils.JsonCodecRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class HistoryServiceTest {
+
+    private static final int RECORDS = 120;
+
+    @Autowired
+    private HistoryRepository historyRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private HistoryService historyService;
+
+    @BeforeEach
+    void setUp() {
+        historyService = new HistoryService(historyRepository, new JsonCodecRegistry(new ObjectMapper()));
+    }
+
+    @Test
+    void savesRecordsInJdbcBatches() {
+        List<History> records = new ArrayList<>();
+        for (int i = 0; i < RECORDS; i++) {
+            records.add(historyService.createHistory("/chat/structure", "resume " + i, null, "{}", "GigaChat"));
+        }
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        historyService.saveAll(records);
+        entityManager.flush();
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(RECORDS);
+        // 3 пакета вставок по 50 записей и 3 обращения к последовательности (блоки по 50 идентификаторов)
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(6);
+        assertThat(historyRepository.count()).isEqualTo(RECORDS);
+    }
+}
@@ -0,0 +1,97 @@
+package org.surkov.gigachatservice.service.jobs;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.surkov.gigachatservice.config.GigaChatConfig;
+import org.surkov.gigachatservice.dto.hr_analyzer.request.StructureRequest;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.AnalysisResult;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.JobResponse;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.StructureResponse;
+import org.surkov.gigachatservice.entity.hr_analyzer.AnalysisJob;
+import org.surkov.gigachatservice.entity.hr_analyzer.JobStatus;
+import org.surkov.gigachatservice.entity.hr_analyzer.JobType;
+import org.surkov.gigachatservice.exception.ServiceUnavailableException;
+import org.surkov.gigachatservice.utils.JsonCodecRegistry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JobQueueClientTest {
+
+    private static final StructureRequest REQUEST = new StructureRequest("dGV4dA==", "ru");
+
+    private final JobService jobService = mock(JobService.class);
+    private final GigaChatConfig config = new GigaChatConfig();
+    private JobQueueClient client;
+
+    @BeforeEach
+    void setUp() {
+        config.getJobs().setRole(GigaChatConfig.Jobs.Role.API);
+        JobCodec jobCodec = new JobCodec(new JsonCodecRegistry(new ObjectMapper()), Validation.buildDefaultValidatorFactory().getValidator());
+        client = new JobQueueClient(config, jobService, jobCodec);
+        when(jobService.enqueue(eq(JobType.STRUCTURE), any()))
+                .thenReturn(new JobResponse("job-1", JobType.STRUCTURE, JobStatus.QUEUED, 0, null, null, null, null, null));
+    }
+
+    @Test
+    void completesWhenWorkerStoresResult() {
+        AnalysisJob job = new AnalysisJob();
+        job.setId("job-1");
+        job.setStatus(JobStatus.SUCCEEDED);
+        job.setModel("GigaChat");
+        job.setResultJson("{\"score\":90}");
+
+        var future = client.execute(JobType.STRUCTURE, REQUEST, StructureResponse.class);
+        assertThat(future).isNotDone();
+        when(jobService.findFinished(anyCollection())).thenReturn(List.of(job));
+        client.poll();
+
+        AnalysisResult<StructureResponse> result = future.join();
+        assertThat(result.model()).isEqualTo("GigaChat");
+        assertThat(result.response().score()).isEqualTo(90);
+    }
+
+    @Test
+    void cancelsJobWhenNotCompletedInTime() {
+        config.getJobs().setAwaitTimeoutMs(10);
+
+        var future = client.execute(JobType.STRUCTURE, REQUEST, StructureResponse.class);
+
+        assertThat(future).failsWithin(Duration.ofSeconds(5))
+                .withThrowableOfType(Exception.class)
+                .withCauseInstanceOf(ServiceUnavailableException.class);
+        verify(jobService, timeout(1000)).cancel("job-1");
+    }
+
+    @Test
+    void pollsAwaitedJobsInChunks() {
+        for (int i = 0; i < 1_200; i++) {
+            String id = "job-" + i;
+            when(jobService.enqueue(eq(JobType.STRUCTURE), any()))
+                    .thenReturn(new JobResponse(id, JobType.STRUCTURE, JobStatus.QUEUED, 0, null, null, null, null, null));
+            client.execute(JobType.STRUCTURE, REQUEST, StructureResponse.class);
+        }
+        List<Integer> chunkSizes = new ArrayList<>();
+        when(jobService.findFinished(anyCollection())).thenAnswer(invocation -> {
+            chunkSizes.add(invocation.<Collection<String>>getArgument(0).size());
+            return List.of();
+        });
+
+        client.poll();
+
+        assertThat(chunkSizes).containsExactly(500, 500, 200);
+    }
+}
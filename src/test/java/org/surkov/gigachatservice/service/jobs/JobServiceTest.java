@@ -0,0 +1,110 @@
+package org.surkov.gigachatservice.service.jobs;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.surkov.gigachatservice.config.GigaChatConfig;
+import org.surkov.gigachatservice.dto.hr_analyzer.request.JobSubmitRequest;
+import org.surkov.gigachatservice.dto.hr_analyzer.request.StructureRequest;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.JobResponse;
+import org.surkov.gigachatservice.entity.hr_analyzer.AnalysisJob;
+import org.surkov.gigachatservice.entity.hr_analyzer.JobStatus;
+import org.surkov.gigachatservice.entity.hr_analyzer.JobType;
+import org.surkov.gigachatservice.repository.hr_analyzer.AnalysisJobRepository;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+class JobServiceTest {
+
+    @Autowired
+    private AnalysisJobRepository jobRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final JobCodec jobCodec = mock(JobCodec.class);
+    private JobService jobService;
+
+    @BeforeEach
+    void setUp() {
+        GigaChatConfig config = new GigaChatConfig();
+        config.getJobs().setMaxAttempts(2);
+        config.getJobs().setRetryDelayMs(0);
+        jobService = new JobService(config, jobRepository, jobCodec);
+        when(jobCodec.parse(any())).thenReturn(new StructureRequest("dGV4dA==", "ru"));
+        when(jobCodec.write(any())).thenReturn("{}");
+    }
+
+    @Test
+    void claimsQueuedJobsOnce() {
+        String first = submit();
+        String second = submit();
+
+        List<AnalysisJob> claimed = jobService.claim("worker-1", 10);
+
+        assertThat(claimed).extracting(AnalysisJob::getId).containsExactlyInAnyOrder(first, second);
+        assertThat(claimed).allSatisfy(job -> {
+            assertThat(job.getStatus()).isEqualTo(JobStatus.RUNNING);
+            assertThat(job.getLeaseOwner()).isEqualTo("worker-1");
+            assertThat(job.getAttempts()).isEqualTo(1);
+        });
+        assertThat(jobService.claim("worker-2", 10)).isEmpty();
+    }
+
+    @Test
+    void completesOnlyWhileHoldingLease() {
+        String id = submit();
+        jobService.claim("worker-1", 1);
+
+        jobService.cancel(id);
+        jobService.complete(id, "worker-1", "GigaChat", "{}");
+
+        assertThat(jobService.findLost("worker-1", List.of(id))).containsExactly(id);
+        assertThat(jobService.get(id).status()).isEqualTo(JobStatus.CANCELLED);
+    }
+
+    @Test
+    void retriesThenMovesToDeadLetter() {
+        String id = submit();
+
+        jobService.claim("worker-1", 1);
+        jobService.fail(id, "worker-1", 1, new IllegalStateException("boom"));
+        entityManager.clear();
+        assertThat(jobService.get(id).status()).isEqualTo(JobStatus.QUEUED);
+
+        jobService.claim("worker-1", 1);
+        jobService.fail(id, "worker-1", 2, new IllegalStateException("boom"));
+        entityManager.clear();
+        JobResponse job = jobService.get(id);
+        assertThat(job.status()).isEqualTo(JobStatus.DEAD);
+        assertThat(job.error()).contains("boom");
+    }
+
+    @Test
+    void recoversJobsWithExpiredLease() {
+        String id = submit();
+        jobService.claim("crashed", 1);
+        AnalysisJob job = jobRepository.findById(id).orElseThrow();
+        job.setLeaseUntil(Instant.now().minusSeconds(1));
+        jobRepository.saveAndFlush(job);
+
+        assertThat(jobService.recoverExpired()).isEqualTo(1);
+        entityManager.clear();
+
+        assertThat(jobService.get(id).status()).isEqualTo(JobStatus.QUEUED);
+        assertThat(jobService.claim("worker-1", 1)).extracting(AnalysisJob::getId).containsExactly(id);
+    }
+
+    private String submit() {
+        return jobService.submit(new JobSubmitRequest(JobType.STRUCTURE, null)).id();
+    }
+}
@@ -0,0 +1,80 @@
+package org.surkov.gigachatservice.service.routing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.surkov.gigachatservice.config.GigaChatConfig;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ModelRouterTest {
+
+    private static final String ENDPOINT = "/chat/highlights";
+
+    @Test
+    void usesDefaultModelWithoutPolicy() {
+        ModelRouter router = new ModelRouter(config(60_000), new SimpleMeterRegistry());
+
+        assertThat(router.route("/chat/structure", "GigaChat", 100)).isEqualTo("GigaChat");
+    }
+
+    @Test
+    void degradesWhenPreferredModelViolatesSlo() {
+        ModelRouter router = new ModelRouter(config(60_000), new SimpleMeterRegistry());
+        assertThat(router.route(ENDPOINT, "GigaChat-Max", 5_000)).isEqualTo("GigaChat-Max");
+
+        router.record("GigaChat-Max", 30_000, true);
+
+        assertThat(router.route(ENDPOINT, "GigaChat-Max", 5_000)).isEqualTo("GigaChat-Max");
+        assertThat(router.route(ENDPOINT, "GigaChat-Max", 5_000)).isEqualTo("GigaChat-Pro");
+
+        router.record("GigaChat-Pro", 5_000, false);
+        router.record("GigaChat-Pro", 5_000, false);
+        router.record("GigaChat-Pro", 5_000, false);
+        router.record("GigaChat-Pro", 5_000, false);
+
+        assertThat(router.route(ENDPOINT, "GigaChat-Max", 5_000)).isEqualTo("GigaChat-Pro");
+        assertThat(router.route(ENDPOINT, "GigaChat-Max", 5_000)).isEqualTo("GigaChat");
+    }
+
+    @Test
+    void returnsToPreferredModelAfterRecovery() {
+        ModelRouter router = new ModelRouter(config(0), new SimpleMeterRegistry());
+        router.record("GigaChat-Max", 30_000, true);
+
+        for (int i = 0; i < 20; i++) {
+            router.record("GigaChat-Max", 1_000, true);
+        }
+
+        assertThat(router.route(ENDPOINT, "GigaChat-Max", 5_000)).isEqualTo("GigaChat-Max");
+    }
+
+    @Test
+    void startsShortInputsFromFasterModel() {
+        ModelRouter router = new ModelRouter(config(60_000), new SimpleMeterRegistry());
+
+        assertThat(router.route(ENDPOINT, "GigaChat-Max", 800)).isEqualTo("GigaChat");
+        assertThat(router.route(ENDPOINT, "GigaChat-Max", 1_500)).isEqualTo("GigaChat-Pro");
+        assertThat(router.route(ENDPOINT, "GigaChat-Max", 5_000)).isEqualTo("GigaChat-Max");
+    }
+
+    private static GigaChatConfig config(long probeIntervalMs) {
+        GigaChatConfig.RoutingPolicy policy = new GigaChatConfig.RoutingPolicy();
+        policy.setEndpoint(ENDPOINT);
+        policy.setModels(List.of("GigaChat-Max", "GigaChat-Pro", "GigaChat"));
+        policy.setLatencySloMs(20_000);
+        policy.setTiers(List.of(tier(1_000, "GigaChat"), tier(2_000, "GigaChat-Pro")));
+        GigaChatConfig config = new GigaChatConfig();
+        config.getRouting().setProbeIntervalMs(probeIntervalMs);
+        config.getRouting().setPolicies(List.of(policy));
+        return config;
+    }
+
+    private static GigaChatConfig.RoutingTier tier(int maxInputTokens, String model) {
+        GigaChatConfig.RoutingTier tier = new GigaChatConfig.RoutingTier();
+        tier.setMaxInputTokens(maxInputTokens);
+        tier.setModel(model);
+        return tier;
+    }
+}
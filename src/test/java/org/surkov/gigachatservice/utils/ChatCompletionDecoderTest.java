@@ -0,0 +1,51 @@
+package org.surkov.gigachatservice.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.surkov.gigachatservice.dto.ChatCompletion;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChatCompletionDecoderTest {
+
+    private final ChatCompletionDecoder decoder = new ChatCompletionDecoder(new ObjectMapper());
+
+    @Test
+    void extractsFirstChoiceContentAndUsage() throws IOException {
+        String body = """
+                {"id":"1","choices":[
+                  {"message":{"role":"assistant","content":"{\\"score\\": 90}","functions_state_id":{"a":[1,2]}},
+                   "index":0,"finish_reason":"stop"},
+                  {"message":{"role":"assistant","content":"second"},"index":1}],
+                 "created":1,"model":"GigaChat-Pro","object":"chat.completion",
+                 "usage":{"prompt_tokens":120,"completion_tokens":30,"total_tokens":150,"precached_prompt_tokens":0}}
+                """;
+
+        ChatCompletion completion = decoder.decode(stream(body));
+
+        assertThat(completion.content()).isEqualTo("{\"score\": 90}");
+        assertThat(completion.usage()).isEqualTo(new ChatCompletion.Usage(120, 30, 150));
+    }
+
+    @Test
+    void extractsStreamDelta() throws IOException {
+        assertThat(decoder.decodeDelta("{\"choices\":[{\"delta\":{\"content\":\"Оце\"},\"index\":0}]}"))
+                .isEqualTo("Оце");
+        assertThat(decoder.decodeDelta("{\"choices\":[{\"delta\":{\"role\":\"assistant\"}}]}")).isEmpty();
+    }
+
+    @Test
+    void rejectsNonJsonBody() throws IOException {
+        assertThat(decoder.decode(stream("{\"choices\":[]}")).content()).isNull();
+        assertThatThrownBy(() -> decoder.decode(stream("Internal error"))).isInstanceOf(IOException.class);
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,61 @@
+package org.surkov.gigachatservice.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okio.Buffer;
+import org.junit.jupiter.api.Test;
+import org.surkov.gigachatservice.dto.GigaChatMessage;
+import org.surkov.gigachatservice.dto.GigaChatRequest;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatPayloadWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ChatPayloadWriter writer = new ChatPayloadWriter(objectMapper);
+
+    @Test
+    void matchesObjectMapperSerialization() throws IOException {
+        String text = "Опыт: \"Java\"\n\tКонтакты: a\\b \u0001 😀";
+
+        assertThat(write(SystemPrompt.ANALYZE_PROMPT_RU, text, GigaModel.GIGA_MODEL_PRO, false))
+                .isEqualTo(expected(SystemPrompt.ANALYZE_PROMPT_RU, text, GigaModel.GIGA_MODEL_PRO, false));
+        assertThat(write("Custom prompt", text, "GigaChat-2", true))
+                .isEqualTo(expected("Custom prompt", text, "GigaChat-2", true));
+    }
+
+    @Test
+    void bodyCanBeWrittenRepeatedly() throws IOException {
+        var body = writer.body(SystemPrompt.STRUCTURE_PROMPT_EN, "resume", GigaModel.GIGA_MODEL_LITE, false);
+        Buffer first = new Buffer();
+        Buffer second = new Buffer();
+
+        body.writeTo(first.outputStream());
+        body.writeTo(second.outputStream());
+
+        assertThat(first.readUtf8()).isEqualTo(second.readUtf8())
+                .isEqualTo(expected(SystemPrompt.STRUCTURE_PROMPT_EN, "resume", GigaModel.GIGA_MODEL_LITE, false));
+    }
+
+    private String write(String systemPrompt, String text, String model, boolean stream) throws IOException {
+        Buffer buffer = new Buffer();
+        writer.write(buffer.outputStream(), systemPrompt, text, model, stream);
+        return buffer.readUtf8();
+    }
+
+    private String expected(String systemPrompt, String text, String model, boolean stream) throws IOException {
+        GigaChatMessage system = new GigaChatMessage();
+        system.setRole("system");
+        system.setContent(systemPrompt);
+        GigaChatMessage user = new GigaChatMessage();
+        user.setRole("user");
+        user.setContent(text);
+        GigaChatRequest request = new GigaChatRequest();
+        request.setModel(model);
+        request.setMessages(List.of(system, user));
+        request.setStream(stream);
+        return objectMapper.writeValueAsString(request);
+    }
+}
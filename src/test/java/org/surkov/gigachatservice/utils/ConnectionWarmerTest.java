@@ -0,0 +1,53 @@
+package org.surkov.gigachatservice.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.surkov.gigachatservice.config.GigaChatConfig;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConnectionWarmerTest {
+
+    private static final String API_URL = "https://api.example/api/v1/chat/completions";
+    private static final String AUTH_URL = "https://auth.example:9443/api/v2/oauth";
+
+    private final HttpClientWrapper httpClientWrapper = mock(HttpClientWrapper.class);
+    private final GigaChatConfig config = new GigaChatConfig();
+
+    @BeforeEach
+    void setUp() {
+        config.setApiUrl(API_URL);
+        config.setAuthUrl(AUTH_URL);
+        when(httpClientWrapper.warmUp(any(), anyString())).thenReturn(CompletableFuture.completedFuture(true));
+        when(httpClientWrapper.warmUp(GigaModel.GIGA_MODEL_MAX, API_URL)).thenReturn(CompletableFuture.completedFuture(false));
+    }
+
+    @Test
+    void warmsAuthHostAndEveryModelChannel() {
+        long opened = new ConnectionWarmer(config, httpClientWrapper).warmUp().join();
+
+        assertThat(opened).isEqualTo(3);
+        verify(httpClientWrapper).warmUp(isNull(), eq(AUTH_URL));
+        verify(httpClientWrapper).warmUp(GigaModel.GIGA_MODEL_LITE, API_URL);
+        verify(httpClientWrapper).warmUp(GigaModel.GIGA_MODEL_PRO, API_URL);
+        verify(httpClientWrapper).warmUp(GigaModel.GIGA_MODEL_MAX, API_URL);
+    }
+
+    @Test
+    void skipsApiRoleNode() {
+        config.getJobs().setRole(GigaChatConfig.Jobs.Role.API);
+
+        assertThat(new ConnectionWarmer(config, httpClientWrapper).warmUp().join()).isNull();
+        verify(httpClientWrapper, never()).warmUp(any(), anyString());
+    }
+}
@@ -0,0 +1,131 @@
+package org.surkov.gigachatservice.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.surkov.gigachatservice.config.GigaChatConfig;
+import org.surkov.gigachatservice.exception.RateLimitExceededException;
+import org.surkov.gigachatservice.utils.transport.TransportRequest;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CredentialPoolTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClientWrapper httpClient = mock(HttpClientWrapper.class);
+    private CredentialPool pool;
+
+    @BeforeEach
+    void setUp() {
+        when(httpClient.executeRequest(any(), anyString())).thenAnswer(invocation -> {
+            TransportRequest request = invocation.getArgument(0);
+            ObjectNode body = objectMapper.createObjectNode();
+            body.put("access_token", request.header("Authorization"));
+            body.put("expires_at", System.currentTimeMillis() + 1_800_000);
+            return body;
+        });
+        GigaChatConfig config = new GigaChatConfig();
+        config.setAuthUrl("https://localhost/oauth");
+        config.setCredentials(List.of(credential("first"), credential("second")));
+        config.setCredentialMaxQueueSize(2);
+        config.setCredentialQueueWaitMs(200);
+        pool = new CredentialPool(config, httpClient, new SimpleMeterRegistry());
+        pool.fetchAccessTokens();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void spreadsLoadAcrossCredentials() {
+        CredentialPool.Lease first = pool.acquire().join();
+        CredentialPool.Lease second = pool.acquire().join();
+        assertThat(first.accessToken()).isNotEqualTo(second.accessToken());
+
+        pool.acquire().join();
+        pool.acquire().join();
+        CompletableFuture<CredentialPool.Lease> queued = pool.acquire();
+        assertThat(queued).isNotDone();
+
+        first.release();
+        assertThat(queued.join().accessToken()).isEqualTo(first.accessToken());
+    }
+
+    @Test
+    void rejectsWaitersWhenQueueIsFullOrWaitExpires() {
+        for (int i = 0; i < 4; i++) {
+            pool.acquire().join();
+        }
+        CompletableFuture<CredentialPool.Lease> queued = pool.acquire();
+        CompletableFuture<CredentialPool.Lease> cancelled = pool.acquire();
+        assertThat(pool.acquire()).isCompletedExceptionally();
+
+        cancelled.cancel(true);
+        assertThat(pool.acquire()).isNotDone();
+        assertThat(queued).failsWithin(Duration.ofSeconds(5))
+                .withThrowableOfType(ExecutionException.class)
+                .withCauseInstanceOf(RateLimitExceededException.class);
+    }
+
+    @Test
+    void takesRateLimitedCredentialOutOfRotation() {
+        CredentialPool.Lease limited = pool.acquire().join();
+        limited.markRateLimited(Duration.ofMinutes(1));
+        limited.release();
+
+        CredentialPool.Lease next = pool.acquire().join();
+        CredentialPool.Lease afterNext = pool.acquire().join();
+        assertThat(next.accessToken()).isNotEqualTo(limited.accessToken());
+        assertThat(afterNext.accessToken()).isEqualTo(next.accessToken());
+        assertThat(pool.activeCount()).isEqualTo(1);
+
+        next.markRateLimited(Duration.ofMinutes(2));
+        next.release();
+        afterNext.release();
+        assertThat(pool.activeCount()).isZero();
+        assertThat(pool.acquire()).failsWithin(Duration.ofSeconds(1))
+                .withThrowableOfType(ExecutionException.class)
+                .havingCause()
+                .isInstanceOfSatisfying(RateLimitExceededException.class, e ->
+                        assertThat(e.getRetryAfter()).isGreaterThan(Duration.ofSeconds(50)));
+    }
+
+    @Test
+    void doesNotLimitImplicitSingleCredential() {
+        GigaChatConfig config = new GigaChatConfig();
+        config.setAuthUrl("https://localhost/oauth");
+        config.setClientId("single");
+        config.setClientSecret("secret");
+        CredentialPool single = new CredentialPool(config, httpClient, new SimpleMeterRegistry());
+        single.fetchAccessTokens();
+        try {
+            for (int i = 0; i < 100; i++) {
+                assertThat(single.acquire()).isDone();
+            }
+        } finally {
+            single.shutdown();
+        }
+    }
+
+    private static GigaChatConfig.Credential credential(String clientId) {
+        GigaChatConfig.Credential credential = new GigaChatConfig.Credential();
+        credential.setClientId(clientId);
+        credential.setClientSecret("secret");
+        credential.setMaxConcurrentRequests(2);
+        return credential;
+    }
+}
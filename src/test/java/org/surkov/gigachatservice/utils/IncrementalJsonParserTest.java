@@ -0,0 +1,68 @@
+package org.surkov.gigachatservice.utils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IncrementalJsonParserTest {
+
+    private final Map<String, Object> fields = new LinkedHashMap<>();
+    private final List<String> order = new ArrayList<>();
+    private final IncrementalJsonParser parser = new IncrementalJsonParser(new JsonFactory(), (path, value) -> {
+        fields.put(path, value);
+        order.add(path);
+    });
+
+    @Test
+    void emitsFieldsAsSoonAsTheyAreComplete() {
+        parser.feed("```json\n{\"structure_score\": 8");
+        assertThat(fields).isEmpty();
+
+        parser.feed("5, \"key_achievements\": [\"Запуск");
+        assertThat(fields).containsEntry("structure_score", 85);
+        assertThat(fields).doesNotContainKey("key_achievements[0]");
+
+        parser.feed(" сервиса\", \"Рост выручки\"], \"summary\": \"Хорошее ");
+        assertThat(fields)
+                .containsEntry("key_achievements[0]", "Запуск сервиса")
+                .containsEntry("key_achievements[1]", "Рост выручки")
+                .doesNotContainKey("summary");
+
+        parser.feed("резюме\"}\n```");
+        assertThat(fields).containsEntry("summary", "Хорошее резюме");
+        assertThat(order).containsExactly(
+                "structure_score", "key_achievements[0]", "key_achievements[1]", "summary"
+        );
+    }
+
+    @Test
+    void buildsPathsForNestedObjectsAndArrays() {
+        String json = "{\"candidate_A_vs_B\":{\"structure\":\"A\"},"
+                + "\"career_path\":[{\"year\":2020,\"position\":\"Dev\"}],"
+                + "\"match_score\":null,\"sections\":{\"contacts\":true}}";
+        for (int i = 0; i < json.length(); i += 3) {
+            parser.feed(json.substring(i, Math.min(json.length(), i + 3)));
+        }
+
+        assertThat(fields)
+                .containsEntry("candidate_A_vs_B.structure", "A")
+                .containsEntry("career_path[0].year", 2020)
+                .containsEntry("career_path[0].position", "Dev")
+                .containsEntry("match_score", null)
+                .containsEntry("sections.contacts", true);
+    }
+
+    @Test
+    void stopsSilentlyOnMalformedInput() {
+        parser.feed("{\"clarity_score\": 70, \"found_phrases\": [oops");
+        parser.feed("\"]}");
+
+        assertThat(fields).containsOnlyKeys("clarity_score");
+    }
+}
@@ -0,0 +1,38 @@
+package org.surkov.gigachatservice.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.junit.jupiter.api.Test;
+import org.surkov.gigachatservice.dto.hr_analyzer.response.AnalyzeResponse;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonCodecRegistryTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new BlackbirdModule());
+    private final JsonCodecRegistry registry = new JsonCodecRegistry(objectMapper);
+
+    @Test
+    void writesAndReadsResponsesLikeObjectMapper() throws Exception {
+        AnalyzeResponse response = new AnalyzeResponse(
+                80, 70, 60, null, List.of("Запустил сервис"), List.of("education"), List.of(), "Оценки: структура 80/100."
+        );
+
+        String json = registry.write(response);
+
+        assertThat(json).isEqualTo(new ObjectMapper().writeValueAsString(response));
+        assertThat(registry.read(json, AnalyzeResponse.class)).isEqualTo(response);
+        assertThat(registry.reader(AnalyzeResponse.class)).isSameAs(registry.reader(AnalyzeResponse.class));
+    }
+
+    @Test
+    void readsHistoryResponseAsOrderedMap() throws Exception {
+        Map<String, Object> map = registry.readMap("{\"b\":1,\"a\":[\"x\"],\"c\":null}");
+
+        assertThat(map.keySet()).containsExactly("b", "a", "c");
+        assertThat(map).containsEntry("b", 1).containsEntry("a", List.of("x")).containsEntry("c", null);
+    }
+}
@@ -0,0 +1,86 @@
+package org.surkov.gigachatservice.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.surkov.gigachatservice.config.GigaChatConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TokenManagerTest {
+
+    private static final int CALLERS = 16;
+    private static final long DURATION_MS = 3_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger issued = new AtomicInteger();
+    private final Set<String> fetchThreads = ConcurrentHashMap.newKeySet();
+    private TokenManager tokenManager;
+
+    @AfterEach
+    void tearDown() {
+        tokenManager.shutdown();
+    }
+
+    @Test
+    void callersNeverSeeEmptyTokenWhileItIsRefreshed() throws Exception {
+        HttpClientWrapper httpClient = mock(HttpClientWrapper.class);
+        when(httpClient.executeRequest(any(), anyString())).thenAnswer(invocation -> {
+            fetchThreads.add(Thread.currentThread().getName());
+            Thread.sleep(20);
+            ObjectNode body = objectMapper.createObjectNode();
+            body.put("access_token", "token-" + issued.incrementAndGet());
+            body.put("expires_at", System.currentTimeMillis() + 2_000);
+            return body;
+        });
+        GigaChatConfig config = new GigaChatConfig();
+        config.setAuthUrl("https://localhost/oauth");
+        config.setTokenRefreshBufferMs(0);
+        tokenManager = new TokenManager(config, httpClient, "client", "secret", "test");
+        tokenManager.fetchAccessToken();
+
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.currentTimeMillis() + DURATION_MS;
+        List<Future<Set<String>>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(callers.submit(() -> {
+                Set<String> seen = ConcurrentHashMap.newKeySet();
+                start.await();
+                while (System.currentTimeMillis() < deadline) {
+                    String token = tokenManager.getAccessToken();
+                    assertThat(token).isNotEmpty();
+                    seen.add(token);
+                }
+                return seen;
+            }));
+        }
+        start.countDown();
+
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        for (Future<Set<String>> result : results) {
+            seen.addAll(result.get(DURATION_MS * 2, TimeUnit.MILLISECONDS));
+        }
+        callers.shutdown();
+
+        assertThat(issued.get()).isGreaterThanOrEqualTo(3);
+        assertThat(seen).hasSizeGreaterThanOrEqualTo(2);
+        assertThat(fetchThreads).allMatch(name -> name.equals("main") || name.equals("gigachat-token-refresher-test"));
+    }
+}
@@ -0,0 +1,80 @@
+package org.surkov.gigachatservice.utils.resilience;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.surkov.gigachatservice.config.GigaChatConfig;
+import org.surkov.gigachatservice.exception.ServiceUnavailableException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final String MODEL = "GigaChat";
+
+    @Test
+    void queuesShedsAndBacksOffUnderCongestion() {
+        GigaChatConfig config = new GigaChatConfig();
+        config.getConcurrency().setInitialLimit(2);
+        config.getConcurrency().setMaxQueueSize(1);
+        config.getConcurrency().setBackoffRatio(0.5);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(config, new SimpleMeterRegistry());
+
+        AdaptiveConcurrencyLimiter.Permit first = limiter.acquire(MODEL).join();
+        AdaptiveConcurrencyLimiter.Permit second = limiter.acquire(MODEL).join();
+        CompletableFuture<AdaptiveConcurrencyLimiter.Permit> queued = limiter.acquire(MODEL);
+        assertThat(queued).isNotDone();
+        assertThat(limiter.acquire(MODEL))
+                .failsWithin(Duration.ZERO)
+                .withThrowableOfType(ExecutionException.class)
+                .withCauseInstanceOf(ServiceUnavailableException.class);
+
+        first.release(-1, true);
+        assertThat(limiter.currentLimit(MODEL)).isEqualTo(1);
+        assertThat(queued).isNotDone();
+
+        second.release(1_000_000, false);
+        assertThat(queued).isDone();
+    }
+
+    @Test
+    void growsWhileLatencyStaysFlat() {
+        GigaChatConfig config = new GigaChatConfig();
+        config.getConcurrency().setInitialLimit(4);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(config, new SimpleMeterRegistry());
+
+        for (int round = 0; round < 50; round++) {
+            List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+            for (int i = 0; i < limiter.currentLimit(MODEL); i++) {
+                permits.add(limiter.acquire(MODEL).join());
+            }
+            permits.forEach(permit -> permit.release(100_000_000, false));
+        }
+
+        assertThat(limiter.currentLimit(MODEL)).isGreaterThan(4);
+    }
+
+    @Test
+    void backsOffOncePerLatencyWindow() {
+        GigaChatConfig config = new GigaChatConfig();
+        config.getConcurrency().setInitialLimit(20);
+        config.getConcurrency().setMinLimit(1);
+        config.getConcurrency().setBackoffRatio(0.5);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(config, new SimpleMeterRegistry());
+
+        List<AdaptiveConcurrencyLimiter.Permit> burst = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            burst.add(limiter.acquire(MODEL).join());
+        }
+        burst.forEach(permit -> permit.release(-1, true));
+        assertThat(limiter.currentLimit(MODEL)).isEqualTo(10);
+
+        limiter.acquire(MODEL).join().release(-1, true);
+        assertThat(limiter.currentLimit(MODEL)).isEqualTo(5);
+    }
+}
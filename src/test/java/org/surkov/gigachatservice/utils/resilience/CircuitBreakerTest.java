@@ -0,0 +1,54 @@
+package org.surkov.gigachatservice.utils.resilience;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.surkov.gigachatservice.config.GigaChatConfig;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+    @Test
+    void opensOnFailuresAndClosesAfterSuccessfulProbes() throws Exception {
+        GigaChatConfig.CircuitBreaker settings = new GigaChatConfig.CircuitBreaker();
+        settings.setSlidingWindowSize(4);
+        settings.setMinimumCalls(4);
+        settings.setOpenStateMs(50);
+        settings.setHalfOpenCalls(2);
+        CircuitBreaker breaker = new CircuitBreaker("GigaChat-Max", settings, new SimpleMeterRegistry());
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(breaker.tryAcquire()).isTrue();
+            if (i % 2 == 0) {
+                breaker.onFailure(10);
+            } else {
+                breaker.onSuccess(10);
+            }
+        }
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        Thread.sleep(60);
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+        breaker.onSuccess(10);
+        breaker.onSuccess(10);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void opensOnSlowCalls() {
+        GigaChatConfig.CircuitBreaker settings = new GigaChatConfig.CircuitBreaker();
+        settings.setMinimumCalls(5);
+        settings.setSlowCallThresholdMs(1_000);
+        CircuitBreaker breaker = new CircuitBreaker("GigaChat-Max", settings, new SimpleMeterRegistry());
+
+        for (int i = 0; i < 5; i++) {
+            breaker.tryAcquire();
+            breaker.onSuccess(5_000);
+        }
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+}
@@ -0,0 +1,163 @@
+package org.surkov.gigachatservice.utils.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.surkov.gigachatservice.config.GigaChatConfig;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HedgingPolicyTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void doesNotHedgeWithoutLatencySamples() throws InterruptedException {
+        HedgingPolicy policy = new HedgingPolicy(config(5), meterRegistry);
+        List<CompletableFuture<String>> calls = new ArrayList<>();
+
+        CompletableFuture<String> result = policy.execute("GigaChat", sent -> track(calls, new CompletableFuture<>()));
+        Thread.sleep(50);
+
+        assertThat(calls).hasSize(1);
+        result.cancel(false);
+        assertThat(calls.get(0)).isCancelled();
+    }
+
+    @Test
+    void hedgeWinsAndCancelsStuckPrimary() {
+        HedgingPolicy policy = new HedgingPolicy(config(5), meterRegistry);
+        warmUp(policy);
+        List<CompletableFuture<String>> calls = new ArrayList<>();
+
+        CompletableFuture<String> result = policy.execute("GigaChat", sent -> track(calls, calls.isEmpty()
+                ? new CompletableFuture<>()
+                : CompletableFuture.completedFuture("hedged")));
+
+        assertThat(result).succeedsWithin(Duration.ofSeconds(5)).isEqualTo("hedged");
+        assertThat(calls).hasSize(2);
+        assertThat(calls.get(0)).isCancelled();
+        assertThat(meterRegistry.counter("gigachat.hedge", "model", "GigaChat", "outcome", "won").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void budgetLimitsHedges() throws InterruptedException {
+        HedgingPolicy policy = new HedgingPolicy(config(0), meterRegistry);
+        warmUp(policy);
+        List<CompletableFuture<String>> calls = new ArrayList<>();
+
+        policy.execute("GigaChat", sent -> track(calls, new CompletableFuture<>()));
+        Thread.sleep(100);
+
+        assertThat(calls).hasSize(1);
+        assertThat(meterRegistry.counter("gigachat.hedge", "model", "GigaChat", "outcome", "throttled").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void latencyExcludesLocalWaitBeforeSending() {
+        HedgingPolicy policy = new HedgingPolicy(config(0), meterRegistry);
+
+        for (int i = 0; i < 5; i++) {
+            policy.execute("GigaChat", sent -> CompletableFuture.supplyAsync(() -> {
+                sleep(100);
+                sent.run();
+                return "ok";
+            })).join();
+        }
+
+        assertThat(meterRegistry.get("gigachat.hedge.delay").tag("model", "GigaChat").gauge().value())
+                .isLessThan(100);
+    }
+
+    @Test
+    void doesNotStartHedgeWhenPrimaryFailsWhileItIsFired() {
+        CompletableFuture<String> primary = new CompletableFuture<>();
+        HedgingPolicy policy = new HedgingPolicy(config(5), new SimpleMeterRegistry() {
+            @Override
+            protected Counter newCounter(Meter.Id id) {
+                Counter counter = super.newCounter(id);
+                if (!"fired".equals(id.getTag("outcome"))) {
+                    return counter;
+                }
+                return new Counter() {
+                    @Override
+                    public void increment(double amount) {
+                        counter.increment(amount);
+                        primary.completeExceptionally(new IllegalStateException("failed"));
+                    }
+
+                    @Override
+                    public double count() {
+                        return counter.count();
+                    }
+
+                    @Override
+                    public Id getId() {
+                        return counter.getId();
+                    }
+                };
+            }
+        });
+        warmUp(policy);
+        AtomicReference<CompletableFuture<String>> result = new AtomicReference<>();
+        AtomicInteger lateCalls = new AtomicInteger();
+
+        result.set(policy.execute("GigaChat", sent -> {
+            CompletableFuture<String> current = result.get();
+            if (current == null) {
+                return primary;
+            }
+            if (current.isDone()) {
+                lateCalls.incrementAndGet();
+            }
+            return CompletableFuture.failedFuture(new IllegalStateException("failed"));
+        }));
+
+        assertThat(result.get()).failsWithin(Duration.ofSeconds(5));
+        sleep(50);
+        assertThat(lateCalls).hasValue(0);
+    }
+
+    private static void warmUp(HedgingPolicy policy) {
+        for (int i = 0; i < 5; i++) {
+            policy.execute("GigaChat", sent -> CompletableFuture.completedFuture("ok")).join();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static synchronized CompletableFuture<String> track(
+            List<CompletableFuture<String>> calls,
+            CompletableFuture<String> call
+    ) {
+        calls.add(call);
+        return call;
+    }
+
+    private static GigaChatConfig config(int budgetTokens) {
+        GigaChatConfig config = new GigaChatConfig();
+        config.getHedging().setEnabled(true);
+        config.getHedging().setMinSamples(5);
+        config.getHedging().setMinDelayMs(10);
+        config.getHedging().setBudgetRatio(0);
+        config.getHedging().setBudgetMaxTokens(budgetTokens);
+        return config;
+    }
+}
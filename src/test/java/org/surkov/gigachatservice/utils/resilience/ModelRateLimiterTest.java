@@ -0,0 +1,100 @@
+package org.surkov.gigachatservice.utils.resilience;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.surkov.gigachatservice.config.GigaChatConfig;
+import org.surkov.gigachatservice.exception.RateLimitExceededException;
+import org.surkov.gigachatservice.utils.CredentialPool;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ModelRateLimiterTest {
+
+    private final CredentialPool credentialPool = mock(CredentialPool.class);
+
+    @Test
+    void queuesWithinMaxWaitAndRejectsBeyondIt() throws Exception {
+        GigaChatConfig.RateLimit rateLimit = new GigaChatConfig.RateLimit();
+        rateLimit.setModel("GigaChat");
+        rateLimit.setRequestsPerSecond(10);
+        rateLimit.setBurst(2);
+        GigaChatConfig config = new GigaChatConfig();
+        config.setRateLimits(List.of(rateLimit));
+        config.setRateLimitMaxWaitMs(250);
+        ModelRateLimiter limiter = new ModelRateLimiter(config, new SimpleMeterRegistry(), credentialPool);
+
+        assertThat(limiter.acquire("GigaChat", 10)).isDone();
+        assertThat(limiter.acquire("GigaChat", 10)).isDone();
+        CompletableFuture<Void> queued = limiter.acquire("GigaChat", 10);
+        assertThat(queued).isNotDone();
+        limiter.acquire("GigaChat", 10);
+
+        assertThatThrownBy(() -> limiter.acquire("GigaChat", 10).get())
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(RateLimitExceededException.class);
+        assertThat(limiter.acquire("GigaChat-Pro", 10)).isDone();
+        queued.get();
+    }
+
+    @Test
+    void limitsTokensPerMinute() {
+        GigaChatConfig.RateLimit rateLimit = new GigaChatConfig.RateLimit();
+        rateLimit.setModel("GigaChat-Max");
+        rateLimit.setTokensPerMinute(3_000);
+        rateLimit.setExpectedCompletionTokens(1_000);
+        GigaChatConfig config = new GigaChatConfig();
+        config.setRateLimits(List.of(rateLimit));
+        ModelRateLimiter limiter = new ModelRateLimiter(config, new SimpleMeterRegistry(), credentialPool);
+
+        assertThat(limiter.acquire("GigaChat-Max", 500)).isDone();
+        assertThat(limiter.acquire("GigaChat-Max", 500)).isDone();
+        assertThat(limiter.acquire("GigaChat-Max", 500)).isCompletedExceptionally();
+    }
+
+    @Test
+    void scalesLimitsWithCredentialsInRotation() throws Exception {
+        GigaChatConfig.RateLimit rateLimit = new GigaChatConfig.RateLimit();
+        rateLimit.setModel("GigaChat");
+        rateLimit.setRequestsPerSecond(1);
+        rateLimit.setBurst(1);
+        GigaChatConfig config = new GigaChatConfig();
+        config.setRateLimits(List.of(rateLimit));
+        config.setRateLimitMaxWaitMs(0);
+        when(credentialPool.activeCount()).thenReturn(3);
+        ModelRateLimiter limiter = new ModelRateLimiter(config, new SimpleMeterRegistry(), credentialPool);
+
+        // Ведро создается полным для одной учетной записи и дорастает до суммарной емкости
+        assertThat(limiter.acquire("GigaChat", 10)).isDone();
+        assertThat(limiter.acquire("GigaChat", 10)).isCompletedExceptionally();
+        Thread.sleep(1_100);
+
+        assertThat(limiter.acquire("GigaChat", 10)).isDone();
+        assertThat(limiter.acquire("GigaChat", 10)).isDone();
+        assertThat(limiter.acquire("GigaChat", 10)).isDone();
+        assertThat(limiter.acquire("GigaChat", 10)).isCompletedExceptionally();
+    }
+
+    @Test
+    void refundsUnsentReservation() {
+        GigaChatConfig.RateLimit rateLimit = new GigaChatConfig.RateLimit();
+        rateLimit.setModel("GigaChat");
+        rateLimit.setRequestsPerSecond(1);
+        rateLimit.setBurst(1);
+        GigaChatConfig config = new GigaChatConfig();
+        config.setRateLimits(List.of(rateLimit));
+        config.setRateLimitMaxWaitMs(0);
+        ModelRateLimiter limiter = new ModelRateLimiter(config, new SimpleMeterRegistry(), credentialPool);
+
+        assertThat(limiter.acquire("GigaChat", 10)).isDone();
+        limiter.refund("GigaChat", 10);
+        assertThat(limiter.acquire("GigaChat", 10)).isDone();
+        assertThat(limiter.acquire("GigaChat", 10)).isCompletedExceptionally();
+    }
+}
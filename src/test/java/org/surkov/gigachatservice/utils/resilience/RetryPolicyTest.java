@@ -0,0 +1,70 @@
+package org.surkov.gigachatservice.utils.resilience;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.surkov.gigachatservice.config.GigaChatConfig;
+import org.surkov.gigachatservice.exception.ServiceUnavailableException;
+import org.surkov.gigachatservice.exception.UpstreamHttpException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetryPolicyTest {
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void retriesTransientUpstreamErrors() {
+        RetryPolicy policy = new RetryPolicy(config(10), new SimpleMeterRegistry());
+
+        CompletableFuture<String> result = policy.execute(() -> calls.incrementAndGet() < 3
+                ? CompletableFuture.failedFuture(new UpstreamHttpException("503", 503, null))
+                : CompletableFuture.completedFuture("ok"), () -> true);
+
+        assertThat(result).succeedsWithin(Duration.ofSeconds(5)).isEqualTo("ok");
+        assertThat(calls).hasValue(3);
+    }
+
+    @Test
+    void doesNotRetryLocalRejections() {
+        RetryPolicy policy = new RetryPolicy(config(10), new SimpleMeterRegistry());
+
+        CompletableFuture<String> result = policy.execute(() -> {
+            calls.incrementAndGet();
+            return CompletableFuture.failedFuture(new ServiceUnavailableException("open"));
+        }, () -> true);
+
+        assertThat(result).failsWithin(Duration.ofSeconds(5))
+                .withThrowableOfType(ExecutionException.class)
+                .withCauseInstanceOf(ServiceUnavailableException.class);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void globalBudgetCapsRetries() {
+        RetryPolicy policy = new RetryPolicy(config(1), new SimpleMeterRegistry());
+
+        for (int i = 0; i < 3; i++) {
+            policy.execute(() -> {
+                calls.incrementAndGet();
+                return CompletableFuture.<String>failedFuture(new UpstreamHttpException("502", 502, null));
+            }, () -> true).exceptionally(error -> null).join();
+        }
+
+        assertThat(calls).hasValue(4);
+    }
+
+    private static GigaChatConfig config(int budgetTokens) {
+        GigaChatConfig config = new GigaChatConfig();
+        config.setRetryInitialDelayMs(1);
+        config.setCompletionRetryMaxDelayMs(5);
+        config.setCompletionRetryMaxAttempts(3);
+        config.setRetryBudgetRatio(0);
+        config.setRetryBudgetMaxTokens(budgetTokens);
+        return config;
+    }
+}
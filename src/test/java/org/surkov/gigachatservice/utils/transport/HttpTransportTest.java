@@ -0,0 +1,168 @@
+package org.surkov.gigachatservice.utils.transport;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.surkov.gigachatservice.config.GigaChatConfig;
+
+import javax.net.ssl.SSLContext;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HttpTransportTest {
+
+    private final GigaChatConfig config = new GigaChatConfig();
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private final AtomicInteger maxConcurrent = new AtomicInteger();
+    private HttpServer server;
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/echo", exchange -> {
+            byte[] body = ("{\"method\":\"" + exchange.getRequestMethod() + "\",\"rquid\":\""
+                    + exchange.getRequestHeaders().getFirst("RqUID") + "\",\"body\":"
+                    + new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8) + "}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Retry-After", "7");
+            exchange.sendResponseHeaders(429, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.createContext("/stream", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                for (int i = 1; i <= 3; i++) {
+                    out.write(("data: " + i + "\n").getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                }
+            }
+        });
+        server.createContext("/slow", exchange -> {
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            concurrent.decrementAndGet();
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        config.getBulkhead().setMaxRequests(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @ParameterizedTest
+    @EnumSource(GigaChatConfig.Connections.Transport.class)
+    void sendsRequestBodyAndExposesStatusAndHeaders(GigaChatConfig.Connections.Transport type) throws Exception {
+        try (HttpTransport transport = transport(type)) {
+            TransportRequest request = TransportRequest.post(
+                    baseUrl + "/echo",
+                    Map.of("Content-Type", "application/json", "RqUID", "42"),
+                    out -> out.write("{\"a\":1}".getBytes(StandardCharsets.UTF_8))
+            );
+            ResponseHandler<String> handler = response -> response.statusCode() + " "
+                    + response.header("retry-after") + " "
+                    + new String(response.body().readAllBytes(), StandardCharsets.UTF_8);
+
+            String expected = "429 7 {\"method\":\"POST\",\"rquid\":\"42\",\"body\":{\"a\":1}}";
+            assertThat(transport.execute(request, handler)).isEqualTo(expected);
+            assertThat(transport.executeAsync("GigaChat", request, handler).get(5, TimeUnit.SECONDS))
+                    .isEqualTo(expected);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(GigaChatConfig.Connections.Transport.class)
+    void streamsResponseLines(GigaChatConfig.Connections.Transport type) throws Exception {
+        try (HttpTransport transport = transport(type)) {
+            List<String> lines = transport.executeAsync(
+                    "GigaChat",
+                    new TransportRequest("GET", baseUrl + "/stream", Map.of(), null),
+                    response -> {
+                        List<String> read = new ArrayList<>();
+                        BufferedReader reader = new BufferedReader(
+                                new InputStreamReader(response.body(), StandardCharsets.UTF_8)
+                        );
+                        String line;
+                        while ((line = reader.readLine()) != null) {
+                            read.add(line);
+                        }
+                        return read;
+                    }
+            ).get(5, TimeUnit.SECONDS);
+
+            assertThat(lines).containsExactly("data: 1", "data: 2", "data: 3");
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(GigaChatConfig.Connections.Transport.class)
+    void limitsConcurrentCallsPerChannel(GigaChatConfig.Connections.Transport type) throws Exception {
+        try (HttpTransport transport = transport(type)) {
+            CountDownLatch done = new CountDownLatch(6);
+            List<CompletableFuture<Integer>> calls = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                CompletableFuture<Integer> call = transport.executeAsync(
+                        "GigaChat-Pro",
+                        new TransportRequest("GET", baseUrl + "/slow", Map.of(), null),
+                        TransportResponse::statusCode
+                );
+                call.whenComplete((status, error) -> done.countDown());
+                calls.add(call);
+            }
+
+            assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(calls).allSatisfy(call -> assertThat(call.join()).isEqualTo(204));
+            assertThat(maxConcurrent.get()).isEqualTo(2);
+            // OkHttp освобождает место в диспетчере после возврата из обработчика ответа
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (transport.activeCalls("GigaChat-Pro") > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(transport.activeCalls("GigaChat-Pro")).isZero();
+        }
+    }
+
+    private HttpTransport transport(GigaChatConfig.Connections.Transport type) throws Exception {
+        return switch (type) {
+            case OKHTTP -> new OkHttpTransport(new OkHttpClient(), config.getBulkhead(), new SimpleMeterRegistry());
+            case JDK -> new JdkHttpTransport(
+                    SSLContext.getDefault(),
+                    config.getConnections(),
+                    config.getBulkhead(),
+                    Duration.ofSeconds(5),
+                    Duration.ofSeconds(5),
+                    new SimpleMeterRegistry()
+            );
+        };
+    }
+}